@@ -28,7 +28,7 @@ import IdentifierParser;
  */
 
 singleStatement
-    : DEBUG? statement SEMI? EOF
+    : (DEBUG | EXPLAIN ANALYZE)? statement SEMI? EOF
     ;
 
 statement
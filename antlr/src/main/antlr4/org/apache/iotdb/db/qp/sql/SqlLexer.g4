@@ -65,6 +65,10 @@ ALTER
     : A L T E R
     ;
 
+ANALYZE
+    : A N A L Y Z E
+    ;
+
 ANY
     : A N Y
     ;
@@ -696,7 +700,7 @@ FREQ
 // Compressor Type Keywords
 
 COMPRESSOR_VALUE
-    : GZIP | LZ4 | SNAPPY | UNCOMPRESSED
+    : GZIP | LZ4 | SNAPPY | UNCOMPRESSED | ZSTD
     ;
 
 GZIP
@@ -715,6 +719,10 @@ UNCOMPRESSED
     : U N C O M P R E S S E D
     ;
 
+ZSTD
+    : Z S T D
+    ;
+
 
 // Privileges Keywords
 
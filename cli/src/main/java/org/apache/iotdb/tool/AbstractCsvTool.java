@@ -56,6 +56,10 @@ public abstract class AbstractCsvTool {
 
   protected static final String TIME_ZONE_ARGS = "tz";
   protected static final String TIME_ZONE_NAME = "timeZone";
+
+  protected static final String THREAD_NUM_ARGS = "tn";
+  protected static final String THREAD_NUM_NAME = "threadNum";
+  protected static final int DEFAULT_THREAD_NUM = 8;
   protected static final int MAX_HELP_CONSOLE_WIDTH = 92;
   protected static final String[] TIME_FORMAT =
       new String[] {"default", "long", "number", "timestamp"};
@@ -110,6 +114,8 @@ public abstract class AbstractCsvTool {
   protected static String timeZoneID;
   protected static String timeFormat;
   protected static Session session;
+  // the number of sessions writing or reading in parallel
+  protected static int threadNum = DEFAULT_THREAD_NUM;
 
   public AbstractCsvTool() {}
 
@@ -141,6 +147,31 @@ public abstract class AbstractCsvTool {
     password = commandLine.getOptionValue(PASSWORD_ARGS);
   }
 
+  protected static void parseThreadNum(CommandLine commandLine) throws ArgsErrorException {
+    String threadNumStr = commandLine.getOptionValue(THREAD_NUM_ARGS);
+    if (threadNumStr != null) {
+      try {
+        threadNum = Integer.parseInt(threadNumStr);
+      } catch (NumberFormatException e) {
+        threadNum = 0;
+      }
+      if (threadNum <= 0) {
+        throw new ArgsErrorException(
+            String.format(
+                "The %s should be a positive integer: %s", THREAD_NUM_NAME, threadNumStr));
+      }
+    }
+  }
+
+  protected static Option createThreadNumOption(String desc) {
+    return Option.builder(THREAD_NUM_ARGS)
+        .longOpt(THREAD_NUM_NAME)
+        .argName(THREAD_NUM_NAME)
+        .hasArg()
+        .desc(desc)
+        .build();
+  }
+
   protected static boolean checkTimeFormat() {
     for (String format : TIME_FORMAT) {
       if (timeFormat.equals(format)) {
@@ -43,15 +43,27 @@ import org.apache.thrift.TException;
 import org.jline.reader.LineReader;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Export CSV file.
@@ -75,6 +87,12 @@ public class ExportCsv extends AbstractCsvTool {
   private static final String QUERY_COMMAND_ARGS = "q";
   private static final String QUERY_COMMAND_NAME = "queryCommand";
 
+  private static final String COMPRESS_ARGS = "gzip";
+  private static final String COMPRESS_NAME = "gzip";
+
+  private static final String CSV_SUFFIX = ".csv";
+  private static final String GZIP_SUFFIX = ".gz";
+
   private static final String TSFILEDB_CLI_PREFIX = "ExportCsv";
 
   private static final String DUMP_FILE_NAME_DEFAULT = "dump";
@@ -86,6 +104,8 @@ public class ExportCsv extends AbstractCsvTool {
 
   private static String queryCommand;
 
+  private static boolean compress = false;
+
   private static String timestampPrecision;
 
   private static final int EXPORT_PER_LINE_COUNT = 10000;
@@ -136,15 +156,12 @@ public class ExportCsv extends AbstractCsvTool {
           LineReader lineReader = JlineUtils.getLineReader(username, host, port);
           sql = lineReader.readLine(TSFILEDB_CLI_PREFIX + "> please input query: ");
           System.out.println(sql);
-          String[] values = sql.trim().split(";");
-          for (int i = 0; i < values.length; i++) {
-            dumpResult(values[i], i);
-          }
+          dumpResults(Arrays.asList(sql.trim().split(";")));
         } else {
           dumpFromSqlFile(sqlFile);
         }
       } else {
-        dumpResult(queryCommand, 0);
+        dumpResult(session, queryCommand, 0);
       }
 
     } catch (IOException e) {
@@ -194,6 +211,8 @@ public class ExportCsv extends AbstractCsvTool {
     if (!targetDirectory.endsWith("/") && !targetDirectory.endsWith("\\")) {
       targetDirectory += File.separator;
     }
+    compress = Boolean.parseBoolean(commandLine.getOptionValue(COMPRESS_ARGS));
+    parseThreadNum(commandLine);
   }
 
   /**
@@ -267,6 +286,20 @@ public class ExportCsv extends AbstractCsvTool {
             .build();
     options.addOption(opQuery);
 
+    Option opCompress =
+        Option.builder(COMPRESS_ARGS)
+            .argName(COMPRESS_NAME)
+            .hasArg()
+            .desc("Whether to compress the CSV files with gzip, default false (optional)")
+            .build();
+    options.addOption(opCompress);
+
+    options.addOption(
+        createThreadNumOption(
+            "The number of queries in the sql file exported in parallel, default "
+                + DEFAULT_THREAD_NUM
+                + " (optional)"));
+
     Option opHelp =
         Option.builder(HELP_ARGS)
             .longOpt(HELP_ARGS)
@@ -285,12 +318,79 @@ public class ExportCsv extends AbstractCsvTool {
    * @throws IOException
    */
   private static void dumpFromSqlFile(String filePath) throws IOException {
+    List<String> sqls = new ArrayList<>();
     try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
       String sql;
-      int index = 0;
       while ((sql = reader.readLine()) != null) {
-        dumpResult(sql, index);
-        index++;
+        sqls.add(sql);
+      }
+    }
+    dumpResults(sqls);
+  }
+
+  /**
+   * Dump the results of the queries into their own files, using up to threadNum sessions in
+   * parallel.
+   *
+   * @param sqls the queries, whose indexes are used to create dump file names
+   */
+  private static void dumpResults(List<String> sqls) {
+    int parallelism = Math.min(threadNum, sqls.size());
+    if (parallelism <= 1) {
+      for (int i = 0; i < sqls.size(); i++) {
+        dumpResult(session, sqls.get(i), i);
+      }
+      return;
+    }
+
+    BlockingQueue<Session> sessions = new ArrayBlockingQueue<>(parallelism);
+    List<Session> extraSessions = new ArrayList<>();
+    sessions.add(session);
+    for (int i = 1; i < parallelism; i++) {
+      Session extraSession = new Session(host, Integer.parseInt(port), username, password);
+      try {
+        extraSession.open(false);
+      } catch (IoTDBConnectionException e) {
+        // export with the sessions opened so far
+        System.out.println("Connect failed because " + e.getMessage());
+        break;
+      }
+      extraSessions.add(extraSession);
+      sessions.add(extraSession);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(sessions.size());
+    try {
+      for (int i = 0; i < sqls.size(); i++) {
+        String sql = sqls.get(i);
+        int index = i;
+        executor.execute(
+            () -> {
+              Session dumpSession = null;
+              try {
+                dumpSession = sessions.take();
+                dumpResult(dumpSession, sql, index);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              } finally {
+                if (dumpSession != null) {
+                  sessions.add(dumpSession);
+                }
+              }
+            });
+      }
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+      for (Session extraSession : extraSessions) {
+        try {
+          extraSession.close();
+        } catch (IoTDBConnectionException e) {
+          System.out.println(
+              "Encounter an error when closing session, error is: " + e.getMessage());
+        }
       }
     }
   }
@@ -298,13 +398,17 @@ public class ExportCsv extends AbstractCsvTool {
   /**
    * Dump files from database to CSV file.
    *
+   * @param session the session to execute the sql
    * @param sql export the result of executing the sql
    * @param index used to create dump file name
    */
-  private static void dumpResult(String sql, int index) {
-    final String path = targetDirectory + targetFile + index + ".csv";
+  private static void dumpResult(Session session, String sql, int index) {
+    final String path =
+        targetDirectory + targetFile + index + CSV_SUFFIX + (compress ? GZIP_SUFFIX : "");
     try {
       SessionDataSet sessionDataSet = session.executeQueryStatement(sql);
+      // fetch the next page while the current one is written
+      sessionDataSet.setPrefetch(true);
       writeCsvFile(sessionDataSet, path);
       sessionDataSet.closeOperationHandle();
       System.out.println("Export completely!");
@@ -328,6 +432,16 @@ public class ExportCsv extends AbstractCsvTool {
     }
   }
 
+  /** @return a writer of the file, which compresses the content if the file ends with .gz */
+  private static Writer openWriter(String filePath) throws IOException {
+    if (filePath.endsWith(GZIP_SUFFIX)) {
+      return new BufferedWriter(
+          new OutputStreamWriter(
+              new GZIPOutputStream(new FileOutputStream(filePath)), StandardCharsets.UTF_8));
+    }
+    return new PrintWriter(filePath);
+  }
+
   public static Boolean writeCsvFile(SessionDataSet sessionDataSet, String filePath)
       throws IOException, IoTDBConnectionException, StatementExecutionException {
     CSVPrinter printer =
@@ -337,7 +451,7 @@ public class ExportCsv extends AbstractCsvTool {
             .setEscape('\\')
             .setQuoteMode(QuoteMode.NONE)
             .build()
-            .print(new PrintWriter(filePath));
+            .print(openWriter(filePath));
 
     List<Object> headers = new ArrayList<>();
     List<String> names = sessionDataSet.getColumnNames();
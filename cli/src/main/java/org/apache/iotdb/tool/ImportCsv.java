@@ -24,7 +24,10 @@ import org.apache.iotdb.rpc.IoTDBConnectionException;
 import org.apache.iotdb.rpc.StatementExecutionException;
 import org.apache.iotdb.session.Session;
 import org.apache.iotdb.session.SessionDataSet;
+import org.apache.iotdb.session.pool.SessionPool;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -46,11 +49,18 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
@@ -93,6 +103,14 @@ public class ImportCsv extends AbstractCsvTool {
 
   private static int batchPointSize = 100_000;
 
+  // the batches waiting to be sent of each writer, which bounds the memory of the parsed rows
+  private static final int MAX_PENDING_BATCHES_PER_WRITER = 2;
+
+  private static SessionPool sessionPool;
+  // the tablets of a device are always sent by the same writer, so they arrive in order
+  private static ExecutorService[] writers;
+  private static Semaphore pendingBatches;
+
   /**
    * create the commandline options.
    *
@@ -153,6 +171,12 @@ public class ImportCsv extends AbstractCsvTool {
             .build();
     options.addOption(opBatchPointSize);
 
+    options.addOption(
+        createThreadNumOption(
+            "The number of sessions sending the data in parallel, default "
+                + DEFAULT_THREAD_NUM
+                + " (optional)"));
+
     return options;
   }
 
@@ -161,7 +185,7 @@ public class ImportCsv extends AbstractCsvTool {
    *
    * @param commandLine
    */
-  private static void parseSpecialParams(CommandLine commandLine) {
+  private static void parseSpecialParams(CommandLine commandLine) throws ArgsErrorException {
     timeZoneID = commandLine.getOptionValue(TIME_ZONE_ARGS);
     targetPath = commandLine.getOptionValue(FILE_ARGS);
     if (commandLine.getOptionValue(BATCH_POINT_SIZE_ARGS) != null) {
@@ -178,6 +202,7 @@ public class ImportCsv extends AbstractCsvTool {
     if (commandLine.getOptionValue(ALIGNED_ARGS) != null) {
       aligned = Boolean.valueOf(commandLine.getOptionValue(ALIGNED_ARGS));
     }
+    parseThreadNum(commandLine);
   }
 
   public static void main(String[] args) throws IoTDBConnectionException {
@@ -247,6 +272,7 @@ public class ImportCsv extends AbstractCsvTool {
       session.open(false);
       timeZoneID = timeZone;
       setTimeZone();
+      startWriters(host, port, username, password);
 
       File file = new File(targetPath);
       if (file.isFile()) {
@@ -270,6 +296,7 @@ public class ImportCsv extends AbstractCsvTool {
       System.out.println("Encounter an error when connecting to server, because " + e.getMessage());
       return CODE_ERROR;
     } finally {
+      stopWriters();
       if (session != null) {
         session.close();
       }
@@ -277,6 +304,44 @@ public class ImportCsv extends AbstractCsvTool {
     return CODE_OK;
   }
 
+  private static void startWriters(String host, int port, String username, String password) {
+    sessionPool =
+        new SessionPool.Builder()
+            .host(host)
+            .port(port)
+            .user(username)
+            .password(password)
+            .maxSize(threadNum)
+            .zoneId(zoneId)
+            .build();
+    writers = new ExecutorService[threadNum];
+    for (int i = 0; i < threadNum; i++) {
+      String threadName = TSFILEDB_CLI_PREFIX + "-writer-" + i;
+      writers[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, threadName));
+    }
+    pendingBatches = new Semaphore(threadNum * MAX_PENDING_BATCHES_PER_WRITER);
+  }
+
+  private static void stopWriters() {
+    if (writers != null) {
+      for (ExecutorService writer : writers) {
+        writer.shutdown();
+      }
+      try {
+        for (ExecutorService writer : writers) {
+          writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writers = null;
+    }
+    if (sessionPool != null) {
+      sessionPool.close();
+      sessionPool = null;
+    }
+  }
+
   /**
    * import the CSV file and load headers and records.
    *
@@ -355,7 +420,7 @@ public class ImportCsv extends AbstractCsvTool {
             hasStarted.set(true);
             timeFormatter.set(formatterInit(record.get(0)));
           } else if (pointSize.get() >= batchPointSize) {
-            writeAndEmptyDataSet(deviceIds, times, typesList, valuesList, measurementsList, 3);
+            writeAndEmptyDataSet(deviceIds, times, typesList, valuesList, measurementsList);
             pointSize.set(0);
           }
 
@@ -423,9 +488,10 @@ public class ImportCsv extends AbstractCsvTool {
           }
         });
     if (!deviceIds.isEmpty()) {
-      writeAndEmptyDataSet(deviceIds, times, typesList, valuesList, measurementsList, 3);
+      writeAndEmptyDataSet(deviceIds, times, typesList, valuesList, measurementsList);
       pointSize.set(0);
     }
+    waitForPendingBatches();
 
     if (!failedRecords.isEmpty()) {
       writeCsvFile(headerNames, failedRecords, failedFilePath);
@@ -473,14 +539,12 @@ public class ImportCsv extends AbstractCsvTool {
             timeFormatter.set(formatterInit(record.get(0)));
           } else if (!Objects.equals(deviceName.get(), record.get(1))) {
             // if device changed
-            writeAndEmptyDataSet(
-                deviceName.get(), times, typesList, valuesList, measurementsList, 3);
+            writeAndEmptyDataSet(deviceName.get(), times, typesList, valuesList, measurementsList);
             deviceName.set(record.get(1));
             pointSize.set(0);
           } else if (pointSize.get() >= batchPointSize) {
             // insert a batch
-            writeAndEmptyDataSet(
-                deviceName.get(), times, typesList, valuesList, measurementsList, 3);
+            writeAndEmptyDataSet(deviceName.get(), times, typesList, valuesList, measurementsList);
             pointSize.set(0);
           }
 
@@ -557,9 +621,10 @@ public class ImportCsv extends AbstractCsvTool {
           }
         });
     if (times.size() != 0) {
-      writeAndEmptyDataSet(deviceName.get(), times, typesList, valuesList, measurementsList, 3);
+      writeAndEmptyDataSet(deviceName.get(), times, typesList, valuesList, measurementsList);
       pointSize.set(0);
     }
+    waitForPendingBatches();
     if (!failedRecords.isEmpty()) {
       writeCsvFile(headerNames, failedRecords, failedFilePath);
     }
@@ -571,66 +636,124 @@ public class ImportCsv extends AbstractCsvTool {
       List<Long> times,
       List<List<TSDataType>> typesList,
       List<List<Object>> valuesList,
-      List<List<String>> measurementsList,
-      int retryTime) {
-    try {
-      if (!aligned) {
-        session.insertRecordsOfOneDevice(device, times, measurementsList, typesList, valuesList);
-      } else {
-        session.insertAlignedRecordsOfOneDevice(
-            device, times, measurementsList, typesList, valuesList);
-      }
-    } catch (IoTDBConnectionException e) {
-      if (retryTime > 0) {
-        try {
-          session.open();
-        } catch (IoTDBConnectionException ex) {
-          System.out.println("Meet error when insert csv because " + e.getMessage());
-        }
-        writeAndEmptyDataSet(device, times, typesList, valuesList, measurementsList, --retryTime);
-      }
-    } catch (StatementExecutionException e) {
-      System.out.println("Meet error when insert csv because " + e.getMessage());
-    } finally {
-      times.clear();
-      typesList.clear();
-      valuesList.clear();
-      measurementsList.clear();
-    }
+      List<List<String>> measurementsList) {
+    writeAndEmptyDataSet(
+        new ArrayList<>(Collections.nCopies(times.size(), device)),
+        times,
+        typesList,
+        valuesList,
+        measurementsList);
   }
 
+  /**
+   * pivot the rows into a tablet per device and send them by the writers, which returns once the
+   * tablets are queued, so the parsing of the next batch overlaps with the sending of this one.
+   */
   private static void writeAndEmptyDataSet(
       List<String> deviceIds,
       List<Long> times,
       List<List<TSDataType>> typesList,
       List<List<Object>> valuesList,
+      List<List<String>> measurementsList) {
+    Map<String, Tablet> tablets =
+        toTablets(deviceIds, times, measurementsList, typesList, valuesList);
+    deviceIds.clear();
+    times.clear();
+    typesList.clear();
+    valuesList.clear();
+    measurementsList.clear();
+
+    List<Map<String, Tablet>> tabletsOfWriters = new ArrayList<>(writers.length);
+    for (int i = 0; i < writers.length; i++) {
+      tabletsOfWriters.add(new HashMap<>());
+    }
+    for (Map.Entry<String, Tablet> entry : tablets.entrySet()) {
+      int writerIndex = Math.floorMod(entry.getKey().hashCode(), writers.length);
+      tabletsOfWriters.get(writerIndex).put(entry.getKey(), entry.getValue());
+    }
+    for (int i = 0; i < writers.length; i++) {
+      if (!tabletsOfWriters.get(i).isEmpty()) {
+        submitTablets(writers[i], tabletsOfWriters.get(i));
+      }
+    }
+  }
+
+  private static void submitTablets(ExecutorService writer, Map<String, Tablet> tablets) {
+    pendingBatches.acquireUninterruptibly();
+    writer.execute(
+        () -> {
+          try {
+            // the session pool retries on the broken connections
+            if (!aligned) {
+              sessionPool.insertTablets(tablets);
+            } else {
+              sessionPool.insertAlignedTablets(tablets);
+            }
+          } catch (IoTDBConnectionException | StatementExecutionException e) {
+            System.out.println("Meet error when insert csv because " + e.getMessage());
+          } finally {
+            pendingBatches.release();
+          }
+        });
+  }
+
+  private static void waitForPendingBatches() {
+    int permits = threadNum * MAX_PENDING_BATCHES_PER_WRITER;
+    pendingBatches.acquireUninterruptibly(permits);
+    pendingBatches.release(permits);
+  }
+
+  /**
+   * Pivot the rows into a tablet per device. The columns of a tablet are the union of the
+   * measurements in the rows of its device, and a measurement missing in a row is null.
+   *
+   * @return the tablets of the devices in the order they first appear
+   */
+  public static Map<String, Tablet> toTablets(
+      List<String> deviceIds,
+      List<Long> times,
       List<List<String>> measurementsList,
-      int retryTime) {
-    try {
-      if (!aligned) {
-        session.insertRecords(deviceIds, times, measurementsList, typesList, valuesList);
-      } else {
-        session.insertAlignedRecords(deviceIds, times, measurementsList, typesList, valuesList);
+      List<List<TSDataType>> typesList,
+      List<List<Object>> valuesList) {
+    Map<String, List<Integer>> rowsOfDevices = new LinkedHashMap<>();
+    for (int i = 0; i < deviceIds.size(); i++) {
+      rowsOfDevices.computeIfAbsent(deviceIds.get(i), k -> new ArrayList<>()).add(i);
+    }
+
+    Map<String, Tablet> tablets = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Integer>> entry : rowsOfDevices.entrySet()) {
+      List<Integer> rows = entry.getValue();
+      Map<String, TSDataType> columnTypes = new LinkedHashMap<>();
+      for (int row : rows) {
+        List<String> measurements = measurementsList.get(row);
+        for (int j = 0; j < measurements.size(); j++) {
+          columnTypes.putIfAbsent(measurements.get(j), typesList.get(row).get(j));
+        }
       }
-    } catch (IoTDBConnectionException e) {
-      if (retryTime > 0) {
-        try {
-          session.open();
-        } catch (IoTDBConnectionException ex) {
-          System.out.println("Meet error when insert csv because " + e.getMessage());
+      List<MeasurementSchema> schemas = new ArrayList<>(columnTypes.size());
+      Map<String, Integer> columnIndexes = new HashMap<>();
+      for (Map.Entry<String, TSDataType> columnType : columnTypes.entrySet()) {
+        columnIndexes.put(columnType.getKey(), schemas.size());
+        schemas.add(new MeasurementSchema(columnType.getKey(), columnType.getValue()));
+      }
+
+      Tablet tablet = new Tablet(entry.getKey(), schemas, rows.size());
+      tablet.initBitMaps();
+      for (int column = 0; column < schemas.size(); column++) {
+        tablet.bitMaps[column].markAll();
+      }
+      for (int row : rows) {
+        int rowIndex = tablet.rowSize++;
+        tablet.addTimestamp(rowIndex, times.get(row));
+        List<String> measurements = measurementsList.get(row);
+        for (int j = 0; j < measurements.size(); j++) {
+          tablet.addValue(measurements.get(j), rowIndex, valuesList.get(row).get(j));
+          tablet.bitMaps[columnIndexes.get(measurements.get(j))].unmark(rowIndex);
         }
-        writeAndEmptyDataSet(
-            deviceIds, times, typesList, valuesList, measurementsList, --retryTime);
       }
-    } catch (StatementExecutionException e) {
-      System.out.println("Meet error when insert csv because " + e.getMessage());
-    } finally {
-      deviceIds.clear();
-      times.clear();
-      typesList.clear();
-      valuesList.clear();
-      measurementsList.clear();
+      tablets.put(entry.getKey(), tablet);
     }
+    return tablets;
   }
 
   /**
@@ -179,6 +179,19 @@ public class ClusterConfig {
    */
   private int maxNumberOfLogsPerFetchOnDisk = 1000;
 
+  /**
+   * Whether to persist raft logs in segments with memory-mapped index files (SegmentedLogStore),
+   * otherwise the data and index files of SyncLogDequeSerializer are used. The logs of
+   * SyncLogDequeSerializer are not migrated, so it is disabled by default.
+   */
+  private boolean enableSegmentedRaftLogStore = false;
+
+  /**
+   * The maximum number of raft logs in one segment of SegmentedLogStore. Each segment has an index
+   * file of max_raft_log_entries_per_segment * 8 bytes that is mapped into memory.
+   */
+  private int maxRaftLogEntriesPerSegment = 1_000_000;
+
   /**
    * When set to true, if the log queue of a follower fills up, LogDispatcher will wait for a while
    * until the queue becomes available, otherwise LogDispatcher will just ignore that slow node.
@@ -514,6 +527,22 @@ public class ClusterConfig {
     this.maxNumberOfLogsPerFetchOnDisk = maxNumberOfLogsPerFetchOnDisk;
   }
 
+  public boolean isEnableSegmentedRaftLogStore() {
+    return enableSegmentedRaftLogStore;
+  }
+
+  public void setEnableSegmentedRaftLogStore(boolean enableSegmentedRaftLogStore) {
+    this.enableSegmentedRaftLogStore = enableSegmentedRaftLogStore;
+  }
+
+  public int getMaxRaftLogEntriesPerSegment() {
+    return maxRaftLogEntriesPerSegment;
+  }
+
+  public void setMaxRaftLogEntriesPerSegment(int maxRaftLogEntriesPerSegment) {
+    this.maxRaftLogEntriesPerSegment = maxRaftLogEntriesPerSegment;
+  }
+
   public boolean isWaitForSlowNode() {
     return waitForSlowNode;
   }
@@ -311,6 +311,18 @@ public class ClusterDescriptor {
                 "enable_use_persist_log_on_disk_to_catch_up",
                 String.valueOf(config.isEnableUsePersistLogOnDiskToCatchUp()))));
 
+    config.setEnableSegmentedRaftLogStore(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_segmented_raft_log_store",
+                String.valueOf(config.isEnableSegmentedRaftLogStore()))));
+
+    config.setMaxRaftLogEntriesPerSegment(
+        Integer.parseInt(
+            properties.getProperty(
+                "max_raft_log_entries_per_segment",
+                String.valueOf(config.getMaxRaftLogEntriesPerSegment()))));
+
     config.setMaxReadLogLag(
         Long.parseLong(
             properties.getProperty("max_read_log_lag", String.valueOf(config.getMaxReadLogLag()))));
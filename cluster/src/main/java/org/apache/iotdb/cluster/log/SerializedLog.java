@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.cluster.log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A log read from the disk that is kept in its serialized form. Every type of log starts with its
+ * type, index and term, so only the header is read, and the log is sent to the followers as it is.
+ */
+public class SerializedLog extends Log {
+
+  private final ByteBuffer buffer;
+
+  public SerializedLog(ByteBuffer buffer) {
+    this.buffer = buffer;
+    int position = buffer.position();
+    // skip the type of the log
+    setCurrLogIndex(buffer.getLong(position + Byte.BYTES));
+    setCurrLogTerm(buffer.getLong(position + Byte.BYTES + Long.BYTES));
+    setByteSize(buffer.remaining());
+  }
+
+  @Override
+  public ByteBuffer serialize() {
+    return buffer.duplicate();
+  }
+
+  @Override
+  public void deserialize(ByteBuffer buffer) {
+    throw new UnsupportedOperationException("A serialized log cannot be deserialized into");
+  }
+
+  @Override
+  public String toString() {
+    return "SerializedLog{" + getCurrLogIndex() + "-" + getCurrLogTerm() + "}";
+  }
+}
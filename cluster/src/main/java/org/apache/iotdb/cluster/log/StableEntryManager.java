@@ -22,6 +22,8 @@ package org.apache.iotdb.cluster.log;
 import org.apache.iotdb.cluster.log.manage.serializable.LogManagerMeta;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface StableEntryManager {
@@ -51,6 +53,21 @@ public interface StableEntryManager {
    */
   List<Log> getLogs(long startIndex, long endIndex);
 
+  /**
+   * @param startIndex (inclusive) the log start index
+   * @param endIndex (inclusive) the log end index
+   * @return the serialized raft logs which index between [startIndex, endIndex] or empty if not
+   *     found, which can be sent to the followers without deserializing them
+   */
+  default List<ByteBuffer> getSerializedLogs(long startIndex, long endIndex) {
+    List<Log> logs = getLogs(startIndex, endIndex);
+    List<ByteBuffer> result = new ArrayList<>(logs.size());
+    for (Log log : logs) {
+      result.add(log.serialize());
+    }
+    return result;
+  }
+
   void close();
 
   /**
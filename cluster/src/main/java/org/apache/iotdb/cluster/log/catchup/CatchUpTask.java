@@ -24,6 +24,7 @@ import org.apache.iotdb.cluster.config.ClusterDescriptor;
 import org.apache.iotdb.cluster.exception.EntryCompactedException;
 import org.apache.iotdb.cluster.exception.LeaderUnknownException;
 import org.apache.iotdb.cluster.log.Log;
+import org.apache.iotdb.cluster.log.SerializedLog;
 import org.apache.iotdb.cluster.log.Snapshot;
 import org.apache.iotdb.cluster.log.logtypes.EmptyContentLog;
 import org.apache.iotdb.cluster.rpc.thrift.Node;
@@ -40,6 +41,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
@@ -191,8 +194,13 @@ public class CatchUpTask implements Runnable {
   }
 
   private List<Log> getLogsInStableEntryManager(long startIndex, long endIndex) {
-    List<Log> logsInDisk =
-        raftMember.getLogManager().getStableEntryManager().getLogs(startIndex, endIndex);
+    // the logs are only sent to the follower, so they are not deserialized
+    List<ByteBuffer> serializedLogs =
+        raftMember.getLogManager().getStableEntryManager().getSerializedLogs(startIndex, endIndex);
+    List<Log> logsInDisk = new ArrayList<>(serializedLogs.size());
+    for (ByteBuffer serializedLog : serializedLogs) {
+      logsInDisk.add(new SerializedLog(serializedLog));
+    }
     logger.debug(
         "{}, found {} logs in disk to catchup {}, startIndex={}, endIndex={}",
         raftMember.getName(),
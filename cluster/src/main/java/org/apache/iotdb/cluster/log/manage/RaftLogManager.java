@@ -28,6 +28,7 @@ import org.apache.iotdb.cluster.exception.TruncateCommittedEntryException;
 import org.apache.iotdb.cluster.log.HardState;
 import org.apache.iotdb.cluster.log.Log;
 import org.apache.iotdb.cluster.log.LogApplier;
+import org.apache.iotdb.cluster.log.SerializedLog;
 import org.apache.iotdb.cluster.log.Snapshot;
 import org.apache.iotdb.cluster.log.StableEntryManager;
 import org.apache.iotdb.cluster.log.manage.serializable.LogManagerMeta;
@@ -40,6 +41,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -279,11 +281,11 @@ public abstract class RaftLogManager {
     if (index < dummyIndex) {
       // search in disk
       if (ClusterDescriptor.getInstance().getConfig().isEnableRaftLogPersistence()) {
-        List<Log> logsInDisk = getStableEntryManager().getLogs(index, index);
+        List<ByteBuffer> logsInDisk = getStableEntryManager().getSerializedLogs(index, index);
         if (logsInDisk.isEmpty()) {
           return -1;
         } else {
-          return logsInDisk.get(0).getCurrLogTerm();
+          return new SerializedLog(logsInDisk.get(0)).getCurrLogTerm();
         }
       }
       return -1;
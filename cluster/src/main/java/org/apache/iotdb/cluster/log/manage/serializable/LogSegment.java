@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.cluster.log.manage.serializable;
+
+import org.apache.iotdb.commons.file.SystemFileFactory;
+import org.apache.iotdb.db.utils.MmapUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.iotdb.commons.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
+
+/**
+ * A LogSegment stores a contiguous range of raft logs in one data file and one memory-mapped index
+ * file.
+ *
+ * <p>The data file is [size of log1 | log1 buffer] [size of log2 | log2 buffer] ...
+ *
+ * <p>The index file is an array of longs, the i-th long is the end offset (exclusive) of the i-th
+ * log of this segment in the data file. As every log takes at least one byte, a zero slot marks the
+ * end of the index, and a slot pointing beyond the data file is a torn write that is dropped on
+ * recovery.
+ *
+ * <p>file name pattern: ${startLogIndex}-seg for the data file and ${startLogIndex}-sidx for the
+ * index file
+ */
+class LogSegment {
+
+  private static final Logger logger = LoggerFactory.getLogger(LogSegment.class);
+
+  static final String DATA_FILE_SUFFIX = "seg";
+  static final String INDEX_FILE_SUFFIX = "sidx";
+
+  private final long startIndex;
+  private final File dataFile;
+  private final File indexFile;
+
+  /** max number of logs in this segment, decided by the size of the index file */
+  private final int capacity;
+
+  private FileChannel dataChannel;
+  private MappedByteBuffer indexBuffer;
+
+  /** buffer of the logs not written into the data file yet, null once the segment is sealed */
+  private ByteBuffer writeBuffer;
+
+  /** number of logs in this segment, including the ones still in the write buffer */
+  private int size;
+
+  /** size of the data file, including the logs still in the write buffer */
+  private long dataSize;
+
+  /** size of the data file that has been written into the data channel */
+  private long flushedDataSize;
+
+  private LogSegment(long startIndex, File dataFile, File indexFile, int capacity) {
+    this.startIndex = startIndex;
+    this.dataFile = dataFile;
+    this.indexFile = indexFile;
+    this.capacity = capacity;
+  }
+
+  /** Create a new empty segment whose first log is startIndex. */
+  static LogSegment create(String dir, long startIndex, int capacity, int writeBufferSize)
+      throws IOException {
+    File dataFile = getDataFile(dir, startIndex);
+    File indexFile = getIndexFile(dir, startIndex);
+    Files.deleteIfExists(dataFile.toPath());
+    Files.deleteIfExists(indexFile.toPath());
+    LogSegment segment = new LogSegment(startIndex, dataFile, indexFile, capacity);
+    segment.open(writeBufferSize);
+    logger.info("Created a new raft log segment {}", dataFile);
+    return segment;
+  }
+
+  /**
+   * Recover a segment from its data file, logs that are not completely persisted are truncated.
+   *
+   * @param writeBufferSize the size of write buffer, or 0 if the segment will not be appended
+   */
+  static LogSegment recover(File dataFile, int writeBufferSize) throws IOException {
+    long startIndex = parseStartIndex(dataFile);
+    File indexFile = getIndexFile(dataFile.getParent(), startIndex);
+    if (!indexFile.exists()) {
+      throw new IOException("Index file of raft log segment " + dataFile + " does not exist");
+    }
+    int capacity = (int) (indexFile.length() / Long.BYTES);
+    LogSegment segment = new LogSegment(startIndex, dataFile, indexFile, capacity);
+    segment.open(writeBufferSize);
+    segment.recoverIndex();
+    return segment;
+  }
+
+  static long parseStartIndex(File file) {
+    return Long.parseLong(file.getName().split(FILE_NAME_SEPARATOR)[0]);
+  }
+
+  private static File getDataFile(String dir, long startIndex) {
+    return SystemFileFactory.INSTANCE.getFile(
+        dir + File.separator + startIndex + FILE_NAME_SEPARATOR + DATA_FILE_SUFFIX);
+  }
+
+  private static File getIndexFile(String dir, long startIndex) {
+    return SystemFileFactory.INSTANCE.getFile(
+        dir + File.separator + startIndex + FILE_NAME_SEPARATOR + INDEX_FILE_SUFFIX);
+  }
+
+  private void open(int writeBufferSize) throws IOException {
+    dataChannel =
+        FileChannel.open(
+            dataFile.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try (FileChannel indexChannel =
+        FileChannel.open(
+            indexFile.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      // the mapping stays valid after the channel is closed
+      indexBuffer =
+          indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * Long.BYTES);
+    }
+    if (writeBufferSize > 0) {
+      writeBuffer = ByteBuffer.allocate(writeBufferSize);
+    }
+  }
+
+  private void recoverIndex() throws IOException {
+    long fileLength = dataChannel.size();
+    long lastEnd = 0;
+    int count = 0;
+    while (count < capacity) {
+      long end = indexBuffer.getLong(count * Long.BYTES);
+      if (end <= lastEnd || end > fileLength) {
+        break;
+      }
+      lastEnd = end;
+      count++;
+    }
+    // clear the slots of the logs that are not completely persisted
+    for (int i = count; i < capacity && indexBuffer.getLong(i * Long.BYTES) != 0; i++) {
+      indexBuffer.putLong(i * Long.BYTES, 0);
+    }
+    if (fileLength > lastEnd) {
+      logger.warn(
+          "Truncate {} bytes of incomplete raft logs from {}", fileLength - lastEnd, dataFile);
+      dataChannel.truncate(lastEnd);
+    }
+    size = count;
+    dataSize = lastEnd;
+    flushedDataSize = lastEnd;
+    logger.info(
+        "Recovered raft log segment {}, logs=[{}, {}], data size={}",
+        dataFile,
+        startIndex,
+        getEndIndex(),
+        dataSize);
+  }
+
+  long getStartIndex() {
+    return startIndex;
+  }
+
+  /** @return the index of the last log in this segment, or startIndex - 1 if it is empty */
+  long getEndIndex() {
+    return startIndex + size - 1;
+  }
+
+  int getSize() {
+    return size;
+  }
+
+  long getDataSize() {
+    return dataSize;
+  }
+
+  boolean contains(long logIndex) {
+    return logIndex >= startIndex && logIndex <= getEndIndex();
+  }
+
+  /**
+   * @param logSize the serialized size of the log to be appended
+   * @param maxDataSize the max size of a data file
+   * @return true if the log should be appended into a new segment
+   */
+  boolean isFull(int logSize, long maxDataSize) {
+    return size >= capacity || (size > 0 && dataSize + Integer.BYTES + logSize > maxDataSize);
+  }
+
+  /**
+   * Append a serialized log to the end of this segment. The log is buffered and written into the
+   * data file when the buffer is full or {@link #flush()} is called.
+   */
+  void append(ByteBuffer logData) throws IOException {
+    int logSize = logData.remaining();
+    int entrySize = Integer.BYTES + logSize;
+    if (writeBuffer.remaining() < entrySize) {
+      flush();
+    }
+    if (writeBuffer.remaining() < entrySize) {
+      // the log is larger than the whole buffer, write it directly
+      ByteBuffer entry = ByteBuffer.allocate(entrySize);
+      entry.putInt(logSize);
+      entry.put(logData);
+      entry.flip();
+      writeFully(entry);
+    } else {
+      writeBuffer.putInt(logSize);
+      writeBuffer.put(logData);
+    }
+    dataSize += entrySize;
+    indexBuffer.putLong(size * Long.BYTES, dataSize);
+    size++;
+  }
+
+  /** Write the buffered logs into the data file without forcing them to the disk. */
+  void flush() throws IOException {
+    if (writeBuffer == null || writeBuffer.position() == 0) {
+      return;
+    }
+    writeBuffer.flip();
+    writeFully(writeBuffer);
+    writeBuffer.clear();
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      flushedDataSize += dataChannel.write(buffer, flushedDataSize);
+    }
+  }
+
+  /** Flush the buffered logs and force both the data file and the index file to the disk. */
+  void force() throws IOException {
+    flush();
+    dataChannel.force(false);
+    indexBuffer.force();
+  }
+
+  /** Force the segment to the disk and release the write buffer, no more logs can be appended. */
+  void seal() throws IOException {
+    force();
+    writeBuffer = null;
+  }
+
+  /** Make a sealed segment appendable again, e.g., after the segments behind it are removed. */
+  void unseal(int writeBufferSize) {
+    if (writeBuffer == null) {
+      writeBuffer = ByteBuffer.allocate(writeBufferSize);
+    }
+  }
+
+  private long getStartOffset(long logIndex) {
+    int pos = (int) (logIndex - startIndex);
+    return pos == 0 ? 0 : indexBuffer.getLong((pos - 1) * Long.BYTES);
+  }
+
+  private long getEndOffset(long logIndex) {
+    return indexBuffer.getLong((int) (logIndex - startIndex) * Long.BYTES);
+  }
+
+  /**
+   * Read the serialized logs in [fromIndex, toIndex] with a single read of the data file. The
+   * returned buffers are slices of the read buffer, so no log is copied again.
+   */
+  List<ByteBuffer> read(long fromIndex, long toIndex) throws IOException {
+    long startOffset = getStartOffset(fromIndex);
+    long endOffset = getEndOffset(toIndex);
+    if (endOffset > flushedDataSize) {
+      flush();
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) (endOffset - startOffset));
+    long position = startOffset;
+    while (buffer.hasRemaining()) {
+      int read = dataChannel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException(
+            String.format(
+                "Unexpected end of raft log segment %s at %d, expected %d",
+                dataFile, position, endOffset));
+      }
+      position += read;
+    }
+    buffer.flip();
+
+    List<ByteBuffer> result = new ArrayList<>((int) (toIndex - fromIndex + 1));
+    while (buffer.hasRemaining()) {
+      int logSize = buffer.getInt();
+      ByteBuffer logData = buffer.slice();
+      logData.limit(logSize);
+      result.add(logData);
+      buffer.position(buffer.position() + logSize);
+    }
+    return result;
+  }
+
+  /** Remove the logs whose index is not smaller than fromIndex. */
+  void truncate(long fromIndex) throws IOException {
+    if (fromIndex > getEndIndex()) {
+      return;
+    }
+    flush();
+    int newSize = (int) Math.max(0, fromIndex - startIndex);
+    long newDataSize = newSize == 0 ? 0 : getEndOffset(startIndex + newSize - 1);
+    for (int i = newSize; i < size; i++) {
+      indexBuffer.putLong(i * Long.BYTES, 0);
+    }
+    dataChannel.truncate(newDataSize);
+    size = newSize;
+    dataSize = newDataSize;
+    flushedDataSize = newDataSize;
+    logger.info("Truncated raft log segment {} from log {}", dataFile, fromIndex);
+  }
+
+  void close() throws IOException {
+    if (dataChannel == null) {
+      return;
+    }
+    try {
+      if (writeBuffer != null) {
+        force();
+      }
+    } finally {
+      writeBuffer = null;
+      dataChannel.close();
+      dataChannel = null;
+      MmapUtil.clean(indexBuffer);
+      indexBuffer = null;
+    }
+  }
+
+  void delete() throws IOException {
+    close();
+    Files.deleteIfExists(dataFile.toPath());
+    Files.deleteIfExists(indexFile.toPath());
+    logger.info("Deleted raft log segment {}, logs=[{}, {}]", dataFile, startIndex, getEndIndex());
+  }
+
+  File getDataFile() {
+    return dataFile;
+  }
+
+  @Override
+  public String toString() {
+    return "LogSegment{"
+        + dataFile.getName()
+        + ", logs=["
+        + startIndex
+        + ", "
+        + getEndIndex()
+        + "]}";
+  }
+}
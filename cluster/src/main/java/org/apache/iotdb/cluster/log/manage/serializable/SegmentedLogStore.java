@@ -0,0 +1,646 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.cluster.log.manage.serializable;
+
+import org.apache.iotdb.cluster.config.ClusterConfig;
+import org.apache.iotdb.cluster.config.ClusterDescriptor;
+import org.apache.iotdb.cluster.exception.UnknownLogTypeException;
+import org.apache.iotdb.cluster.log.HardState;
+import org.apache.iotdb.cluster.log.Log;
+import org.apache.iotdb.cluster.log.LogParser;
+import org.apache.iotdb.cluster.log.StableEntryManager;
+import org.apache.iotdb.commons.file.SystemFileFactory;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SegmentedLogStore persists raft logs in a sequence of {@link LogSegment}s. Compared with {@link
+ * SyncLogDequeSerializer}, the offsets of all persisted logs are kept in memory-mapped index files,
+ * so a range of logs is located without reading an index file and is read from each segment with a
+ * single read, which makes catching up a far behind follower with the logs on disk much faster.
+ *
+ * <p>Logs are appended into the write buffer of the last segment, and the whole batch is forced to
+ * the disk with one fsync in {@link #forceFlushLogBuffer()}. Truncation of conflicting logs and
+ * deletion of old logs are done at segment granularity, except that the last segment may be
+ * truncated in the middle.
+ *
+ * <p>The log meta file has the same format as the one of {@link SyncLogDequeSerializer}, so the
+ * hard state is kept when switching between them.
+ */
+public class SegmentedLogStore implements StableEntryManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(SegmentedLogStore.class);
+
+  private static final String LOG_META = "logMeta";
+  private static final String LOG_META_TMP = "logMeta.tmp";
+
+  private static final int LOG_DELETE_CHECK_INTERVAL_SECOND = 5;
+
+  private static final int MAX_NUMBER_OF_LOGS_PER_FETCH_ON_DISK =
+      ClusterDescriptor.getInstance().getConfig().getMaxNumberOfLogsPerFetchOnDisk();
+
+  private final LogParser parser = LogParser.getINSTANCE();
+
+  private final String logDir;
+  private File metaFile;
+  private LogManagerMeta meta;
+  private HardState state;
+
+  /** segments sorted by their start index, only the last one is appendable */
+  private final List<LogSegment> segments = new ArrayList<>();
+
+  private int writeBufferSize;
+  private int maxEntriesPerSegment;
+  private long maxDataSizePerSegment;
+  private int maxNumberOfSegments;
+  private int maxPersistRaftLogNumberOnDisk;
+
+  private ScheduledExecutorService persistLogDeleteExecutorService;
+  private ScheduledFuture<?> persistLogDeleteLogFuture;
+
+  /** the lock uses when change the segments */
+  private final Lock lock = new ReentrantLock();
+
+  private volatile boolean isClosed = false;
+
+  /**
+   * for log tools
+   *
+   * @param logPath log dir path
+   */
+  public SegmentedLogStore(String logPath) {
+    logDir = logPath + File.separator;
+    initCommonProperties();
+    initMetaAndSegments();
+  }
+
+  /** build log store with node id */
+  public SegmentedLogStore(int nodeIdentifier) {
+    logDir = SyncLogDequeSerializer.getLogDir(nodeIdentifier);
+    initCommonProperties();
+    initMetaAndSegments();
+  }
+
+  private void initCommonProperties() {
+    ClusterConfig config = ClusterDescriptor.getInstance().getConfig();
+    this.writeBufferSize = config.getRaftLogBufferSize();
+    this.maxEntriesPerSegment = config.getMaxRaftLogEntriesPerSegment();
+    this.maxDataSizePerSegment = config.getMaxRaftLogPersistDataSizePerFile();
+    this.maxNumberOfSegments = config.getMaxNumberOfPersistRaftLogFiles();
+    this.maxPersistRaftLogNumberOnDisk = config.getMaxPersistRaftLogNumberOnDisk();
+
+    this.persistLogDeleteExecutorService =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new BasicThreadFactory.Builder()
+                .namingPattern("persist-log-delete-" + logDir)
+                .daemon(true)
+                .build());
+    this.persistLogDeleteLogFuture =
+        persistLogDeleteExecutorService.scheduleAtFixedRate(
+            this::checkDeletePersistRaftLog,
+            LOG_DELETE_CHECK_INTERVAL_SECOND,
+            LOG_DELETE_CHECK_INTERVAL_SECOND,
+            TimeUnit.SECONDS);
+  }
+
+  private void initMetaAndSegments() {
+    recoverMetaFile();
+    recoverMeta();
+    recoverSegments();
+    try {
+      if (segments.isEmpty()) {
+        createSegment(meta.getCommitLogIndex() + 1);
+      }
+    } catch (IOException e) {
+      logger.error("Error in init raft log segment: ", e);
+    }
+  }
+
+  private void recoverSegments() {
+    File[] dataFiles =
+        metaFile
+            .getParentFile()
+            .listFiles(file -> file.getName().endsWith(LogSegment.DATA_FILE_SUFFIX));
+    if (dataFiles == null || dataFiles.length == 0) {
+      return;
+    }
+    Arrays.sort(dataFiles, Comparator.comparingLong(LogSegment::parseStartIndex));
+
+    for (int i = 0; i < dataFiles.length; i++) {
+      boolean isLast = i == dataFiles.length - 1;
+      try {
+        LogSegment segment = LogSegment.recover(dataFiles[i], isLast ? writeBufferSize : 0);
+        if (!segments.isEmpty() && getLastSegment().getEndIndex() + 1 != segment.getStartIndex()) {
+          // logs before a gap can never be read together with the following ones
+          logger.warn("{}: {} is not continuous with previous segments", this, segment);
+          deleteAllSegments();
+        }
+        segments.add(segment);
+      } catch (IOException e) {
+        logger.error("{}: cannot recover raft log segment {}", this, dataFiles[i], e);
+        deleteAllSegments();
+        return;
+      }
+    }
+
+    if (getLastIndex() < meta.getCommitLogIndex()) {
+      logger.error(
+          "due to the last abnormal exit, part of the raft logs are lost. "
+              + "The commit index saved by the meta shall prevail, and all logs will be deleted"
+              + "meta commitLogIndex={}, endIndex={}",
+          meta.getCommitLogIndex(),
+          getLastIndex());
+      deleteAllSegments();
+    }
+  }
+
+  private void recoverMetaFile() {
+    metaFile = SystemFileFactory.INSTANCE.getFile(logDir + LOG_META);
+
+    // build dir
+    if (!metaFile.getParentFile().exists()) {
+      metaFile.getParentFile().mkdirs();
+    }
+
+    File tempMetaFile = SystemFileFactory.INSTANCE.getFile(logDir + LOG_META_TMP);
+    // if we have temp file, use it rather than meta file unless it is empty
+    if (tempMetaFile.exists()) {
+      try {
+        if (tempMetaFile.length() == 0) {
+          Files.delete(tempMetaFile.toPath());
+        } else {
+          Files.deleteIfExists(metaFile.toPath());
+          if (!tempMetaFile.renameTo(metaFile)) {
+            logger.warn("Failed to rename log meta file");
+          }
+        }
+      } catch (IOException e) {
+        logger.warn("Cannot recover log meta file from {}", tempMetaFile, e);
+      }
+    }
+  }
+
+  private void recoverMeta() {
+    if (metaFile.exists() && metaFile.length() > 0) {
+      try (FileInputStream fileInputStream = new FileInputStream(metaFile);
+          BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
+        // the available versions are only used by SyncLogDequeSerializer
+        ReadWriteIOUtils.readLong(bufferedInputStream);
+        ReadWriteIOUtils.readLong(bufferedInputStream);
+        meta =
+            LogManagerMeta.deserialize(
+                ByteBuffer.wrap(
+                    ReadWriteIOUtils.readBytesWithSelfDescriptionLength(bufferedInputStream)));
+        state =
+            HardState.deserialize(
+                ByteBuffer.wrap(
+                    ReadWriteIOUtils.readBytesWithSelfDescriptionLength(bufferedInputStream)));
+      } catch (IOException e) {
+        logger.error("Cannot recover log meta: ", e);
+        meta = new LogManagerMeta();
+        state = new HardState();
+      }
+    } else {
+      meta = new LogManagerMeta();
+      state = new HardState();
+    }
+    logger.info("Recovered log meta: {}, state: {}", meta, state);
+  }
+
+  private void serializeMeta() {
+    File tempMetaFile = SystemFileFactory.INSTANCE.getFile(logDir + LOG_META_TMP);
+    tempMetaFile.getParentFile().mkdirs();
+    try (FileOutputStream tempMetaFileOutputStream = new FileOutputStream(tempMetaFile)) {
+      ReadWriteIOUtils.write(0L, tempMetaFileOutputStream);
+      ReadWriteIOUtils.write(Long.MAX_VALUE, tempMetaFileOutputStream);
+      ReadWriteIOUtils.write(meta.serialize(), tempMetaFileOutputStream);
+      ReadWriteIOUtils.write(state.serialize(), tempMetaFileOutputStream);
+      tempMetaFileOutputStream.getChannel().force(true);
+    } catch (IOException e) {
+      logger.error("Error in serializing log meta: ", e);
+      return;
+    }
+    try {
+      Files.deleteIfExists(metaFile.toPath());
+    } catch (IOException e) {
+      logger.warn("Cannot delete old log meta file {}", metaFile, e);
+    }
+    if (!tempMetaFile.renameTo(metaFile)) {
+      logger.warn("Cannot rename new log meta file {}", tempMetaFile);
+    }
+  }
+
+  private void deleteMetaFile() {
+    try {
+      Files.deleteIfExists(SystemFileFactory.INSTANCE.getFile(logDir + LOG_META_TMP).toPath());
+      Files.deleteIfExists(SystemFileFactory.INSTANCE.getFile(logDir + LOG_META).toPath());
+    } catch (IOException e) {
+      logger.error("{}: delete meta log files failed", this, e);
+    }
+  }
+
+  private LogSegment getLastSegment() {
+    return segments.get(segments.size() - 1);
+  }
+
+  private long getLastIndex() {
+    return segments.isEmpty() ? meta.getCommitLogIndex() : getLastSegment().getEndIndex();
+  }
+
+  /** Seal the current last segment and start a new one whose first log is startIndex. */
+  private void createSegment(long startIndex) throws IOException {
+    if (!segments.isEmpty()) {
+      LogSegment last = getLastSegment();
+      if (last.getSize() == 0) {
+        // an empty segment is useless, reuse its slot
+        last.delete();
+        segments.remove(segments.size() - 1);
+      } else {
+        last.seal();
+      }
+    }
+    segments.add(LogSegment.create(logDir, startIndex, maxEntriesPerSegment, writeBufferSize));
+  }
+
+  /** @return the segment containing the log, or null if the log is not on the disk */
+  private LogSegment findSegment(long logIndex) {
+    int low = 0;
+    int high = segments.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      LogSegment segment = segments.get(mid);
+      if (logIndex < segment.getStartIndex()) {
+        high = mid - 1;
+      } else if (logIndex > segment.getEndIndex()) {
+        low = mid + 1;
+      } else {
+        return segment;
+      }
+    }
+    return null;
+  }
+
+  /** Remove the logs whose index is not smaller than fromIndex. */
+  private void truncateSuffix(long fromIndex) throws IOException {
+    while (segments.size() > 1 && getLastSegment().getStartIndex() >= fromIndex) {
+      getLastSegment().delete();
+      segments.remove(segments.size() - 1);
+    }
+    LogSegment last = getLastSegment();
+    if (last.getStartIndex() > fromIndex) {
+      // the log is even before the first segment, start over from it
+      last.delete();
+      segments.clear();
+      segments.add(LogSegment.create(logDir, fromIndex, maxEntriesPerSegment, writeBufferSize));
+    } else {
+      last.truncate(fromIndex);
+      last.unseal(writeBufferSize);
+    }
+  }
+
+  @Override
+  public LogManagerMeta getMeta() {
+    return meta;
+  }
+
+  /** Recover all the logs in disk. This function will be called once this instance is created. */
+  @Override
+  public List<Log> getAllEntriesAfterAppliedIndex() {
+    logger.debug(
+        "getAllEntriesBeforeAppliedIndex, maxHaveAppliedCommitIndex={}, commitLogIndex={}",
+        meta.getMaxHaveAppliedCommitIndex(),
+        meta.getCommitLogIndex());
+    if (meta.getMaxHaveAppliedCommitIndex() >= meta.getCommitLogIndex()) {
+      return Collections.emptyList();
+    }
+    return getLogs(meta.getMaxHaveAppliedCommitIndex(), meta.getCommitLogIndex());
+  }
+
+  @Override
+  public List<Log> getAllEntriesAfterCommittedIndex() {
+    long lastIndex = getLastIndex();
+    logger.debug(
+        "getAllEntriesAfterCommittedIndex, firstUnCommitIndex={}, lastIndexBeforeStart={}",
+        meta.getCommitLogIndex() + 1,
+        lastIndex);
+    if (meta.getCommitLogIndex() >= lastIndex) {
+      return Collections.emptyList();
+    }
+    return getLogs(meta.getCommitLogIndex() + 1, lastIndex);
+  }
+
+  @Override
+  public void append(List<Log> entries, long maxHaveAppliedCommitIndex) throws IOException {
+    if (entries.isEmpty()) {
+      return;
+    }
+    lock.lock();
+    try {
+      for (Log log : entries) {
+        long logIndex = log.getCurrLogIndex();
+        long expectedIndex = getLastIndex() + 1;
+        ByteBuffer logData = log.serialize();
+        if (logIndex < expectedIndex) {
+          // conflicting logs are overwritten
+          truncateSuffix(logIndex);
+        } else if (logIndex > expectedIndex
+            || getLastSegment().isFull(logData.remaining(), maxDataSizePerSegment)) {
+          createSegment(logIndex);
+        }
+        getLastSegment().append(logData);
+      }
+      Log entry = entries.get(entries.size() - 1);
+      meta.setCommitLogIndex(entry.getCurrLogIndex());
+      meta.setCommitLogTerm(entry.getCurrLogTerm());
+      meta.setLastLogIndex(entry.getCurrLogIndex());
+      meta.setLastLogTerm(entry.getCurrLogTerm());
+      meta.setMaxHaveAppliedCommitIndex(maxHaveAppliedCommitIndex);
+      logger.debug(
+          "maxHaveAppliedCommitIndex={}, commitLogIndex={},lastLogIndex={}",
+          maxHaveAppliedCommitIndex,
+          meta.getCommitLogIndex(),
+          meta.getLastLogIndex());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void flushLogBuffer() {
+    if (isClosed) {
+      return;
+    }
+    lock.lock();
+    try {
+      LogSegment last = getLastSegment();
+      last.flush();
+      if (ClusterDescriptor.getInstance().getConfig().getFlushRaftLogThreshold() == 0) {
+        last.force();
+      }
+    } catch (IOException e) {
+      logger.error("Error in logs serialization: ", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** force all the logs appended since the last call to the disk with one fsync */
+  @Override
+  public void forceFlushLogBuffer() {
+    if (isClosed) {
+      return;
+    }
+    lock.lock();
+    try {
+      getLastSegment().force();
+      serializeMeta();
+    } catch (IOException e) {
+      logger.error("Error when force flushing logs serialization: ", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void removeCompactedEntries(long index) {
+    // do nothing, the logs on disk are kept for catching up and deleted by segments in
+    // checkDeletePersistRaftLog
+  }
+
+  @Override
+  public void setHardStateAndFlush(HardState state) {
+    lock.lock();
+    try {
+      this.state = state;
+      serializeMeta();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public HardState getHardState() {
+    return state;
+  }
+
+  /**
+   * @param startIndex (inclusive) the log start index
+   * @param endIndex (inclusive) the log end index
+   * @return the raft log which index between [startIndex, endIndex] or empty if not found
+   */
+  @Override
+  public List<Log> getLogs(long startIndex, long endIndex) {
+    List<ByteBuffer> logBuffers = getSerializedLogs(startIndex, endIndex);
+    List<Log> result = new ArrayList<>(logBuffers.size());
+    try {
+      for (ByteBuffer logBuffer : logBuffers) {
+        result.add(parser.parse(logBuffer));
+      }
+    } catch (UnknownLogTypeException e) {
+      logger.error("Unknown log detected ", e);
+    }
+    return result;
+  }
+
+  /**
+   * Read the serialized logs without deserializing them, the buffers are slices of one read of each
+   * segment and can be sent to the followers directly.
+   */
+  @Override
+  public List<ByteBuffer> getSerializedLogs(long startIndex, long endIndex) {
+    if (startIndex > endIndex) {
+      logger.error(
+          "startIndex={} should be less than or equal to endIndex={}", startIndex, endIndex);
+      return Collections.emptyList();
+    }
+    if (startIndex < 0 || endIndex < 0) {
+      logger.error(
+          "startIndex={} and endIndex={} should be larger than zero", startIndex, endIndex);
+      return Collections.emptyList();
+    }
+
+    long newEndIndex = Math.min(endIndex, startIndex + MAX_NUMBER_OF_LOGS_PER_FETCH_ON_DISK);
+    logger.debug(
+        "intend to get logs between[{}, {}], actually get logs between[{},{}]",
+        startIndex,
+        endIndex,
+        startIndex,
+        newEndIndex);
+
+    // prevent the segments from being deleted or truncated when reading
+    lock.lock();
+    try {
+      List<ByteBuffer> result = new ArrayList<>((int) (newEndIndex - startIndex + 1));
+      long index = startIndex;
+      while (index <= newEndIndex) {
+        LogSegment segment = findSegment(index);
+        if (segment == null) {
+          if (index == startIndex) {
+            logger.debug("can not found the log segment for startIndex={}", startIndex);
+          }
+          break;
+        }
+        long segmentEndIndex = Math.min(newEndIndex, segment.getEndIndex());
+        result.addAll(segment.read(index, segmentEndIndex));
+        index = segmentEndIndex + 1;
+      }
+      return result;
+    } catch (IOException e) {
+      logger.error("Cannot read logs [{}, {}] from disk", startIndex, newEndIndex, e);
+      return Collections.emptyList();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** delete the oldest segments when there are too many segments or too many logs on disk */
+  public void checkDeletePersistRaftLog() {
+    lock.lock();
+    try {
+      while (segments.size() > maxNumberOfSegments) {
+        deleteFirstSegment();
+      }
+      while (segments.size() > 1
+          && meta.getCommitLogIndex() - segments.get(0).getEndIndex()
+              > maxPersistRaftLogNumberOnDisk) {
+        deleteFirstSegment();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void deleteFirstSegment() {
+    LogSegment first = segments.remove(0);
+    try {
+      first.delete();
+    } catch (IOException e) {
+      logger.error("{}: delete raft log segment {} failed", this, first, e);
+    }
+  }
+
+  private void deleteAllSegments() {
+    for (LogSegment segment : segments) {
+      try {
+        segment.delete();
+      } catch (IOException e) {
+        logger.error("{}: delete raft log segment {} failed", this, segment, e);
+      }
+    }
+    segments.clear();
+  }
+
+  @Override
+  public void close() {
+    logger.info("{} is closing", this);
+    lock.lock();
+    try {
+      forceFlushLogBuffer();
+      for (LogSegment segment : segments) {
+        segment.close();
+      }
+      if (persistLogDeleteExecutorService != null) {
+        persistLogDeleteExecutorService.shutdownNow();
+        persistLogDeleteLogFuture.cancel(true);
+        persistLogDeleteExecutorService.awaitTermination(20, TimeUnit.SECONDS);
+        persistLogDeleteExecutorService = null;
+      }
+    } catch (IOException e) {
+      logger.error("Error in log serialization: ", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("Close persist log delete thread interrupted");
+    } finally {
+      logger.info("{} is closed", this);
+      isClosed = true;
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clearAllLogs(long commitIndex) {
+    lock.lock();
+    try {
+      long firstLogIndex = Math.max(commitIndex + 1, getLastIndex() + 1);
+      deleteAllSegments();
+      deleteMetaFile();
+      recoverMetaFile();
+      meta = new LogManagerMeta();
+      createSegment(firstLogIndex);
+      logger.info("{}, clean all logs success, the new firstLogIndex={}", this, firstLogIndex);
+    } catch (IOException e) {
+      logger.error("clear all logs failed,", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SegmentedLogStore{" + logDir + "}";
+  }
+
+  @TestOnly
+  String getLogDir() {
+    return logDir;
+  }
+
+  @TestOnly
+  public List<File> getSegmentFileList() {
+    List<File> files = new ArrayList<>(segments.size());
+    for (LogSegment segment : segments) {
+      files.add(segment.getDataFile());
+    }
+    return files;
+  }
+
+  @TestOnly
+  public void setMaxDataSizePerSegment(long maxDataSizePerSegment) {
+    this.maxDataSizePerSegment = maxDataSizePerSegment;
+  }
+
+  @TestOnly
+  public void setMaxNumberOfSegments(int maxNumberOfSegments) {
+    this.maxNumberOfSegments = maxNumberOfSegments;
+  }
+}
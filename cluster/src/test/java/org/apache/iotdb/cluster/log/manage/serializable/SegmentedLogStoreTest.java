@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.cluster.log.manage.serializable;
+
+import org.apache.iotdb.cluster.common.IoTDBTest;
+import org.apache.iotdb.cluster.common.TestUtils;
+import org.apache.iotdb.cluster.log.HardState;
+import org.apache.iotdb.cluster.log.Log;
+import org.apache.iotdb.cluster.log.SerializedLog;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class SegmentedLogStoreTest extends IoTDBTest {
+
+  private int testIdentifier = 1;
+  private List<Log> testLogs = TestUtils.prepareNodeLogs(40);
+
+  /** make each segment contain 10 logs */
+  private void prepareSegments(SegmentedLogStore logStore) throws IOException {
+    long segmentSize = 0;
+    for (int i = 0; i < 10; i++) {
+      segmentSize += Integer.BYTES + testLogs.get(i).serialize().remaining();
+    }
+    logStore.setMaxDataSizePerSegment(segmentSize);
+    for (int i = 0; i < testLogs.size(); i += 10) {
+      logStore.append(testLogs.subList(i, i + 10), 0);
+    }
+  }
+
+  private void assertLogsEqual(List<Log> expected, List<Log> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals(expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void testAppendAndGetLogs() throws IOException {
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      List<File> segmentFiles = logStore.getSegmentFileList();
+      Assert.assertTrue(segmentFiles.size() > 1);
+      Assert.assertEquals(0, LogSegment.parseStartIndex(segmentFiles.get(0)));
+      Assert.assertEquals(10, LogSegment.parseStartIndex(segmentFiles.get(1)));
+
+      assertLogsEqual(testLogs.subList(0, 11), logStore.getLogs(0, 10));
+      assertLogsEqual(testLogs.subList(5, 35), logStore.getLogs(5, 34));
+      assertLogsEqual(testLogs, logStore.getLogs(0, 100));
+      assertLogsEqual(testLogs.subList(39, 40), logStore.getLogs(39, 39));
+      Assert.assertTrue(logStore.getLogs(40, 100).isEmpty());
+      Assert.assertTrue(logStore.getLogs(30, 20).isEmpty());
+      Assert.assertTrue(logStore.getLogs(-1, 0).isEmpty());
+
+      List<ByteBuffer> serializedLogs = logStore.getSerializedLogs(8, 12);
+      Assert.assertEquals(5, serializedLogs.size());
+      for (int i = 0; i < serializedLogs.size(); i++) {
+        Assert.assertEquals(testLogs.get(i + 8).serialize(), serializedLogs.get(i));
+      }
+    } finally {
+      logStore.close();
+    }
+  }
+
+  @Test
+  public void testSerializedLogsAsLogs() throws IOException {
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      List<ByteBuffer> serializedLogs = logStore.getSerializedLogs(5, 25);
+      Assert.assertEquals(21, serializedLogs.size());
+      for (int i = 0; i < serializedLogs.size(); i++) {
+        Log log = new SerializedLog(serializedLogs.get(i));
+        Assert.assertEquals(testLogs.get(i + 5).getCurrLogIndex(), log.getCurrLogIndex());
+        Assert.assertEquals(testLogs.get(i + 5).getCurrLogTerm(), log.getCurrLogTerm());
+        // the log is sent as it is read, and reading it does not move the buffer
+        Assert.assertEquals(testLogs.get(i + 5).serialize(), log.serialize());
+        Assert.assertEquals(testLogs.get(i + 5).serialize(), log.serialize());
+      }
+    } finally {
+      logStore.close();
+    }
+  }
+
+  @Test
+  public void testOverwriteConflictLogs() throws IOException {
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      List<Log> newLogs = TestUtils.prepareNodeLogs(30);
+      for (Log log : newLogs) {
+        log.setCurrLogTerm(log.getCurrLogTerm() + 100);
+      }
+      // overwrite the logs from 15, the segments after it are removed
+      logStore.append(newLogs.subList(15, 30), 0);
+
+      List<Log> logs = logStore.getLogs(0, 100);
+      Assert.assertEquals(30, logs.size());
+      for (int i = 0; i < 30; i++) {
+        long expectedTerm = i < 15 ? i : i + 100;
+        Assert.assertEquals(i, logs.get(i).getCurrLogIndex());
+        Assert.assertEquals(expectedTerm, logs.get(i).getCurrLogTerm());
+      }
+    } finally {
+      logStore.close();
+    }
+  }
+
+  @Test
+  public void testDeleteSegments() throws IOException {
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      int segmentNum = logStore.getSegmentFileList().size();
+      logStore.setMaxNumberOfSegments(segmentNum - 1);
+      logStore.checkDeletePersistRaftLog();
+
+      List<File> segmentFiles = logStore.getSegmentFileList();
+      Assert.assertEquals(segmentNum - 1, segmentFiles.size());
+      Assert.assertEquals(10, LogSegment.parseStartIndex(segmentFiles.get(0)));
+      Assert.assertTrue(logStore.getLogs(0, 9).isEmpty());
+      assertLogsEqual(testLogs.subList(10, 40), logStore.getLogs(10, 39));
+    } finally {
+      logStore.close();
+    }
+  }
+
+  @Test
+  public void testClearAllLogs() throws IOException {
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      logStore.clearAllLogs(100);
+      Assert.assertEquals(1, logStore.getSegmentFileList().size());
+      Assert.assertEquals(101, LogSegment.parseStartIndex(logStore.getSegmentFileList().get(0)));
+      Assert.assertTrue(logStore.getLogs(0, 39).isEmpty());
+    } finally {
+      logStore.close();
+    }
+  }
+
+  @Test
+  public void testRecovery() throws IOException {
+    int maxHaveAppliedCommitIndex = 7;
+    HardState hardState = new HardState();
+    hardState.setCurrentTerm(10);
+    hardState.setVoteFor(TestUtils.getNode(5));
+
+    SegmentedLogStore logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      prepareSegments(logStore);
+      logStore.append(testLogs.subList(39, 40), maxHaveAppliedCommitIndex);
+      logStore.setHardStateAndFlush(hardState);
+    } finally {
+      logStore.close();
+    }
+
+    logStore = new SegmentedLogStore(testIdentifier);
+    try {
+      assertLogsEqual(
+          testLogs.subList(maxHaveAppliedCommitIndex, 40),
+          logStore.getAllEntriesAfterAppliedIndex());
+      Assert.assertEquals(hardState, logStore.getHardState());
+
+      // the recovered last segment can still be appended
+      List<Log> newLogs = TestUtils.prepareNodeLogs(41);
+      logStore.append(newLogs.subList(40, 41), maxHaveAppliedCommitIndex);
+      assertLogsEqual(newLogs.subList(30, 41), logStore.getLogs(30, 40));
+    } finally {
+      logStore.close();
+    }
+  }
+}
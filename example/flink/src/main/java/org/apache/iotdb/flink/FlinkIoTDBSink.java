@@ -61,6 +61,8 @@ public class FlinkIoTDBSink {
         new IoTDBSink(options, serializationSchema)
             // enable batching
             .withBatchSize(10)
+            // write the batches asynchronously, with at most 2 batches being written at a time
+            .withMaxInFlightFlushes(2)
             // how many connectons to the server will be created for each parallelism
             .withSessionPoolSize(3);
 
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile;
+
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An example of encoding the tablets of different devices concurrently, it also compares the time
+ * cost with encoding them in the calling thread. Usage: TsFileWriteWithEncodePool [threadNum]
+ * [deviceNum] [rowNum]
+ */
+public class TsFileWriteWithEncodePool {
+
+  private static final Logger logger = LoggerFactory.getLogger(TsFileWriteWithEncodePool.class);
+
+  private static final int SENSOR_NUM = 10;
+  private static final int TABLET_SIZE = 1024;
+  private static final int ROUNDS = 3;
+
+  public static void main(String[] args) {
+    int threadNum = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int deviceNum = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int rowNum = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+    List<MeasurementSchema> schemas = new ArrayList<>();
+    for (int i = 0; i < SENSOR_NUM; i++) {
+      schemas.add(
+          new MeasurementSchema(
+              "s" + i, TSDataType.DOUBLE, TSEncoding.GORILLA, CompressionType.SNAPPY));
+    }
+
+    ExecutorService encodePool = Executors.newFixedThreadPool(threadNum);
+    try {
+      // the first round warms up the JIT
+      for (int round = 0; round < ROUNDS; round++) {
+        long sequentialCost = writeFile("sequential.tsfile", null, schemas, deviceNum, rowNum);
+        long pooledCost = writeFile("pooled.tsfile", encodePool, schemas, deviceNum, rowNum);
+        logger.info(
+            "round {}: encoding in the calling thread costs {} ms, with {} threads costs {} ms",
+            round,
+            sequentialCost,
+            threadNum,
+            pooledCost);
+      }
+    } catch (Exception e) {
+      logger.error("meet error in TsFileWrite with encode pool", e);
+    } finally {
+      encodePool.shutdown();
+    }
+  }
+
+  private static long writeFile(
+      String path,
+      ExecutorService encodePool,
+      List<MeasurementSchema> schemas,
+      int deviceNum,
+      int rowNum)
+      throws IOException, WriteProcessException {
+    File f = FSFactoryProducer.getFSFactory().getFile(path);
+    if (f.exists() && !f.delete()) {
+      throw new RuntimeException("can not delete " + f.getAbsolutePath());
+    }
+
+    List<Tablet> tablets = new ArrayList<>(deviceNum);
+    for (int i = 0; i < deviceNum; i++) {
+      tablets.add(new Tablet("root.sg.d" + i, schemas, TABLET_SIZE));
+    }
+
+    long startTime = System.currentTimeMillis();
+    try (TsFileWriter tsFileWriter = new TsFileWriter(f)) {
+      tsFileWriter.setEncodePool(encodePool);
+      for (Tablet tablet : tablets) {
+        tsFileWriter.registerTimeseries(new Path(tablet.deviceId), schemas);
+      }
+      for (long time = 0; time < rowNum; time += TABLET_SIZE) {
+        for (Tablet tablet : tablets) {
+          fillTablet(tablet, time);
+        }
+        tsFileWriter.write(tablets);
+      }
+    }
+    return System.currentTimeMillis() - startTime;
+  }
+
+  private static void fillTablet(Tablet tablet, long startTime) {
+    tablet.reset();
+    for (int row = 0; row < TABLET_SIZE; row++) {
+      long time = startTime + row;
+      tablet.timestamps[row] = time;
+      for (int i = 0; i < SENSOR_NUM; i++) {
+        ((double[]) tablet.values[i])[row] = Math.sin(time * (i + 1) * 0.001);
+      }
+    }
+    tablet.rowSize = TABLET_SIZE;
+  }
+}
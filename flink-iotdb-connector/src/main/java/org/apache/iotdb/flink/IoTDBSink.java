@@ -22,29 +22,41 @@ import org.apache.iotdb.flink.options.IoTDBSinkOptions;
 import org.apache.iotdb.session.pool.SessionPool;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 
 import com.google.common.base.Preconditions;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.sink.RichSinkFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The `IoTDBSink` allows flink jobs to write events into IoTDB timeseries. By default send only one
- * event after another, but you can change to batch by invoking `withBatchSize(int)`.
+ * event after another, but you can change to batch by invoking `withBatchSize(int)`. The batched
+ * events are buffered into one tablet per device, which are sent when the batch is full, the flush
+ * interval elapses or a checkpoint is taken. Invoking `withMaxInFlightFlushes(int)` sends the
+ * batches asynchronously.
  *
  * @param <IN> the input data type
  */
-public class IoTDBSink<IN> extends RichSinkFunction<IN> {
+public class IoTDBSink<IN> extends RichSinkFunction<IN> implements CheckpointedFunction {
 
   private static final long serialVersionUID = 1L;
   private static final Logger LOG = LoggerFactory.getLogger(IoTDBSink.class);
@@ -54,16 +66,21 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
   private Map<String, IoTDBSinkOptions.TimeseriesOption> timeseriesOptionMap;
   private transient SessionPool pool;
   private transient ScheduledExecutorService scheduledExecutor;
+  private transient ExecutorService flushExecutor;
+  private transient Semaphore inFlightFlushes;
+  private transient AtomicReference<Exception> flushException;
 
   private int batchSize = 0;
   private int flushIntervalMs = 3000;
-  private List<Event> batchList;
+  private int maxInFlightFlushes = 0;
+  private Map<String, Tablet> tablets;
+  private int bufferedRowCount = 0;
   private int sessionPoolSize = 2;
 
   public IoTDBSink(IoTDBSinkOptions options, IoTSerializationSchema<IN> schema) {
     this.options = options;
     this.serializationSchema = schema;
-    this.batchList = new LinkedList<>();
+    this.tablets = new HashMap<>();
     this.timeseriesOptionMap = new HashMap<>();
     for (IoTDBSinkOptions.TimeseriesOption timeseriesOption : options.getTimeseriesOptionList()) {
       timeseriesOptionMap.put(timeseriesOption.getPath(), timeseriesOption);
@@ -74,6 +91,7 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
   public void open(Configuration parameters) throws Exception {
     initSession();
     initScheduler();
+    initFlushExecutor();
   }
 
   void initSession() {
@@ -87,6 +105,9 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
   }
 
   void initScheduler() {
+    if (flushException == null) {
+      flushException = new AtomicReference<>();
+    }
     if (batchSize > 0) {
       scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
       scheduledExecutor.scheduleAtFixedRate(
@@ -94,7 +115,9 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
             try {
               flush();
             } catch (Exception e) {
+              // the events of the failed batch are lost, so the next invoke or checkpoint fails
               LOG.error("flush error", e);
+              flushException.compareAndSet(null, e);
             }
           },
           flushIntervalMs,
@@ -103,6 +126,16 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
     }
   }
 
+  void initFlushExecutor() {
+    if (flushException == null) {
+      flushException = new AtomicReference<>();
+    }
+    if (batchSize > 0 && maxInFlightFlushes > 0) {
+      flushExecutor = Executors.newFixedThreadPool(maxInFlightFlushes);
+      inFlightFlushes = new Semaphore(maxInFlightFlushes);
+    }
+  }
+
   //  for testing
   void setSessionPool(SessionPool pool) {
     this.pool = pool;
@@ -116,9 +149,10 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
     }
 
     if (batchSize > 0) {
-      synchronized (batchList) {
-        batchList.add(event);
-        if (batchList.size() >= batchSize) {
+      checkFlushException();
+      synchronized (tablets) {
+        addToTablet(event);
+        if (bufferedRowCount >= batchSize) {
           flush();
         }
         return;
@@ -147,25 +181,55 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
     return this;
   }
 
+  /**
+   * Send the batches asynchronously, with at most the given number of batches being sent at the
+   * same time. 0 means the batches are sent by the thread that fills them. Only takes effect when
+   * the batch size is set.
+   */
+  public IoTDBSink<IN> withMaxInFlightFlushes(int maxInFlightFlushes) {
+    Preconditions.checkArgument(maxInFlightFlushes >= 0);
+    this.maxInFlightFlushes = maxInFlightFlushes;
+    return this;
+  }
+
   public IoTDBSink<IN> withSessionPoolSize(int sessionPoolSize) {
     Preconditions.checkArgument(sessionPoolSize > 0);
     this.sessionPoolSize = sessionPoolSize;
     return this;
   }
 
+  @Override
+  public void initializeState(FunctionInitializationContext context) {
+    // the buffered events are all written before a checkpoint completes, so there is no state
+  }
+
+  /** Write all the buffered events before the checkpoint completes. */
+  @Override
+  public void snapshotState(FunctionSnapshotContext context) throws Exception {
+    flush();
+    waitForInFlightFlushes();
+    checkFlushException();
+  }
+
   @Override
   public void close() {
+    if (scheduledExecutor != null) {
+      scheduledExecutor.shutdown();
+    }
     if (pool != null) {
       try {
         flush();
+        waitForInFlightFlushes();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
       } catch (Exception e) {
         LOG.error("flush error", e);
       }
+      if (flushExecutor != null) {
+        flushExecutor.shutdown();
+      }
       pool.close();
     }
-    if (scheduledExecutor != null) {
-      scheduledExecutor.shutdown();
-    }
   }
 
   private void convertText(String device, List<String> measurements, List<Object> values) {
@@ -184,29 +248,95 @@ public class IoTDBSink<IN> extends RichSinkFunction<IN> {
     }
   }
 
+  private void addToTablet(Event event) throws Exception {
+    convertText(event.getDevice(), event.getMeasurements(), event.getValues());
+    Tablet tablet = tablets.get(event.getDevice());
+    if (tablet != null && !hasSameSchema(tablet, event)) {
+      // a tablet only holds rows of the same measurements, so the buffered rows of the device are
+      // sent first, the tablets of the other devices keep buffering
+      tablets.remove(event.getDevice());
+      bufferedRowCount -= tablet.rowSize;
+      send(Collections.singletonMap(event.getDevice(), tablet));
+      tablet = null;
+    }
+    if (tablet == null) {
+      List<MeasurementSchema> schemas = new ArrayList<>();
+      for (int i = 0; i < event.getMeasurements().size(); i++) {
+        schemas.add(new MeasurementSchema(event.getMeasurements().get(i), event.getTypes().get(i)));
+      }
+      // the batch is sent once it is full, so the tablet holds at most the rows left in the batch
+      tablet = new Tablet(event.getDevice(), schemas, batchSize - bufferedRowCount);
+      tablets.put(event.getDevice(), tablet);
+    }
+    int rowIndex = tablet.rowSize++;
+    tablet.addTimestamp(rowIndex, event.getTimestamp());
+    for (int i = 0; i < event.getMeasurements().size(); i++) {
+      tablet.addValue(event.getMeasurements().get(i), rowIndex, event.getValues().get(i));
+    }
+    bufferedRowCount++;
+  }
+
+  private boolean hasSameSchema(Tablet tablet, Event event) {
+    List<MeasurementSchema> schemas = tablet.getSchemas();
+    if (schemas.size() != event.getMeasurements().size()) {
+      return false;
+    }
+    for (int i = 0; i < schemas.size(); i++) {
+      if (!schemas.get(i).getMeasurementId().equals(event.getMeasurements().get(i))
+          || schemas.get(i).getType() != event.getTypes().get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void flush() throws Exception {
     if (batchSize > 0) {
-      synchronized (batchList) {
-        if (batchList.size() > 0) {
-          List<String> deviceIds = new ArrayList<>();
-          List<Long> timestamps = new ArrayList<>();
-          List<List<String>> measurementsList = new ArrayList<>();
-          List<List<TSDataType>> typesList = new ArrayList<>();
-          List<List<Object>> valuesList = new ArrayList<>();
-
-          for (Event event : batchList) {
-            convertText(event.getDevice(), event.getMeasurements(), event.getValues());
-            deviceIds.add(event.getDevice());
-            timestamps.add(event.getTimestamp());
-            measurementsList.add(event.getMeasurements());
-            typesList.add(event.getTypes());
-            valuesList.add(event.getValues());
-          }
-          pool.insertRecords(deviceIds, timestamps, measurementsList, typesList, valuesList);
-          LOG.debug("send event successfully");
-          batchList.clear();
+      synchronized (tablets) {
+        if (tablets.isEmpty()) {
+          return;
         }
+        Map<String, Tablet> batch = new HashMap<>(tablets);
+        tablets.clear();
+        bufferedRowCount = 0;
+        send(batch);
       }
     }
   }
+
+  private void send(Map<String, Tablet> batch) throws Exception {
+    if (flushExecutor == null) {
+      pool.insertTablets(batch);
+      LOG.debug("send event successfully");
+      return;
+    }
+    // only blocks the sink when too many batches are being sent
+    inFlightFlushes.acquire();
+    flushExecutor.execute(
+        () -> {
+          try {
+            pool.insertTablets(batch);
+            LOG.debug("send event successfully");
+          } catch (Exception e) {
+            LOG.error("flush error", e);
+            flushException.compareAndSet(null, e);
+          } finally {
+            inFlightFlushes.release();
+          }
+        });
+  }
+
+  private void waitForInFlightFlushes() throws InterruptedException {
+    if (inFlightFlushes != null) {
+      inFlightFlushes.acquire(maxInFlightFlushes);
+      inFlightFlushes.release(maxInFlightFlushes);
+    }
+  }
+
+  private void checkFlushException() throws IOException {
+    Exception e = flushException == null ? null : flushException.get();
+    if (e != null) {
+      throw new IOException("Failed to write the events into IoTDB", e);
+    }
+  }
 }
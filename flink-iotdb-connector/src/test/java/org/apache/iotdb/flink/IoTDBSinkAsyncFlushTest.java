@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.flink;
+
+import org.apache.iotdb.flink.options.IoTDBSinkOptions;
+import org.apache.iotdb.rpc.IoTDBConnectionException;
+import org.apache.iotdb.session.pool.SessionPool;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class IoTDBSinkAsyncFlushTest {
+
+  private IoTDBSink ioTDBSink;
+  private SessionPool pool;
+
+  @Before
+  public void setUp() {
+    IoTDBSinkOptions options = new IoTDBSinkOptions();
+    options.setTimeseriesOptionList(
+        Lists.newArrayList(new IoTDBSinkOptions.TimeseriesOption("root.sg.D01.temperature")));
+    ioTDBSink = new IoTDBSink(options, new DefaultIoTSerializationSchema());
+    ioTDBSink.withBatchSize(3);
+    ioTDBSink.withMaxInFlightFlushes(2);
+    ioTDBSink.initFlushExecutor();
+
+    pool = mock(SessionPool.class);
+    ioTDBSink.setSessionPool(pool);
+  }
+
+  @After
+  public void tearDown() {
+    ioTDBSink.close();
+  }
+
+  private Map<String, String> createTuple(
+      String device, long timestamp, String measurements, String types, String values) {
+    Map<String, String> tuple = new HashMap<>();
+    tuple.put("device", device);
+    tuple.put("timestamp", String.valueOf(timestamp));
+    tuple.put("measurements", measurements);
+    tuple.put("types", types);
+    tuple.put("values", values);
+    return tuple;
+  }
+
+  @Test
+  public void testAsyncFlush() throws Exception {
+    ioTDBSink.invoke(createTuple("root.sg.D01", 1, "temperature", "DOUBLE", "36.5"), null);
+    ioTDBSink.invoke(createTuple("root.sg.D02", 1, "temperature", "DOUBLE", "37.2"), null);
+    verifyZeroInteractions(pool);
+
+    ioTDBSink.invoke(createTuple("root.sg.D01", 2, "temperature", "DOUBLE", "37.1"), null);
+    // a checkpoint waits for the in-flight batches
+    ioTDBSink.snapshotState(null);
+
+    ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+    verify(pool).insertTablets(captor.capture());
+    Map<String, Tablet> tablets = captor.getValue();
+    Assert.assertEquals(2, tablets.size());
+    Assert.assertEquals(2, tablets.get("root.sg.D01").rowSize);
+    Assert.assertEquals(1, tablets.get("root.sg.D02").rowSize);
+    Assert.assertEquals(2, tablets.get("root.sg.D01").timestamps[1]);
+  }
+
+  @Test
+  public void testFlushOnSnapshot() throws Exception {
+    ioTDBSink.invoke(createTuple("root.sg.D01", 1, "temperature", "DOUBLE", "36.5"), null);
+    verifyZeroInteractions(pool);
+
+    ioTDBSink.snapshotState(null);
+    verify(pool).insertTablets(any(Map.class));
+  }
+
+  @Test
+  public void testSchemaChange() throws Exception {
+    ioTDBSink.invoke(createTuple("root.sg.D01", 1, "temperature", "DOUBLE", "36.5"), null);
+    verifyZeroInteractions(pool);
+
+    // the rows of the previous measurements are sent before the new measurements are buffered
+    ioTDBSink.invoke(
+        createTuple("root.sg.D01", 2, "temperature,humidity", "DOUBLE,FLOAT", "37.2,0.5"), null);
+    ioTDBSink.snapshotState(null);
+
+    ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+    verify(pool, times(2)).insertTablets(captor.capture());
+    Map<String, Tablet> first = captor.getAllValues().get(0);
+    Map<String, Tablet> second = captor.getAllValues().get(1);
+    Assert.assertEquals(1, first.get("root.sg.D01").getSchemas().size());
+    Assert.assertEquals(2, second.get("root.sg.D01").getSchemas().size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testFlushException() throws Exception {
+    doThrow(new IoTDBConnectionException("connection refused"))
+        .when(pool)
+        .insertTablets(any(Map.class));
+    ioTDBSink.invoke(createTuple("root.sg.D01", 1, "temperature", "DOUBLE", "36.5"), null);
+    ioTDBSink.snapshotState(null);
+  }
+}
@@ -20,15 +20,19 @@ package org.apache.iotdb.flink;
 
 import org.apache.iotdb.flink.options.IoTDBSinkOptions;
 import org.apache.iotdb.session.pool.SessionPool;
+import org.apache.iotdb.tsfile.write.record.Tablet;
 
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -81,9 +85,7 @@ public class IoTDBSinkBatchInsertTest {
     tuple.put("values", "37.1");
     ioTDBSink.invoke(tuple, null);
 
-    verify(pool)
-        .insertRecords(
-            any(List.class), any(List.class), any(List.class), any(List.class), any(List.class));
+    verify(pool).insertTablets(any(Map.class));
 
     tuple = new HashMap();
     tuple.put("device", "root.sg.D01");
@@ -96,6 +98,64 @@ public class IoTDBSinkBatchInsertTest {
     verifyZeroInteractions(pool);
   }
 
+  @Test
+  public void testMeasurementsChanged() throws Exception {
+    Map<String, String> tuple = new HashMap();
+    tuple.put("device", "root.sg.D01");
+    tuple.put("timestamp", "1581861293000");
+    tuple.put("measurements", "temperature");
+    tuple.put("types", "DOUBLE");
+    tuple.put("values", "36.5");
+    ioTDBSink.invoke(tuple, null);
+
+    tuple = new HashMap();
+    tuple.put("device", "root.sg.D02");
+    tuple.put("timestamp", "1581861293000");
+    tuple.put("measurements", "temperature");
+    tuple.put("types", "DOUBLE");
+    tuple.put("values", "37.2");
+    ioTDBSink.invoke(tuple, null);
+
+    verifyZeroInteractions(pool);
+
+    // only the tablet of root.sg.D01 is sent, the tablet of root.sg.D02 keeps buffering
+    tuple = new HashMap();
+    tuple.put("device", "root.sg.D01");
+    tuple.put("timestamp", "1581861293001");
+    tuple.put("measurements", "humidity");
+    tuple.put("types", "DOUBLE");
+    tuple.put("values", "60.0");
+    ioTDBSink.invoke(tuple, null);
+
+    ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+    verify(pool).insertTablets(captor.capture());
+    Map<String, Tablet> batch = captor.getValue();
+    assertEquals(Collections.singleton("root.sg.D01"), batch.keySet());
+    assertEquals(1, batch.get("root.sg.D01").rowSize);
+    assertEquals("temperature", batch.get("root.sg.D01").getSchemas().get(0).getMeasurementId());
+  }
+
+  @Test
+  public void testTabletCapacity() throws Exception {
+    for (String device : Arrays.asList("root.sg.D01", "root.sg.D02", "root.sg.D03")) {
+      Map<String, String> tuple = new HashMap();
+      tuple.put("device", device);
+      tuple.put("timestamp", "1581861293000");
+      tuple.put("measurements", "temperature");
+      tuple.put("types", "DOUBLE");
+      tuple.put("values", "36.5");
+      ioTDBSink.invoke(tuple, null);
+    }
+
+    // a tablet is not larger than the rows left in the batch when it is created
+    ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+    verify(pool).insertTablets(captor.capture());
+    Map<String, Tablet> batch = captor.getValue();
+    assertEquals(3, batch.get("root.sg.D01").timestamps.length);
+    assertEquals(2, batch.get("root.sg.D02").timestamps.length);
+    assertEquals(1, batch.get("root.sg.D03").timestamps.length);
+  }
+
   @Test
   public void close() throws Exception {
     Map<String, String> tuple = new HashMap();
@@ -108,9 +168,7 @@ public class IoTDBSinkBatchInsertTest {
     verifyZeroInteractions(pool);
 
     ioTDBSink.close();
-    verify(pool)
-        .insertRecords(
-            any(List.class), any(List.class), any(List.class), any(List.class), any(List.class));
+    verify(pool).insertTablets(any(Map.class));
     verify(pool).close();
   }
 }
@@ -19,17 +19,21 @@
 package org.apache.iotdb.flink;
 
 import org.apache.iotdb.flink.options.IoTDBSinkOptions;
+import org.apache.iotdb.rpc.IoTDBConnectionException;
 import org.apache.iotdb.session.pool.SessionPool;
 
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -65,15 +69,43 @@ public class IoTDBSinkBatchTimerTest {
 
     Thread.sleep(2500);
 
-    verify(pool)
-        .insertRecords(
-            any(List.class), any(List.class), any(List.class), any(List.class), any(List.class));
+    verify(pool).insertTablets(any(Map.class));
 
     Thread.sleep(1000);
 
     verifyZeroInteractions(pool);
   }
 
+  @Test
+  public void testFailedTimerFlush() throws Exception {
+    doThrow(new IoTDBConnectionException("connection lost"))
+        .when(pool)
+        .insertTablets(any(Map.class));
+    Map<String, String> tuple = new HashMap();
+    tuple.put("device", "root.sg.D01");
+    tuple.put("timestamp", "1581861293000");
+    tuple.put("measurements", "temperature");
+    tuple.put("types", "DOUBLE");
+    tuple.put("values", "36.5");
+    ioTDBSink.invoke(tuple, null);
+
+    Thread.sleep(1500);
+
+    // the batch failed to be sent by the timer is lost, so the sink fails
+    try {
+      ioTDBSink.invoke(tuple, null);
+      fail();
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IoTDBConnectionException);
+    }
+    try {
+      ioTDBSink.snapshotState(null);
+      fail();
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IoTDBConnectionException);
+    }
+  }
+
   @Test
   public void close() {
     ioTDBSink.close();
@@ -375,6 +375,20 @@ public abstract class AbstractIoTDBJDBCResultSet implements ResultSet {
     throw new SQLException(Constant.METHOD_NOT_SUPPORTED);
   }
 
+  /** fetch the next page in the background while the current page is consumed */
+  public void setPrefetch(boolean prefetch) {
+    if (isRpcFetchResult) {
+      ioTDBRpcDataSet.setPrefetch(prefetch);
+    }
+  }
+
+  /** rebind the result set to the client of a new connection */
+  void setClient(TSIService.Iface client) {
+    if (isRpcFetchResult) {
+      ioTDBRpcDataSet.setClient(client);
+    }
+  }
+
   @Override
   public int getFetchSize() throws SQLException {
     throw new SQLException(Constant.METHOD_NOT_SUPPORTED);
@@ -47,6 +47,9 @@ public class Config {
   public static final String VERSION = "version";
   static final Constant.Version DEFAULT_VERSION = Constant.Version.V_0_13;
 
+  /** whether to fetch the next page of a result set in the background */
+  public static final String PREFETCH_RESULT = "prefetch_result";
+
   public static final String JDBC_DRIVER_NAME = "org.apache.iotdb.jdbc.IoTDBDriver";
 
   public static boolean rpcThriftCompressionEnable = false;
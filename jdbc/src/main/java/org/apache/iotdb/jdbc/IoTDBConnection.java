@@ -537,6 +537,11 @@ public class IoTDBConnection implements Connection {
     return flag;
   }
 
+  /** @return whether the result sets fetch their next page in the background */
+  public boolean isPrefetchResult() {
+    return params.isPrefetchResult();
+  }
+
   public String getTimeZone() {
     if (zoneId == null) {
       zoneId = ZoneId.systemDefault();
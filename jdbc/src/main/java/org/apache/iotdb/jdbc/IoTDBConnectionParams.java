@@ -35,6 +35,8 @@ public class IoTDBConnectionParams {
   private int thriftDefaultBufferSize = RpcUtils.THRIFT_DEFAULT_BUF_CAPACITY;
   private int thriftMaxFrameSize = RpcUtils.THRIFT_FRAME_MAX_SIZE;
 
+  private boolean prefetchResult = false;
+
   public IoTDBConnectionParams(String url) {
     this.jdbcUriString = url;
   }
@@ -110,4 +112,12 @@ public class IoTDBConnectionParams {
   public void setVersion(Constant.Version version) {
     this.version = version;
   }
+
+  public boolean isPrefetchResult() {
+    return prefetchResult;
+  }
+
+  public void setPrefetchResult(boolean prefetchResult) {
+    this.prefetchResult = prefetchResult;
+  }
 }
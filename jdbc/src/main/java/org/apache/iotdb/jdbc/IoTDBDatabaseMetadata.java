@@ -215,7 +215,8 @@ public class IoTDBDatabaseMetadata implements DatabaseMetaData {
       "VERSION",
       "WHERE",
       "WITH",
-      "WATERMARK_EMBEDDING"
+      "WATERMARK_EMBEDDING",
+      "ZSTD"
     };
     String[] sql92Keywords = {
       "ABSOLUTE", "EXEC", "OVERLAPS", "ACTION", "EXECUTE", "PAD", "ADA", "EXISTS", "PARTIAL", "ADD",
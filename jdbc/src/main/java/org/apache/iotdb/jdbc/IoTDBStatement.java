@@ -287,7 +287,7 @@ public class IoTDBStatement implements Statement {
                 execResp.getSgColumns(),
                 aliasColumn);
       } else {
-        this.resultSet =
+        IoTDBJDBCResultSet jdbcResultSet =
             new IoTDBJDBCResultSet(
                 this,
                 execResp.getColumns(),
@@ -302,6 +302,8 @@ public class IoTDBStatement implements Statement {
                 execResp.tracingInfo,
                 execReq.timeout,
                 true);
+        jdbcResultSet.setPrefetch(connection.isPrefetchResult());
+        this.resultSet = jdbcResultSet;
       }
       return true;
     }
@@ -439,7 +441,7 @@ public class IoTDBStatement implements Statement {
               execResp.sgColumns,
               aliasColumn);
     } else {
-      this.resultSet =
+      IoTDBJDBCResultSet jdbcResultSet =
           new IoTDBJDBCResultSet(
               this,
               execResp.getColumns(),
@@ -457,6 +459,8 @@ public class IoTDBStatement implements Statement {
               execResp.columns,
               execResp.sgColumns,
               aliasColumn);
+      jdbcResultSet.setPrefetch(connection.isPrefetchResult());
+      this.resultSet = jdbcResultSet;
     }
     return resultSet;
   }
@@ -722,6 +726,10 @@ public class IoTDBStatement implements Statement {
   private void reInit() {
     this.client = connection.getClient();
     this.sessionId = connection.getSessionId();
+    if (resultSet instanceof AbstractIoTDBJDBCResultSet) {
+      // the prefetch of the current result set must not use the closed client
+      ((AbstractIoTDBJDBCResultSet) resultSet).setClient(client);
+    }
   }
 
   private void requestStmtId() throws SQLException {
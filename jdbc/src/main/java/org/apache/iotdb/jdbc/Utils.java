@@ -74,6 +74,9 @@ public class Utils {
     if (info.containsKey(Config.VERSION)) {
       params.setVersion(Constant.Version.valueOf(info.getProperty(Config.VERSION)));
     }
+    if (info.containsKey(Config.PREFETCH_RESULT)) {
+      params.setPrefetchResult(Boolean.parseBoolean(info.getProperty(Config.PREFETCH_RESULT)));
+    }
 
     return params;
   }
@@ -110,6 +113,13 @@ public class Utils {
         case Config.VERSION:
           info.put(key, value);
           break;
+        case Config.PREFETCH_RESULT:
+          if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            info.put(key, value);
+          } else {
+            return false;
+          }
+          break;
         default:
           return false;
       }
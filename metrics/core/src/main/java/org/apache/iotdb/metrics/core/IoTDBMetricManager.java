@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core;
+
+import org.apache.iotdb.metrics.MetricManager;
+import org.apache.iotdb.metrics.config.MetricConfig;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.core.type.IoTDBAutoGauge;
+import org.apache.iotdb.metrics.core.type.IoTDBCounter;
+import org.apache.iotdb.metrics.core.type.IoTDBGauge;
+import org.apache.iotdb.metrics.core.type.IoTDBHistogram;
+import org.apache.iotdb.metrics.core.type.IoTDBRate;
+import org.apache.iotdb.metrics.core.type.IoTDBTimer;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.type.Gauge;
+import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.IMetric;
+import org.apache.iotdb.metrics.type.Rate;
+import org.apache.iotdb.metrics.type.Timer;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metric manager without third-party metric libraries. Counters and rates are striped {@link
+ * java.util.concurrent.atomic.LongAdder}s and histograms and timers are lock-free HDR histograms,
+ * so recording never blocks on a lock or a sample reservoir.
+ *
+ * <p>The methods like {@link #count(long, String, MetricLevel, String...)} look up the metric by
+ * name on every call. Hot paths should hold the metric returned by getOrCreateXxx and update it
+ * directly.
+ */
+public class IoTDBMetricManager implements MetricManager {
+
+  Map<MetricName, IMetric> currentMeters;
+  /** whether is able to monitor */
+  boolean isEnable;
+
+  MetricConfig metricConfig = MetricConfigDescriptor.getInstance().getMetricConfig();
+
+  public IoTDBMetricManager() {
+    isEnable = metricConfig.getEnableMetric();
+    currentMeters = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * get the metric of the name, create it if absent.
+   *
+   * @throws IllegalArgumentException if the name is used by a different type of metric
+   */
+  private <M extends IMetric> M getOrCreate(
+      Class<M> type, Function<MetricName, IMetric> creator, String metric, String... tags) {
+    MetricName name = new MetricName(metric, tags);
+    IMetric m = currentMeters.get(name);
+    if (m == null) {
+      m = currentMeters.computeIfAbsent(name, creator);
+    }
+    if (type.isInstance(m)) {
+      return type.cast(m);
+    }
+    throw new IllegalArgumentException(name + " is already used for a different type of metric");
+  }
+
+  @Override
+  public Counter getOrCreateCounter(String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingCounter;
+    }
+    return getOrCreate(Counter.class, key -> new IoTDBCounter(), metric, tags);
+  }
+
+  @Override
+  public <T> Gauge getOrCreateAutoGauge(
+      String metric, MetricLevel metricLevel, T obj, ToLongFunction<T> mapper, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingGauge;
+    }
+    return getOrCreate(Gauge.class, key -> new IoTDBAutoGauge<>(obj, mapper), metric, tags);
+  }
+
+  @Override
+  public Gauge getOrCreateGauge(String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingGauge;
+    }
+    return getOrCreate(Gauge.class, key -> new IoTDBGauge(), metric, tags);
+  }
+
+  @Override
+  public Rate getOrCreateRate(String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingRate;
+    }
+    return getOrCreate(Rate.class, key -> new IoTDBRate(), metric, tags);
+  }
+
+  @Override
+  public Histogram getOrCreateHistogram(String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingHistogram;
+    }
+    return getOrCreate(Histogram.class, key -> new IoTDBHistogram(), metric, tags);
+  }
+
+  @Override
+  public Timer getOrCreateTimer(String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return DoNothingMetricManager.doNothingTimer;
+    }
+    return getOrCreate(Timer.class, key -> new IoTDBTimer(), metric, tags);
+  }
+
+  @Override
+  public void count(long delta, String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return;
+    }
+    getOrCreate(Counter.class, key -> new IoTDBCounter(), metric, tags).inc(delta);
+  }
+
+  @Override
+  public void gauge(long value, String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return;
+    }
+    getOrCreate(Gauge.class, key -> new IoTDBGauge(), metric, tags).set(value);
+  }
+
+  @Override
+  public void rate(long value, String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return;
+    }
+    getOrCreate(Rate.class, key -> new IoTDBRate(), metric, tags).mark(value);
+  }
+
+  @Override
+  public void histogram(long value, String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return;
+    }
+    getOrCreate(Histogram.class, key -> new IoTDBHistogram(), metric, tags).update(value);
+  }
+
+  @Override
+  public void timer(
+      long delta, TimeUnit timeUnit, String metric, MetricLevel metricLevel, String... tags) {
+    if (!isEnable(metricLevel)) {
+      return;
+    }
+    getOrCreate(Timer.class, key -> new IoTDBTimer(), metric, tags).update(delta, timeUnit);
+  }
+
+  private void remove(String metric, String... tags) {
+    if (!isEnable()) {
+      return;
+    }
+    currentMeters.remove(new MetricName(metric, tags));
+  }
+
+  @Override
+  public void removeCounter(String metric, String... tags) {
+    remove(metric, tags);
+  }
+
+  @Override
+  public void removeGauge(String metric, String... tags) {
+    remove(metric, tags);
+  }
+
+  @Override
+  public void removeRate(String metric, String... tags) {
+    remove(metric, tags);
+  }
+
+  @Override
+  public void removeHistogram(String metric, String... tags) {
+    remove(metric, tags);
+  }
+
+  @Override
+  public void removeTimer(String metric, String... tags) {
+    remove(metric, tags);
+  }
+
+  @Override
+  public List<String[]> getAllMetricKeys() {
+    if (!isEnable()) {
+      return Collections.emptyList();
+    }
+    List<String[]> keys = new ArrayList<>(currentMeters.size());
+    currentMeters.keySet().forEach(k -> keys.add(k.toStringArray()));
+    return keys;
+  }
+
+  private <M extends IMetric> Map<String[], M> getAll(Class<M> type) {
+    Map<String[], M> metricMap = new HashMap<>();
+    for (Map.Entry<MetricName, IMetric> entry : currentMeters.entrySet()) {
+      if (type.isInstance(entry.getValue())) {
+        metricMap.put(entry.getKey().toStringArray(), type.cast(entry.getValue()));
+      }
+    }
+    return metricMap;
+  }
+
+  @Override
+  public Map<String[], Counter> getAllCounters() {
+    return getAll(Counter.class);
+  }
+
+  @Override
+  public Map<String[], Gauge> getAllGauges() {
+    return getAll(Gauge.class);
+  }
+
+  @Override
+  public Map<String[], Rate> getAllRates() {
+    return getAll(Rate.class);
+  }
+
+  @Override
+  public Map<String[], Histogram> getAllHistograms() {
+    return getAll(Histogram.class);
+  }
+
+  @Override
+  public Map<String[], Timer> getAllTimers() {
+    return getAll(Timer.class);
+  }
+
+  /** @return all metrics with their names, used by reporters */
+  public Map<MetricName, IMetric> getAllMetrics() {
+    return Collections.unmodifiableMap(currentMeters);
+  }
+
+  @Override
+  public boolean isEnable() {
+    return isEnable;
+  }
+
+  @Override
+  public boolean isEnable(MetricLevel metricLevel) {
+    return isEnable() && MetricLevel.higherOrEqual(metricLevel, metricConfig.getMetricLevel());
+  }
+
+  @Override
+  public boolean init() {
+    // init something
+    return true;
+  }
+
+  @Override
+  public boolean stop() {
+    isEnable = metricConfig.getEnableMetric();
+    currentMeters = new ConcurrentHashMap<>();
+    return true;
+  }
+}
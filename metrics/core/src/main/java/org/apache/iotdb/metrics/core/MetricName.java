@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core;
+
+import java.util.Arrays;
+
+/**
+ * The unique identifier of a metric, include a name and some tags. The tags are copied, so the
+ * caller may reuse its array after building a name.
+ */
+public class MetricName {
+  private final String name;
+  /** string appear in pairs, like "sg", "ln", "user", "user1" */
+  private final String[] tags;
+
+  private final int hashCode;
+
+  public MetricName(String name, String... tags) {
+    this.name = name;
+    this.tags = tags.length % 2 == 0 ? tags.clone() : new String[0];
+    this.hashCode = 31 * name.hashCode() + Arrays.hashCode(this.tags);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String[] getTags() {
+    return tags;
+  }
+
+  /** convert the metric name to string array. */
+  public String[] toStringArray() {
+    String[] allNames = new String[tags.length + 1];
+    allNames[0] = name;
+    System.arraycopy(tags, 0, allNames, 1, tags.length);
+    return allNames;
+  }
+
+  @Override
+  public String toString() {
+    return "MetricName{" + "name='" + name + "'" + ", tags=" + Arrays.toString(tags) + '}';
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MetricName)) {
+      return false;
+    }
+    MetricName that = (MetricName) obj;
+    return hashCode == that.hashCode && name.equals(that.name) && Arrays.equals(tags, that.tags);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
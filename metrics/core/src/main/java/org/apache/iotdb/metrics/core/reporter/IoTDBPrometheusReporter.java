@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.reporter;
+
+import org.apache.iotdb.metrics.MetricManager;
+import org.apache.iotdb.metrics.config.MetricConfig;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.core.IoTDBMetricManager;
+import org.apache.iotdb.metrics.core.MetricName;
+import org.apache.iotdb.metrics.reporter.Reporter;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.type.Gauge;
+import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.HistogramSnapshot;
+import org.apache.iotdb.metrics.type.IMetric;
+import org.apache.iotdb.metrics.type.Rate;
+import org.apache.iotdb.metrics.type.Timer;
+import org.apache.iotdb.metrics.utils.ReporterType;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/** Expose the metrics of {@link IoTDBMetricManager} in the prometheus text format. */
+public class IoTDBPrometheusReporter implements Reporter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(IoTDBPrometheusReporter.class);
+  private static final MetricConfig metricConfig =
+      MetricConfigDescriptor.getInstance().getMetricConfig();
+
+  private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private MetricManager iotdbMetricManager = null;
+  private DisposableServer httpServer = null;
+
+  @Override
+  public boolean start() {
+    if (httpServer != null) {
+      LOGGER.warn("IoTDB Prometheus Reporter already start!");
+      return false;
+    }
+    httpServer =
+        HttpServer.create()
+            .idleTimeout(Duration.ofMillis(30_000L))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 2000)
+            .port(Integer.parseInt(metricConfig.getPrometheusExporterPort()))
+            .route(
+                routes ->
+                    routes.get(
+                        "/metrics",
+                        (request, response) -> response.sendString(Mono.just(scrape()))))
+            .bindNow();
+
+    LOGGER.info(
+        "http server for metrics started, listen on {}", metricConfig.getPrometheusExporterPort());
+    return true;
+  }
+
+  /**
+   * Render all the metrics in the prometheus text format. The samples of the metrics sharing a
+   * name are grouped into one family after a single TYPE line, as the format requires.
+   */
+  String scrape() {
+    Map<String, MetricFamily> families = new TreeMap<>();
+    for (Map.Entry<MetricName, IMetric> entry :
+        ((IoTDBMetricManager) iotdbMetricManager).getAllMetrics().entrySet()) {
+      MetricName name = entry.getKey();
+      String metricName = sanitizeName(name.getName());
+      IMetric metric = entry.getValue();
+      if (metric instanceof Counter) {
+        writeSample(
+            family(families, metricName, "counter"),
+            metricName,
+            name,
+            null,
+            null,
+            ((Counter) metric).count());
+      } else if (metric instanceof Gauge) {
+        writeSample(
+            family(families, metricName, "gauge"),
+            metricName,
+            name,
+            null,
+            null,
+            ((Gauge) metric).value());
+      } else if (metric instanceof Rate) {
+        writeRate(families, metricName, name, (Rate) metric);
+      } else if (metric instanceof Histogram) {
+        Histogram histogram = (Histogram) metric;
+        writeSnapshot(families, metricName, name, histogram.takeSnapshot(), histogram.count(), 1.0);
+      } else if (metric instanceof Timer) {
+        Timer timer = (Timer) metric;
+        writeSnapshot(
+            families,
+            metricName + "_seconds",
+            name,
+            timer.takeSnapshot(),
+            timer.getImmutableRate().getCount(),
+            1.0 / NANOS_PER_SECOND);
+      }
+    }
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, MetricFamily> entry : families.entrySet()) {
+      MetricFamily family = entry.getValue();
+      builder.append("# TYPE ").append(entry.getKey()).append(' ').append(family.type);
+      builder.append('\n').append(family.samples);
+    }
+    return builder.toString();
+  }
+
+  private void writeRate(
+      Map<String, MetricFamily> families, String metricName, MetricName name, Rate rate) {
+    String totalName = metricName + "_total";
+    writeSample(
+        family(families, totalName, "counter"), totalName, name, null, null, rate.getCount());
+    StringBuilder samples = family(families, metricName, "gauge");
+    writeSample(samples, metricName, name, "rate", "m1", rate.getOneMinuteRate());
+    writeSample(samples, metricName, name, "rate", "m5", rate.getFiveMinuteRate());
+    writeSample(samples, metricName, name, "rate", "m15", rate.getFifteenMinuteRate());
+    writeSample(samples, metricName, name, "rate", "mean", rate.getMeanRate());
+  }
+
+  private void writeSnapshot(
+      Map<String, MetricFamily> families,
+      String metricName,
+      MetricName name,
+      HistogramSnapshot snapshot,
+      long count,
+      double factor) {
+    StringBuilder samples = family(families, metricName, "summary");
+    for (double quantile : QUANTILES) {
+      writeSample(
+          samples,
+          metricName,
+          name,
+          "quantile",
+          String.valueOf(quantile),
+          snapshot.getValue(quantile) * factor);
+    }
+    writeSample(
+        samples, metricName + "_sum", name, null, null, snapshot.getMean() * count * factor);
+    writeSample(samples, metricName + "_count", name, null, null, count);
+    writeGauge(families, metricName + "_min", name, snapshot.getMin() * factor);
+    writeGauge(families, metricName + "_max", name, snapshot.getMax() * factor);
+    writeGauge(families, metricName + "_mean", name, snapshot.getMean() * factor);
+  }
+
+  private void writeGauge(
+      Map<String, MetricFamily> families, String metricName, MetricName name, double value) {
+    writeSample(family(families, metricName, "gauge"), metricName, name, null, null, value);
+  }
+
+  /**
+   * Get the builder of the samples of a family. If the name is already used by a family of another
+   * type, e.g. a counter "a_total" and the total of a rate "a", the samples are dropped, because
+   * prometheus rejects the whole exposition for a family with mixed types.
+   */
+  private StringBuilder family(Map<String, MetricFamily> families, String name, String type) {
+    MetricFamily family = families.computeIfAbsent(name, k -> new MetricFamily(type));
+    if (family.type.equals(type)) {
+      return family.samples;
+    }
+    LOGGER.debug("Skip the {} {} as the name is used by a {}", type, name, family.type);
+    return new StringBuilder();
+  }
+
+  private void writeSample(
+      StringBuilder builder,
+      String metricName,
+      MetricName name,
+      String extraKey,
+      String extraValue,
+      double value) {
+    builder.append(metricName);
+    String[] tags = name.getTags();
+    if (tags.length > 0 || extraKey != null) {
+      builder.append('{');
+      for (int i = 0; i < tags.length; i += 2) {
+        if (i > 0) {
+          builder.append(',');
+        }
+        appendLabel(builder, tags[i], tags[i + 1]);
+      }
+      if (extraKey != null) {
+        if (tags.length > 0) {
+          builder.append(',');
+        }
+        appendLabel(builder, extraKey, extraValue);
+      }
+      builder.append('}');
+    }
+    builder.append(' ').append(value).append('\n');
+  }
+
+  private void appendLabel(StringBuilder builder, String key, String value) {
+    builder.append(sanitizeName(key)).append("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        default:
+          builder.append(c);
+      }
+    }
+    builder.append('"');
+  }
+
+  private static String sanitizeName(String name) {
+    return name.replaceAll("[^a-zA-Z0-9:_]", "_");
+  }
+
+  @Override
+  public boolean stop() {
+    if (httpServer != null) {
+      try {
+        httpServer.disposeNow();
+        httpServer = null;
+      } catch (Exception e) {
+        LOGGER.error("failed to stop server", e);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public ReporterType getReporterType() {
+    return ReporterType.PROMETHEUS;
+  }
+
+  @Override
+  public void setMetricManager(MetricManager metricManager) {
+    this.iotdbMetricManager = metricManager;
+  }
+
+  /** The samples of the metrics sharing a name. */
+  private static class MetricFamily {
+    private final String type;
+    private final StringBuilder samples = new StringBuilder();
+
+    private MetricFamily(String type) {
+      this.type = type;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.type;
+
+import org.apache.iotdb.metrics.type.Counter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counter backed by a striped {@link LongAdder}, so concurrent updates do not contend. */
+public class IoTDBCounter implements Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  @Override
+  public void inc() {
+    count.increment();
+  }
+
+  @Override
+  public void inc(long n) {
+    count.add(n);
+  }
+
+  @Override
+  public long count() {
+    return count.sum();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.type;
+
+import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.HistogramSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram with HDR (high dynamic range) buckets. Values are recorded into log-linear
+ * buckets: values below {@link #SUB_BUCKET_COUNT} have their own bucket, and every larger power of
+ * two range is split into {@link #SUB_BUCKET_HALF_COUNT} buckets, so the relative error of any
+ * recorded value is below 1 / {@link #SUB_BUCKET_HALF_COUNT} while the whole range of long is
+ * covered with a fixed number of buckets.
+ *
+ * <p>Recording is a single increment of an atomic bucket counter plus some striped adders, no lock
+ * or sample reservoir is involved. Besides the cumulative snapshot, {@link
+ * #takeIntervalSnapshot()} returns the values recorded since the last interval snapshot.
+ */
+public class IoTDBHistogram implements Histogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+  /** the largest long has 63 bits, each bit above the sub buckets adds a half count of buckets */
+  static final int BUCKET_NUM =
+      SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+  private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_NUM);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+  /** bucket counts at the last interval snapshot */
+  private long[] lastIntervalCounts = new long[BUCKET_NUM];
+
+  /** negative values are recorded as 0 */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return value < 0 ? 0 : (int) value;
+    }
+    // the shift makes the value fall into [SUB_BUCKET_HALF_COUNT, SUB_BUCKET_COUNT)
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return SUB_BUCKET_COUNT
+        + (shift - 1) * SUB_BUCKET_HALF_COUNT
+        + (int) (value >>> shift)
+        - SUB_BUCKET_HALF_COUNT;
+  }
+
+  /** @return the smallest value of the bucket */
+  static long bucketLowerBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int offset = index - SUB_BUCKET_COUNT;
+    int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+    long subBucket = offset % SUB_BUCKET_HALF_COUNT + (long) SUB_BUCKET_HALF_COUNT;
+    return subBucket << shift;
+  }
+
+  /** @return the value that stands for all values of the bucket, which is the middle one */
+  static long bucketValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+    return bucketLowerBound(index) + ((1L << shift) >> 1);
+  }
+
+  @Override
+  public void update(long value) {
+    bucketCounts.incrementAndGet(bucketIndex(value));
+    count.increment();
+    sum.add(value);
+    // read before CAS so that the common case does not write the shared cache line
+    if (value < min.get()) {
+      min.accumulateAndGet(value, Math::min);
+    }
+    if (value > max.get()) {
+      max.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  @Override
+  public long count() {
+    return count.sum();
+  }
+
+  public long sum() {
+    return sum.sum();
+  }
+
+  private long[] copyBucketCounts() {
+    long[] counts = new long[BUCKET_NUM];
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      counts[i] = bucketCounts.get(i);
+    }
+    return counts;
+  }
+
+  /** take snapshot of all values recorded since the histogram is created */
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return new IoTDBHistogramSnapshot(copyBucketCounts(), min.get(), max.get());
+  }
+
+  /** take snapshot of the values recorded since the last call of this method */
+  public synchronized HistogramSnapshot takeIntervalSnapshot() {
+    long[] counts = copyBucketCounts();
+    long[] intervalCounts = new long[BUCKET_NUM];
+    for (int i = 0; i < BUCKET_NUM; i++) {
+      intervalCounts[i] = counts[i] - lastIntervalCounts[i];
+    }
+    lastIntervalCounts = counts;
+    return new IoTDBHistogramSnapshot(intervalCounts, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+}
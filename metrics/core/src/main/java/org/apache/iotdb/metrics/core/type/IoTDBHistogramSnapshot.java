@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.type;
+
+import org.apache.iotdb.metrics.type.HistogramSnapshot;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Snapshot of the bucket counts of an {@link IoTDBHistogram}. The values of a bucket are
+ * represented by the middle value of the bucket, clamped to the recorded min and max.
+ */
+public class IoTDBHistogramSnapshot implements HistogramSnapshot {
+
+  /** The max number of values returned by {@link #getValues()}. */
+  static final int MAX_VALUES_NUM = 1028;
+
+  private final long[] bucketCounts;
+  private final long count;
+  private final long min;
+  private final long max;
+
+  /**
+   * @param bucketCounts the counts of each bucket, owned by the snapshot
+   * @param recordedMin the recorded min value, {@link Long#MIN_VALUE} if unknown
+   * @param recordedMax the recorded max value, {@link Long#MAX_VALUE} if unknown
+   */
+  IoTDBHistogramSnapshot(long[] bucketCounts, long recordedMin, long recordedMax) {
+    this.bucketCounts = bucketCounts;
+    long total = 0;
+    int firstIndex = -1;
+    int lastIndex = -1;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      if (bucketCounts[i] > 0) {
+        total += bucketCounts[i];
+        if (firstIndex == -1) {
+          firstIndex = i;
+        }
+        lastIndex = i;
+      }
+    }
+    this.count = total;
+    if (total == 0) {
+      this.min = 0;
+      this.max = 0;
+    } else {
+      this.min = Math.max(recordedMin, IoTDBHistogram.bucketLowerBound(firstIndex));
+      this.max = Math.min(recordedMax, bucketUpperBound(lastIndex));
+    }
+  }
+
+  private static long bucketUpperBound(int index) {
+    return index + 1 < IoTDBHistogram.BUCKET_NUM
+        ? IoTDBHistogram.bucketLowerBound(index + 1) - 1
+        : Long.MAX_VALUE;
+  }
+
+  private long representative(int index) {
+    return Math.min(max, Math.max(min, IoTDBHistogram.bucketValue(index)));
+  }
+
+  @Override
+  public double getValue(double quantile) {
+    if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+      throw new IllegalArgumentException(quantile + " is not in [0..1]");
+    }
+    if (count == 0) {
+      return 0.0;
+    }
+    // the rank of the wanted value, starting from 1
+    long rank = Math.max(1, (long) Math.ceil(quantile * count));
+    long accumulated = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      accumulated += bucketCounts[i];
+      if (accumulated >= rank) {
+        return representative(i);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Get the values in ascending order. If more than {@link #MAX_VALUES_NUM} values are recorded,
+   * the values of evenly spaced ranks are returned instead of all of them, so that a busy histogram
+   * does not need an array as large as its count.
+   */
+  @Override
+  public long[] getValues() {
+    int valueNum = (int) Math.min(count, MAX_VALUES_NUM);
+    long[] values = new long[valueNum];
+    int bucketIndex = 0;
+    long accumulated = 0;
+    for (int pos = 0; pos < valueNum; pos++) {
+      // the rank of the value at pos, starting from 1
+      long rank =
+          valueNum == count ? pos + 1 : (long) Math.ceil((double) (pos + 1) * count / valueNum);
+      while (bucketIndex < bucketCounts.length && accumulated + bucketCounts[bucketIndex] < rank) {
+        accumulated += bucketCounts[bucketIndex++];
+      }
+      values[pos] = bucketIndex < bucketCounts.length ? representative(bucketIndex) : max;
+    }
+    return values;
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(count, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public double getMedian() {
+    return getValue(0.5);
+  }
+
+  @Override
+  public long getMin() {
+    return min;
+  }
+
+  @Override
+  public double getMean() {
+    if (count == 0) {
+      return 0.0;
+    }
+    double sum = 0;
+    for (int i = 0; i < bucketCounts.length; i++) {
+      if (bucketCounts[i] > 0) {
+        sum += (double) representative(i) * bucketCounts[i];
+      }
+    }
+    return sum / count;
+  }
+
+  @Override
+  public long getMax() {
+    return max;
+  }
+
+  @Override
+  public void dump(OutputStream output) {
+    try (PrintWriter out =
+        new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+      for (long value : getValues()) {
+        out.printf("%d%n", value);
+      }
+    }
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.type;
+
+import org.apache.iotdb.metrics.type.Rate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate with exponentially weighted moving averages. Marking only adds to a striped {@link
+ * LongAdder}, the moving averages are ticked lazily when they are read, so the hot path neither
+ * reads the clock nor contends on a shared atomic.
+ */
+public class IoTDBRate implements Rate {
+
+  private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+  private final LongAdder count = new LongAdder();
+  /** events marked since the last tick */
+  private final LongAdder uncounted = new LongAdder();
+
+  private final EWMA oneMinuteRate = new EWMA(1);
+  private final EWMA fiveMinuteRate = new EWMA(5);
+  private final EWMA fifteenMinuteRate = new EWMA(15);
+
+  private final long startTime;
+  private final AtomicLong lastTick;
+
+  public IoTDBRate() {
+    this.startTime = System.nanoTime();
+    this.lastTick = new AtomicLong(startTime);
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public double getOneMinuteRate() {
+    tickIfNecessary();
+    return oneMinuteRate.getRate();
+  }
+
+  @Override
+  public double getMeanRate() {
+    long currentCount = count.sum();
+    if (currentCount == 0) {
+      return 0.0;
+    }
+    double elapsed = System.nanoTime() - startTime;
+    return currentCount / elapsed * TimeUnit.SECONDS.toNanos(1);
+  }
+
+  @Override
+  public double getFiveMinuteRate() {
+    tickIfNecessary();
+    return fiveMinuteRate.getRate();
+  }
+
+  @Override
+  public double getFifteenMinuteRate() {
+    tickIfNecessary();
+    return fifteenMinuteRate.getRate();
+  }
+
+  @Override
+  public void mark() {
+    mark(1);
+  }
+
+  @Override
+  public void mark(long n) {
+    count.add(n);
+    uncounted.add(n);
+  }
+
+  private void tickIfNecessary() {
+    long oldTick = lastTick.get();
+    long newTick = System.nanoTime();
+    long age = newTick - oldTick;
+    if (age < TICK_INTERVAL) {
+      return;
+    }
+    long newIntervalStartTick = newTick - age % TICK_INTERVAL;
+    if (lastTick.compareAndSet(oldTick, newIntervalStartTick)) {
+      long requiredTicks = age / TICK_INTERVAL;
+      // the events not counted yet are all attributed to the first tick, the following ticks
+      // only decay the averages
+      long firstTickCount = uncounted.sumThenReset();
+      for (long i = 0; i < requiredTicks; i++) {
+        long tickCount = i == 0 ? firstTickCount : 0;
+        oneMinuteRate.tick(tickCount);
+        fiveMinuteRate.tick(tickCount);
+        fifteenMinuteRate.tick(tickCount);
+      }
+    }
+  }
+
+  /** Exponentially weighted moving average of the events per second over some minutes. */
+  private static class EWMA {
+
+    private final double alpha;
+    private volatile boolean initialized = false;
+    private volatile double rate = 0.0;
+
+    EWMA(int minutes) {
+      this.alpha =
+          1 - Math.exp(-TICK_INTERVAL / (double) TimeUnit.MINUTES.toNanos(1) / minutes);
+    }
+
+    /** only called by the thread that wins the tick */
+    void tick(long tickCount) {
+      double instantRate = tickCount / ((double) TICK_INTERVAL / TimeUnit.SECONDS.toNanos(1));
+      if (initialized) {
+        rate += alpha * (instantRate - rate);
+      } else {
+        rate = instantRate;
+        initialized = true;
+      }
+    }
+
+    double getRate() {
+      return rate;
+    }
+  }
+}
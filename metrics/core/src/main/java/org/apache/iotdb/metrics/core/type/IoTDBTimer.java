@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.type;
+
+import org.apache.iotdb.metrics.type.HistogramSnapshot;
+import org.apache.iotdb.metrics.type.Rate;
+import org.apache.iotdb.metrics.type.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/** Timer that records durations in nanoseconds into an {@link IoTDBHistogram}. */
+public class IoTDBTimer implements Timer {
+
+  private final IoTDBHistogram histogram = new IoTDBHistogram();
+  private final IoTDBRate rate = new IoTDBRate();
+
+  @Override
+  public void update(long duration, TimeUnit unit) {
+    if (duration >= 0) {
+      histogram.update(unit.toNanos(duration));
+      rate.mark();
+    }
+  }
+
+  @Override
+  public HistogramSnapshot takeSnapshot() {
+    return histogram.takeSnapshot();
+  }
+
+  /** take snapshot of the durations recorded since the last call of this method */
+  public HistogramSnapshot takeIntervalSnapshot() {
+    return histogram.takeIntervalSnapshot();
+  }
+
+  /** @return the sum of the recorded durations in nanoseconds */
+  public long sum() {
+    return histogram.sum();
+  }
+
+  @Override
+  public Rate getImmutableRate() {
+    return rate;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core;
+
+import org.apache.iotdb.metrics.DoNothingMetricService;
+import org.apache.iotdb.metrics.MetricManager;
+import org.apache.iotdb.metrics.MetricService;
+import org.apache.iotdb.metrics.config.MetricConfig;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.core.type.IoTDBHistogram;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.type.Gauge;
+import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.HistogramSnapshot;
+import org.apache.iotdb.metrics.type.Rate;
+import org.apache.iotdb.metrics.type.Timer;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.metrics.utils.MonitorType;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class IoTDBMetricManagerTest {
+  static MetricConfig metricConfig = MetricConfigDescriptor.getInstance().getMetricConfig();
+  static MetricService metricService = new DoNothingMetricService();
+  static MetricManager metricManager;
+
+  @BeforeClass
+  public static void init() {
+    metricConfig.setEnableMetric(true);
+    metricConfig.setMonitorType(MonitorType.IOTDB);
+    metricConfig.setMetricLevel(MetricLevel.IMPORTANT);
+    metricConfig.setPredefinedMetrics(new ArrayList<>());
+    metricService.startService();
+    metricManager = metricService.getMetricManager();
+  }
+
+  @Test
+  public void loadManager() {
+    assertTrue(metricManager instanceof IoTDBMetricManager);
+  }
+
+  @Test
+  public void getOrCreateCounter() {
+    Counter counter1 =
+        metricManager.getOrCreateCounter("counter_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertNotNull(counter1);
+    Counter counter2 =
+        metricManager.getOrCreateCounter("counter_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertSame(counter1, counter2);
+    counter1.inc(10);
+    metricManager.count(5, "counter_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertEquals(15, counter2.count());
+  }
+
+  private void getOrCreateDifferentMetricsWithSameName() {
+    Timer timer = metricManager.getOrCreateTimer("metric", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertNotNull(timer);
+    metricManager.getOrCreateCounter("metric", MetricLevel.IMPORTANT, "tag1", "tag2");
+  }
+
+  @Test
+  public void getOrCreateDifferentMetricsWithSameNameTest() {
+    assertThrows(IllegalArgumentException.class, this::getOrCreateDifferentMetricsWithSameName);
+  }
+
+  @Test
+  public void getOrCreateGauge() {
+    Gauge gauge1 =
+        metricManager.getOrCreateGauge("gauge_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertNotNull(gauge1);
+    Gauge gauge2 =
+        metricManager.getOrCreateGauge("gauge_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertSame(gauge1, gauge2);
+    gauge1.set(10);
+    gauge1.incr(3);
+    assertEquals(13, gauge2.value());
+  }
+
+  @Test
+  public void testAutoGauge() {
+    List<Integer> list = new ArrayList<>();
+    Gauge autoGauge =
+        metricManager.getOrCreateAutoGauge(
+            "autoGauge_test", MetricLevel.IMPORTANT, list, List::size, "tag", "value");
+    assertEquals(0L, autoGauge.value());
+    list.add(1);
+    assertEquals(1L, autoGauge.value());
+    list = null;
+    System.gc();
+    assertEquals(0L, autoGauge.value());
+  }
+
+  @Test
+  public void getOrCreateRate() {
+    Rate rate = metricManager.getOrCreateRate("rate_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertNotNull(rate);
+    rate.mark(10);
+    metricManager.rate(5, "rate_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertEquals(15, rate.getCount());
+    assertTrue(rate.getMeanRate() > 0);
+  }
+
+  @Test
+  public void getOrCreateHistogram() {
+    Histogram histogram =
+        metricManager.getOrCreateHistogram(
+            "histogram_test", MetricLevel.IMPORTANT, "tag1", "tag2");
+    assertNotNull(histogram);
+    for (int i = 1; i <= 1000; i++) {
+      histogram.update(i);
+    }
+    assertEquals(1000, histogram.count());
+    HistogramSnapshot snapshot = histogram.takeSnapshot();
+    assertEquals(1000, snapshot.size());
+    assertEquals(1, snapshot.getMin());
+    assertEquals(1000, snapshot.getMax());
+    // the relative error of a value is below 1 / 64
+    assertEquals(500, snapshot.getMedian(), 500 / 64.0);
+    assertEquals(990, snapshot.getValue(0.99), 990 / 64.0);
+    assertEquals(500.5, snapshot.getMean(), 500.5 / 64.0);
+  }
+
+  @Test
+  public void histogramIntervalSnapshot() {
+    IoTDBHistogram histogram = new IoTDBHistogram();
+    for (int i = 0; i < 100; i++) {
+      histogram.update(10);
+    }
+    assertEquals(100, histogram.takeIntervalSnapshot().size());
+    histogram.update(1_000_000);
+    HistogramSnapshot snapshot = histogram.takeIntervalSnapshot();
+    assertEquals(1, snapshot.size());
+    assertEquals(1_000_000, snapshot.getMedian(), 1_000_000 / 64.0);
+    assertEquals(101, histogram.takeSnapshot().size());
+  }
+
+  @Test
+  public void histogramLargeValues() {
+    IoTDBHistogram histogram = new IoTDBHistogram();
+    histogram.update(Long.MAX_VALUE);
+    histogram.update(-1);
+    HistogramSnapshot snapshot = histogram.takeSnapshot();
+    // negative values are recorded as 0
+    assertEquals(0, snapshot.getMin());
+    assertEquals(Long.MAX_VALUE, snapshot.getMax());
+    assertEquals(Long.MAX_VALUE, snapshot.getValue(1.0), Long.MAX_VALUE / 64.0);
+  }
+
+  @Test
+  public void histogramValuesOfBusyHistogram() {
+    IoTDBHistogram histogram = new IoTDBHistogram();
+    for (int i = 1; i <= 1_000_000; i++) {
+      histogram.update(i);
+    }
+    HistogramSnapshot snapshot = histogram.takeSnapshot();
+    assertEquals(1_000_000, snapshot.size());
+    long[] values = snapshot.getValues();
+    assertTrue(values.length < 2000);
+    for (int i = 1; i < values.length; i++) {
+      assertTrue(values[i - 1] <= values[i]);
+    }
+    // the values are sampled from evenly spaced ranks
+    assertTrue(values[0] < 1_000);
+    assertEquals(1_000_000, values[values.length - 1], 1_000_000 / 64.0);
+    assertEquals(500_000, values[values.length / 2], 500_000 / 64.0);
+  }
+
+  @Test
+  public void getOrCreateTimer() {
+    Timer timer = metricManager.getOrCreateTimer("timer_test", MetricLevel.IMPORTANT, "tag1");
+    assertNotNull(timer);
+    timer.update(2, TimeUnit.MILLISECONDS);
+    metricManager.timer(4, TimeUnit.MILLISECONDS, "timer_test", MetricLevel.IMPORTANT, "tag1");
+    assertEquals(2, timer.getImmutableRate().getCount());
+    HistogramSnapshot snapshot = timer.takeSnapshot();
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(2), snapshot.getMin());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(4), snapshot.getMax());
+  }
+
+  @Test
+  public void getAllMetrics() {
+    metricManager.getOrCreateCounter("all_metrics_counter", MetricLevel.IMPORTANT);
+    metricManager.getOrCreateHistogram("all_metrics_histogram", MetricLevel.IMPORTANT);
+    assertTrue(metricManager.getAllCounters().size() >= 1);
+    assertTrue(metricManager.getAllHistograms().size() >= 1);
+    assertTrue(metricManager.getAllMetricKeys().size() >= 2);
+  }
+
+  @AfterClass
+  public static void stop() {
+    metricService.stop();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.metrics.core.reporter;
+
+import org.apache.iotdb.metrics.config.MetricConfig;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.core.IoTDBMetricManager;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IoTDBPrometheusReporterTest {
+  private final MetricConfig metricConfig = MetricConfigDescriptor.getInstance().getMetricConfig();
+  private IoTDBMetricManager metricManager;
+  private IoTDBPrometheusReporter reporter;
+
+  @Before
+  public void setUp() {
+    metricConfig.setEnableMetric(true);
+    metricConfig.setMetricLevel(MetricLevel.IMPORTANT);
+    metricManager = new IoTDBMetricManager();
+    reporter = new IoTDBPrometheusReporter();
+    reporter.setMetricManager(metricManager);
+  }
+
+  @Test
+  public void testSameNameWithDifferentTags() {
+    metricManager.count(1, "points", MetricLevel.IMPORTANT, "sg", "root.sg1");
+    metricManager.getOrCreateGauge("memory", MetricLevel.IMPORTANT, "type", "used").set(3);
+    metricManager.count(2, "points", MetricLevel.IMPORTANT, "sg", "root.sg2");
+    metricManager.getOrCreateGauge("memory", MetricLevel.IMPORTANT, "type", "free").set(4);
+    metricManager.histogram(5, "latency", MetricLevel.IMPORTANT, "op", "read");
+    metricManager.histogram(6, "latency", MetricLevel.IMPORTANT, "op", "write");
+
+    String exposition = reporter.scrape();
+    assertValid(exposition);
+    assertTrue(exposition.contains("# TYPE points counter\n"));
+    assertTrue(exposition.contains("# TYPE memory gauge\n"));
+    assertTrue(exposition.contains("# TYPE latency summary\n"));
+    assertTrue(exposition.contains("points{sg=\"root.sg1\"} 1.0\n"));
+    assertTrue(exposition.contains("points{sg=\"root.sg2\"} 2.0\n"));
+    assertTrue(exposition.contains("latency_count{op=\"write\"} 1.0\n"));
+  }
+
+  /**
+   * Check that every family has exactly one TYPE line and that the samples of a family directly
+   * follow its TYPE line.
+   */
+  private void assertValid(String exposition) {
+    Set<String> families = new HashSet<>();
+    String family = null;
+    String type = null;
+    for (String line : exposition.split("\n")) {
+      if (line.startsWith("# TYPE ")) {
+        String[] parts = line.split(" ");
+        assertEquals(line, 4, parts.length);
+        family = parts[2];
+        type = parts[3];
+        assertTrue("duplicate TYPE line of " + family, families.add(family));
+        continue;
+      }
+      int end = line.indexOf('{') >= 0 ? line.indexOf('{') : line.indexOf(' ');
+      String sampleName = line.substring(0, end);
+      boolean inFamily =
+          sampleName.equals(family)
+              || ("summary".equals(type)
+                  && (sampleName.equals(family + "_count") || sampleName.equals(family + "_sum")));
+      assertTrue(sampleName + " is not in the family " + family, inFamily);
+    }
+  }
+}
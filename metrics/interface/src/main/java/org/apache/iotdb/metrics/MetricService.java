@@ -88,9 +88,9 @@ public abstract class MetricService {
     for (MetricManager mf : metricManagers) {
       size++;
       if (mf.getClass()
-          .getName()
+          .getSimpleName()
           .toLowerCase()
-          .contains(metricConfig.getMonitorType().name().toLowerCase())) {
+          .startsWith(metricConfig.getMonitorType().name().toLowerCase())) {
         metricManager = mf;
         break;
       }
@@ -114,9 +114,9 @@ public abstract class MetricService {
           && metricConfig.getMetricReporterList().contains(reporter.getReporterType())
           && reporter
               .getClass()
-              .getName()
+              .getSimpleName()
               .toLowerCase()
-              .contains(metricConfig.getMonitorType().name().toLowerCase())) {
+              .startsWith(metricConfig.getMonitorType().name().toLowerCase())) {
         reporter.setMetricManager(metricManager);
         compositeReporter.addReporter(reporter);
       }
@@ -21,7 +21,8 @@ package org.apache.iotdb.metrics.utils;
 
 public enum MonitorType {
   DROPWIZARD,
-  MICROMETER;
+  MICROMETER,
+  IOTDB;
 
   @Override
   public String toString() {
@@ -60,6 +60,7 @@ public enum ThreadName {
   SYNC_SENDER_HEARTBEAT("Sync-Heartbeat"),
   SYNC_RECEIVER_COLLECTOR("Sync-Collector"),
   CONTINUOUS_QUERY_SERVICE("ContinuousQueryTaskPoolManager"),
+  SELECT_INTO_WRITER("SelectInto-Writer"),
   CLUSTER_INFO_SERVICE("ClusterInfoClient"),
   CLUSTER_RPC_SERVICE("ClusterRPC"),
   CLUSTER_RPC_CLIENT("Cluster-RPC-Client"),
@@ -413,6 +413,12 @@ public class IoTDBConfig {
    */
   private long chunkPointNumLowerBoundInCompaction = 100;
 
+  /**
+   * If the chunk metadata of a target file exceed this size in compaction, they are spilled to a
+   * temp file to bound the memory usage, default is 128 MB. Non-positive value disables spilling.
+   */
+  private long chunkMetadataSizeThresholdInCompaction = 134217728L;
+
   /**
    * If compaction thread cannot acquire the write lock within this timeout, the compaction task
    * will be abort.
@@ -622,6 +628,12 @@ public class IoTDBConfig {
    */
   private long continuousQueryMinimumEveryInterval = 1000;
 
+  /*
+   * Whether to execute continuous queries incrementally. When enabled, each execution only computes
+   * the new time range after the last execution and the time ranges touched by late writes.
+   */
+  private boolean enableIncrementalContinuousQuery = true;
+
   /**
    * The size of log buffer for every CQ management operation plan. If the size of a CQ management
    * operation plan is larger than this parameter, the CQ management operation plan will be rejected
@@ -635,6 +647,13 @@ public class IoTDBConfig {
    */
   private int selectIntoInsertTabletPlanRowLimit = 10000;
 
+  /**
+   * The max number of threads that insert the results of a select-into statement in parallel. The
+   * results of different storage groups are inserted by different threads.
+   */
+  private int selectIntoWriterThreadNum =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
   /**
    * When the insert plan column count reaches the specified threshold, which means that the plan is
    * relatively large. At this time, may be enabled multithreading. If the tablet is small, the time
@@ -707,6 +726,21 @@ public class IoTDBConfig {
    */
   private TimeIndexLevel timeIndexLevel = TimeIndexLevel.DEVICE_TIME_INDEX;
 
+  /**
+   * Whether to compress the DeviceTimeIndex of sealed TsFiles and evict it to the .resource file
+   * when the memory for time index is not enough, before degrading it to FILE_TIME_INDEX.
+   */
+  private boolean enableCompressedDeviceTimeIndex = false;
+
+  /**
+   * Whether to write a value range index beside each sealed TsFile at flush and compaction, so that
+   * value filters can skip the chunks and files whose values can not match.
+   */
+  private boolean enableValueRangeIndex = false;
+
+  /** Ratio of read memory allocated for the cache of the value range indexes */
+  private double valueRangeIndexMemoryProportion = 0.05;
+
   // just for test
   // wait for 60 second by default.
   private int thriftServerAwaitTimeForStopService = 60;
@@ -762,6 +796,15 @@ public class IoTDBConfig {
   /** time cost(ms) threshold for slow query. Unit: millisecond */
   private long slowQueryThreshold = 5000;
 
+  /**
+   * The max memory of the parse trees of the recently executed queries to cache, which are cached
+   * by their complete SQL. Unit: byte
+   */
+  private long queryParseTreeCacheSizeInByte = 8 * 1024 * 1024L;
+
+  /** The max number of the statements prepared in a session at the same time. */
+  private int maxPreparedStatementNumPerSession = 100;
+
   /**
    * whether enable the rpc service. This parameter has no a corresponding field in the
    * iotdb-engine.properties
@@ -969,6 +1012,30 @@ public class IoTDBConfig {
     this.timeIndexLevel = TimeIndexLevel.valueOf(timeIndexLevel);
   }
 
+  public boolean isEnableCompressedDeviceTimeIndex() {
+    return enableCompressedDeviceTimeIndex;
+  }
+
+  public void setEnableCompressedDeviceTimeIndex(boolean enableCompressedDeviceTimeIndex) {
+    this.enableCompressedDeviceTimeIndex = enableCompressedDeviceTimeIndex;
+  }
+
+  public boolean isEnableValueRangeIndex() {
+    return enableValueRangeIndex;
+  }
+
+  public void setEnableValueRangeIndex(boolean enableValueRangeIndex) {
+    this.enableValueRangeIndex = enableValueRangeIndex;
+  }
+
+  public double getValueRangeIndexMemoryProportion() {
+    return valueRangeIndexMemoryProportion;
+  }
+
+  public void setValueRangeIndexMemoryProportion(double valueRangeIndexMemoryProportion) {
+    this.valueRangeIndexMemoryProportion = valueRangeIndexMemoryProportion;
+  }
+
   void updatePath() {
     formulateFolders();
     confirmMultiDirStrategy();
@@ -1647,6 +1714,14 @@ public class IoTDBConfig {
     this.continuousQueryMinimumEveryInterval = minimumEveryInterval;
   }
 
+  public boolean isEnableIncrementalContinuousQuery() {
+    return enableIncrementalContinuousQuery;
+  }
+
+  public void setEnableIncrementalContinuousQuery(boolean enableIncrementalContinuousQuery) {
+    this.enableIncrementalContinuousQuery = enableIncrementalContinuousQuery;
+  }
+
   public int getCqlogBufferSize() {
     return cqlogBufferSize;
   }
@@ -1663,6 +1738,14 @@ public class IoTDBConfig {
     return selectIntoInsertTabletPlanRowLimit;
   }
 
+  public int getSelectIntoWriterThreadNum() {
+    return selectIntoWriterThreadNum;
+  }
+
+  public void setSelectIntoWriterThreadNum(int selectIntoWriterThreadNum) {
+    this.selectIntoWriterThreadNum = selectIntoWriterThreadNum;
+  }
+
   public int getInsertMultiTabletEnableMultithreadingColumnThreshold() {
     return insertMultiTabletEnableMultithreadingColumnThreshold;
   }
@@ -2265,6 +2348,22 @@ public class IoTDBConfig {
     this.slowQueryThreshold = slowQueryThreshold;
   }
 
+  public long getQueryParseTreeCacheSizeInByte() {
+    return queryParseTreeCacheSizeInByte;
+  }
+
+  public void setQueryParseTreeCacheSizeInByte(long queryParseTreeCacheSizeInByte) {
+    this.queryParseTreeCacheSizeInByte = queryParseTreeCacheSizeInByte;
+  }
+
+  public int getMaxPreparedStatementNumPerSession() {
+    return maxPreparedStatementNumPerSession;
+  }
+
+  public void setMaxPreparedStatementNumPerSession(int maxPreparedStatementNumPerSession) {
+    this.maxPreparedStatementNumPerSession = maxPreparedStatementNumPerSession;
+  }
+
   public boolean isEnableIndex() {
     return enableIndex;
   }
@@ -2494,6 +2593,15 @@ public class IoTDBConfig {
     this.chunkPointNumLowerBoundInCompaction = chunkPointNumLowerBoundInCompaction;
   }
 
+  public long getChunkMetadataSizeThresholdInCompaction() {
+    return chunkMetadataSizeThresholdInCompaction;
+  }
+
+  public void setChunkMetadataSizeThresholdInCompaction(
+      long chunkMetadataSizeThresholdInCompaction) {
+    this.chunkMetadataSizeThresholdInCompaction = chunkMetadataSizeThresholdInCompaction;
+  }
+
   public long getCompactionAcquireWriteLockTimeout() {
     return compactionAcquireWriteLockTimeout;
   }
@@ -208,6 +208,24 @@ public class IoTDBDescriptor {
                   "time_index_memory_proportion",
                   Double.toString(conf.getTimeIndexMemoryProportion()))));
 
+      conf.setEnableCompressedDeviceTimeIndex(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_compressed_device_time_index",
+                  Boolean.toString(conf.isEnableCompressedDeviceTimeIndex()))));
+
+      conf.setEnableValueRangeIndex(
+          Boolean.parseBoolean(
+              properties.getProperty(
+                  "enable_value_range_index",
+                  Boolean.toString(conf.isEnableValueRangeIndex()))));
+
+      conf.setValueRangeIndexMemoryProportion(
+          Double.parseDouble(
+              properties.getProperty(
+                  "value_range_index_memory_proportion",
+                  Double.toString(conf.getValueRangeIndexMemoryProportion()))));
+
       conf.setFlushProportion(
           Double.parseDouble(
               properties.getProperty(
@@ -565,6 +583,11 @@ public class IoTDBDescriptor {
               properties.getProperty(
                   "chunk_size_lower_bound_in_compaction",
                   Long.toString(conf.getChunkPointNumLowerBoundInCompaction()))));
+      conf.setChunkMetadataSizeThresholdInCompaction(
+          Long.parseLong(
+              properties.getProperty(
+                  "chunk_metadata_size_threshold_in_compaction",
+                  Long.toString(conf.getChunkMetadataSizeThresholdInCompaction()))));
       conf.setChunkSizeLowerBoundInCompaction(
           Long.parseLong(
               properties.getProperty(
@@ -696,6 +719,18 @@ public class IoTDBDescriptor {
               properties.getProperty(
                   "slow_query_threshold", String.valueOf(conf.getSlowQueryThreshold()))));
 
+      conf.setQueryParseTreeCacheSizeInByte(
+          Long.parseLong(
+              properties.getProperty(
+                  "query_parse_tree_cache_size_in_byte",
+                  String.valueOf(conf.getQueryParseTreeCacheSizeInByte()))));
+
+      conf.setMaxPreparedStatementNumPerSession(
+          Integer.parseInt(
+              properties.getProperty(
+                  "max_prepared_statement_num_per_session",
+                  String.valueOf(conf.getMaxPreparedStatementNumPerSession()))));
+
       conf.setDataRegionNum(
           Integer.parseInt(
               properties.getProperty("data_region_num", String.valueOf(conf.getDataRegionNum()))));
@@ -793,6 +828,16 @@ public class IoTDBDescriptor {
                   "select_into_insert_tablet_plan_row_limit",
                   String.valueOf(conf.getSelectIntoInsertTabletPlanRowLimit()))));
 
+      conf.setSelectIntoWriterThreadNum(
+          Integer.parseInt(
+              properties.getProperty(
+                  "select_into_writer_thread_num",
+                  String.valueOf(conf.getSelectIntoWriterThreadNum()))));
+      if (conf.getSelectIntoWriterThreadNum() <= 0) {
+        conf.setSelectIntoWriterThreadNum(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+      }
+
       conf.setInsertMultiTabletEnableMultithreadingColumnThreshold(
           Integer.parseInt(
               properties.getProperty(
@@ -1524,6 +1569,12 @@ public class IoTDBDescriptor {
             properties.getProperty("continuous_query_minimum_every_interval", "1s"),
             conf.getTimestampPrecision()));
 
+    conf.setEnableIncrementalContinuousQuery(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_incremental_continuous_query",
+                Boolean.toString(conf.isEnableIncrementalContinuousQuery()))));
+
     conf.setCqlogBufferSize(
         Integer.parseInt(
             properties.getProperty(
@@ -28,6 +28,8 @@ public enum OperationType {
   EXECUTE_LAST_DATA_QUERY("lastDataQueryReqToPhysicalPlan"),
   FETCH_RESULTS("fetchResults"),
   EXECUTE_UPDATE_STATEMENT("executeUpdateStatement"),
+  PREPARE_STATEMENT("prepareStatement"),
+  EXECUTE_PREPARED_STATEMENT("executePreparedStatement"),
   GET_TIME_ZONE("getTimeZone"),
   SET_TIME_ZONE("setTimeZone"),
   INSERT_RECORDS("insertRecords"),
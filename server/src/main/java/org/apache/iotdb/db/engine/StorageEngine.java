@@ -877,10 +877,9 @@ public class StorageEngine implements IService {
     if (deviceSet == null || deviceSet.isEmpty()) {
       throw new StorageEngineException("Can not get the corresponding storage group.");
     }
+    // the devices of a loaded file share one data region, route the file by any of them
     String device = deviceSet.iterator().next();
-    PartialPath devicePath = new PartialPath(device);
-    PartialPath storageGroupPath = IoTDB.schemaProcessor.getBelongedStorageGroup(devicePath);
-    getProcessorDirectly(storageGroupPath).loadNewTsFile(newTsFileResource, deleteOriginFile);
+    getProcessor(new PartialPath(device)).loadNewTsFile(newTsFileResource, deleteOriginFile);
   }
 
   public boolean deleteTsfile(File deletedTsfile)
@@ -35,6 +35,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -105,6 +107,33 @@ public class BloomFilterCache {
     return bloomFilter;
   }
 
+  /**
+   * check a batch of series paths against the bloom filter of a file at once.
+   *
+   * @param paths full paths of the series
+   * @return the paths that may be in the file in the given order, or the given list itself if the
+   *     file has no bloom filter
+   */
+  public List<String> filter(BloomFilterCacheKey key, List<String> paths, boolean debug)
+      throws IOException {
+    BloomFilter bloomFilter = get(key, debug);
+    if (bloomFilter == null) {
+      return paths;
+    }
+    boolean[] mayContain = bloomFilter.contains(paths);
+    List<String> res = new ArrayList<>(paths.size());
+    for (int i = 0; i < mayContain.length; i++) {
+      if (mayContain[i]) {
+        res.add(paths.get(i));
+      }
+    }
+    if (debug) {
+      DEBUG_LOGGER.info(
+          "{} of {} paths pass the bloomFilter of file {}", res.size(), paths.size(), key.filePath);
+    }
+    return res;
+  }
+
   public double calculateChunkHitRatio() {
     return lruCache.stats().hitRate();
   }
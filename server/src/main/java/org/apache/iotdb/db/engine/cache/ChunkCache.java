@@ -22,6 +22,7 @@ package org.apache.iotdb.db.engine.cache;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.db.service.metrics.MetricsService;
 import org.apache.iotdb.db.service.metrics.enums.Metric;
@@ -73,18 +74,7 @@ public class ChunkCache {
                             (RamUsageEstimator.NUM_BYTES_OBJECT_REF
                                 + RamUsageEstimator.sizeOf(chunk)))
             .recordStats()
-            .build(
-                chunkMetadata -> {
-                  try {
-                    TsFileSequenceReader reader =
-                        FileReaderManager.getInstance()
-                            .get(chunkMetadata.getFilePath(), chunkMetadata.isClosed());
-                    return reader.readMemChunk(chunkMetadata);
-                  } catch (IOException e) {
-                    logger.error("Something wrong happened in reading {}", chunkMetadata, e);
-                    throw e;
-                  }
-                });
+            .build(ChunkCache::loadChunk);
 
     // add metrics
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
@@ -100,6 +90,18 @@ public class ChunkCache {
     }
   }
 
+  private static Chunk loadChunk(ChunkMetadata chunkMetadata) throws IOException {
+    try {
+      TsFileSequenceReader reader =
+          FileReaderManager.getInstance()
+              .get(chunkMetadata.getFilePath(), chunkMetadata.isClosed());
+      return reader.readMemChunk(chunkMetadata);
+    } catch (IOException e) {
+      logger.error("Something wrong happened in reading {}", chunkMetadata, e);
+      throw e;
+    }
+  }
+
   public static ChunkCache getInstance() {
     return ChunkCacheHolder.INSTANCE;
   }
@@ -113,12 +115,7 @@ public class ChunkCache {
       TsFileSequenceReader reader =
           FileReaderManager.getInstance()
               .get(chunkMetaData.getFilePath(), chunkMetaData.isClosed());
-      Chunk chunk = reader.readMemChunk(chunkMetaData);
-      return new Chunk(
-          chunk.getHeader(),
-          chunk.getData().duplicate(),
-          chunkMetaData.getDeleteIntervalList(),
-          chunkMetaData.getStatistics());
+      return copyChunk(reader.readMemChunk(chunkMetaData), chunkMetaData);
     }
 
     Chunk chunk = lruCache.get(chunkMetaData);
@@ -127,11 +124,41 @@ public class ChunkCache {
       DEBUG_LOGGER.info("get chunk from cache whose meta data is: " + chunkMetaData);
     }
 
-    return new Chunk(
-        chunk.getHeader(),
-        chunk.getData().duplicate(),
-        chunkMetaData.getDeleteIntervalList(),
-        chunkMetaData.getStatistics());
+    return copyChunk(chunk, chunkMetaData);
+  }
+
+  /** the cached chunk is shared, so each query reads a copy with its own data position */
+  private static Chunk copyChunk(Chunk chunk, ChunkMetadata chunkMetaData) {
+    Chunk copy =
+        new Chunk(
+            chunk.getHeader(),
+            chunk.getData().duplicate(),
+            chunkMetaData.getDeleteIntervalList(),
+            chunkMetaData.getStatistics());
+    copy.setZstdDictionaries(chunk.getZstdDictionaries());
+    return copy;
+  }
+
+  /**
+   * Get the chunk, and record the bytes served by the cache or read from disk into the context if
+   * the query is profiled.
+   */
+  public Chunk get(ChunkMetadata chunkMetaData, QueryContext context) throws IOException {
+    if (!context.isProfiling()) {
+      return get(chunkMetaData, context.isDebug());
+    }
+    boolean cached = CACHE_ENABLE && lruCache.asMap().containsKey(chunkMetaData);
+    Chunk chunk = get(chunkMetaData, context.isDebug());
+    if (cached) {
+      context.addChunkCacheReadBytes(getChunkSize(chunk));
+    } else {
+      context.addDiskReadBytes(getChunkSize(chunk));
+    }
+    return chunk;
+  }
+
+  private static long getChunkSize(Chunk chunk) {
+    return (long) chunk.getHeader().getSerializedSize() + chunk.getHeader().getDataSize();
   }
 
   public double calculateChunkHitRatio() {
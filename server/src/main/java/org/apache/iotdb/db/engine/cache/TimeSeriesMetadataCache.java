@@ -45,18 +45,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.lang.ref.WeakReference;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * This class is used to cache <code>TimeSeriesMetadata</code> in IoTDB. The caching strategy is
- * LRU.
+ * This class is used to cache <code>TimeSeriesMetadata</code> in IoTDB. The cache is bounded by
+ * weight, so Caffeine admits entries by their frequency (W-TinyLFU) and a scan over rarely used
+ * series does not flush the hot ones. On a miss, the TimeSeriesMetadata of all the queried sensors
+ * of the device are loaded by a single read of the file.
  */
 public class TimeSeriesMetadataCache {
 
@@ -74,11 +74,15 @@ public class TimeSeriesMetadataCache {
   private final AtomicLong bloomFilterRequestCount = new AtomicLong(0L);
   private final AtomicLong bloomFilterPreventCount = new AtomicLong(0L);
 
-  private final Map<String, WeakReference<String>> devices =
-      Collections.synchronizedMap(new WeakHashMap<>());
-  private static final String SEPARATOR = "$";
+  /** loading the same device of the same file is serialized, different devices load in parallel */
+  private static final int LOCK_STRIPES = 256;
+
+  private final Object[] deviceLocks = new Object[LOCK_STRIPES];
 
   private TimeSeriesMetadataCache() {
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      deviceLocks[i] = new Object();
+    }
     if (CACHE_ENABLE) {
       logger.info(
           "TimeseriesMetadataCache size = " + MEMORY_THRESHOLD_IN_TIME_SERIES_METADATA_CACHE);
@@ -93,8 +97,6 @@ public class TimeSeriesMetadataCache {
                             (RamUsageEstimator.shallowSizeOf(key)
                                 + RamUsageEstimator.sizeOf(key.device)
                                 + RamUsageEstimator.sizeOf(key.measurement)
-                                + RamUsageEstimator.sizeOf(key.tsFilePrefixPath)
-                                + RamUsageEstimator.sizeOf(key.tsFileVersion)
                                 + RamUsageEstimator.shallowSizeOf(value)
                                 + RamUsageEstimator.sizeOf(value.getMeasurementId())
                                 + RamUsageEstimator.shallowSizeOf(value.getStatistics())
@@ -172,20 +174,27 @@ public class TimeSeriesMetadataCache {
             "Cache miss: {}.{} in file: {}", key.device, key.measurement, key.filePath);
         DEBUG_LOGGER.info("Device: {}, all sensors: {}", key.device, allSensors);
       }
-      // allow for the parallelism of different devices
-      synchronized (
-          devices.computeIfAbsent(key.device + SEPARATOR + key.filePath, WeakReference::new)) {
+      synchronized (deviceLocks[(key.deviceHashCode() & Integer.MAX_VALUE) % LOCK_STRIPES]) {
         // double check
         timeseriesMetadata = lruCache.getIfPresent(key);
         if (timeseriesMetadata == null) {
-          Path path = new Path(key.device, key.measurement);
-          // bloom filter part
-          BloomFilter bloomFilter =
+          // bloom filter part, the sensors queried together are checked at once and only the ones
+          // that may be in the file are read
+          String devicePrefix = key.device + IoTDBConstant.PATH_SEPARATOR;
+          List<String> paths = new ArrayList<>(allSensors.size() + 1);
+          paths.add(devicePrefix + key.measurement);
+          for (String sensor : allSensors) {
+            if (!sensor.equals(key.measurement)) {
+              paths.add(devicePrefix + sensor);
+            }
+          }
+          List<String> candidates =
               BloomFilterCache.getInstance()
-                  .get(new BloomFilterCache.BloomFilterCacheKey(key.filePath), debug);
-          if (bloomFilter != null) {
+                  .filter(new BloomFilterCache.BloomFilterCacheKey(key.filePath), paths, debug);
+          if (candidates != paths) {
             bloomFilterRequestCount.incrementAndGet();
-            if (!bloomFilter.contains(path.getFullPath())) {
+            // the path of the key is the first one
+            if (candidates.isEmpty() || !candidates.get(0).equals(paths.get(0))) {
               bloomFilterPreventCount.incrementAndGet();
               if (debug) {
                 DEBUG_LOGGER.info("TimeSeries meta data {} is filter by bloomFilter!", key);
@@ -193,14 +202,18 @@ public class TimeSeriesMetadataCache {
               return null;
             }
           }
+          Set<String> sensors = new HashSet<>(candidates.size());
+          for (String candidate : candidates) {
+            sensors.add(candidate.substring(devicePrefix.length()));
+          }
           TsFileSequenceReader reader = FileReaderManager.getInstance().get(key.filePath, true);
           List<TimeseriesMetadata> timeSeriesMetadataList =
-              reader.readTimeseriesMetadata(path, allSensors);
+              reader.readDeviceTimeseriesMetadata(key.device, sensors);
           // put TimeSeriesMetadata of all sensors used in this query into cache
           for (TimeseriesMetadata metadata : timeSeriesMetadataList) {
             TimeSeriesMetadataCacheKey k =
                 new TimeSeriesMetadataCacheKey(
-                    key.filePath, key.device, metadata.getMeasurementId());
+                    key.filePath, key.fileId, key.device, metadata.getMeasurementId());
             if (metadata.getStatistics().getCount() != 0) {
               lruCache.put(k, metadata);
             }
@@ -264,25 +277,80 @@ public class TimeSeriesMetadataCache {
     return lruCache.asMap().isEmpty();
   }
 
+  /**
+   * The key of a TimeseriesMetadata. The file part is interned once per file and the hash code is
+   * computed when the key is created, so a lookup does not parse the file path nor combine strings.
+   */
   public static class TimeSeriesMetadataCacheKey {
 
     private final String filePath;
-    private final String tsFilePrefixPath;
-    private final long tsFileVersion;
-    // high 32 bit is compaction level, low 32 bit is merge count
-    private final long compactionVersion;
+    private final TsFileId fileId;
     private final String device;
     private final String measurement;
+    private final int hashCode;
 
     public TimeSeriesMetadataCacheKey(String filePath, String device, String measurement) {
+      this(filePath, TsFileId.of(filePath), device, measurement);
+    }
+
+    private TimeSeriesMetadataCacheKey(
+        String filePath, TsFileId fileId, String device, String measurement) {
       this.filePath = filePath;
+      this.fileId = fileId;
+      this.device = device;
+      this.measurement = measurement;
+      this.hashCode = deviceHashCode() * 31 + measurement.hashCode();
+    }
+
+    private int deviceHashCode() {
+      return fileId.hashCode * 31 + device.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TimeSeriesMetadataCacheKey that = (TimeSeriesMetadataCacheKey) o;
+      return hashCode == that.hashCode
+          && measurement.equals(that.measurement)
+          && device.equals(that.device)
+          && fileId.equals(that.fileId);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** The identity of a TsFile that does not change when the file is moved to another folder. */
+  private static class TsFileId {
+
+    /** file path -> id, an id is kept as long as some cached key refers to it */
+    private static final Cache<String, TsFileId> FILE_IDS =
+        Caffeine.newBuilder().weakValues().build();
+
+    private final String tsFilePrefixPath;
+    private final long tsFileVersion;
+    // high 32 bit is compaction level, low 32 bit is merge count
+    private final long compactionVersion;
+    private final int hashCode;
+
+    private TsFileId(String filePath) {
       Pair<String, long[]> tsFilePrefixPathAndTsFileVersionPair =
           FilePathUtils.getTsFilePrefixPathAndTsFileVersionPair(filePath);
       this.tsFilePrefixPath = tsFilePrefixPathAndTsFileVersionPair.left;
       this.tsFileVersion = tsFilePrefixPathAndTsFileVersionPair.right[0];
       this.compactionVersion = tsFilePrefixPathAndTsFileVersionPair.right[1];
-      this.device = device;
-      this.measurement = measurement;
+      this.hashCode = Objects.hash(tsFilePrefixPath, tsFileVersion, compactionVersion);
+    }
+
+    private static TsFileId of(String filePath) {
+      return FILE_IDS.get(filePath, TsFileId::new);
     }
 
     @Override
@@ -293,17 +361,15 @@ public class TimeSeriesMetadataCache {
       if (o == null || getClass() != o.getClass()) {
         return false;
       }
-      TimeSeriesMetadataCacheKey that = (TimeSeriesMetadataCacheKey) o;
-      return Objects.equals(measurement, that.measurement)
-          && Objects.equals(device, that.device)
-          && tsFileVersion == that.tsFileVersion
+      TsFileId that = (TsFileId) o;
+      return tsFileVersion == that.tsFileVersion
           && compactionVersion == that.compactionVersion
           && tsFilePrefixPath.equals(that.tsFilePrefixPath);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(tsFilePrefixPath, tsFileVersion, compactionVersion, device, measurement);
+      return hashCode;
     }
   }
 
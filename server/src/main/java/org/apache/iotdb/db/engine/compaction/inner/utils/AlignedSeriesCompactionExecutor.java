@@ -75,7 +75,7 @@ public class AlignedSeriesCompactionExecutor {
     this.writer = writer;
     this.targetResource = targetResource;
     schemaList = collectSchemaFromAlignedChunkMetadataList(readerAndChunkMetadataList);
-    chunkWriter = new AlignedChunkWriterImpl(schemaList);
+    chunkWriter = new AlignedChunkWriterImpl(schemaList, true);
   }
 
   /**
@@ -83,7 +83,7 @@ public class SingleSeriesCompactionExecutor {
     this.readerAndChunkMetadataList = readerAndChunkMetadataList;
     this.fileWriter = fileWriter;
     this.schema = measurementSchema;
-    this.chunkWriter = new ChunkWriterImpl(this.schema);
+    this.chunkWriter = new ChunkWriterImpl(this.schema, true);
     this.cachedChunk = null;
     this.cachedChunkMetadata = null;
     this.targetResource = targetResource;
@@ -66,7 +66,12 @@ public class ReadChunkCompactionPerformer implements ISeqCompactionPerformer {
   public void perform()
       throws IOException, MetadataException, InterruptedException, StorageEngineException {
     try (MultiTsFileDeviceIterator deviceIterator = new MultiTsFileDeviceIterator(seqFiles);
-        TsFileIOWriter writer = new TsFileIOWriter(targetResource.getTsFile())) {
+        TsFileIOWriter writer =
+            new TsFileIOWriter(
+                targetResource.getTsFile(),
+                IoTDBDescriptor.getInstance()
+                    .getConfig()
+                    .getChunkMetadataSizeThresholdInCompaction())) {
       while (deviceIterator.hasNextDevice()) {
         Pair<String, Boolean> deviceInfo = deviceIterator.nextDevice();
         String device = deviceInfo.left;
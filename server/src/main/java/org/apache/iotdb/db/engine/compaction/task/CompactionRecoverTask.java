@@ -34,6 +34,7 @@ import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.utils.TsFileUtils;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
@@ -156,8 +157,8 @@ public class CompactionRecoverTask {
   }
 
   /**
-   * All source files exist: (1) delete all the target files and tmp target files (2) delete
-   * compaction mods files.
+   * All source files exist: (1) delete all the target files, tmp target files and the metadata
+   * spill files of the tmp target files (2) delete compaction mods files.
    */
   private boolean handleWithAllSourceFilesExist(
       List<TsFileIdentifier> targetFileIdentifiers, List<TsFileIdentifier> sourceFileIdentifiers) {
@@ -195,6 +196,9 @@ public class CompactionRecoverTask {
             targetResource);
         return false;
       }
+      if (!deleteSpillFiles(targetFileIdentifier)) {
+        return false;
+      }
     }
 
     // delete compaction mods files
@@ -216,7 +220,7 @@ public class CompactionRecoverTask {
 
   /**
    * Some source files lost: delete remaining source files, including: tsfile, resource file, mods
-   * file and compaction mods file.
+   * file and compaction mods file, and the metadata spill files left by the target files.
    */
   private boolean handleWithSomeSourceFilesLost(
       List<TsFileIdentifier> targetFileIdentifiers, List<TsFileIdentifier> sourceFileIdentifiers)
@@ -227,6 +231,11 @@ public class CompactionRecoverTask {
     }
 
     boolean handleSuccess = true;
+    for (TsFileIdentifier targetFileIdentifier : targetFileIdentifiers) {
+      if (!deleteSpillFiles(targetFileIdentifier)) {
+        handleSuccess = false;
+      }
+    }
     for (TsFileIdentifier sourceFileIdentifier : sourceFileIdentifiers) {
       File sourceFile = sourceFileIdentifier.getFileFromDataDirs();
       if (sourceFile != null) {
@@ -308,6 +317,25 @@ public class CompactionRecoverTask {
     return true;
   }
 
+  /**
+   * Delete the temp files that the TsFileIOWriter of the tmp target file (xxx.inner or xxx.cross)
+   * spills its chunk metadata to, which are left if the compaction is interrupted.
+   */
+  private boolean deleteSpillFiles(TsFileIdentifier targetFileIdentifier) {
+    boolean deleted = true;
+    for (String suffix :
+        new String[] {
+          TsFileIOWriter.CHUNK_METADATA_TEMP_FILE_SUFFIX,
+          TsFileIOWriter.SERIES_PATH_TEMP_FILE_SUFFIX
+        }) {
+      File spillFile = getFileFromDataDirs(targetFileIdentifier.getFilePath() + suffix);
+      if (!checkAndDeleteFile(spillFile)) {
+        deleted = false;
+      }
+    }
+    return deleted;
+  }
+
   /**
    * Return true if the file is not existed or if the file is existed and has been deleted
    * correctly. Otherwise, return false.
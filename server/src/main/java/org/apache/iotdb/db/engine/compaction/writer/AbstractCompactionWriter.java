@@ -63,7 +63,7 @@ public abstract class AbstractCompactionWriter implements AutoCloseable {
   public void startMeasurement(List<IMeasurementSchema> measurementSchemaList, int subTaskId) {
     measurementPointCountArray[subTaskId] = 0;
     if (isAlign) {
-      chunkWriters[subTaskId] = new AlignedChunkWriterImpl(measurementSchemaList);
+      chunkWriters[subTaskId] = new AlignedChunkWriterImpl(measurementSchemaList, true);
     } else {
       chunkWriters[subTaskId] = new ChunkWriterImpl(measurementSchemaList.get(0), true);
     }
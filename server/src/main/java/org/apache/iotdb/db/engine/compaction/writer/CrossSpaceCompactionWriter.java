@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.engine.compaction.writer;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.query.control.FileReaderManager;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
@@ -58,7 +59,12 @@ public class CrossSpaceCompactionWriter extends AbstractCompactionWriter {
     isEmptyFile = new boolean[seqFileResources.size()];
     isDeviceExistedInTargetFiles = new boolean[targetResources.size()];
     for (int i = 0; i < targetResources.size(); i++) {
-      this.fileWriterList.add(new TsFileIOWriter(targetResources.get(i).getTsFile()));
+      this.fileWriterList.add(
+          new TsFileIOWriter(
+              targetResources.get(i).getTsFile(),
+              IoTDBDescriptor.getInstance()
+                  .getConfig()
+                  .getChunkMetadataSizeThresholdInCompaction()));
       isEmptyFile[i] = true;
     }
     this.seqTsFileResources = seqFileResources;
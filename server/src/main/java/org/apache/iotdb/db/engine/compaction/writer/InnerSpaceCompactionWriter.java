@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.engine.compaction.writer;
 
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
 
@@ -31,7 +32,10 @@ public class InnerSpaceCompactionWriter extends AbstractCompactionWriter {
   private boolean isEmptyFile;
 
   public InnerSpaceCompactionWriter(TsFileResource targetFileResource) throws IOException {
-    this.fileWriter = new TsFileIOWriter(targetFileResource.getTsFile());
+    this.fileWriter =
+        new TsFileIOWriter(
+            targetFileResource.getTsFile(),
+            IoTDBDescriptor.getInstance().getConfig().getChunkMetadataSizeThresholdInCompaction());
     isEmptyFile = true;
   }
 
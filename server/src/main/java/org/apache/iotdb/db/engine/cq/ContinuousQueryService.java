@@ -22,22 +22,28 @@ package org.apache.iotdb.db.engine.cq;
 import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.commons.exception.StartupException;
 import org.apache.iotdb.commons.file.SystemFileFactory;
+import org.apache.iotdb.commons.path.PartialPath;
 import org.apache.iotdb.commons.service.IService;
 import org.apache.iotdb.commons.service.ServiceType;
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.ContinuousQueryException;
+import org.apache.iotdb.db.qp.logical.Operator;
+import org.apache.iotdb.db.qp.logical.crud.QueryOperator;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.sys.CreateContinuousQueryPlan;
 import org.apache.iotdb.db.qp.physical.sys.DropContinuousQueryPlan;
+import org.apache.iotdb.db.qp.strategy.LogicalGenerator;
 import org.apache.iotdb.db.qp.utils.DatetimeUtils;
 import org.apache.iotdb.db.query.dataset.ShowContinuousQueriesResult;
+import org.apache.iotdb.tsfile.utils.Pair;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -69,6 +75,12 @@ public class ContinuousQueryService implements IService {
       new ConcurrentHashMap<>();
   private final ConcurrentHashMap<String, Long> nextExecutionTimestamps = new ConcurrentHashMap<>();
 
+  private final ConcurrentHashMap<String, IncrementalContinuousQueryState> incrementalStates =
+      new ConcurrentHashMap<>();
+  // a snapshot of incrementalStates.values(), which is iterated on the insert path
+  private volatile IncrementalContinuousQueryState[] incrementalStateArray =
+      new IncrementalContinuousQueryState[0];
+
   private CQLogWriter logWriter;
 
   public void doRecovery() throws StartupException {
@@ -160,14 +172,36 @@ public class ContinuousQueryService implements IService {
     long currentTimestamp = DatetimeUtils.currentTime();
     for (CreateContinuousQueryPlan plan : continuousQueryPlans.values()) {
       long nextExecutionTimestamp = nextExecutionTimestamps.get(plan.getContinuousQueryName());
+      IncrementalContinuousQueryState state = incrementalStates.get(plan.getContinuousQueryName());
       while (currentTimestamp >= nextExecutionTimestamp) {
-        TASK_POOL_MANAGER.submit(new ContinuousQueryTask(plan, nextExecutionTimestamp));
+        if (state != null) {
+          List<Pair<Long, Long>> timeRanges = state.advanceWatermark(nextExecutionTimestamp);
+          TASK_POOL_MANAGER.submit(
+              new IncrementalContinuousQueryTask(state, nextExecutionTimestamp, timeRanges));
+        } else {
+          TASK_POOL_MANAGER.submit(new ContinuousQueryTask(plan, nextExecutionTimestamp));
+        }
         nextExecutionTimestamp += plan.getEveryInterval();
       }
       nextExecutionTimestamps.replace(plan.getContinuousQueryName(), nextExecutionTimestamp);
     }
   }
 
+  /**
+   * Called on the insert path after the data of a device in time range [minTime, maxTime] is
+   * written, so that the windows touched by late writes can be recomputed by the incremental
+   * continuous queries.
+   */
+  public void onDataInserted(PartialPath devicePath, long minTime, long maxTime) {
+    IncrementalContinuousQueryState[] states = incrementalStateArray;
+    if (states.length == 0 || ContinuousQueryTask.isExecutingTask()) {
+      return;
+    }
+    for (IncrementalContinuousQueryState state : states) {
+      state.onDataInserted(devicePath, minTime, maxTime);
+    }
+  }
+
   @Override
   public void stop() {
     try {
@@ -183,6 +217,8 @@ public class ContinuousQueryService implements IService {
       }
 
       continuousQueryPlans.clear();
+      incrementalStates.clear();
+      incrementalStateArray = new IncrementalContinuousQueryState[0];
 
       if (logWriter != null) {
         logWriter.close();
@@ -243,6 +279,30 @@ public class ContinuousQueryService implements IService {
     nextExecutionTimestamps.put(
         plan.getContinuousQueryName(),
         calculateNextExecutionTimestamp(plan, DatetimeUtils.currentTime()));
+    registerIncrementalState(plan);
+  }
+
+  private void registerIncrementalState(CreateContinuousQueryPlan plan) {
+    if (!IoTDBDescriptor.getInstance().getConfig().isEnableIncrementalContinuousQuery()
+        || !IncrementalContinuousQueryState.isSupported(plan)) {
+      return;
+    }
+    PartialPath fromPrefixPath;
+    try {
+      Operator operator = LogicalGenerator.generate(plan.getQuerySql(), ZoneId.systemDefault());
+      fromPrefixPath = ((QueryOperator) operator).getFromComponent().getPrefixPaths().get(0);
+    } catch (Exception e) {
+      LOGGER.warn(
+          "Failed to parse the from clause of continuous query {}, it will not be executed "
+              + "incrementally.",
+          plan.getContinuousQueryName(),
+          e);
+      return;
+    }
+    incrementalStates.put(
+        plan.getContinuousQueryName(), new IncrementalContinuousQueryState(plan, fromPrefixPath));
+    incrementalStateArray =
+        incrementalStates.values().toArray(new IncrementalContinuousQueryState[0]);
   }
 
   @TestOnly
@@ -276,6 +336,10 @@ public class ContinuousQueryService implements IService {
   private void doDeregister(DropContinuousQueryPlan plan) {
     continuousQueryPlans.remove(plan.getContinuousQueryName());
     nextExecutionTimestamps.remove(plan.getContinuousQueryName());
+    if (incrementalStates.remove(plan.getContinuousQueryName()) != null) {
+      incrementalStateArray =
+          incrementalStates.values().toArray(new IncrementalContinuousQueryState[0]);
+    }
   }
 
   public List<ShowContinuousQueriesResult> getShowContinuousQueriesResultList() {
@@ -60,6 +60,11 @@ public class ContinuousQueryTask extends WrappedRunnable {
   protected static final Pattern PATH_NODE_NAME_PATTERN = Pattern.compile("\\$\\{\\w+}");
   protected static final int EXECUTION_BATCH_SIZE = IoTDBConstant.DEFAULT_FETCH_SIZE;
 
+  // whether the current thread is executing a cq task, the data written by cq tasks are results
+  // and should not be treated as the source data of continuous queries
+  private static final ThreadLocal<Boolean> IS_EXECUTING_TASK =
+      ThreadLocal.withInitial(() -> Boolean.FALSE);
+
   protected final ServiceProvider serviceProvider;
 
   // To save the continuous query info
@@ -74,12 +79,34 @@ public class ContinuousQueryTask extends WrappedRunnable {
     serviceProvider = IoTDB.serviceProvider;
   }
 
+  public static boolean isExecutingTask() {
+    return IS_EXECUTING_TASK.get();
+  }
+
   @Override
   public void runMayThrow()
       throws QueryProcessException, StorageEngineException, IOException, InterruptedException,
           QueryFilterOptimizationException, MetadataException, TException, SQLException {
+    IS_EXECUTING_TASK.set(Boolean.TRUE);
+    try {
+      execute();
+    } finally {
+      IS_EXECUTING_TASK.set(Boolean.FALSE);
+    }
+  }
+
+  protected void execute()
+      throws QueryProcessException, StorageEngineException, IOException, InterruptedException,
+          QueryFilterOptimizationException, MetadataException, TException, SQLException {
+    executeWindow(windowEndTimestamp - continuousQueryPlan.getForInterval(), windowEndTimestamp);
+  }
+
+  /** execute the query in window [windowStartTimestamp, windowEndTimestamp) and insert results */
+  protected void executeWindow(long windowStartTimestamp, long windowEndTimestamp)
+      throws QueryProcessException, StorageEngineException, IOException, InterruptedException,
+          QueryFilterOptimizationException, MetadataException, TException, SQLException {
     // construct logical operator
-    final String sql = generateSQL();
+    final String sql = generateSQL(windowStartTimestamp, windowEndTimestamp);
     Operator operator = LogicalGenerator.generate(sql, ZoneId.systemDefault());
     if (!operator.isQuery()) {
       throw new ContinuousQueryException(
@@ -123,10 +150,10 @@ public class ContinuousQueryTask extends WrappedRunnable {
     }
   }
 
-  protected String generateSQL() {
+  protected String generateSQL(long windowStartTimestamp, long windowEndTimestamp) {
     return continuousQueryPlan.getQuerySqlBeforeGroupByClause()
         + "group by (["
-        + (windowEndTimestamp - continuousQueryPlan.getForInterval())
+        + windowStartTimestamp
         + ','
         + windowEndTimestamp
         + "),"
@@ -195,6 +222,6 @@ public class ContinuousQueryTask extends WrappedRunnable {
     LOGGER.warn(
         "continuous query task {} was rejected, sql: {}",
         continuousQueryPlan.getContinuousQueryName(),
-        generateSQL());
+        generateSQL(windowEndTimestamp - continuousQueryPlan.getForInterval(), windowEndTimestamp));
   }
 }
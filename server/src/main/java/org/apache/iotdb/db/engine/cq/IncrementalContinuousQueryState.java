@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cq;
+
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.qp.physical.sys.CreateContinuousQueryPlan;
+import org.apache.iotdb.tsfile.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The execution state of a continuous query which is executed incrementally.
+ *
+ * <p>The watermark is the end of the time range that has been computed by the last execution. An
+ * execution only computes the group by windows between the watermark and its window end, plus the
+ * windows before the watermark that have been touched by late writes since the last execution.
+ *
+ * <p>All the time ranges in this class are left-closed and right-open, and aligned to the group by
+ * windows of the continuous query.
+ */
+public class IncrementalContinuousQueryState {
+
+  private final CreateContinuousQueryPlan continuousQueryPlan;
+  // the prefix path in the from clause of the continuous query
+  private final PartialPath fromPrefixPath;
+
+  private final long groupByInterval;
+  private final long groupByOffset;
+
+  // Long.MIN_VALUE means the continuous query has not been executed yet
+  private volatile long watermark = Long.MIN_VALUE;
+  // start time -> end time of the time ranges touched by late writes, the ranges are not overlapped
+  private final TreeMap<Long, Long> dirtyRanges = new TreeMap<>();
+
+  public IncrementalContinuousQueryState(
+      CreateContinuousQueryPlan continuousQueryPlan, PartialPath fromPrefixPath) {
+    this.continuousQueryPlan = continuousQueryPlan;
+    this.fromPrefixPath = fromPrefixPath;
+    this.groupByInterval = continuousQueryPlan.getGroupByTimeInterval();
+    this.groupByOffset =
+        Math.floorMod(continuousQueryPlan.getFirstExecutionTimeBoundary(), groupByInterval);
+  }
+
+  /**
+   * The windows of all the executions are aligned only if both the every interval and the for
+   * interval are multiples of the group by interval. Otherwise, a window can not be reused by the
+   * later executions and the whole for interval has to be computed every time.
+   */
+  public static boolean isSupported(CreateContinuousQueryPlan continuousQueryPlan) {
+    long groupByInterval = continuousQueryPlan.getGroupByTimeInterval();
+    return groupByInterval > 0
+        && !continuousQueryPlan.getGroupByTimeIntervalString().toLowerCase().contains("mo")
+        && continuousQueryPlan.getEveryInterval() % groupByInterval == 0
+        && continuousQueryPlan.getForInterval() % groupByInterval == 0;
+  }
+
+  public CreateContinuousQueryPlan getContinuousQueryPlan() {
+    return continuousQueryPlan;
+  }
+
+  public long getWatermark() {
+    return watermark;
+  }
+
+  /**
+   * Record the data written into the device in time range [minTime, maxTime]. Only the data before
+   * the watermark needs to be recorded, because the data after the watermark will be computed by
+   * the next execution anyway.
+   */
+  public void onDataInserted(PartialPath devicePath, long minTime, long maxTime) {
+    long currentWatermark = watermark;
+    if (minTime >= currentWatermark || !fromPrefixPath.matchPrefixPath(devicePath)) {
+      return;
+    }
+    // the windows before the lower bound of the next execution will never be computed again
+    long lowerBound =
+        currentWatermark
+            + continuousQueryPlan.getEveryInterval()
+            - continuousQueryPlan.getForInterval();
+    long startTime = Math.max(alignToWindowStart(minTime), lowerBound);
+    long endTime = Math.min(alignToWindowStart(maxTime) + groupByInterval, currentWatermark);
+    if (startTime < endTime) {
+      addDirtyRange(startTime, endTime);
+    }
+  }
+
+  /** Give the time ranges of a failed or rejected execution back, so they will be recomputed. */
+  public void onExecutionAborted(List<Pair<Long, Long>> timeRanges) {
+    for (Pair<Long, Long> timeRange : timeRanges) {
+      addDirtyRange(timeRange.left, timeRange.right);
+    }
+  }
+
+  /**
+   * Advance the watermark to the end of the execution window, and return the time ranges that
+   * should be computed by the execution.
+   *
+   * @param windowEndTimestamp the end of the execution window
+   * @return the sorted and non-overlapped time ranges to compute
+   */
+  public synchronized List<Pair<Long, Long>> advanceWatermark(long windowEndTimestamp) {
+    long windowStartTimestamp = windowEndTimestamp - continuousQueryPlan.getForInterval();
+    long newDataStartTimestamp = Math.max(watermark, windowStartTimestamp);
+
+    List<Pair<Long, Long>> timeRanges = new ArrayList<>();
+    Iterator<Map.Entry<Long, Long>> iterator = dirtyRanges.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Long> dirtyRange = iterator.next();
+      long startTime = Math.max(dirtyRange.getKey(), windowStartTimestamp);
+      long endTime = Math.min(dirtyRange.getValue(), newDataStartTimestamp);
+      if (startTime < endTime) {
+        timeRanges.add(new Pair<>(startTime, endTime));
+      }
+      iterator.remove();
+    }
+
+    if (newDataStartTimestamp < windowEndTimestamp) {
+      Pair<Long, Long> lastRange =
+          timeRanges.isEmpty() ? null : timeRanges.get(timeRanges.size() - 1);
+      if (lastRange != null && lastRange.right == newDataStartTimestamp) {
+        lastRange.right = windowEndTimestamp;
+      } else {
+        timeRanges.add(new Pair<>(newDataStartTimestamp, windowEndTimestamp));
+      }
+    }
+
+    watermark = Math.max(watermark, windowEndTimestamp);
+    return timeRanges;
+  }
+
+  private synchronized void addDirtyRange(long startTime, long endTime) {
+    // merge with the overlapped or adjacent ranges
+    Map.Entry<Long, Long> floor = dirtyRanges.floorEntry(startTime);
+    if (floor != null && floor.getValue() >= startTime) {
+      startTime = floor.getKey();
+      endTime = Math.max(endTime, floor.getValue());
+    }
+    Map.Entry<Long, Long> next = dirtyRanges.ceilingEntry(startTime);
+    while (next != null && next.getKey() <= endTime) {
+      endTime = Math.max(endTime, next.getValue());
+      dirtyRanges.remove(next.getKey());
+      next = dirtyRanges.ceilingEntry(startTime);
+    }
+    dirtyRanges.put(startTime, endTime);
+  }
+
+  private long alignToWindowStart(long time) {
+    return time - Math.floorMod(time - groupByOffset, groupByInterval);
+  }
+}
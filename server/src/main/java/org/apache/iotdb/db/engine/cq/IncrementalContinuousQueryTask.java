@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cq;
+
+import org.apache.iotdb.commons.exception.MetadataException;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.tsfile.exception.filter.QueryFilterOptimizationException;
+import org.apache.iotdb.tsfile.utils.Pair;
+
+import org.apache.thrift.TException;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A continuous query task which only computes the given time ranges of its window, i.e. the new
+ * time range after the watermark and the time ranges touched by late writes.
+ */
+public class IncrementalContinuousQueryTask extends ContinuousQueryTask {
+
+  private final IncrementalContinuousQueryState state;
+  // the sorted and non-overlapped time ranges to compute, left-closed and right-open
+  private final List<Pair<Long, Long>> timeRanges;
+
+  public IncrementalContinuousQueryTask(
+      IncrementalContinuousQueryState state,
+      long windowEndTimestamp,
+      List<Pair<Long, Long>> timeRanges) {
+    super(state.getContinuousQueryPlan(), windowEndTimestamp);
+    this.state = state;
+    this.timeRanges = timeRanges;
+  }
+
+  @Override
+  protected void execute()
+      throws QueryProcessException, StorageEngineException, IOException, InterruptedException,
+          QueryFilterOptimizationException, MetadataException, TException, SQLException {
+    int executed = 0;
+    try {
+      for (Pair<Long, Long> timeRange : timeRanges) {
+        executeWindow(timeRange.left, timeRange.right);
+        executed++;
+      }
+    } finally {
+      if (executed < timeRanges.size()) {
+        state.onExecutionAborted(timeRanges.subList(executed, timeRanges.size()));
+      }
+    }
+  }
+
+  @Override
+  public void onRejection() {
+    super.onRejection();
+    state.onExecutionAborted(timeRanges);
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.selectinto;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.metadata.StorageGroupNotSetException;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.rpc.RpcUtils;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Write the InsertTabletPlans generated by a select-into statement in background threads, so that
+ * the query thread can go on generating the next batch of plans while the previous batches are
+ * being inserted.
+ *
+ * <p>The plans are dispatched to writers by their target storage groups. Each writer has a bounded
+ * queue and inserts the plans in its queue one batch after another, so the plans of the same
+ * device are inserted in order, and the plans of different storage groups are inserted in
+ * parallel. The query thread is blocked when the queue of a writer is full.
+ *
+ * <p>write * N -> finish -> close
+ */
+public class InsertTabletPlansWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InsertTabletPlansWriter.class);
+
+  private static final ExecutorService WRITER_POOL =
+      IoTDBThreadPoolFactory.newCachedThreadPool(ThreadName.SELECT_INTO_WRITER.getName());
+
+  // the max number of batches that can be pending in the queue of a writer
+  private static final int MAX_PENDING_BATCHES_PER_WRITER = 4;
+
+  // an empty list used to tell a writer that there will be no more plans
+  private static final List<InsertTabletPlan> END_OF_PLANS = Collections.emptyList();
+
+  // a batch of plans -> the status of inserting them
+  private final Function<List<InsertTabletPlan>, TSStatus> insertExecutor;
+
+  private final Writer[] writers;
+  private final Future<?>[] writerFutures;
+  // device -> the index of the writer, a device is always written by the same writer
+  private final Map<String, Integer> deviceToWriterIndex = new HashMap<>();
+
+  private final AtomicReference<TSStatus> failureStatus = new AtomicReference<>();
+  private volatile boolean isAborted = false;
+  private boolean isFinished = false;
+
+  public InsertTabletPlansWriter(Function<List<InsertTabletPlan>, TSStatus> insertExecutor) {
+    this.insertExecutor = insertExecutor;
+    int writerNum = IoTDBDescriptor.getInstance().getConfig().getSelectIntoWriterThreadNum();
+    writers = new Writer[writerNum];
+    writerFutures = new Future<?>[writerNum];
+  }
+
+  /**
+   * Dispatch the plans to the writers, may be blocked if the writers can not catch up with.
+   *
+   * @return false if some plans have failed to be inserted, the caller should stop writing
+   */
+  public boolean write(List<InsertTabletPlan> insertTabletPlans) throws InterruptedException {
+    if (failureStatus.get() != null) {
+      return false;
+    }
+
+    Map<Integer, List<InsertTabletPlan>> writerIndexToPlans = new HashMap<>();
+    for (InsertTabletPlan insertTabletPlan : insertTabletPlans) {
+      writerIndexToPlans
+          .computeIfAbsent(getWriterIndex(insertTabletPlan), k -> new ArrayList<>())
+          .add(insertTabletPlan);
+    }
+    for (Map.Entry<Integer, List<InsertTabletPlan>> entry : writerIndexToPlans.entrySet()) {
+      getOrCreateWriter(entry.getKey()).queue.put(entry.getValue());
+    }
+    return failureStatus.get() == null;
+  }
+
+  /**
+   * Wait until all the dispatched plans are inserted.
+   *
+   * @return the status of the first failed batch, or the success status
+   */
+  public TSStatus finish() throws InterruptedException {
+    for (Writer writer : writers) {
+      if (writer != null) {
+        writer.queue.put(END_OF_PLANS);
+      }
+    }
+    for (Future<?> writerFuture : writerFutures) {
+      if (writerFuture == null) {
+        continue;
+      }
+      try {
+        writerFuture.get();
+      } catch (ExecutionException e) {
+        LOGGER.error("select into: writer exits unexpectedly", e);
+        failureStatus.compareAndSet(
+            null, RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, e.getMessage()));
+      }
+    }
+    // set only after all the writers exit, so that an interrupted finish is aborted by close
+    isFinished = true;
+    TSStatus status = failureStatus.get();
+    return status == null ? RpcUtils.getStatus(TSStatusCode.SUCCESS_STATUS) : status;
+  }
+
+  /**
+   * Stop the writers and wait until they exit. The plans that have not been inserted are discarded
+   * if not finished, but a batch that is being inserted is waited for.
+   */
+  @Override
+  public void close() {
+    if (isFinished) {
+      return;
+    }
+    isAborted = true;
+    for (Writer writer : writers) {
+      if (writer != null) {
+        writer.queue.clear();
+        // the queue is just cleared and only the writer takes from it, so this never fails
+        writer.queue.offer(END_OF_PLANS);
+      }
+    }
+    for (Future<?> writerFuture : writerFutures) {
+      if (writerFuture == null) {
+        continue;
+      }
+      try {
+        writerFuture.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        LOGGER.warn("select into: interrupted when waiting for the writers to exit");
+        return;
+      } catch (ExecutionException e) {
+        LOGGER.error("select into: writer exits unexpectedly", e);
+      }
+    }
+    isFinished = true;
+  }
+
+  private int getWriterIndex(InsertTabletPlan insertTabletPlan) {
+    String device = insertTabletPlan.getDevicePath().getFullPath();
+    Integer writerIndex = deviceToWriterIndex.get(device);
+    if (writerIndex == null) {
+      String storageGroup;
+      try {
+        storageGroup =
+            IoTDB.schemaProcessor
+                .getBelongedStorageGroup(insertTabletPlan.getDevicePath())
+                .getFullPath();
+      } catch (StorageGroupNotSetException e) {
+        // the storage group will be created automatically when inserting, use the device instead
+        storageGroup = device;
+      }
+      writerIndex = Math.floorMod(storageGroup.hashCode(), writers.length);
+      deviceToWriterIndex.put(device, writerIndex);
+    }
+    return writerIndex;
+  }
+
+  private Writer getOrCreateWriter(int writerIndex) {
+    if (writers[writerIndex] == null) {
+      writers[writerIndex] = new Writer();
+      writerFutures[writerIndex] = WRITER_POOL.submit(writers[writerIndex]);
+    }
+    return writers[writerIndex];
+  }
+
+  private class Writer implements Runnable {
+
+    private final BlockingQueue<List<InsertTabletPlan>> queue =
+        new ArrayBlockingQueue<>(MAX_PENDING_BATCHES_PER_WRITER);
+
+    @Override
+    public void run() {
+      List<List<InsertTabletPlan>> pendingBatches = new ArrayList<>();
+      List<InsertTabletPlan> plansToInsert = new ArrayList<>();
+      try {
+        boolean hasMorePlans = true;
+        while (hasMorePlans) {
+          pendingBatches.add(queue.take());
+          // insert all the pending batches in one request
+          queue.drainTo(pendingBatches);
+          for (List<InsertTabletPlan> batch : pendingBatches) {
+            if (batch == END_OF_PLANS) {
+              hasMorePlans = false;
+              break;
+            }
+            plansToInsert.addAll(batch);
+          }
+          // after a failure, keep taking plans from the queue to avoid blocking the query thread
+          if (!plansToInsert.isEmpty() && !isAborted && failureStatus.get() == null) {
+            insert(plansToInsert);
+          }
+          pendingBatches.clear();
+          plansToInsert.clear();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failureStatus.compareAndSet(
+            null,
+            RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, "select into is interrupted"));
+      }
+    }
+
+    private void insert(List<InsertTabletPlan> insertTabletPlans) {
+      TSStatus status;
+      try {
+        status = insertExecutor.apply(new ArrayList<>(insertTabletPlans));
+      } catch (Exception e) {
+        LOGGER.error("select into: failed to insert tablets", e);
+        status = RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, e.getMessage());
+      }
+      if (status.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()
+          && status.getCode() != TSStatusCode.NEED_REDIRECTION.getStatusCode()) {
+        failureStatus.compareAndSet(null, status);
+      }
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.iotdb.db.engine.compaction.CompactionRecoverManager;
 import org.apache.iotdb.db.engine.compaction.CompactionScheduler;
 import org.apache.iotdb.db.engine.compaction.CompactionTaskManager;
 import org.apache.iotdb.db.engine.compaction.task.AbstractCompactionTask;
+import org.apache.iotdb.db.engine.cq.ContinuousQueryService;
 import org.apache.iotdb.db.engine.flush.CloseFileListener;
 import org.apache.iotdb.db.engine.flush.FlushListener;
 import org.apache.iotdb.db.engine.flush.TsFileFlushPolicy;
@@ -1147,6 +1148,11 @@ public class DataRegion {
       logger.error("insert to TsFileProcessor error ", e);
       return false;
     }
+    ContinuousQueryService.getInstance()
+        .onDataInserted(
+            insertTabletPlan.getDevicePath(),
+            insertTabletPlan.getTimes()[start],
+            insertTabletPlan.getTimes()[end - 1]);
 
     lastFlushTimeManager.ensureLastTimePartition(timePartitionId);
     // try to update the latest time of the device of this tsRecord
@@ -1209,6 +1215,11 @@ public class DataRegion {
       logger.error("insert to TsFileProcessor error ", e);
       return false;
     }
+    ContinuousQueryService.getInstance()
+        .onDataInserted(
+            insertTabletNode.getDevicePath(),
+            insertTabletNode.getTimes()[start],
+            insertTabletNode.getTimes()[end - 1]);
 
     lastFlushTimeManager.ensureLastTimePartition(timePartitionId);
     // try to update the latest time of the device of this tsRecord
@@ -1260,6 +1271,9 @@ public class DataRegion {
     }
 
     tsFileProcessor.insert(insertRowPlan);
+    ContinuousQueryService.getInstance()
+        .onDataInserted(
+            insertRowPlan.getDevicePath(), insertRowPlan.getTime(), insertRowPlan.getTime());
 
     // try to update the latest time of the device of this tsRecord
     lastFlushTimeManager.updateLastTime(
@@ -1285,6 +1299,9 @@ public class DataRegion {
     }
 
     tsFileProcessor.insert(insertRowNode);
+    ContinuousQueryService.getInstance()
+        .onDataInserted(
+            insertRowNode.getDevicePath(), insertRowNode.getTime(), insertRowNode.getTime());
 
     // try to update the latest time of the device of this tsRecord
     lastFlushTimeManager.updateLastTime(
@@ -1821,7 +1838,7 @@ public class DataRegion {
     try {
       List<TsFileResource> seqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true),
+              tsFileManager.getTsFileListForQuery(true, singleDeviceId, timeFilter),
               upgradeSeqFileList,
               pathList,
               singleDeviceId,
@@ -1830,7 +1847,7 @@ public class DataRegion {
               true);
       List<TsFileResource> unseqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false),
+              tsFileManager.getTsFileListForQuery(false, singleDeviceId, timeFilter),
               upgradeUnseqFileList,
               pathList,
               singleDeviceId,
@@ -1860,7 +1877,7 @@ public class DataRegion {
     try {
       List<TsFileResource> seqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(true),
+              tsFileManager.getTsFileListForQuery(true, singleDeviceId, timeFilter),
               upgradeSeqFileList,
               pathList,
               singleDeviceId,
@@ -1869,7 +1886,7 @@ public class DataRegion {
               true);
       List<TsFileResource> unseqResources =
           getFileResourceListForQuery(
-              tsFileManager.getTsFileList(false),
+              tsFileManager.getTsFileListForQuery(false, singleDeviceId, timeFilter),
               upgradeUnseqFileList,
               pathList,
               singleDeviceId,
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import org.apache.iotdb.db.engine.storagegroup.timeindex.TimeIndexLevel;
+import org.apache.iotdb.db.utils.datastructure.IntervalTree;
+import org.apache.iotdb.tsfile.read.filter.GroupByFilter;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.OrFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interval index over the TsFileResources of one {@link TsFileResourceList}, i.e. one time
+ * partition. Sealed files are indexed by their file-level time range, so a query on a short time
+ * range finds its candidate files in logarithmic time instead of checking every file of the
+ * partition. The index holds one tree node per file and no device information, so its memory does
+ * not grow with the number of devices; the candidates of a device query are only filtered by
+ * {@link TsFileResource#mayContainsDevice}, and the per-device times are left in the time index,
+ * which is bounded by TsFileResourceManager and may be paged out.
+ *
+ * <p>Unsealed files are still being written and their time ranges keep growing, so they are kept
+ * aside and always returned as candidates; they are indexed lazily by the first query that sees
+ * them closed. The result is a superset of the satisfied files: callers must still check each
+ * candidate with {@link TsFileResource#isSatisfied}.
+ *
+ * <p>Every file also gets an order label that follows its position in the list, so candidates can
+ * be returned in list order without walking the list.
+ */
+public class TsFileIntervalIndex {
+
+  private static final long ORDER_GAP = 1L << 20;
+
+  /** the order labels and tree nodes of each file in the list */
+  private final Map<TsFileResource, Entry> entries = new IdentityHashMap<>();
+  /** unsealed files which are not indexed yet */
+  private final Set<TsFileResource> unindexedFiles =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+  /** file-level time ranges of all indexed files */
+  private final IntervalTree<TsFileResource> fileTree = new IntervalTree<>();
+
+  /**
+   * Called after the resource is linked into the list, its prev and next pointers are used to
+   * compute its order label.
+   */
+  public synchronized void add(TsFileResource resource) {
+    if (entries.containsKey(resource)) {
+      return;
+    }
+    Entry entry = new Entry(resource);
+    entries.put(resource, entry);
+    Entry prev = resource.prev == null ? null : entries.get(resource.prev);
+    Entry next = resource.next == null ? null : entries.get(resource.next);
+    if (prev == null && next == null) {
+      entry.order = 0;
+    } else if (next == null) {
+      entry.order = prev.order + ORDER_GAP;
+    } else if (prev == null) {
+      entry.order = next.order - ORDER_GAP;
+    } else if (next.order - prev.order > 1) {
+      entry.order = prev.order + (next.order - prev.order) / 2;
+    } else {
+      relabel(resource);
+    }
+    unindexedFiles.add(resource);
+  }
+
+  public synchronized void remove(TsFileResource resource) {
+    Entry entry = entries.remove(resource);
+    if (entry == null) {
+      return;
+    }
+    unindexedFiles.remove(resource);
+    if (entry.fileNode != null) {
+      fileTree.remove(entry.fileNode);
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    unindexedFiles.clear();
+    fileTree.clear();
+  }
+
+  /**
+   * @param deviceId the queried device, null means all devices
+   * @param timeFilter the time filter of the query, may be null
+   * @return the files that may satisfy the query, in list order
+   */
+  public synchronized List<TsFileResource> query(String deviceId, Filter timeFilter) {
+    long[] bounds = getTimeBounds(timeFilter);
+    List<TsFileResource> candidates = new ArrayList<>();
+    Iterator<TsFileResource> iterator = unindexedFiles.iterator();
+    while (iterator.hasNext()) {
+      TsFileResource resource = iterator.next();
+      if (resource.isClosed()) {
+        index(entries.get(resource));
+        iterator.remove();
+      } else {
+        candidates.add(resource);
+      }
+    }
+    if (bounds != null) {
+      fileTree.query(
+          bounds[0],
+          bounds[1],
+          resource -> {
+            if (deviceId == null || mayContainsDevice(resource, deviceId)) {
+              candidates.add(resource);
+            }
+          });
+    }
+    candidates.sort(Comparator.comparingLong(resource -> entries.get(resource).order));
+    return candidates;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void index(Entry entry) {
+    TsFileResource resource = entry.resource;
+    long start = resource.getFileStartTime();
+    long end = resource.getFileEndTime();
+    if (start > end) {
+      // the time range is not set, the file must never be pruned
+      entry.fileNode = fileTree.insert(Long.MIN_VALUE, Long.MAX_VALUE, resource);
+    } else {
+      entry.fileNode = fileTree.insert(start, end, resource);
+    }
+  }
+
+  private static boolean mayContainsDevice(TsFileResource resource, String deviceId) {
+    // the v0.12 file time index does not support the device lookup
+    return resource.getTimeIndexType() == TimeIndexLevel.V012_FILE_TIME_INDEX.ordinal()
+        || resource.mayContainsDevice(deviceId);
+  }
+
+  /** Reassign the order labels of the whole list that contains the given resource. */
+  private void relabel(TsFileResource resource) {
+    TsFileResource current = resource;
+    while (current.prev != null) {
+      current = current.prev;
+    }
+    long order = 0;
+    for (; current != null; current = current.next) {
+      Entry entry = entries.get(current);
+      if (entry != null) {
+        entry.order = order;
+        order += ORDER_GAP;
+      }
+    }
+  }
+
+  /**
+   * Extract a closed time range [lo, hi] that contains every timestamp satisfying the filter.
+   * Filters that cannot be bounded by time yield the full range.
+   *
+   * @return null if no timestamp can satisfy the filter
+   */
+  static long[] getTimeBounds(Filter filter) {
+    if (filter == null) {
+      return new long[] {Long.MIN_VALUE, Long.MAX_VALUE};
+    }
+    if (filter instanceof AndFilter) {
+      long[] left = getTimeBounds(((AndFilter) filter).getLeft());
+      long[] right = getTimeBounds(((AndFilter) filter).getRight());
+      if (left == null || right == null) {
+        return null;
+      }
+      long lo = Math.max(left[0], right[0]);
+      long hi = Math.min(left[1], right[1]);
+      return lo <= hi ? new long[] {lo, hi} : null;
+    } else if (filter instanceof OrFilter) {
+      long[] left = getTimeBounds(((OrFilter) filter).getLeft());
+      long[] right = getTimeBounds(((OrFilter) filter).getRight());
+      if (left == null || right == null) {
+        return left == null ? right : left;
+      }
+      return new long[] {Math.min(left[0], right[0]), Math.max(left[1], right[1])};
+    } else if (filter instanceof TimeFilter.TimeGt) {
+      long time = (long) ((TimeFilter.TimeGt) filter).getValue();
+      return time == Long.MAX_VALUE ? null : new long[] {time + 1, Long.MAX_VALUE};
+    } else if (filter instanceof TimeFilter.TimeGtEq) {
+      return new long[] {(long) ((TimeFilter.TimeGtEq) filter).getValue(), Long.MAX_VALUE};
+    } else if (filter instanceof TimeFilter.TimeLt) {
+      long time = (long) ((TimeFilter.TimeLt) filter).getValue();
+      return time == Long.MIN_VALUE ? null : new long[] {Long.MIN_VALUE, time - 1};
+    } else if (filter instanceof TimeFilter.TimeLtEq) {
+      return new long[] {Long.MIN_VALUE, (long) ((TimeFilter.TimeLtEq) filter).getValue()};
+    } else if (filter instanceof TimeFilter.TimeEq) {
+      long time = (long) ((TimeFilter.TimeEq) filter).getValue();
+      return new long[] {time, time};
+    } else if (filter instanceof TimeFilter.TimeIn && !((TimeFilter.TimeIn) filter).isNot()) {
+      long lo = Long.MAX_VALUE;
+      long hi = Long.MIN_VALUE;
+      for (Object value : ((TimeFilter.TimeIn) filter).getValues()) {
+        lo = Math.min(lo, (long) value);
+        hi = Math.max(hi, (long) value);
+      }
+      return lo <= hi ? new long[] {lo, hi} : null;
+    } else if (filter instanceof GroupByFilter) {
+      GroupByFilter groupByFilter = (GroupByFilter) filter;
+      return groupByFilter.getStartTime() <= groupByFilter.getEndTime()
+          ? new long[] {groupByFilter.getStartTime(), groupByFilter.getEndTime()}
+          : null;
+    }
+    // not, value filters and others
+    return new long[] {Long.MIN_VALUE, Long.MAX_VALUE};
+  }
+
+  private static class Entry {
+    private final TsFileResource resource;
+    private long order;
+    private IntervalTree.Node<TsFileResource> fileNode;
+
+    private Entry(TsFileResource resource) {
+      this.resource = resource;
+    }
+  }
+}
@@ -22,6 +22,7 @@ package org.apache.iotdb.db.engine.storagegroup;
 import org.apache.iotdb.db.exception.WriteLockFailedException;
 import org.apache.iotdb.db.rescon.TsFileResourceManager;
 import org.apache.iotdb.db.sync.sender.manager.TsFileSyncManager;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,6 +84,30 @@ public class TsFileManager {
     }
   }
 
+  /**
+   * Get the files that may contain data of the device within the time filter, using the interval
+   * index of each time partition. The result keeps the order of {@link #getTsFileList(boolean)}
+   * but is only a superset of the satisfied files, callers should still check each file by {@link
+   * TsFileResource#isSatisfied}.
+   *
+   * @param deviceId the queried device, null means all devices
+   * @param timeFilter the time filter of the query, may be null
+   */
+  public List<TsFileResource> getTsFileListForQuery(
+      boolean sequence, String deviceId, Filter timeFilter) {
+    readLock();
+    try {
+      List<TsFileResource> candidates = new ArrayList<>();
+      Map<Long, TsFileResourceList> chosenMap = sequence ? sequenceFiles : unsequenceFiles;
+      for (TsFileResourceList tsFileResources : chosenMap.values()) {
+        candidates.addAll(tsFileResources.getCandidates(deviceId, timeFilter));
+      }
+      return candidates;
+    } finally {
+      readUnlock();
+    }
+  }
+
   public TsFileResourceList getSequenceListByTimePartition(long timePartition) {
     readLock();
     try {
@@ -1404,6 +1404,7 @@ public class TsFileProcessor {
     long closeStartTime = System.currentTimeMillis();
     writer.endFile();
     tsFileResource.serialize();
+    TsFileValueIndex.tryWrite(tsFileResource, writer);
     if (tsFileSyncManager.isEnableSync()) {
       tsFileSyncManager.collectRealTimeResource(tsFileResource.getTsFile());
     }
@@ -27,6 +27,7 @@ import org.apache.iotdb.db.engine.querycontext.ReadOnlyMemChunk;
 import org.apache.iotdb.db.engine.storagegroup.DataRegion.SettleTsFileCallBack;
 import org.apache.iotdb.db.engine.storagegroup.DataRegion.UpgradeTsFileResourceCallBack;
 import org.apache.iotdb.db.engine.storagegroup.TsFileNameGenerator.TsFileName;
+import org.apache.iotdb.db.engine.storagegroup.timeindex.CompressedDeviceTimeIndex;
 import org.apache.iotdb.db.engine.storagegroup.timeindex.DeviceTimeIndex;
 import org.apache.iotdb.db.engine.storagegroup.timeindex.FileTimeIndex;
 import org.apache.iotdb.db.engine.storagegroup.timeindex.ITimeIndex;
@@ -522,6 +523,12 @@ public class TsFileResource {
       LOGGER.error("ModificationFile {} cannot be deleted: {}", file, e.getMessage());
       return false;
     }
+    try {
+      fsFactory.deleteIfExists(fsFactory.getFile(file.getPath() + TsFileValueIndex.FILE_SUFFIX));
+    } catch (IOException e) {
+      LOGGER.error("Value range index of {} cannot be deleted: {}", file, e.getMessage());
+      return false;
+    }
     return true;
   }
 
@@ -547,6 +554,12 @@ public class TsFileResource {
           originModFile,
           fsFactory.getFile(targetDir, file.getName() + ModificationFile.FILE_SUFFIX));
     }
+    File originValueIndexFile = fsFactory.getFile(file.getPath() + TsFileValueIndex.FILE_SUFFIX);
+    if (originValueIndexFile.exists()) {
+      fsFactory.moveFile(
+          originValueIndexFile,
+          fsFactory.getFile(targetDir, file.getName() + TsFileValueIndex.FILE_SUFFIX));
+    }
   }
 
   @Override
@@ -981,13 +994,33 @@ public class TsFileResource {
     return ramSize;
   }
 
-  /** the DeviceTimeIndex degrade to FileTimeIndex and release memory */
+  /**
+   * Degrade the time index to release memory. If compressed device time index is enabled, the
+   * DeviceTimeIndex is compressed first, then the compressed index is evicted to the .resource
+   * file, and it degrades to FileTimeIndex only if it cannot be evicted any more.
+   *
+   * @return the released memory
+   */
   public long degradeTimeIndex() {
     TimeIndexLevel timeIndexLevel = TimeIndexLevel.valueOf(timeIndexType);
     // if current timeIndex is FileTimeIndex, no need to degrade
     if (timeIndexLevel == TimeIndexLevel.FILE_TIME_INDEX) {
       return 0;
     }
+    long previousRamSize = ramSize;
+    if (CONFIG.isEnableCompressedDeviceTimeIndex()) {
+      if (timeIndex instanceof DeviceTimeIndex) {
+        timeIndex =
+            new CompressedDeviceTimeIndex((DeviceTimeIndex) timeIndex, file + RESOURCE_SUFFIX);
+        ramSize = timeIndex.calculateRamSize();
+        return previousRamSize - ramSize;
+      }
+      if (timeIndex instanceof CompressedDeviceTimeIndex
+          && ((CompressedDeviceTimeIndex) timeIndex).evict()) {
+        ramSize = timeIndex.calculateRamSize();
+        return previousRamSize - ramSize;
+      }
+    }
     // get the minimum startTime
     long startTime = timeIndex.getMinStartTime();
     // get the maximum endTime
@@ -995,7 +1028,8 @@ public class TsFileResource {
     // replace the DeviceTimeIndex with FileTimeIndex
     timeIndex = new FileTimeIndex(startTime, endTime);
     timeIndexType = 2;
-    return ramSize - timeIndex.calculateRamSize();
+    ramSize = timeIndex.calculateRamSize();
+    return previousRamSize - ramSize;
   }
 
   private void generatePathToTimeSeriesMetadataMap() throws IOException {
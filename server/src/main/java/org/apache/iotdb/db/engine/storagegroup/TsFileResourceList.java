@@ -21,6 +21,7 @@ package org.apache.iotdb.db.engine.storagegroup;
 
 import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.tsfile.exception.NotImplementedException;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ public class TsFileResourceList implements List<TsFileResource> {
   private TsFileResource tail;
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   private int count = 0;
+  private final TsFileIntervalIndex intervalIndex = new TsFileIntervalIndex();
 
   /**
    * Insert a new node before an existing node
@@ -59,6 +61,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.prev = newNode;
     count++;
+    intervalIndex.add(newNode);
   }
 
   /**
@@ -77,6 +80,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.next = newNode;
     count++;
+    intervalIndex.add(newNode);
   }
 
   @Override
@@ -126,6 +130,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      intervalIndex.add(newNode);
     } else {
       insertAfter(tail, newNode);
     }
@@ -146,6 +151,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      intervalIndex.add(newNode);
     } else {
       // find the position to insert of this node
       // the list should be ordered by file timestamp
@@ -221,6 +227,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     tsFileResource.prev = null;
     tsFileResource.next = null;
     count--;
+    intervalIndex.remove(tsFileResource);
     return true;
   }
 
@@ -246,6 +253,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     header = null;
     tail = null;
     count = 0;
+    intervalIndex.clear();
   }
 
   @Override
@@ -355,6 +363,17 @@ public class TsFileResourceList implements List<TsFileResource> {
     throw new NotImplementedException();
   }
 
+  /**
+   * Get the files that may satisfy the device and time filter through the interval index, in list
+   * order. The result is a superset, each file should still be checked by {@link
+   * TsFileResource#isSatisfied}.
+   *
+   * @param deviceId the queried device, null means all devices
+   */
+  public List<TsFileResource> getCandidates(String deviceId, Filter timeFilter) {
+    return intervalIndex.query(deviceId, timeFilter);
+  }
+
   public List<TsFileResource> getArrayList() {
     List<TsFileResource> list = new ArrayList<>();
     if (header == null) {
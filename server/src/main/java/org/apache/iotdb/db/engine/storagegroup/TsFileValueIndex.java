@@ -0,0 +1,587 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.fileSystem.fsFactory.FSFactory;
+import org.apache.iotdb.tsfile.read.TsFileDeviceIterator;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.basic.UnaryFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
+import org.apache.iotdb.tsfile.read.filter.operator.OrFilter;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.apache.iotdb.tsfile.write.writer.RestorableTsFileIOWriter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A secondary index of a sealed TsFile that maps the value ranges of its numeric series to their
+ * chunks, so that a value filter can skip the chunks, or the whole file, without loading their
+ * metadata. It is stored beside the TsFile as xxx.tsfile.vidx.
+ *
+ * <p>The value range [min, max] of each series is divided into {@link #BUCKET_NUM} buckets of the
+ * same width, and each bucket keeps a bitmap of the chunks whose value range overlaps it.
+ */
+public class TsFileValueIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TsFileValueIndex.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final FSFactory fsFactory = FSFactoryProducer.getFSFactory();
+
+  public static final String FILE_SUFFIX = ".vidx";
+  private static final String TEMP_SUFFIX = ".temp";
+  static final int BUCKET_NUM = 64;
+
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(TsFileValueIndex.class)
+          + RamUsageEstimator.shallowSizeOfInstance(HashMap.class);
+  private static final long STRING_SIZE = RamUsageEstimator.shallowSizeOfInstance(String.class);
+  /** a node of a HashMap and its slot in the table */
+  private static final long MAP_ENTRY_SIZE =
+      RamUsageEstimator.alignObjectSize(
+              RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+                  + RamUsageEstimator.NUM_BYTES_INT
+                  + 3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF)
+          + RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+  /** an index that knows no series, used for the files without index */
+  private static final TsFileValueIndex EMPTY = new TsFileValueIndex(new HashMap<>());
+
+  /** the loaded indexes, weighed by their memory, which is a part of the read memory */
+  private static final Cache<TsFileResource, TsFileValueIndex> INDEX_CACHE =
+      Caffeine.newBuilder()
+          .weakKeys()
+          .maximumWeight(
+              (long)
+                  (CONFIG.getAllocateMemoryForRead() * CONFIG.getValueRangeIndexMemoryProportion()))
+          .weigher(
+              (Weigher<TsFileResource, TsFileValueIndex>)
+                  (resource, index) ->
+                      (int)
+                          Math.min(
+                              Integer.MAX_VALUE,
+                              RamUsageEstimator.NUM_BYTES_OBJECT_REF + index.ramBytesUsed()))
+          .build();
+
+  /** device -> measurement -> index */
+  private final Map<String, Map<String, SeriesIndex>> seriesIndexes;
+
+  private final long ramSize;
+
+  private TsFileValueIndex(Map<String, Map<String, SeriesIndex>> seriesIndexes) {
+    this.seriesIndexes = seriesIndexes;
+    this.ramSize = estimateRamSize(seriesIndexes);
+  }
+
+  /**
+   * Write the index of the resource if it is enabled, reading the chunk metadata from the sealed
+   * TsFile. A failure is only logged, as it just costs the pruning of this file.
+   */
+  public static void tryWrite(TsFileResource resource) {
+    if (!CONFIG.isEnableValueRangeIndex()) {
+      return;
+    }
+    try {
+      write(resource);
+    } catch (IOException e) {
+      LOGGER.warn("Cannot write the value range index of {}", resource.getTsFilePath(), e);
+    }
+  }
+
+  /**
+   * Write the index of the resource if it is enabled, building it from the chunk metadata that the
+   * writer keeps for the queries of the unsealed file, so the sealed file is not read again. A
+   * failure is only logged, as it just costs the pruning of this file.
+   */
+  public static void tryWrite(TsFileResource resource, RestorableTsFileIOWriter writer) {
+    if (!CONFIG.isEnableValueRangeIndex()) {
+      return;
+    }
+    try {
+      write(resource, buildFromChunkMetadata(writer.getMetadatasForQuery()));
+    } catch (IOException e) {
+      LOGGER.warn("Cannot write the value range index of {}", resource.getTsFilePath(), e);
+    }
+  }
+
+  /** Build the index of the sealed TsFile of the resource and write it beside the TsFile. */
+  public static void write(TsFileResource resource) throws IOException {
+    TsFileValueIndex index;
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(resource.getTsFilePath())) {
+      index = build(reader);
+    }
+    write(resource, index);
+  }
+
+  private static void write(TsFileResource resource, TsFileValueIndex index) throws IOException {
+    File tempFile = fsFactory.getFile(resource.getTsFilePath() + FILE_SUFFIX + TEMP_SUFFIX);
+    try (OutputStream outputStream = fsFactory.getBufferedOutputStream(tempFile.getPath())) {
+      index.serialize(outputStream);
+    }
+    Files.move(
+        tempFile.toPath(),
+        fsFactory.getFile(resource.getTsFilePath() + FILE_SUFFIX).toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+    INDEX_CACHE.invalidate(resource);
+  }
+
+  /** @return the index of the resource, an index without any series if the file has none */
+  public static TsFileValueIndex get(TsFileResource resource) {
+    return INDEX_CACHE.get(resource, TsFileValueIndex::load);
+  }
+
+  private static TsFileValueIndex load(TsFileResource resource) {
+    File file = fsFactory.getFile(resource.getTsFilePath() + FILE_SUFFIX);
+    if (!file.exists()) {
+      return EMPTY;
+    }
+    try (InputStream inputStream = fsFactory.getBufferedInputStream(file.getPath())) {
+      return deserialize(inputStream);
+    } catch (IOException e) {
+      LOGGER.warn("Cannot read the value range index {}, ignore it", file, e);
+      return EMPTY;
+    }
+  }
+
+  /**
+   * Build the index device by device, so only the chunk metadata of one device are loaded at a
+   * time. The columns of aligned devices are not indexed.
+   */
+  private static TsFileValueIndex build(TsFileSequenceReader reader) throws IOException {
+    Map<String, Map<String, SeriesIndex>> seriesIndexes = new HashMap<>();
+    TsFileDeviceIterator deviceIterator = reader.getAllDevicesIteratorWithIsAligned();
+    while (deviceIterator.hasNext()) {
+      Pair<String, Boolean> deviceIsAligned = deviceIterator.next();
+      if (deviceIsAligned.right) {
+        continue;
+      }
+      Map<String, SeriesIndex> deviceIndexes = new HashMap<>();
+      for (Map.Entry<String, List<ChunkMetadata>> entry :
+          reader.readChunkMetadataInDevice(deviceIsAligned.left).entrySet()) {
+        List<ChunkMetadata> chunkMetadataList = entry.getValue();
+        if (!chunkMetadataList.isEmpty()) {
+          addSeriesIndex(
+              deviceIndexes,
+              entry.getKey(),
+              chunkMetadataList.get(0).getDataType(),
+              chunkMetadataList);
+        }
+      }
+      if (!deviceIndexes.isEmpty()) {
+        seriesIndexes.put(deviceIsAligned.left, deviceIndexes);
+      }
+    }
+    return new TsFileValueIndex(seriesIndexes);
+  }
+
+  /**
+   * Build the index from the chunk metadata of each series of each device. The columns of aligned
+   * devices are not indexed.
+   */
+  static TsFileValueIndex buildFromChunkMetadata(
+      Map<String, Map<String, List<ChunkMetadata>>> deviceChunkMetadata) {
+    Map<String, Map<String, SeriesIndex>> seriesIndexes = new HashMap<>();
+    for (Map.Entry<String, Map<String, List<ChunkMetadata>>> deviceEntry :
+        deviceChunkMetadata.entrySet()) {
+      if (isAligned(deviceEntry.getValue())) {
+        continue;
+      }
+      Map<String, SeriesIndex> deviceIndexes = new HashMap<>();
+      for (Map.Entry<String, List<ChunkMetadata>> entry : deviceEntry.getValue().entrySet()) {
+        List<ChunkMetadata> chunkMetadataList = entry.getValue();
+        if (!chunkMetadataList.isEmpty()) {
+          addSeriesIndex(
+              deviceIndexes,
+              entry.getKey(),
+              chunkMetadataList.get(0).getDataType(),
+              chunkMetadataList);
+        }
+      }
+      if (!deviceIndexes.isEmpty()) {
+        seriesIndexes.put(deviceEntry.getKey(), deviceIndexes);
+      }
+    }
+    return new TsFileValueIndex(seriesIndexes);
+  }
+
+  private static boolean isAligned(Map<String, List<ChunkMetadata>> seriesChunkMetadata) {
+    for (List<ChunkMetadata> chunkMetadataList : seriesChunkMetadata.values()) {
+      for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+        if (chunkMetadata.getDataType() == TSDataType.VECTOR || chunkMetadata.getMask() != 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @TestOnly
+  static TsFileValueIndex build(Map<String, List<TimeseriesMetadata>> deviceTimeseriesMetadata) {
+    Map<String, Map<String, SeriesIndex>> seriesIndexes = new HashMap<>();
+    for (Map.Entry<String, List<TimeseriesMetadata>> entry : deviceTimeseriesMetadata.entrySet()) {
+      Map<String, SeriesIndex> deviceIndexes = new HashMap<>();
+      for (TimeseriesMetadata timeseriesMetadata : entry.getValue()) {
+        if ((timeseriesMetadata.getTimeSeriesMetadataType()
+                & (TsFileConstant.TIME_COLUMN_MASK | TsFileConstant.VALUE_COLUMN_MASK))
+            == 0) {
+          addSeriesIndex(
+              deviceIndexes,
+              timeseriesMetadata.getMeasurementId(),
+              timeseriesMetadata.getTSDataType(),
+              timeseriesMetadata.getChunkMetadataList());
+        }
+      }
+      if (!deviceIndexes.isEmpty()) {
+        seriesIndexes.put(entry.getKey(), deviceIndexes);
+      }
+    }
+    return new TsFileValueIndex(seriesIndexes);
+  }
+
+  private static void addSeriesIndex(
+      Map<String, SeriesIndex> deviceIndexes,
+      String measurement,
+      TSDataType dataType,
+      List<? extends IChunkMetadata> chunkMetadataList) {
+    SeriesIndex seriesIndex = SeriesIndex.build(dataType, chunkMetadataList);
+    if (seriesIndex != null) {
+      deviceIndexes.put(measurement, seriesIndex);
+    }
+  }
+
+  /**
+   * @return the sorted header offsets of the chunks whose value range overlaps [lo, hi], or null if
+   *     the series is not indexed
+   */
+  public long[] getCandidateChunks(String device, String measurement, double lo, double hi) {
+    Map<String, SeriesIndex> deviceIndexes = seriesIndexes.get(device);
+    SeriesIndex seriesIndex = deviceIndexes == null ? null : deviceIndexes.get(measurement);
+    return seriesIndex == null ? null : seriesIndex.getCandidateChunks(lo, hi);
+  }
+
+  /** @return the estimated memory of the index, by which it is weighed in the cache */
+  long ramBytesUsed() {
+    return ramSize;
+  }
+
+  private static long estimateRamSize(Map<String, Map<String, SeriesIndex>> seriesIndexes) {
+    long size = INSTANCE_SIZE;
+    for (Map.Entry<String, Map<String, SeriesIndex>> deviceEntry : seriesIndexes.entrySet()) {
+      size +=
+          MAP_ENTRY_SIZE
+              + sizeOf(deviceEntry.getKey())
+              + RamUsageEstimator.shallowSizeOfInstance(HashMap.class);
+      for (Map.Entry<String, SeriesIndex> entry : deviceEntry.getValue().entrySet()) {
+        size += MAP_ENTRY_SIZE + sizeOf(entry.getKey()) + entry.getValue().ramBytesUsed();
+      }
+    }
+    return size;
+  }
+
+  private static long sizeOf(String string) {
+    return STRING_SIZE
+        + RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) RamUsageEstimator.NUM_BYTES_CHAR * string.length());
+  }
+
+  /**
+   * Extract a closed value range [lo, hi] that contains every value satisfying the filter. Filters
+   * that cannot be bounded by value, e.g. time filters, yield the full range.
+   *
+   * @return an empty range (lo > hi) if no value can satisfy the filter
+   */
+  public static double[] getValueBounds(Filter filter) {
+    if (filter instanceof AndFilter) {
+      double[] left = getValueBounds(((AndFilter) filter).getLeft());
+      double[] right = getValueBounds(((AndFilter) filter).getRight());
+      return new double[] {Math.max(left[0], right[0]), Math.min(left[1], right[1])};
+    } else if (filter instanceof OrFilter) {
+      double[] left = getValueBounds(((OrFilter) filter).getLeft());
+      double[] right = getValueBounds(((OrFilter) filter).getRight());
+      if (left[0] > left[1] || right[0] > right[1]) {
+        return left[0] > left[1] ? right : left;
+      }
+      return new double[] {Math.min(left[0], right[0]), Math.max(left[1], right[1])};
+    } else if (filter instanceof ValueFilter.ValueGt || filter instanceof ValueFilter.ValueGtEq) {
+      double value = toDouble(((UnaryFilter<?>) filter).getValue());
+      if (!Double.isNaN(value)) {
+        return new double[] {Math.nextDown(value), Double.POSITIVE_INFINITY};
+      }
+    } else if (filter instanceof ValueFilter.ValueLt || filter instanceof ValueFilter.ValueLtEq) {
+      double value = toDouble(((UnaryFilter<?>) filter).getValue());
+      if (!Double.isNaN(value)) {
+        return new double[] {Double.NEGATIVE_INFINITY, Math.nextUp(value)};
+      }
+    } else if (filter instanceof ValueFilter.ValueEq) {
+      double value = toDouble(((UnaryFilter<?>) filter).getValue());
+      if (!Double.isNaN(value)) {
+        return new double[] {Math.nextDown(value), Math.nextUp(value)};
+      }
+    } else if (filter instanceof ValueFilter.ValueIn
+        && !((ValueFilter.ValueIn<?>) filter).isNot()) {
+      double lo = Double.POSITIVE_INFINITY;
+      double hi = Double.NEGATIVE_INFINITY;
+      for (Object value : ((ValueFilter.ValueIn<?>) filter).getValues()) {
+        double doubleValue = toDouble(value);
+        if (Double.isNaN(doubleValue)) {
+          return new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+        lo = Math.min(lo, Math.nextDown(doubleValue));
+        hi = Math.max(hi, Math.nextUp(doubleValue));
+      }
+      return new double[] {lo, hi};
+    }
+    // not, non-numeric values, time filters and others
+    return new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+  }
+
+  /** @return the value as a double, or NaN if it is not a number */
+  private static double toDouble(Object value) {
+    return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+  }
+
+  void serialize(OutputStream outputStream) throws IOException {
+    ReadWriteIOUtils.write(seriesIndexes.size(), outputStream);
+    for (Map.Entry<String, Map<String, SeriesIndex>> deviceEntry : seriesIndexes.entrySet()) {
+      ReadWriteIOUtils.write(deviceEntry.getKey(), outputStream);
+      ReadWriteIOUtils.write(deviceEntry.getValue().size(), outputStream);
+      for (Map.Entry<String, SeriesIndex> entry : deviceEntry.getValue().entrySet()) {
+        ReadWriteIOUtils.write(entry.getKey(), outputStream);
+        entry.getValue().serialize(outputStream);
+      }
+    }
+  }
+
+  static TsFileValueIndex deserialize(InputStream inputStream) throws IOException {
+    int deviceNum = ReadWriteIOUtils.readInt(inputStream);
+    Map<String, Map<String, SeriesIndex>> seriesIndexes = new HashMap<>(deviceNum * 2);
+    for (int i = 0; i < deviceNum; i++) {
+      String device = ReadWriteIOUtils.readString(inputStream);
+      int seriesNum = ReadWriteIOUtils.readInt(inputStream);
+      Map<String, SeriesIndex> deviceIndexes = new HashMap<>(seriesNum * 2);
+      for (int j = 0; j < seriesNum; j++) {
+        String measurement = ReadWriteIOUtils.readString(inputStream);
+        deviceIndexes.put(measurement, SeriesIndex.deserialize(inputStream));
+      }
+      seriesIndexes.put(device, deviceIndexes);
+    }
+    return new TsFileValueIndex(seriesIndexes);
+  }
+
+  private static class SeriesIndex {
+
+    private static final long INSTANCE_SIZE =
+        RamUsageEstimator.shallowSizeOfInstance(SeriesIndex.class);
+
+    private final double min;
+    private final double max;
+    private final long[] chunkOffsets;
+    private final double[] chunkMins;
+    private final double[] chunkMaxs;
+    /** the bitmap of bucket i is bucketBits[i * words, (i + 1) * words) */
+    private final long[] bucketBits;
+
+    private SeriesIndex(
+        double min, double max, long[] chunkOffsets, double[] chunkMins, double[] chunkMaxs) {
+      this.min = min;
+      this.max = max;
+      this.chunkOffsets = chunkOffsets;
+      this.chunkMins = chunkMins;
+      this.chunkMaxs = chunkMaxs;
+      this.bucketBits = new long[BUCKET_NUM * getWords()];
+    }
+
+    /** @return null if the series is not numeric or its values are not finite */
+    private static SeriesIndex build(
+        TSDataType dataType, List<? extends IChunkMetadata> chunkMetadataList) {
+      if (dataType != TSDataType.INT32
+          && dataType != TSDataType.INT64
+          && dataType != TSDataType.FLOAT
+          && dataType != TSDataType.DOUBLE) {
+        return null;
+      }
+      int chunkNum = chunkMetadataList.size();
+      long[] chunkOffsets = new long[chunkNum];
+      double[] chunkMins = new double[chunkNum];
+      double[] chunkMaxs = new double[chunkNum];
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < chunkNum; i++) {
+        IChunkMetadata chunkMetadata = chunkMetadataList.get(i);
+        Statistics<? extends Serializable> statistics = chunkMetadata.getStatistics();
+        // widen by one ulp as a long may be rounded when converted to double
+        chunkMins[i] = Math.nextDown(((Number) statistics.getMinValue()).doubleValue());
+        chunkMaxs[i] = Math.nextUp(((Number) statistics.getMaxValue()).doubleValue());
+        if (!Double.isFinite(chunkMins[i]) || !Double.isFinite(chunkMaxs[i])) {
+          return null;
+        }
+        chunkOffsets[i] = chunkMetadata.getOffsetOfChunkHeader();
+        min = Math.min(min, chunkMins[i]);
+        max = Math.max(max, chunkMaxs[i]);
+      }
+      if (chunkNum == 0 || !Double.isFinite(max - min)) {
+        return null;
+      }
+      sortByOffset(chunkOffsets, chunkMins, chunkMaxs);
+      SeriesIndex seriesIndex = new SeriesIndex(min, max, chunkOffsets, chunkMins, chunkMaxs);
+      seriesIndex.fillBuckets();
+      return seriesIndex;
+    }
+
+    private static void sortByOffset(long[] chunkOffsets, double[] chunkMins, double[] chunkMaxs) {
+      for (int i = 1; i < chunkOffsets.length; i++) {
+        if (chunkOffsets[i - 1] > chunkOffsets[i]) {
+          Integer[] order = new Integer[chunkOffsets.length];
+          for (int j = 0; j < order.length; j++) {
+            order[j] = j;
+          }
+          long[] offsets = chunkOffsets.clone();
+          double[] mins = chunkMins.clone();
+          double[] maxs = chunkMaxs.clone();
+          Arrays.sort(order, (a, b) -> Long.compare(offsets[a], offsets[b]));
+          for (int j = 0; j < order.length; j++) {
+            chunkOffsets[j] = offsets[order[j]];
+            chunkMins[j] = mins[order[j]];
+            chunkMaxs[j] = maxs[order[j]];
+          }
+          return;
+        }
+      }
+    }
+
+    private int getWords() {
+      return (chunkOffsets.length + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private int getBucket(double value) {
+      double width = (max - min) / BUCKET_NUM;
+      if (width <= 0) {
+        return 0;
+      }
+      double bucket = Math.floor((value - min) / width);
+      return (int) Math.max(0, Math.min(BUCKET_NUM - 1, bucket));
+    }
+
+    private void fillBuckets() {
+      int words = getWords();
+      for (int i = 0; i < chunkOffsets.length; i++) {
+        int to = getBucket(chunkMaxs[i]);
+        for (int bucket = getBucket(chunkMins[i]); bucket <= to; bucket++) {
+          bucketBits[bucket * words + i / Long.SIZE] |= 1L << (i % Long.SIZE);
+        }
+      }
+    }
+
+    private long[] getCandidateChunks(double lo, double hi) {
+      if (lo > hi || hi < min || lo > max) {
+        return new long[0];
+      }
+      int words = getWords();
+      long[] bits = new long[words];
+      int to = getBucket(hi);
+      for (int bucket = getBucket(lo); bucket <= to; bucket++) {
+        for (int word = 0; word < words; word++) {
+          bits[word] |= bucketBits[bucket * words + word];
+        }
+      }
+      long[] candidates = new long[chunkOffsets.length];
+      int size = 0;
+      for (int word = 0; word < words; word++) {
+        for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+          int i = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+          if (chunkMins[i] <= hi && chunkMaxs[i] >= lo) {
+            candidates[size++] = chunkOffsets[i];
+          }
+        }
+      }
+      return Arrays.copyOf(candidates, size);
+    }
+
+    private long ramBytesUsed() {
+      return INSTANCE_SIZE
+          + RamUsageEstimator.sizeOf(chunkOffsets)
+          + RamUsageEstimator.sizeOf(chunkMins)
+          + RamUsageEstimator.sizeOf(chunkMaxs)
+          + RamUsageEstimator.sizeOf(bucketBits);
+    }
+
+    private void serialize(OutputStream outputStream) throws IOException {
+      ReadWriteIOUtils.write(min, outputStream);
+      ReadWriteIOUtils.write(max, outputStream);
+      ReadWriteIOUtils.write(chunkOffsets.length, outputStream);
+      for (int i = 0; i < chunkOffsets.length; i++) {
+        ReadWriteIOUtils.write(chunkOffsets[i], outputStream);
+        ReadWriteIOUtils.write(chunkMins[i], outputStream);
+        ReadWriteIOUtils.write(chunkMaxs[i], outputStream);
+      }
+      for (long bits : bucketBits) {
+        ReadWriteIOUtils.write(bits, outputStream);
+      }
+    }
+
+    private static SeriesIndex deserialize(InputStream inputStream) throws IOException {
+      double min = ReadWriteIOUtils.readDouble(inputStream);
+      double max = ReadWriteIOUtils.readDouble(inputStream);
+      int chunkNum = ReadWriteIOUtils.readInt(inputStream);
+      long[] chunkOffsets = new long[chunkNum];
+      double[] chunkMins = new double[chunkNum];
+      double[] chunkMaxs = new double[chunkNum];
+      for (int i = 0; i < chunkNum; i++) {
+        chunkOffsets[i] = ReadWriteIOUtils.readLong(inputStream);
+        chunkMins[i] = ReadWriteIOUtils.readDouble(inputStream);
+        chunkMaxs[i] = ReadWriteIOUtils.readDouble(inputStream);
+      }
+      SeriesIndex seriesIndex = new SeriesIndex(min, max, chunkOffsets, chunkMins, chunkMaxs);
+      for (int i = 0; i < seriesIndex.bucketBits.length; i++) {
+        seriesIndex.bucketBits[i] = ReadWriteIOUtils.readLong(inputStream);
+      }
+      return seriesIndex;
+    }
+  }
+}
@@ -0,0 +1,468 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup.timeindex;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.engine.StorageEngine;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.exception.PartitionViolationException;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only, compact form of {@link DeviceTimeIndex} for sealed TsFiles. Instead of a map from
+ * device name to array index, it keeps the sorted codes of its devices in the shared {@link
+ * DeviceIdDictionary}, and the start and end times are stored as bit-packed offsets from the
+ * minimal start and end time of the file. Lookups binary search the codes and decode one offset.
+ *
+ * <p>When memory is still not enough, the index can be evicted: only the file-level time range is
+ * kept, and the device times are paged in again from the .resource file on demand and held in a
+ * small LRU cache. Thus the index degrades without losing device-level pruning. The serialized form
+ * is the same as that of {@link DeviceTimeIndex}.
+ */
+public class CompressedDeviceTimeIndex implements ITimeIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(CompressedDeviceTimeIndex.class);
+
+  private static final DeviceIdDictionary DICTIONARY = DeviceIdDictionary.getInstance();
+
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(CompressedDeviceTimeIndex.class);
+
+  /** the .resource file to page in the device times from, null if the index cannot be evicted */
+  private final String resourceFilePath;
+
+  private long minStartTime = Long.MAX_VALUE;
+
+  private long maxEndTime = Long.MIN_VALUE;
+
+  /** null if evicted */
+  private volatile Payload payload;
+
+  public CompressedDeviceTimeIndex() {
+    this.resourceFilePath = null;
+  }
+
+  public CompressedDeviceTimeIndex(DeviceTimeIndex deviceTimeIndex, String resourceFilePath) {
+    this.resourceFilePath = resourceFilePath;
+    this.minStartTime = deviceTimeIndex.getMinStartTime();
+    this.maxEndTime = deviceTimeIndex.getMaxEndTime();
+    this.payload =
+        Payload.compress(
+            deviceTimeIndex.deviceToIndex, deviceTimeIndex.startTimes, deviceTimeIndex.endTimes);
+  }
+
+  /**
+   * Release the device times in memory, they will be paged in from the .resource file when needed.
+   *
+   * @return false if the index cannot be evicted, i.e. it is already evicted or there is no
+   *     .resource file to page in from
+   */
+  public synchronized boolean evict() {
+    if (payload == null
+        || resourceFilePath == null
+        || !FSFactoryProducer.getFSFactory().getFile(resourceFilePath).exists()) {
+      return false;
+    }
+    payload = null;
+    return true;
+  }
+
+  public boolean isEvicted() {
+    return payload == null;
+  }
+
+  /** @return the device times, or null if they cannot be paged in */
+  private Payload getPayload() {
+    Payload current = payload;
+    if (current != null) {
+      return current;
+    }
+    try {
+      return PagedInCache.CACHE.get(this, CompressedDeviceTimeIndex::pageIn);
+    } catch (RuntimeException e) {
+      logger.error("Failed to page in the time index from {}", resourceFilePath, e);
+      return null;
+    }
+  }
+
+  private Payload pageIn() {
+    try (InputStream inputStream =
+        FSFactoryProducer.getFSFactory().getBufferedInputStream(resourceFilePath)) {
+      // The first byte is VERSION_NUMBER, second byte is timeIndexType.
+      byte timeIndexType = ReadWriteIOUtils.readBytes(inputStream, 2)[1];
+      if (timeIndexType != TimeIndexLevel.DEVICE_TIME_INDEX.ordinal()) {
+        throw new IOException("No device time index in " + resourceFilePath);
+      }
+      DeviceTimeIndex deviceTimeIndex = new DeviceTimeIndex().deserialize(inputStream);
+      return Payload.compress(
+          deviceTimeIndex.deviceToIndex, deviceTimeIndex.startTimes, deviceTimeIndex.endTimes);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Used when the device times cannot be paged in, only the file-level time range is known. */
+  private ITimeIndex fallback() {
+    return new FileTimeIndex(minStartTime, maxEndTime);
+  }
+
+  @Override
+  public void serialize(OutputStream outputStream) throws IOException {
+    Payload current = getPayload();
+    if (current == null) {
+      throw new IOException("Cannot page in the time index from " + resourceFilePath);
+    }
+    int deviceNum = current.deviceCodes.length;
+    ReadWriteIOUtils.write(deviceNum, outputStream);
+    for (int i = 0; i < deviceNum; i++) {
+      ReadWriteIOUtils.write(current.getStartTime(i), outputStream);
+      ReadWriteIOUtils.write(current.getEndTime(i), outputStream);
+    }
+    for (int i = 0; i < deviceNum; i++) {
+      ReadWriteIOUtils.write(DICTIONARY.getDevice(current.deviceCodes[i]), outputStream);
+      ReadWriteIOUtils.write(i, outputStream);
+    }
+  }
+
+  @Override
+  public CompressedDeviceTimeIndex deserialize(InputStream inputStream) throws IOException {
+    return init(new DeviceTimeIndex().deserialize(inputStream));
+  }
+
+  @Override
+  public CompressedDeviceTimeIndex deserialize(ByteBuffer buffer) {
+    return init(new DeviceTimeIndex().deserialize(buffer));
+  }
+
+  private CompressedDeviceTimeIndex init(DeviceTimeIndex deviceTimeIndex) {
+    minStartTime = deviceTimeIndex.getMinStartTime();
+    maxEndTime = deviceTimeIndex.getMaxEndTime();
+    payload =
+        Payload.compress(
+            deviceTimeIndex.deviceToIndex, deviceTimeIndex.startTimes, deviceTimeIndex.endTimes);
+    return this;
+  }
+
+  @Override
+  public void close() {
+    // already sealed
+  }
+
+  @Override
+  public Set<String> getDevices(String tsFilePath, TsFileResource tsFileResource) {
+    Payload current = getPayload();
+    if (current == null) {
+      return fallback().getDevices(tsFilePath, tsFileResource);
+    }
+    Set<String> devices = new HashSet<>();
+    for (int deviceCode : current.deviceCodes) {
+      devices.add(DICTIONARY.getDevice(deviceCode));
+    }
+    return devices;
+  }
+
+  @Override
+  public boolean endTimeEmpty() {
+    return maxEndTime == Long.MIN_VALUE;
+  }
+
+  @Override
+  public boolean stillLives(long ttlLowerBound) {
+    // the file cannot be deleted if any device still lives
+    return ttlLowerBound == Long.MAX_VALUE || maxEndTime >= ttlLowerBound;
+  }
+
+  @Override
+  public long calculateRamSize() {
+    Payload current = payload;
+    return current == null ? INSTANCE_SIZE : INSTANCE_SIZE + current.calculateRamSize();
+  }
+
+  @Override
+  public long getTimePartition(String tsFilePath) {
+    return StorageEngine.getTimePartition(minStartTime);
+  }
+
+  @Override
+  public long getTimePartitionWithCheck(String tsFilePath) throws PartitionViolationException {
+    if (isSpanMultiTimePartitions()) {
+      throw new PartitionViolationException(tsFilePath);
+    }
+    return getTimePartition(tsFilePath);
+  }
+
+  @Override
+  public boolean isSpanMultiTimePartitions() {
+    // the start time and end time of each device lie between the min start and max end time
+    return StorageEngine.getTimePartition(minStartTime)
+        != StorageEngine.getTimePartition(maxEndTime);
+  }
+
+  @Override
+  public void updateStartTime(String deviceId, long time) {
+    throw new UnsupportedOperationException(
+        "CompressedDeviceTimeIndex is only used for sealed TsFiles and should not be updated.");
+  }
+
+  @Override
+  public void updateEndTime(String deviceId, long time) {
+    throw new UnsupportedOperationException(
+        "CompressedDeviceTimeIndex is only used for sealed TsFiles and should not be updated.");
+  }
+
+  @Override
+  public void putStartTime(String deviceId, long time) {
+    throw new UnsupportedOperationException(
+        "CompressedDeviceTimeIndex is only used for sealed TsFiles and should not be updated.");
+  }
+
+  @Override
+  public void putEndTime(String deviceId, long time) {
+    throw new UnsupportedOperationException(
+        "CompressedDeviceTimeIndex is only used for sealed TsFiles and should not be updated.");
+  }
+
+  @Override
+  public long getStartTime(String deviceId) {
+    Payload current = getPayload();
+    if (current == null) {
+      return fallback().getStartTime(deviceId);
+    }
+    int index = current.indexOf(deviceId);
+    return index < 0 ? Long.MAX_VALUE : current.getStartTime(index);
+  }
+
+  @Override
+  public long getEndTime(String deviceId) {
+    Payload current = getPayload();
+    if (current == null) {
+      return fallback().getEndTime(deviceId);
+    }
+    int index = current.indexOf(deviceId);
+    return index < 0 ? Long.MIN_VALUE : current.getEndTime(index);
+  }
+
+  @Override
+  public boolean checkDeviceIdExist(String deviceId) {
+    Payload current = getPayload();
+    return current == null || current.indexOf(deviceId) >= 0;
+  }
+
+  @Override
+  public long getMinStartTime() {
+    return minStartTime;
+  }
+
+  @Override
+  public long getMaxEndTime() {
+    return maxEndTime;
+  }
+
+  /**
+   * Uncompressed device time indexes are degraded first, then the resident compressed ones, and
+   * the evicted ones and file time indexes at last. Indexes of the same rank are degraded from the
+   * oldest one.
+   */
+  @Override
+  public int compareDegradePriority(ITimeIndex timeIndex) {
+    int cmp = Integer.compare(getDegradeRank(this), getDegradeRank(timeIndex));
+    return cmp != 0 ? cmp : Long.compare(getMinStartTime(), timeIndex.getMinStartTime());
+  }
+
+  static int getDegradeRank(ITimeIndex timeIndex) {
+    if (timeIndex instanceof DeviceTimeIndex) {
+      return 0;
+    } else if (timeIndex instanceof CompressedDeviceTimeIndex) {
+      return ((CompressedDeviceTimeIndex) timeIndex).isEvicted() ? 2 : 1;
+    } else {
+      return 2;
+    }
+  }
+
+  @Override
+  public boolean mayContainsDevice(String device) {
+    return checkDeviceIdExist(device);
+  }
+
+  /** The immutable device times of a compressed index. */
+  private static class Payload {
+
+    private static final long INSTANCE_SIZE =
+        RamUsageEstimator.shallowSizeOfInstance(Payload.class);
+
+    /** sorted codes of the devices in the dictionary */
+    private final int[] deviceCodes;
+
+    private final long startTimeBase;
+    private final int startTimeWidth;
+    private final long[] startTimeOffsets;
+
+    private final long endTimeBase;
+    private final int endTimeWidth;
+    private final long[] endTimeOffsets;
+
+    private Payload(int[] deviceCodes, long[] startTimes, long[] endTimes) {
+      this.deviceCodes = deviceCodes;
+      this.startTimeBase = min(startTimes);
+      this.startTimeWidth = getWidth(startTimes, startTimeBase);
+      this.startTimeOffsets = pack(startTimes, startTimeBase, startTimeWidth);
+      this.endTimeBase = min(endTimes);
+      this.endTimeWidth = getWidth(endTimes, endTimeBase);
+      this.endTimeOffsets = pack(endTimes, endTimeBase, endTimeWidth);
+    }
+
+    private static Payload compress(
+        Map<String, Integer> deviceToIndex, long[] startTimes, long[] endTimes) {
+      int deviceNum = deviceToIndex.size();
+      // high 32 bits: device code, low 32 bits: index in the original arrays
+      long[] codeAndIndex = new long[deviceNum];
+      int i = 0;
+      for (Map.Entry<String, Integer> entry : deviceToIndex.entrySet()) {
+        long code = DICTIONARY.acquire(entry.getKey());
+        codeAndIndex[i++] = code << 32 | entry.getValue();
+      }
+      Arrays.sort(codeAndIndex);
+      int[] codes = new int[deviceNum];
+      long[] sortedStartTimes = new long[deviceNum];
+      long[] sortedEndTimes = new long[deviceNum];
+      for (i = 0; i < deviceNum; i++) {
+        codes[i] = (int) (codeAndIndex[i] >>> 32);
+        int index = (int) codeAndIndex[i];
+        sortedStartTimes[i] = startTimes[index];
+        sortedEndTimes[i] = endTimes[index];
+      }
+      Payload payload = new Payload(codes, sortedStartTimes, sortedEndTimes);
+      // the devices are kept in the dictionary as long as the payload is reachable
+      DICTIONARY.register(payload, codes);
+      return payload;
+    }
+
+    private int indexOf(String deviceId) {
+      int code = DICTIONARY.getCode(deviceId);
+      return code == DeviceIdDictionary.UNKNOWN_DEVICE
+          ? -1
+          : Arrays.binarySearch(deviceCodes, code);
+    }
+
+    private long getStartTime(int index) {
+      return startTimeBase + unpack(startTimeOffsets, startTimeWidth, index);
+    }
+
+    private long getEndTime(int index) {
+      return endTimeBase + unpack(endTimeOffsets, endTimeWidth, index);
+    }
+
+    private long calculateRamSize() {
+      return INSTANCE_SIZE
+          + RamUsageEstimator.sizeOf(deviceCodes)
+          + RamUsageEstimator.sizeOf(startTimeOffsets)
+          + RamUsageEstimator.sizeOf(endTimeOffsets);
+    }
+
+    private static long min(long[] times) {
+      long min = Long.MAX_VALUE;
+      for (long time : times) {
+        min = Math.min(min, time);
+      }
+      return min;
+    }
+
+    /** the offsets from the base are unsigned, so the width of their bitwise or is enough */
+    private static int getWidth(long[] times, long base) {
+      long bits = 0;
+      for (long time : times) {
+        bits |= time - base;
+      }
+      return Long.SIZE - Long.numberOfLeadingZeros(bits);
+    }
+
+    private static long[] pack(long[] times, long base, int width) {
+      long[] packed = new long[(int) (((long) times.length * width + Long.SIZE - 1) / Long.SIZE)];
+      if (width == 0) {
+        // all the times are equal to the base
+        return packed;
+      }
+      for (int i = 0; i < times.length; i++) {
+        long offset = times[i] - base;
+        long bitIndex = (long) i * width;
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        packed[word] |= offset << shift;
+        if (shift + width > Long.SIZE) {
+          packed[word + 1] |= offset >>> (Long.SIZE - shift);
+        }
+      }
+      return packed;
+    }
+
+    private static long unpack(long[] packed, int width, int index) {
+      if (width == 0) {
+        return 0;
+      }
+      long bitIndex = (long) index * width;
+      int word = (int) (bitIndex >>> 6);
+      int shift = (int) (bitIndex & 63);
+      long value = packed[word] >>> shift;
+      if (shift + width > Long.SIZE) {
+        value |= packed[word + 1] << (Long.SIZE - shift);
+      }
+      return width == Long.SIZE ? value : value & ((1L << width) - 1);
+    }
+  }
+
+  /** Device times paged in for evicted indexes, weighted by their memory cost. */
+  private static class PagedInCache {
+
+    private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+    /** a tenth of the memory for time indexes */
+    private static final long CAPACITY =
+        (long) (CONFIG.getAllocateMemoryForRead() * CONFIG.getTimeIndexMemoryProportion() / 10);
+
+    private static final Cache<CompressedDeviceTimeIndex, Payload> CACHE =
+        Caffeine.newBuilder()
+            .weakKeys()
+            .maximumWeight(CAPACITY)
+            .weigher(
+                (Weigher<CompressedDeviceTimeIndex, Payload>)
+                    (index, payload) -> (int) payload.calculateRamSize())
+            .build();
+
+    private PagedInCache() {}
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.engine.storagegroup.timeindex;
+
+import org.apache.iotdb.tsfile.utils.RamUsageEstimator;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of device ids shared by all {@link CompressedDeviceTimeIndex}. Each device name is
+ * stored once for the whole instance and compressed time indexes only keep the int codes of their
+ * devices.
+ *
+ * <p>A code is counted for each holder of it. Once a holder is garbage collected, its codes are
+ * released, and a device without holders is removed so that its code can be reused. As a holder
+ * is not collected while it is read, the device of a code does not change under a lookup.
+ */
+public class DeviceIdDictionary {
+
+  public static final int UNKNOWN_DEVICE = -1;
+
+  /** a node of the map, the boxed code, a slot of the list and the count of holders */
+  private static final long ENTRY_SIZE =
+      RamUsageEstimator.alignObjectSize(
+              RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+                  + RamUsageEstimator.NUM_BYTES_INT
+                  + 3L * RamUsageEstimator.NUM_BYTES_OBJECT_REF)
+          + RamUsageEstimator.shallowSizeOfInstance(Integer.class)
+          + 2L * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+          + RamUsageEstimator.NUM_BYTES_INT;
+
+  private static final long STRING_SIZE = RamUsageEstimator.shallowSizeOfInstance(String.class);
+
+  private final Map<String, Integer> deviceToCode = new ConcurrentHashMap<>();
+  /** guards itself and the fields below */
+  private final List<String> codeToDevice = new ArrayList<>();
+  /** the number of live holders of each code */
+  private int[] holderCounts = new int[16];
+  /** the codes of the removed devices, to be reused */
+  private final Deque<Integer> releasedCodes = new ArrayDeque<>();
+  private long ramSize = 0;
+
+  private final ReferenceQueue<Object> collectedHolders = new ReferenceQueue<>();
+  /** keeps the references reachable until their holders are collected */
+  private final Set<HolderReference> holderReferences = ConcurrentHashMap.newKeySet();
+
+  private DeviceIdDictionary() {}
+
+  /** @return the code of the device, or {@link #UNKNOWN_DEVICE} if it is not registered */
+  public int getCode(String device) {
+    Integer code = deviceToCode.get(device);
+    return code == null ? UNKNOWN_DEVICE : code;
+  }
+
+  /**
+   * Get the code of the device, registering the device if it is absent. The code is held until
+   * the holder that it is {@link #register}ed with is garbage collected.
+   */
+  public int acquire(String device) {
+    synchronized (codeToDevice) {
+      releaseCollectedHolders();
+      Integer existingCode = deviceToCode.get(device);
+      int code;
+      if (existingCode != null) {
+        code = existingCode;
+      } else {
+        String internedDevice = device.intern();
+        if (releasedCodes.isEmpty()) {
+          code = codeToDevice.size();
+          codeToDevice.add(internedDevice);
+          if (code == holderCounts.length) {
+            holderCounts = Arrays.copyOf(holderCounts, code * 2);
+          }
+        } else {
+          code = releasedCodes.pop();
+          codeToDevice.set(code, internedDevice);
+        }
+        deviceToCode.put(internedDevice, code);
+        ramSize += sizeOf(internedDevice);
+      }
+      holderCounts[code]++;
+      return code;
+    }
+  }
+
+  /** Release the acquired codes once the holder is garbage collected. */
+  public void register(Object holder, int[] codes) {
+    holderReferences.add(new HolderReference(holder, codes, collectedHolders));
+  }
+
+  public String getDevice(int code) {
+    synchronized (codeToDevice) {
+      return codeToDevice.get(code);
+    }
+  }
+
+  public int size() {
+    return deviceToCode.size();
+  }
+
+  /** @return the memory of the dictionary, after the codes of collected holders are released */
+  public long ramBytesUsed() {
+    synchronized (codeToDevice) {
+      releaseCollectedHolders();
+      return ramSize;
+    }
+  }
+
+  private void releaseCollectedHolders() {
+    Reference<?> reference;
+    while ((reference = collectedHolders.poll()) != null) {
+      HolderReference holderReference = (HolderReference) reference;
+      holderReferences.remove(holderReference);
+      for (int code : holderReference.codes) {
+        if (--holderCounts[code] == 0) {
+          String device = codeToDevice.set(code, null);
+          deviceToCode.remove(device);
+          releasedCodes.push(code);
+          ramSize -= sizeOf(device);
+        }
+      }
+    }
+  }
+
+  private static long sizeOf(String device) {
+    return ENTRY_SIZE
+        + STRING_SIZE
+        + RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                + (long) RamUsageEstimator.NUM_BYTES_CHAR * device.length());
+  }
+
+  /** The codes of a holder, enqueued when the holder is garbage collected. */
+  private static class HolderReference extends PhantomReference<Object> {
+
+    private final int[] codes;
+
+    private HolderReference(Object holder, int[] codes, ReferenceQueue<Object> queue) {
+      super(holder, queue);
+      this.codes = codes;
+    }
+  }
+
+  public static DeviceIdDictionary getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  private static class InstanceHolder {
+    private InstanceHolder() {}
+
+    private static final DeviceIdDictionary INSTANCE = new DeviceIdDictionary();
+  }
+}
@@ -325,7 +325,8 @@ public class DeviceTimeIndex implements ITimeIndex {
   public int compareDegradePriority(ITimeIndex timeIndex) {
     if (timeIndex instanceof DeviceTimeIndex) {
       return Long.compare(getMinStartTime(), timeIndex.getMinStartTime());
-    } else if (timeIndex instanceof FileTimeIndex) {
+    } else if (timeIndex instanceof FileTimeIndex
+        || timeIndex instanceof CompressedDeviceTimeIndex) {
       return -1;
     } else {
       logger.error("Wrong timeIndex type {}", timeIndex.getClass().getName());
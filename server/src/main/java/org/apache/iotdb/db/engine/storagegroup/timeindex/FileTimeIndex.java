@@ -214,6 +214,10 @@ public class FileTimeIndex implements ITimeIndex {
       return 1;
     } else if (timeIndex instanceof FileTimeIndex) {
       return Long.compare(startTime, timeIndex.getMinStartTime());
+    } else if (timeIndex instanceof CompressedDeviceTimeIndex) {
+      return ((CompressedDeviceTimeIndex) timeIndex).isEvicted()
+          ? Long.compare(startTime, timeIndex.getMinStartTime())
+          : 1;
     } else {
       logger.error("Wrong timeIndex type {}", timeIndex.getClass().getName());
       throw new RuntimeException("Wrong timeIndex type " + timeIndex.getClass().getName());
@@ -30,6 +30,8 @@ import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * This class takes the responsibility of metadata cache management of all DataRegions under
  * StorageEngine
@@ -40,6 +42,9 @@ public class DataNodeSchemaCache {
 
   private final Cache<PartialPath, SchemaCacheEntry> cache;
 
+  /** increased whenever the cache is invalidated, i.e., the schema is deleted or changed */
+  private final AtomicLong version = new AtomicLong();
+
   private DataNodeSchemaCache() {
     cache = Caffeine.newBuilder().maximumSize(config.getDataNodeSchemaCacheSize()).build();
   }
@@ -136,15 +141,25 @@ public class DataNodeSchemaCache {
    * @return
    */
   public void invalidate(PartialPath partialPath) {
+    version.incrementAndGet();
     resetLastCache(partialPath);
     cache.invalidate(partialPath);
   }
 
+  /**
+   * The schema cached out of this cache is stale once the version changes, which must be read
+   * before fetching the schema to cache.
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
   public long estimatedSize() {
     return cache.estimatedSize();
   }
 
   public void cleanUp() {
+    version.incrementAndGet();
     cache.invalidateAll();
     cache.cleanUp();
   }
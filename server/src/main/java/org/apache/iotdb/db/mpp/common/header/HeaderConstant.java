@@ -55,6 +55,9 @@ public class HeaderConstant {
   public static final String COLUMN_COUNT_TIMESERIES = "count(timeseries)";
   public static final String COLUMN_COUNT_STORAGE_GROUP = "count(storage group)";
 
+  // column names for explain analyze statement
+  public static final String COLUMN_EXPLAIN_ANALYZE = "explain analyze";
+
   // dataset header for schema statement
   public static final DatasetHeader showTimeSeriesHeader;
   public static final DatasetHeader showDevicesHeader;
@@ -71,6 +74,9 @@ public class HeaderConstant {
   public static final DatasetHeader countTimeSeriesHeader;
   public static final DatasetHeader countLevelTimeSeriesHeader;
 
+  // dataset header for explain analyze statement
+  public static final DatasetHeader explainAnalyzeHeader;
+
   static {
     countStorageGroupHeader =
         new DatasetHeader(
@@ -145,4 +151,11 @@ public class HeaderConstant {
         new DatasetHeader(
             Arrays.asList(new ColumnHeader(COLUMN_CHILDNODES, TSDataType.TEXT)), true);
   }
+
+  static {
+    explainAnalyzeHeader =
+        new DatasetHeader(
+            Collections.singletonList(new ColumnHeader(COLUMN_EXPLAIN_ANALYZE, TSDataType.TEXT)),
+            true);
+  }
 }
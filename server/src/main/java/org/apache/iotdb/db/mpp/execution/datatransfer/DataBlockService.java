@@ -63,7 +63,7 @@ public class DataBlockService extends ThriftService implements DataBlockServiceM
             "data-block-manager-task-executors");
     this.dataBlockManager =
         new DataBlockManager(
-            new LocalMemoryManager(),
+            LocalMemoryManager.getInstance(),
             new TsBlockSerdeFactory(),
             executorService,
             new IClientManager.Factory<TEndPoint, SyncDataNodeDataBlockServiceClient>()
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.db.mpp.execution.driver;
 
+import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
 import org.apache.iotdb.db.mpp.execution.datatransfer.ISinkHandle;
 import org.apache.iotdb.db.mpp.execution.operator.Operator;
@@ -163,6 +164,11 @@ public abstract class Driver implements IDriver {
     return sinkHandle;
   }
 
+  @TestOnly
+  public Operator getRoot() {
+    return root;
+  }
+
   @GuardedBy("exclusiveLock")
   private boolean isFinishedInternal() {
     checkLockHeld("Lock must be held to call isFinishedInternal");
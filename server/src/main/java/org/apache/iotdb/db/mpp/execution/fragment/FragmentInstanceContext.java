@@ -21,6 +21,7 @@ package org.apache.iotdb.db.mpp.execution.fragment;
 import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
 import org.apache.iotdb.db.mpp.execution.driver.DriverContext;
 import org.apache.iotdb.db.mpp.execution.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.execution.operator.OperatorMetricsManager;
 import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNodeId;
 import org.apache.iotdb.db.query.context.QueryContext;
 
@@ -109,7 +110,9 @@ public class FragmentInstanceContext extends QueryContext {
       // use compare and set from initial value to avoid overwriting if there
       // were a duplicate notification, which shouldn't happen
       executionEndTime.compareAndSet(END_TIME_INITIAL_VALUE, now);
-      endNanos.compareAndSet(0, System.nanoTime());
+      if (endNanos.compareAndSet(0, System.nanoTime()) && isProfiling()) {
+        OperatorMetricsManager.recordOperatorStatistics(this);
+      }
     }
   }
 
@@ -161,4 +164,14 @@ public class FragmentInstanceContext extends QueryContext {
   public long getEndTime() {
     return executionEndTime.get();
   }
+
+  /** @return the elapsed nanoseconds from start to end, or to now if not finished yet */
+  public long getElapsedNanos() {
+    long start = startNanos.get();
+    if (start == 0) {
+      return 0;
+    }
+    long end = endNanos.get();
+    return (end == 0 ? System.nanoTime() : end) - start;
+  }
 }
@@ -104,6 +104,7 @@ public class FragmentInstanceManager {
                       instanceId,
                       fragmentInstanceId ->
                           createFragmentInstanceContext(fragmentInstanceId, stateMachine));
+              context.setProfiling(instance.isProfiling());
 
               try {
                 DataDriver driver =
@@ -193,6 +194,17 @@ public class FragmentInstanceManager {
     return execution.getInstanceInfo();
   }
 
+  /**
+   * Gets the context of the specified fragment instance, which is kept for a while after the
+   * instance is done.
+   *
+   * @return null if the instance is not executed in this node or has been removed
+   */
+  public FragmentInstanceContext getInstanceContext(FragmentInstanceId instanceId) {
+    requireNonNull(instanceId, "instanceId is null");
+    return instanceContext.get(instanceId);
+  }
+
   public CounterStat getFailedInstances() {
     return failedInstances;
   }
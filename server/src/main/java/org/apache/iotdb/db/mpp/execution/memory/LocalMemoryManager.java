@@ -40,4 +40,16 @@ public class LocalMemoryManager {
   public MemoryPool getQueryPool() {
     return queryPool;
   }
+
+  /** The memory manager shared by the data block manager and the external sort of queries. */
+  public static LocalMemoryManager getInstance() {
+    return LocalMemoryManagerHolder.INSTANCE;
+  }
+
+  private static class LocalMemoryManagerHolder {
+
+    private static final LocalMemoryManager INSTANCE = new LocalMemoryManager();
+
+    private LocalMemoryManagerHolder() {}
+  }
 }
@@ -20,10 +20,15 @@ package org.apache.iotdb.db.mpp.execution.operator;
 
 import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 
 /**
  * Contains information about {@link Operator} execution.
  *
+ * <p>The execution statistics are recorded by {@link ProfiledOperator}. All the times and bytes
+ * include those spent in the children of the operator, because the children are called inside the
+ * operator.
+ *
  * <p>Not thread-safe.
  */
 public class OperatorContext {
@@ -33,6 +38,16 @@ public class OperatorContext {
   private final String operatorType;
   private final FragmentInstanceContext instanceContext;
 
+  // execution statistics, only updated by the thread running the driver
+  private long wallTimeNanos;
+  private long cpuTimeNanos;
+  private long nextCalls;
+  private long hasNextCalls;
+  private long outputRows;
+  private long outputTsBlocks;
+  private long chunkCacheReadBytes;
+  private long diskReadBytes;
+
   public OperatorContext(
       int operatorId,
       PlanNodeId planNodeId,
@@ -51,4 +66,69 @@ public class OperatorContext {
   public FragmentInstanceContext getInstanceContext() {
     return instanceContext;
   }
+
+  public PlanNodeId getPlanNodeId() {
+    return planNodeId;
+  }
+
+  public String getOperatorType() {
+    return operatorType;
+  }
+
+  /** record one call of {@link Operator#next()} and the TsBlock it returned, may be null */
+  public void recordNext(
+      long wallNanos, long cpuNanos, long chunkCacheBytes, long diskBytes, TsBlock tsBlock) {
+    nextCalls++;
+    recordExecution(wallNanos, cpuNanos, chunkCacheBytes, diskBytes);
+    if (tsBlock != null && !tsBlock.isEmpty()) {
+      outputTsBlocks++;
+      outputRows += tsBlock.getPositionCount();
+    }
+  }
+
+  /** record one call of {@link Operator#hasNext()} */
+  public void recordHasNext(long wallNanos, long cpuNanos, long chunkCacheBytes, long diskBytes) {
+    hasNextCalls++;
+    recordExecution(wallNanos, cpuNanos, chunkCacheBytes, diskBytes);
+  }
+
+  private void recordExecution(
+      long wallNanos, long cpuNanos, long chunkCacheBytes, long diskBytes) {
+    wallTimeNanos += wallNanos;
+    cpuTimeNanos += cpuNanos;
+    chunkCacheReadBytes += chunkCacheBytes;
+    diskReadBytes += diskBytes;
+  }
+
+  public long getWallTimeNanos() {
+    return wallTimeNanos;
+  }
+
+  public long getCpuTimeNanos() {
+    return cpuTimeNanos;
+  }
+
+  public long getNextCalls() {
+    return nextCalls;
+  }
+
+  public long getHasNextCalls() {
+    return hasNextCalls;
+  }
+
+  public long getOutputRows() {
+    return outputRows;
+  }
+
+  public long getOutputTsBlocks() {
+    return outputTsBlocks;
+  }
+
+  public long getChunkCacheReadBytes() {
+    return chunkCacheReadBytes;
+  }
+
+  public long getDiskReadBytes() {
+    return diskReadBytes;
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.execution.operator;
+
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.enums.Metric;
+import org.apache.iotdb.db.service.metrics.enums.Tag;
+import org.apache.iotdb.metrics.MetricManager;
+import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+
+import java.util.concurrent.TimeUnit;
+
+/** Export the execution statistics of operators to the metric module. */
+public class OperatorMetricsManager {
+
+  private OperatorMetricsManager() {}
+
+  /** record the statistics of all the operators of a finished fragment instance */
+  public static void recordOperatorStatistics(FragmentInstanceContext instanceContext) {
+    if (!MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
+      return;
+    }
+    MetricManager metricManager = MetricsService.getInstance().getMetricManager();
+    for (OperatorContext operatorContext : instanceContext.getOperatorContexts()) {
+      if (operatorContext.getNextCalls() == 0 && operatorContext.getHasNextCalls() == 0) {
+        // not profiled
+        continue;
+      }
+      String operatorType = operatorContext.getOperatorType();
+      metricManager.timer(
+          operatorContext.getWallTimeNanos(),
+          TimeUnit.NANOSECONDS,
+          Metric.OPERATOR_EXECUTION_COST.toString(),
+          MetricLevel.IMPORTANT,
+          Tag.NAME.toString(),
+          operatorType,
+          Tag.TYPE.toString(),
+          "wall");
+      metricManager.timer(
+          operatorContext.getCpuTimeNanos(),
+          TimeUnit.NANOSECONDS,
+          Metric.OPERATOR_EXECUTION_COST.toString(),
+          MetricLevel.IMPORTANT,
+          Tag.NAME.toString(),
+          operatorType,
+          Tag.TYPE.toString(),
+          "cpu");
+      metricManager.count(
+          operatorContext.getOutputRows(),
+          Metric.OPERATOR_OUTPUT.toString(),
+          MetricLevel.IMPORTANT,
+          Tag.NAME.toString(),
+          operatorType,
+          Tag.TYPE.toString(),
+          "rows");
+      metricManager.count(
+          operatorContext.getOutputTsBlocks(),
+          Metric.OPERATOR_OUTPUT.toString(),
+          MetricLevel.IMPORTANT,
+          Tag.NAME.toString(),
+          operatorType,
+          Tag.TYPE.toString(),
+          "tsblocks");
+    }
+    metricManager.count(
+        instanceContext.getChunkCacheReadBytes(),
+        Metric.DATA_READ.toString(),
+        MetricLevel.IMPORTANT,
+        Tag.NAME.toString(),
+        "query",
+        Tag.TYPE.toString(),
+        "chunk_cache");
+    metricManager.count(
+        instanceContext.getDiskReadBytes(),
+        Metric.DATA_READ.toString(),
+        MetricLevel.IMPORTANT,
+        Tag.NAME.toString(),
+        "query",
+        Tag.TYPE.toString(),
+        "disk");
+  }
+}
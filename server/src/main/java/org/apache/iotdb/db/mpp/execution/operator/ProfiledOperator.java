@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.execution.operator;
+
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Wraps an {@link Operator} and records the wall time, cpu time, output and bytes read of each
+ * call of {@link #next()} and {@link #hasNext()} into its {@link OperatorContext}.
+ */
+public class ProfiledOperator implements Operator {
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_ENABLED =
+      THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+
+  private final Operator operator;
+  private final OperatorContext operatorContext;
+  private final FragmentInstanceContext instanceContext;
+
+  public ProfiledOperator(Operator operator) {
+    this.operator = operator;
+    this.operatorContext = operator.getOperatorContext();
+    this.instanceContext = operatorContext.getInstanceContext();
+  }
+
+  private static long currentThreadCpuTime() {
+    return CPU_TIME_ENABLED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+  }
+
+  @Override
+  public OperatorContext getOperatorContext() {
+    return operatorContext;
+  }
+
+  @Override
+  public ListenableFuture<Void> isBlocked() {
+    return operator.isBlocked();
+  }
+
+  @Override
+  public TsBlock next() {
+    long startCpu = currentThreadCpuTime();
+    long chunkCacheBytes = instanceContext.getChunkCacheReadBytes();
+    long diskBytes = instanceContext.getDiskReadBytes();
+    long start = System.nanoTime();
+    TsBlock tsBlock = operator.next();
+    operatorContext.recordNext(
+        System.nanoTime() - start,
+        currentThreadCpuTime() - startCpu,
+        instanceContext.getChunkCacheReadBytes() - chunkCacheBytes,
+        instanceContext.getDiskReadBytes() - diskBytes,
+        tsBlock);
+    return tsBlock;
+  }
+
+  @Override
+  public boolean hasNext() {
+    long startCpu = currentThreadCpuTime();
+    long chunkCacheBytes = instanceContext.getChunkCacheReadBytes();
+    long diskBytes = instanceContext.getDiskReadBytes();
+    long start = System.nanoTime();
+    boolean hasNext = operator.hasNext();
+    operatorContext.recordHasNext(
+        System.nanoTime() - start,
+        currentThreadCpuTime() - startCpu,
+        instanceContext.getChunkCacheReadBytes() - chunkCacheBytes,
+        instanceContext.getDiskReadBytes() - diskBytes);
+    return hasNext;
+  }
+
+  @Override
+  public void close() throws Exception {
+    operator.close();
+  }
+
+  @Override
+  public boolean isFinished() {
+    return operator.isFinished();
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+}
@@ -19,9 +19,12 @@
 package org.apache.iotdb.db.mpp.execution.operator.source;
 
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.querycontext.QueryDataSource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileValueIndex;
 import org.apache.iotdb.db.metadata.idtable.IDTable;
+import org.apache.iotdb.db.metadata.path.AlignedPath;
 import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.reader.universal.DescPriorityMergeReader;
@@ -48,10 +51,13 @@ import org.apache.iotdb.tsfile.utils.TsPrimitiveType;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Set;
@@ -81,6 +87,11 @@ public class SeriesScanUtil {
   private final Filter timeFilter;
   private final Filter valueFilter;
 
+  /*
+   * the value range of valueFilter, null if the value range indexes of files are not used
+   */
+  private final double[] valueBounds;
+
   private QueryDataSource dataSource;
 
   /*
@@ -95,6 +106,8 @@ public class SeriesScanUtil {
   protected ITimeSeriesMetadata firstTimeSeriesMetadata;
   protected final List<ITimeSeriesMetadata> seqTimeSeriesMetadata = new LinkedList<>();
   protected final PriorityQueue<ITimeSeriesMetadata> unSeqTimeSeriesMetadata;
+  // TimeSeriesMetadata -> offsets of its chunks that may satisfy valueFilter
+  private final Map<ITimeSeriesMetadata, long[]> candidateChunks = new IdentityHashMap<>();
 
   /*
    * chunk cache
@@ -134,6 +147,12 @@ public class SeriesScanUtil {
     this.context = context;
     this.timeFilter = timeFilter;
     this.valueFilter = valueFilter;
+    this.valueBounds =
+        valueFilter != null
+                && !(seriesPath instanceof AlignedPath)
+                && IoTDBDescriptor.getInstance().getConfig().isEnableValueRangeIndex()
+            ? TsFileValueIndex.getValueBounds(valueFilter)
+            : null;
     if (ascending) {
       this.orderUtils = new AscTimeOrderUtils();
       mergeReader = getPriorityMergeReader();
@@ -343,6 +362,15 @@ public class SeriesScanUtil {
       throws IOException {
     List<IChunkMetadata> chunkMetadataList =
         FileLoaderUtils.loadChunkMetadataList(timeSeriesMetadata);
+    long[] candidates = candidateChunks.remove(timeSeriesMetadata);
+    if (candidates != null) {
+      chunkMetadataList =
+          chunkMetadataList.stream()
+              .filter(
+                  chunkMetadata ->
+                      Arrays.binarySearch(candidates, chunkMetadata.getOffsetOfChunkHeader()) >= 0)
+              .collect(Collectors.toList());
+    }
     chunkMetadataList.forEach(chunkMetadata -> chunkMetadata.setSeq(timeSeriesMetadata.isSeq()));
 
     cachedChunkMetadata.addAll(chunkMetadataList);
@@ -1028,19 +1056,48 @@ public class SeriesScanUtil {
   }
 
   private void unpackSeqTsFileResource() throws IOException {
+    TsFileResource resource = orderUtils.getNextSeqFileResource(true);
+    long[] candidates = getCandidateChunks(resource);
+    if (candidates != null && candidates.length == 0) {
+      // no value in this file can satisfy valueFilter
+      return;
+    }
     ITimeSeriesMetadata timeseriesMetadata =
-        loadTimeSeriesMetadata(
-            orderUtils.getNextSeqFileResource(true),
-            seriesPath,
-            context,
-            getAnyFilter(),
-            allSensors);
+        loadTimeSeriesMetadata(resource, seriesPath, context, getAnyFilter(), allSensors);
     if (timeseriesMetadata != null) {
       timeseriesMetadata.setSeq(true);
+      if (candidates != null) {
+        candidateChunks.put(timeseriesMetadata, candidates);
+      }
       seqTimeSeriesMetadata.add(timeseriesMetadata);
     }
   }
 
+  /**
+   * Look up the chunks of the series that may satisfy valueFilter in the value range index of a
+   * seq file. Like the statistics based skipping, this is only done when no other data of the query
+   * overlaps the file and the file has no modification, as the skipped points could otherwise hide
+   * overlapped ones.
+   *
+   * @return the sorted offsets of the candidate chunks, or null if the file can not be pruned
+   */
+  private long[] getCandidateChunks(TsFileResource resource) {
+    if (valueBounds == null || !resource.isClosed() || resource.getModFile().exists()) {
+      return null;
+    }
+    String device = seriesPath.getDevice();
+    long startTime = resource.getStartTime(device);
+    long endTime = resource.getEndTime(device);
+    for (TsFileResource unseqResource : dataSource.getUnseqResources()) {
+      if (unseqResource.getStartTime(device) <= endTime
+          && unseqResource.getEndTime(device) >= startTime) {
+        return null;
+      }
+    }
+    return TsFileValueIndex.get(resource)
+        .getCandidateChunks(device, seriesPath.getMeasurement(), valueBounds[0], valueBounds[1]);
+  }
+
   private void unpackUnseqTsFileResource() throws IOException {
     ITimeSeriesMetadata timeseriesMetadata =
         loadTimeSeriesMetadata(
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.mpp.plan.analyze;
+
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.metadata.cache.DataNodeSchemaCache;
+import org.apache.iotdb.db.mpp.common.schematree.PathPatternTree;
+import org.apache.iotdb.db.mpp.common.schematree.SchemaTree;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+import java.util.List;
+
+/**
+ * Caches the schema of the queries of a prepared statement, whose executions usually fetch the
+ * schema of the same paths. Only the schema of the full paths that all exist is cached, since
+ * neither a new time series matching a wildcard nor a created missing one invalidates the schema
+ * cache of the data node. The cached schema is dropped once the schema cache of the data node is
+ * invalidated, i.e., a time series or a storage group is deleted.
+ */
+public class CachedSchemaFetcher implements ISchemaFetcher {
+
+  private final ISchemaFetcher fetcher;
+
+  private volatile CachedSchema cachedSchema;
+
+  public CachedSchemaFetcher(ISchemaFetcher fetcher) {
+    this.fetcher = fetcher;
+  }
+
+  @Override
+  public SchemaTree fetchSchema(PathPatternTree patternTree) {
+    List<PartialPath> paths = patternTree.splitToPathList();
+    long version = DataNodeSchemaCache.getInstance().getVersion();
+    CachedSchema schema = cachedSchema;
+    if (schema != null && schema.version == version && schema.paths.equals(paths)) {
+      return schema.schemaTree;
+    }
+
+    SchemaTree schemaTree = fetcher.fetchSchema(patternTree);
+    if (isComplete(paths, schemaTree)) {
+      cachedSchema = new CachedSchema(paths, version, schemaTree);
+    }
+    return schemaTree;
+  }
+
+  /** @return true if each path is a full path and its time series exists */
+  private static boolean isComplete(List<PartialPath> paths, SchemaTree schemaTree) {
+    for (PartialPath path : paths) {
+      for (String node : path.getNodes()) {
+        if (node.contains("*")) {
+          return false;
+        }
+      }
+      if (schemaTree.searchMeasurementPaths(path).left.size() != 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public SchemaTree fetchSchemaWithAutoCreate(
+      PartialPath devicePath, String[] measurements, TSDataType[] tsDataTypes, boolean aligned) {
+    return fetcher.fetchSchemaWithAutoCreate(devicePath, measurements, tsDataTypes, aligned);
+  }
+
+  @Override
+  public SchemaTree fetchSchemaListWithAutoCreate(
+      List<PartialPath> devicePath,
+      List<String[]> measurements,
+      List<TSDataType[]> tsDataTypes,
+      List<Boolean> aligned) {
+    return fetcher.fetchSchemaListWithAutoCreate(devicePath, measurements, tsDataTypes, aligned);
+  }
+
+  @Override
+  public void invalidAllCache() {
+    cachedSchema = null;
+    fetcher.invalidAllCache();
+  }
+
+  private static class CachedSchema {
+
+    private final List<PartialPath> paths;
+
+    /** the version of the schema cache of the data node before fetching the schema */
+    private final long version;
+
+    private final SchemaTree schemaTree;
+
+    private CachedSchema(List<PartialPath> paths, long version, SchemaTree schemaTree) {
+      this.paths = paths;
+      this.version = version;
+      this.schemaTree = schemaTree;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.plan.execution;
+
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceInfo;
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceManager;
+import org.apache.iotdb.db.mpp.execution.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.plan.planner.plan.DistributedQueryPlan;
+import org.apache.iotdb.db.mpp.plan.planner.plan.FragmentInstance;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanGraphPrinter;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNodeId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Print the distributed plan of an executed query, with the execution statistics of each fragment
+ * instance and each operator in the plan.
+ *
+ * <p>Only the statistics of the fragment instances executed in the current node are available.
+ */
+public class ExplainAnalyzePrinter {
+
+  /** the max time to wait for the fragment instances to be done after the result is consumed */
+  private static final long WAIT_INSTANCE_DONE_TIMEOUT_IN_MS = 5_000L;
+
+  private static final long WAIT_INSTANCE_DONE_INTERVAL_IN_MS = 10L;
+
+  private ExplainAnalyzePrinter() {}
+
+  public static List<String> print(
+      String queryId, DistributedQueryPlan distributedPlan, long elapsedNanos, long outputRows)
+      throws InterruptedException {
+    List<String> lines = new ArrayList<>();
+    lines.add(
+        String.format(
+            "Query: %s, Elapsed: %s, Output rows: %d",
+            queryId, formatNanos(elapsedNanos), outputRows));
+    if (distributedPlan == null) {
+      lines.add("The query is finished without executing any fragment instance");
+      return lines;
+    }
+
+    FragmentInstanceManager instanceManager = FragmentInstanceManager.getInstance();
+    for (FragmentInstance instance : distributedPlan.getInstances()) {
+      lines.add("");
+      lines.add(
+          String.format(
+              "Fragment Instance: %s, Host: %s",
+              instance.getId(),
+              instance.getHostDataNode() == null
+                  ? "Not set"
+                  : instance.getHostDataNode().getInternalEndPoint()));
+
+      FragmentInstanceContext instanceContext =
+          instanceManager.getInstanceContext(instance.getId());
+      if (instanceContext == null) {
+        lines.add("  Statistics are not available in this node");
+        lines.addAll(PlanGraphPrinter.getGraph(instance.getFragment().getRoot()));
+        continue;
+      }
+      FragmentInstanceInfo instanceInfo = waitUntilDone(instanceManager, instance);
+      lines.add(
+          String.format(
+              "  State: %s, Elapsed: %s, Read from ChunkCache: %d bytes, Read from disk: %d bytes",
+              instanceInfo == null ? "UNKNOWN" : instanceInfo.getState(),
+              formatNanos(instanceContext.getElapsedNanos()),
+              instanceContext.getChunkCacheReadBytes(),
+              instanceContext.getDiskReadBytes()));
+      lines.addAll(
+          PlanGraphPrinter.getGraph(
+              instance.getFragment().getRoot(), getNodeStatistics(instance, instanceContext)));
+    }
+    return lines;
+  }
+
+  private static FragmentInstanceInfo waitUntilDone(
+      FragmentInstanceManager instanceManager, FragmentInstance instance)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_INSTANCE_DONE_TIMEOUT_IN_MS;
+    FragmentInstanceInfo instanceInfo = instanceManager.getInstanceInfo(instance.getId());
+    while (instanceInfo != null
+        && !instanceInfo.getState().isDone()
+        && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(WAIT_INSTANCE_DONE_INTERVAL_IN_MS);
+      instanceInfo = instanceManager.getInstanceInfo(instance.getId());
+    }
+    return instanceInfo;
+  }
+
+  private static Map<PlanNodeId, List<String>> getNodeStatistics(
+      FragmentInstance instance, FragmentInstanceContext instanceContext) {
+    // only the outermost operator of a plan node is profiled
+    Map<PlanNodeId, List<OperatorContext>> nodeOperators = new HashMap<>();
+    for (OperatorContext operatorContext : instanceContext.getOperatorContexts()) {
+      if (operatorContext.getNextCalls() > 0 || operatorContext.getHasNextCalls() > 0) {
+        nodeOperators
+            .computeIfAbsent(operatorContext.getPlanNodeId(), k -> new ArrayList<>())
+            .add(operatorContext);
+      }
+    }
+
+    Map<PlanNodeId, List<String>> nodeStatistics = new HashMap<>();
+    collectNodeStatistics(instance.getFragment().getRoot(), nodeOperators, nodeStatistics);
+    return nodeStatistics;
+  }
+
+  private static void collectNodeStatistics(
+      PlanNode node,
+      Map<PlanNodeId, List<OperatorContext>> nodeOperators,
+      Map<PlanNodeId, List<String>> nodeStatistics) {
+    List<OperatorContext> operatorContexts = nodeOperators.get(node.getPlanNodeId());
+    if (operatorContexts != null) {
+      // the time of an operator includes the time of its children, subtract it to get the time
+      // spent in the operator itself
+      long childrenWallTime = 0;
+      for (PlanNode child : node.getChildren()) {
+        childrenWallTime += getWallTime(nodeOperators.get(child.getPlanNodeId()));
+      }
+      long selfWallTime = Math.max(0, getWallTime(operatorContexts) - childrenWallTime);
+
+      List<String> lines = new ArrayList<>();
+      for (OperatorContext operatorContext : operatorContexts) {
+        lines.add(String.format("[%s]", operatorContext.getOperatorType()));
+        lines.add(
+            String.format(
+                "Wall: %s, Self: %s, CPU: %s",
+                formatNanos(operatorContext.getWallTimeNanos()),
+                formatNanos(selfWallTime),
+                formatNanos(operatorContext.getCpuTimeNanos())));
+        lines.add(
+            String.format(
+                "Output: %d rows, %d TsBlocks",
+                operatorContext.getOutputRows(), operatorContext.getOutputTsBlocks()));
+        lines.add(
+            String.format(
+                "Calls: next %d, hasNext %d",
+                operatorContext.getNextCalls(), operatorContext.getHasNextCalls()));
+        if (operatorContext.getChunkCacheReadBytes() > 0
+            || operatorContext.getDiskReadBytes() > 0) {
+          lines.add(
+              String.format(
+                  "Read: %d bytes from ChunkCache, %d bytes from disk",
+                  operatorContext.getChunkCacheReadBytes(), operatorContext.getDiskReadBytes()));
+        }
+      }
+      nodeStatistics.put(node.getPlanNodeId(), lines);
+    }
+    for (PlanNode child : node.getChildren()) {
+      collectNodeStatistics(child, nodeOperators, nodeStatistics);
+    }
+  }
+
+  private static long getWallTime(List<OperatorContext> operatorContexts) {
+    long wallTime = 0;
+    if (operatorContexts != null) {
+      for (OperatorContext operatorContext : operatorContexts) {
+        wallTime += operatorContext.getWallTimeNanos();
+      }
+    }
+    return wallTime;
+  }
+
+  private static String formatNanos(long nanos) {
+    return String.format("%.3f ms", nanos / 1_000_000.0);
+  }
+}
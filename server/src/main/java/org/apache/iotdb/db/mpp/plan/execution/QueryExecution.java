@@ -25,6 +25,7 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.mpp.common.MPPQueryContext;
 import org.apache.iotdb.db.mpp.common.header.DatasetHeader;
+import org.apache.iotdb.db.mpp.common.header.HeaderConstant;
 import org.apache.iotdb.db.mpp.execution.QueryState;
 import org.apache.iotdb.db.mpp.execution.QueryStateMachine;
 import org.apache.iotdb.db.mpp.execution.datatransfer.DataBlockService;
@@ -48,9 +49,12 @@ import org.apache.iotdb.db.mpp.plan.scheduler.ClusterScheduler;
 import org.apache.iotdb.db.mpp.plan.scheduler.IScheduler;
 import org.apache.iotdb.db.mpp.plan.scheduler.StandaloneScheduler;
 import org.apache.iotdb.db.mpp.plan.statement.Statement;
+import org.apache.iotdb.db.mpp.plan.statement.crud.QueryStatement;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.rpc.TSStatusCode;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.utils.Binary;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -104,6 +108,12 @@ public class QueryExecution implements IQueryExecution {
   private final IClientManager<TEndPoint, SyncDataNodeInternalServiceClient>
       internalServiceClientManager;
 
+  // For EXPLAIN ANALYZE, the result of the query is consumed inside the QueryExecution and the
+  // execution statistics are returned to the client instead.
+  private final boolean isExplainAnalyze;
+  private boolean explainAnalyzeResultReturned = false;
+  private final long createTimeInNanos = System.nanoTime();
+
   public QueryExecution(
       Statement statement,
       MPPQueryContext context,
@@ -123,6 +133,8 @@ public class QueryExecution implements IQueryExecution {
     this.partitionFetcher = partitionFetcher;
     this.schemaFetcher = schemaFetcher;
     this.internalServiceClientManager = internalServiceClientManager;
+    this.isExplainAnalyze =
+        statement instanceof QueryStatement && ((QueryStatement) statement).isExplainAnalyze();
 
     // We add the abort logic inside the QueryExecution.
     // So that the other components can only focus on the state change.
@@ -265,6 +277,9 @@ public class QueryExecution implements IQueryExecution {
    */
   @Override
   public Optional<TsBlock> getBatchResult() {
+    if (isExplainAnalyze) {
+      return getExplainAnalyzeResult();
+    }
     try {
       if (resultHandle == null || resultHandle.isAborted() || resultHandle.isFinished()) {
         // Once the resultHandle is finished, we should transit the state of this query to FINISHED.
@@ -287,20 +302,75 @@ public class QueryExecution implements IQueryExecution {
     }
   }
 
+  /**
+   * Consume all the result of the query, then return the execution statistics as one TsBlock
+   * whose rows are the lines of the analyzed plan.
+   */
+  private Optional<TsBlock> getExplainAnalyzeResult() {
+    if (explainAnalyzeResultReturned) {
+      logger.info("{} explain analyze result for client is finished", getLogHeader());
+      stateMachine.transitionToFinished();
+      return Optional.empty();
+    }
+    try {
+      long outputRows = 0;
+      while (resultHandle != null && !resultHandle.isAborted() && !resultHandle.isFinished()) {
+        ListenableFuture<Void> blocked = resultHandle.isBlocked();
+        blocked.get();
+        if (!resultHandle.isFinished()) {
+          TsBlock tsBlock = resultHandle.receive();
+          if (tsBlock != null) {
+            outputRows += tsBlock.getPositionCount();
+          }
+        }
+      }
+      List<String> lines =
+          ExplainAnalyzePrinter.print(
+              context.getQueryId().getId(),
+              distributedPlan,
+              System.nanoTime() - createTimeInNanos,
+              outputRows);
+
+      TsBlockBuilder tsBlockBuilder =
+          new TsBlockBuilder(HeaderConstant.explainAnalyzeHeader.getRespDataTypes());
+      for (String line : lines) {
+        tsBlockBuilder.getTimeColumnBuilder().writeLong(0L);
+        tsBlockBuilder.getColumnBuilder(0).writeBinary(new Binary(line));
+        tsBlockBuilder.declarePosition();
+      }
+      explainAnalyzeResultReturned = true;
+      return Optional.of(tsBlockBuilder.build());
+    } catch (ExecutionException | CancellationException e) {
+      stateMachine.transitionToFailed(e);
+      throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      stateMachine.transitionToFailed(e);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(new SQLException("ResultSet thread was interrupted", e));
+    }
+  }
+
   /** @return true if there is more tsblocks, otherwise false */
   @Override
   public boolean hasNextResult() {
+    if (isExplainAnalyze) {
+      return !explainAnalyzeResultReturned;
+    }
     return resultHandle != null && !resultHandle.isFinished();
   }
 
   /** return the result column count without the time column */
   @Override
   public int getOutputValueColumnCount() {
-    return analysis.getRespDatasetHeader().getOutputValueColumnCount();
+    return getDatasetHeader().getOutputValueColumnCount();
   }
 
   @Override
   public DatasetHeader getDatasetHeader() {
+    if (isExplainAnalyze) {
+      return HeaderConstant.explainAnalyzeHeader;
+    }
     return analysis.getRespDatasetHeader();
   }
 
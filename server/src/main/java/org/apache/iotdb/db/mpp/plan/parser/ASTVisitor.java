@@ -148,6 +148,12 @@ public class ASTVisitor extends IoTDBSqlParserBaseVisitor<Statement> {
     if (ctx.DEBUG() != null) {
       statement.setDebug(true);
     }
+    if (ctx.EXPLAIN() != null) {
+      if (!(statement instanceof QueryStatement)) {
+        throw new SemanticException("EXPLAIN ANALYZE only supports query statements");
+      }
+      ((QueryStatement) statement).setExplainAnalyze(true);
+    }
     return statement;
   }
 
@@ -37,6 +37,7 @@ import org.apache.iotdb.db.mpp.execution.driver.SchemaDriverContext;
 import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.mpp.execution.operator.Operator;
 import org.apache.iotdb.db.mpp.execution.operator.OperatorContext;
+import org.apache.iotdb.db.mpp.execution.operator.ProfiledOperator;
 import org.apache.iotdb.db.mpp.execution.operator.process.AggregationOperator;
 import org.apache.iotdb.db.mpp.execution.operator.process.DeviceMergeOperator;
 import org.apache.iotdb.db.mpp.execution.operator.process.DeviceViewOperator;
@@ -180,7 +181,7 @@ public class LocalExecutionPlanner {
       DataRegion dataRegion) {
     LocalExecutionPlanContext context = new LocalExecutionPlanContext(types, instanceContext);
 
-    Operator root = plan.accept(new Visitor(), context);
+    Operator root = new Visitor().process(plan, context);
 
     DataDriverContext dataDriverContext =
         new DataDriverContext(
@@ -202,7 +203,7 @@ public class LocalExecutionPlanner {
 
     LocalExecutionPlanContext context = new LocalExecutionPlanContext(instanceContext);
 
-    Operator root = plan.accept(new Visitor(), context);
+    Operator root = new Visitor().process(plan, context);
 
     return new SchemaDriver(root, context.getSinkHandle(), schemaDriverContext);
   }
@@ -210,6 +211,16 @@ public class LocalExecutionPlanner {
   /** This Visitor is responsible for transferring PlanNode Tree to Operator Tree */
   private static class Visitor extends PlanVisitor<Operator, LocalExecutionPlanContext> {
 
+    @Override
+    public Operator process(PlanNode node, LocalExecutionPlanContext context) {
+      Operator operator = node.accept(this, context);
+      // nodes like FragmentSinkNode return the operator of their child
+      if (context.isProfiling() && !(operator instanceof ProfiledOperator)) {
+        return new ProfiledOperator(operator);
+      }
+      return operator;
+    }
+
     @Override
     public Operator visitPlan(PlanNode node, LocalExecutionPlanContext context) {
       throw new UnsupportedOperationException("should call the concrete visitXX() method");
@@ -383,7 +394,7 @@ public class LocalExecutionPlanner {
         SchemaQueryMergeNode node, LocalExecutionPlanContext context) {
       List<Operator> children =
           node.getChildren().stream()
-              .map(n -> n.accept(this, context))
+              .map(n -> process(n, context))
               .collect(Collectors.toList());
       OperatorContext operatorContext =
           context.instanceContext.addOperatorContext(
@@ -397,7 +408,7 @@ public class LocalExecutionPlanner {
     public Operator visitCountMerge(CountSchemaMergeNode node, LocalExecutionPlanContext context) {
       List<Operator> children =
           node.getChildren().stream()
-              .map(n -> n.accept(this, context))
+              .map(n -> process(n, context))
               .collect(Collectors.toList());
       OperatorContext operatorContext =
           context.instanceContext.addOperatorContext(
@@ -473,7 +484,7 @@ public class LocalExecutionPlanner {
     @Override
     public Operator visitNodeManagementMemoryMerge(
         NodeManagementMemoryMergeNode node, LocalExecutionPlanContext context) {
-      Operator child = node.getChild().accept(this, context);
+      Operator child = process(node.getChild(), context);
       return new NodeManageMemoryMergeOperator(
           context.instanceContext.addOperatorContext(
               context.getNextOperatorId(),
@@ -532,7 +543,7 @@ public class LocalExecutionPlanner {
               DeviceViewOperator.class.getSimpleName());
       List<Operator> children =
           node.getChildren().stream()
-              .map(child -> child.accept(this, context))
+              .map(child -> process(child, context))
               .collect(Collectors.toList());
       List<List<Integer>> deviceColumnIndex =
           node.getDevices().stream()
@@ -552,7 +563,7 @@ public class LocalExecutionPlanner {
               DeviceMergeOperator.class.getSimpleName());
       List<Operator> children =
           node.getChildren().stream()
-              .map(child -> child.accept(this, context))
+              .map(child -> process(child, context))
               .collect(Collectors.toList());
       List<TSDataType> dataTypes = getOutputColumnTypes(node, context.getTypeProvider());
       TimeSelector selector = null;
@@ -575,7 +586,7 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitFill(FillNode node, LocalExecutionPlanContext context) {
-      Operator child = node.getChild().accept(this, context);
+      Operator child = process(node.getChild(), context);
       return getFillOperator(node, context, child);
     }
 
@@ -767,7 +778,7 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitLimit(LimitNode node, LocalExecutionPlanContext context) {
-      Operator child = node.getChild().accept(this, context);
+      Operator child = process(node.getChild(), context);
       return new LimitOperator(
           context.instanceContext.addOperatorContext(
               context.getNextOperatorId(),
@@ -779,7 +790,7 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitOffset(OffsetNode node, LocalExecutionPlanContext context) {
-      Operator child = node.getChild().accept(this, context);
+      Operator child = process(node.getChild(), context);
       return new OffsetOperator(
           context.instanceContext.addOperatorContext(
               context.getNextOperatorId(),
@@ -797,7 +808,7 @@ public class LocalExecutionPlanner {
           "Aggregation descriptorList cannot be empty");
       List<Operator> children =
           node.getChildren().stream()
-              .map(child -> child.accept(this, context))
+              .map(child -> process(child, context))
               .collect(Collectors.toList());
       boolean ascending = node.getScanOrder() == OrderBy.TIMESTAMP_ASC;
       List<Aggregator> aggregators = new ArrayList<>();
@@ -866,7 +877,7 @@ public class LocalExecutionPlanner {
     public Operator visitTimeJoin(TimeJoinNode node, LocalExecutionPlanContext context) {
       List<Operator> children =
           node.getChildren().stream()
-              .map(child -> child.accept(this, context))
+              .map(child -> process(child, context))
               .collect(Collectors.toList());
       OperatorContext operatorContext =
           context.instanceContext.addOperatorContext(
@@ -939,7 +950,7 @@ public class LocalExecutionPlanner {
 
     @Override
     public Operator visitFragmentSink(FragmentSinkNode node, LocalExecutionPlanContext context) {
-      Operator child = node.getChild().accept(this, context);
+      Operator child = process(node.getChild(), context);
 
       FragmentInstanceId localInstanceId = context.instanceContext.getId();
       FragmentInstanceId targetInstanceId = node.getDownStreamInstanceId();
@@ -959,7 +970,7 @@ public class LocalExecutionPlanner {
         SchemaFetchMergeNode node, LocalExecutionPlanContext context) {
       List<Operator> children =
           node.getChildren().stream()
-              .map(n -> n.accept(this, context))
+              .map(n -> process(n, context))
               .collect(Collectors.toList());
       OperatorContext operatorContext =
           context.instanceContext.addOperatorContext(
@@ -1017,7 +1028,7 @@ public class LocalExecutionPlanner {
     private Operator generateOnlyChildOperator(PlanNode node, LocalExecutionPlanContext context) {
       List<Operator> children =
           node.getChildren().stream()
-              .map(child -> child.accept(this, context))
+              .map(child -> process(child, context))
               .collect(Collectors.toList());
       Validate.isTrue(children.size() == 1);
       return children.get(0);
@@ -1044,6 +1055,11 @@ public class LocalExecutionPlanner {
 
     private TypeProvider typeProvider;
 
+    // whether to record the execution statistics of each operator, only set for EXPLAIN ANALYZE.
+    // Schema operators are not profiled because some of them check the concrete type of their
+    // children
+    private final boolean profiling;
+
     public LocalExecutionPlanContext(
         TypeProvider typeProvider, FragmentInstanceContext instanceContext) {
       this.typeProvider = typeProvider;
@@ -1051,6 +1067,7 @@ public class LocalExecutionPlanner {
       this.paths = new ArrayList<>();
       this.allSensorsMap = new HashMap<>();
       this.sourceOperators = new ArrayList<>();
+      this.profiling = instanceContext.isProfiling();
     }
 
     public LocalExecutionPlanContext(FragmentInstanceContext instanceContext) {
@@ -1058,6 +1075,7 @@ public class LocalExecutionPlanner {
       this.paths = new ArrayList<>();
       this.allSensorsMap = new HashMap<>();
       this.sourceOperators = new ArrayList<>();
+      this.profiling = false;
     }
 
     private int getNextOperatorId() {
@@ -1100,5 +1118,9 @@ public class LocalExecutionPlanner {
     public TypeProvider getTypeProvider() {
       return typeProvider;
     }
+
+    public boolean isProfiling() {
+      return profiling;
+    }
   }
 }
@@ -48,6 +48,9 @@ public class FragmentInstance implements IConsensusRequest {
 
   private Filter timeFilter;
 
+  // Whether the operators of this instance are profiled, only set for EXPLAIN ANALYZE
+  private boolean profiling;
+
   // We can add some more params for a specific FragmentInstance
   // So that we can make different FragmentInstance owns different data range.
 
@@ -111,6 +114,14 @@ public class FragmentInstance implements IConsensusRequest {
     return type;
   }
 
+  public boolean isProfiling() {
+    return profiling;
+  }
+
+  public void setProfiling(boolean profiling) {
+    this.profiling = profiling;
+  }
+
   public String toString() {
     StringBuilder ret = new StringBuilder();
     ret.append(String.format("FragmentInstance-%s:", getId()));
@@ -140,6 +151,7 @@ public class FragmentInstance implements IConsensusRequest {
     boolean hasHostDataNode = ReadWriteIOUtils.readBool(buffer);
     fragmentInstance.hostDataNode =
         hasHostDataNode ? ThriftCommonsSerDeUtils.deserializeTDataNodeLocation(buffer) : null;
+    fragmentInstance.profiling = ReadWriteIOUtils.readBool(buffer);
     return fragmentInstance;
   }
 
@@ -160,6 +172,7 @@ public class FragmentInstance implements IConsensusRequest {
     if (hostDataNode != null) {
       ThriftCommonsSerDeUtils.serializeTDataNodeLocation(hostDataNode, buffer);
     }
+    ReadWriteIOUtils.write(profiling, buffer);
   }
 
   @Override
@@ -169,6 +182,7 @@ public class FragmentInstance implements IConsensusRequest {
     FragmentInstance instance = (FragmentInstance) o;
     return Objects.equals(id, instance.id)
         && type == instance.type
+        && profiling == instance.profiling
         && Objects.equals(fragment, instance.fragment)
         && Objects.equals(regionReplicaSet, instance.regionReplicaSet)
         && Objects.equals(hostDataNode, instance.hostDataNode)
@@ -177,7 +191,7 @@ public class FragmentInstance implements IConsensusRequest {
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, type, fragment, regionReplicaSet, hostDataNode, timeFilter);
+    return Objects.hash(id, type, fragment, regionReplicaSet, hostDataNode, timeFilter, profiling);
   }
 
   public TDataNodeLocation getHostDataNode() {
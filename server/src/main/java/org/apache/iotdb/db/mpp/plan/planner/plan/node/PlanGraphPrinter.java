@@ -28,6 +28,7 @@ import org.apache.iotdb.db.mpp.plan.planner.plan.node.source.SeriesScanNode;
 import org.apache.commons.lang3.Validate;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +97,7 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
   }
 
   private List<String> render(PlanNode node, List<String> nodeBoxString, GraphContext context) {
+    nodeBoxString.addAll(context.getNodeStatistics(node.getPlanNodeId()));
     Box box = new Box(nodeBoxString);
     List<List<String>> children = new ArrayList<>();
     for (PlanNode child : node.getChildren()) {
@@ -294,12 +296,33 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
     }
   }
 
-  public static class GraphContext {}
+  public static class GraphContext {
+    // extra lines appended to the box of each node, e.g. the execution statistics
+    private final Map<PlanNodeId, List<String>> nodeStatistics;
+
+    public GraphContext() {
+      this(Collections.emptyMap());
+    }
+
+    public GraphContext(Map<PlanNodeId, List<String>> nodeStatistics) {
+      this.nodeStatistics = nodeStatistics;
+    }
+
+    public List<String> getNodeStatistics(PlanNodeId planNodeId) {
+      return nodeStatistics.getOrDefault(planNodeId, Collections.emptyList());
+    }
+  }
 
   public static List<String> getGraph(PlanNode node) {
     return node.accept(new PlanGraphPrinter(), new PlanGraphPrinter.GraphContext());
   }
 
+  /** get the graph with the given lines appended to the box of each node */
+  public static List<String> getGraph(
+      PlanNode node, Map<PlanNodeId, List<String>> nodeStatistics) {
+    return node.accept(new PlanGraphPrinter(), new PlanGraphPrinter.GraphContext(nodeStatistics));
+  }
+
   public static void print(PlanNode node) {
     List<String> lines = getGraph(node);
     for (String line : lines) {
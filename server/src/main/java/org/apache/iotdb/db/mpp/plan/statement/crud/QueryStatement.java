@@ -46,7 +46,7 @@ import java.util.List;
  * <p>Here is the syntax definition of SELECT statement:
  *
  * <ul>
- *   SELECT
+ *   [EXPLAIN ANALYZE] SELECT
  *   <li>[LAST] resultColumn [, resultColumn] ...
  *   <li>FROM prefixPath [, prefixPath] ...
  *   <li>WHERE whereCondition
@@ -90,6 +90,9 @@ public class QueryStatement extends Statement {
   // `GROUP BY LEVEL` clause
   protected GroupByLevelComponent groupByLevelComponent;
 
+  // `EXPLAIN ANALYZE`, execute the query and return the plan with execution statistics instead
+  protected boolean isExplainAnalyze = false;
+
   public QueryStatement() {
     this.statementType = StatementType.QUERY;
   }
@@ -203,6 +206,14 @@ public class QueryStatement extends Statement {
     this.groupByLevelComponent = groupByLevelComponent;
   }
 
+  public boolean isExplainAnalyze() {
+    return isExplainAnalyze;
+  }
+
+  public void setExplainAnalyze(boolean explainAnalyze) {
+    isExplainAnalyze = explainAnalyze;
+  }
+
   public boolean isLastQuery() {
     return selectComponent.isHasLast();
   }
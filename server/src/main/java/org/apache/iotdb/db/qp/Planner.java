@@ -103,6 +103,11 @@ public class Planner {
     return generatePhysicalPlanFromOperator(operator, IoTDBConstant.ClientVersion.V_0_13);
   }
 
+  public PhysicalPlan operatorToPhysicalPlan(
+      Operator operator, IoTDBConstant.ClientVersion clientVersion) throws QueryProcessException {
+    return generatePhysicalPlanFromOperator(operator, clientVersion);
+  }
+
   private PhysicalPlan generatePhysicalPlanFromOperator(
       Operator operator, IoTDBConstant.ClientVersion clientVersion) throws QueryProcessException {
     // if client version is before 0.13, match path with prefix
@@ -159,6 +159,7 @@ import org.apache.iotdb.db.sync.receiver.ReceiverService;
 import org.apache.iotdb.db.sync.sender.pipe.Pipe;
 import org.apache.iotdb.db.sync.sender.pipe.PipeSink;
 import org.apache.iotdb.db.sync.sender.service.SenderService;
+import org.apache.iotdb.db.tools.TsFileDataRegionSplitTool;
 import org.apache.iotdb.db.tools.TsFileRewriteTool;
 import org.apache.iotdb.db.utils.FileLoaderUtils;
 import org.apache.iotdb.db.utils.TypeInferenceUtils;
@@ -1465,7 +1466,21 @@ public class PlanExecutor implements IPlanExecutor {
         splitResources.add(tsFileResource);
       }
 
+      // each data region serves its own devices, so a file is loaded into every region it covers
+      List<TsFileResource> loadResources = new ArrayList<>();
       for (TsFileResource resource : splitResources) {
+        if (!TsFileDataRegionSplitTool.isSpanMultiDataRegions(resource)) {
+          loadResources.add(resource);
+          continue;
+        }
+        TsFileDataRegionSplitTool.splitTsFile(resource, loadResources);
+        if (resource != tsFileResource) {
+          // an intermediate file of the time partition split
+          resource.remove();
+        }
+      }
+
+      for (TsFileResource resource : loadResources) {
         StorageEngine.getInstance().loadNewTsFile(resource, true);
       }
     } catch (Exception e) {
@@ -211,6 +211,9 @@ public class IoTDBSqlVisitor extends IoTDBSqlParserBaseVisitor<Operator> {
   /** 1. Top Level Description */
   @Override
   public Operator visitSingleStatement(IoTDBSqlParser.SingleStatementContext ctx) {
+    if (ctx.EXPLAIN() != null) {
+      throw new SQLParserException("EXPLAIN ANALYZE is only supported by the new query engine.");
+    }
     Operator operator = visit(ctx.statement());
     if (ctx.DEBUG() != null) {
       operator.setDebug(true);
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.strategy;
+
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.qp.sql.IoTDBSqlParser;
+import org.apache.iotdb.db.qp.sql.SqlLexer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Parses SQL into parse trees, and caches the parse trees of the recently executed queries by their
+ * complete SQL. Only a query re-executed with exactly the same text hits the cache, e.g., a
+ * dashboard query with fixed time bounds; a query whose literals change on every execution is
+ * parsed every time. The parse trees do not depend on the schema and are only read by the visitors,
+ * so they can be shared by concurrent queries without invalidation. The cache is bounded by the
+ * estimated memory of the parse trees, which grows with the length of the SQL.
+ */
+public class ParseTreeCache {
+
+  /**
+   * The estimated memory of a parse tree for each character of its SQL. Each token of a few
+   * characters is held by a terminal node under a chain of rule contexts in the tree.
+   */
+  private static final int PARSE_TREE_BYTES_PER_CHAR = 128;
+
+  /** null if the parse trees are not cached */
+  private final Cache<String, ParseTree> cache;
+
+  private ParseTreeCache() {
+    this(IoTDBDescriptor.getInstance().getConfig().getQueryParseTreeCacheSizeInByte());
+  }
+
+  @TestOnly
+  ParseTreeCache(long cacheSizeInByte) {
+    cache =
+        cacheSizeInByte > 0
+            ? Caffeine.newBuilder()
+                .maximumWeight(cacheSizeInByte)
+                .weigher(
+                    (Weigher<String, ParseTree>)
+                        (sql, tree) ->
+                            (int)
+                                Math.min(
+                                    Integer.MAX_VALUE,
+                                    (long) sql.length() * (PARSE_TREE_BYTES_PER_CHAR + 2)))
+                .build()
+            : null;
+  }
+
+  public static ParseTreeCache getInstance() {
+    return ParseTreeCacheHolder.INSTANCE;
+  }
+
+  /** singleton pattern. */
+  private static class ParseTreeCacheHolder {
+    private static final ParseTreeCache INSTANCE = new ParseTreeCache();
+  }
+
+  /** Get the parse tree of the SQL from the cache, or parse it if it is not cached. */
+  public ParseTree parse(String sql) throws ParseCancellationException {
+    if (cache == null) {
+      return parseSql(sql);
+    }
+    ParseTree tree = cache.getIfPresent(sql);
+    if (tree == null) {
+      tree = parseSql(sql);
+      // only the queries are likely to be executed repeatedly with the same SQL
+      if (isQuery(tree)) {
+        cache.put(sql, tree);
+      }
+    }
+    return tree;
+  }
+
+  private static boolean isQuery(ParseTree tree) {
+    IoTDBSqlParser.DmlStatementContext dmlStatement =
+        ((IoTDBSqlParser.SingleStatementContext) tree).statement().dmlStatement();
+    return dmlStatement != null && dmlStatement.selectStatement() != null;
+  }
+
+  /** Parse the SQL without the cache. */
+  public static ParseTree parseSql(String sql) throws ParseCancellationException {
+    CharStream charStream1 = CharStreams.fromString(sql);
+
+    SqlLexer lexer1 = new SqlLexer(charStream1);
+    lexer1.removeErrorListeners();
+    lexer1.addErrorListener(SQLParseError.INSTANCE);
+
+    CommonTokenStream tokens1 = new CommonTokenStream(lexer1);
+
+    IoTDBSqlParser parser1 = new IoTDBSqlParser(tokens1);
+    parser1.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    parser1.removeErrorListeners();
+    parser1.addErrorListener(SQLParseError.INSTANCE);
+
+    try {
+      // STAGE 1: try with simpler/faster SLL(*)
+      // if it succeeds, there was no syntax error and SLL(*) was enough;
+      // there is no need to try full LL(*)
+      return parser1.singleStatement();
+    } catch (Exception ex) {
+      CharStream charStream2 = CharStreams.fromString(sql);
+
+      SqlLexer lexer2 = new SqlLexer(charStream2);
+      lexer2.removeErrorListeners();
+      lexer2.addErrorListener(SQLParseError.INSTANCE);
+
+      CommonTokenStream tokens2 = new CommonTokenStream(lexer2);
+
+      IoTDBSqlParser parser2 = new IoTDBSqlParser(tokens2);
+      parser2.getInterpreter().setPredictionMode(PredictionMode.LL);
+      parser2.removeErrorListeners();
+      parser2.addErrorListener(SQLParseError.INSTANCE);
+
+      // STAGE 2: parser with full LL(*)
+      return parser2.singleStatement();
+    }
+  }
+}
@@ -31,6 +31,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** QueryContext contains the shared information with in a query. */
 public class QueryContext {
@@ -54,6 +55,8 @@ public class QueryContext {
 
   private boolean debug;
   private boolean enableTracing = false;
+  /** whether the operators and the bytes read of this query are profiled, for EXPLAIN ANALYZE */
+  private boolean profiling = false;
 
   /**
    * To reduce the cost of memory, we only keep the a certain size statement. For statement whose
@@ -69,6 +72,11 @@ public class QueryContext {
 
   private volatile boolean isInterrupted = false;
 
+  /** bytes of the chunks read by this query, which are served by ChunkCache or read from disk */
+  private final AtomicLong chunkCacheReadBytes = new AtomicLong();
+
+  private final AtomicLong diskReadBytes = new AtomicLong();
+
   public QueryContext() {}
 
   public QueryContext(long queryId) {
@@ -142,6 +150,14 @@ public class QueryContext {
     this.enableTracing = enableTracing;
   }
 
+  public boolean isProfiling() {
+    return profiling;
+  }
+
+  public void setProfiling(boolean profiling) {
+    this.profiling = profiling;
+  }
+
   public long getQueryTimeLowerBound() {
     return queryTimeLowerBound;
   }
@@ -199,4 +215,20 @@ public class QueryContext {
   public boolean isInterrupted() {
     return isInterrupted;
   }
+
+  public void addChunkCacheReadBytes(long bytes) {
+    chunkCacheReadBytes.addAndGet(bytes);
+  }
+
+  public void addDiskReadBytes(long bytes) {
+    diskReadBytes.addAndGet(bytes);
+  }
+
+  public long getChunkCacheReadBytes() {
+    return chunkCacheReadBytes.get();
+  }
+
+  public long getDiskReadBytes() {
+    return diskReadBytes.get();
+  }
 }
@@ -127,7 +127,7 @@ public class FileReaderManager {
         tsFileReader = new UnClosedTsFileReader(filePath);
       } else {
         tsFileReader = new TsFileSequenceReader(filePath);
-        if (tsFileReader.readVersionNumber() != TSFileConfig.VERSION_NUMBER) {
+        if (!TSFileConfig.isCompatibleVersion(tsFileReader.readVersionNumber())) {
           tsFileReader.close();
           tsFileReader = new TsFileSequenceReaderForV2(filePath);
           if (!((TsFileSequenceReaderForV2) tsFileReader)
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.mpp.plan.analyze.CachedSchemaFetcher;
+import org.apache.iotdb.db.mpp.plan.analyze.ISchemaFetcher;
+import org.apache.iotdb.db.qp.sql.SqlLexer;
+import org.apache.iotdb.db.qp.strategy.ParseTreeCache;
+import org.apache.iotdb.db.qp.strategy.SQLParseError;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.WritableToken;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.Trees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A query prepared by a client, whose parameters are marked by '?' outside of the quoted strings
+ * and identifiers. The SQL is split at the parameters once when it is prepared. Each parameter must
+ * be lexed to exactly one literal or one path without wildcards, so that binding it cannot change
+ * the structure of the SQL.
+ *
+ * <p>The parse tree of the SQL only depends on the types of the tokens of the parameters, so it is
+ * parsed once for each combination of the token types, and the later executions only replace the
+ * texts of the parameter tokens in it before visiting it.
+ */
+public class PreparedStatementTemplate {
+
+  /** the max number of the parse trees of a template, one for each combination of token types */
+  private static final int MAX_PARSE_TREE_NUM = 8;
+
+  /** the literals that are a single token */
+  private static final Set<Integer> LITERAL_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              SqlLexer.STRING_LITERAL,
+              SqlLexer.BOOLEAN_LITERAL,
+              SqlLexer.NULL_LITERAL,
+              SqlLexer.NAN_LITERAL,
+              SqlLexer.DATETIME_LITERAL,
+              SqlLexer.DURATION_LITERAL));
+
+  /** the node names of a path, keywords must be quoted by '`' to be used as node names */
+  private static final Set<Integer> NODE_NAME_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              SqlLexer.ROOT,
+              SqlLexer.ID,
+              SqlLexer.QUOTED_ID,
+              SqlLexer.INTEGER_LITERAL,
+              SqlLexer.EXPONENT_NUM_PART,
+              SqlLexer.DURATION_LITERAL));
+
+  /** the pieces of the SQL between the parameters */
+  private final List<String> parts;
+
+  /** the token types of the parameters -> the parse tree parsed with parameters of these types */
+  private final Map<List<Integer>, ReusableParseTree> parseTrees = new ConcurrentHashMap<>();
+
+  /** caches the schema fetched by the executions in the new query engine, created on first use */
+  private volatile CachedSchemaFetcher schemaFetcher;
+
+  /** @throws QueryProcessException if the SQL cannot be lexed or is not a query */
+  public PreparedStatementTemplate(String sql) throws QueryProcessException {
+    this.parts = split(sql);
+    checkQuery();
+  }
+
+  private static List<String> split(String sql) {
+    List<String> parts = new ArrayList<>();
+    // the quote of the string or identifier being scanned, 0 if not in any quote
+    char quote = 0;
+    int start = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (quote != 0) {
+        if (c == '\\') {
+          // skip the escaped character
+          i++;
+        } else if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      } else if (c == '?') {
+        parts.add(sql.substring(start, i));
+        start = i + 1;
+      }
+    }
+    parts.add(sql.substring(start));
+    return parts;
+  }
+
+  /**
+   * Only the queries can be prepared, since the executions of a prepared statement are always
+   * queries. The parameters are replaced by a number to lex the SQL, as they are single tokens or
+   * paths, and the SQL is fully parsed when it is executed.
+   */
+  private void checkQuery() throws QueryProcessException {
+    List<? extends Token> tokens = lex(String.join("0", parts));
+    if (tokens.isEmpty()) {
+      throw new QueryProcessException("The prepared statement is not a valid SQL.");
+    }
+    Token first = null;
+    for (Token token : tokens) {
+      if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+        continue;
+      }
+      if (first == null) {
+        first = token;
+      }
+      // a select-into statement writes the results of the query
+      if (token.getType() == SqlLexer.INTO) {
+        first = null;
+        break;
+      }
+    }
+    if (first == null
+        || (first.getType() != SqlLexer.SELECT && first.getType() != SqlLexer.TRACING)) {
+      throw new QueryProcessException("Only a query can be prepared.");
+    }
+  }
+
+  public int getParameterCount() {
+    return parts.size() - 1;
+  }
+
+  /**
+   * Bind the given texts to the parameters of the SQL in order.
+   *
+   * @param parameters the texts of the SQL literals or paths
+   * @throws QueryProcessException if the number of parameters is wrong, or a parameter is not a
+   *     literal or a path without wildcards
+   */
+  public Binding bind(List<String> parameters) throws QueryProcessException {
+    if (parameters.size() != getParameterCount()) {
+      throw new QueryProcessException(
+          String.format(
+              "The prepared statement has %d parameters, but %d are given.",
+              getParameterCount(), parameters.size()));
+    }
+    List<List<? extends Token>> parameterTokens = new ArrayList<>(parameters.size());
+    for (int i = 0; i < parameters.size(); i++) {
+      List<? extends Token> tokens = lex(parameters.get(i).trim());
+      if (!isLiteralOrPath(tokens)) {
+        throw new QueryProcessException(
+            String.format(
+                "The parameter %d [%s] is not a literal or a path without wildcards.",
+                i + 1, parameters.get(i)));
+      }
+      parameterTokens.add(tokens);
+    }
+    return new Binding(parameterTokens);
+  }
+
+  /**
+   * The schema fetcher of the executions of this statement in the new query engine, which caches
+   * the schema fetched by the previous execution.
+   */
+  public ISchemaFetcher getSchemaFetcher(ISchemaFetcher fetcher) {
+    if (schemaFetcher == null) {
+      synchronized (this) {
+        if (schemaFetcher == null) {
+          schemaFetcher = new CachedSchemaFetcher(fetcher);
+        }
+      }
+    }
+    return schemaFetcher;
+  }
+
+  /** @return the tokens of the text, or an empty list if it cannot be lexed */
+  private static List<? extends Token> lex(String text) {
+    try {
+      SqlLexer lexer = new SqlLexer(CharStreams.fromString(text));
+      lexer.removeErrorListeners();
+      lexer.addErrorListener(SQLParseError.INSTANCE);
+      // the whitespaces between the tokens are kept as tokens
+      return lexer.getAllTokens();
+    } catch (ParseCancellationException e) {
+      return Collections.emptyList();
+    }
+  }
+
+  /** the whitespaces between the tokens are kept as tokens, so they are rejected */
+  private static boolean isLiteralOrPath(List<? extends Token> tokens) {
+    if (tokens.isEmpty()) {
+      return false;
+    }
+    if (tokens.size() == 1 && LITERAL_TYPES.contains(tokens.get(0).getType())) {
+      return true;
+    }
+    int firstType = tokens.get(0).getType();
+    boolean signed = firstType == SqlLexer.MINUS || firstType == SqlLexer.PLUS;
+    return isNumber(tokens.subList(signed ? 1 : 0, tokens.size()))
+        || (!signed && isPath(tokens));
+  }
+
+  /** an integer or a real literal, e.g., 10, 1.5, .5, 1. or 1e10 */
+  private static boolean isNumber(List<? extends Token> tokens) {
+    switch (tokens.size()) {
+      case 1:
+        return isType(tokens.get(0), SqlLexer.INTEGER_LITERAL)
+            || isType(tokens.get(0), SqlLexer.EXPONENT_NUM_PART);
+      case 2:
+        return (isType(tokens.get(0), SqlLexer.INTEGER_LITERAL)
+                && isType(tokens.get(1), SqlLexer.DOT))
+            || (isType(tokens.get(0), SqlLexer.DOT) && isFraction(tokens.get(1)));
+      case 3:
+        return isType(tokens.get(0), SqlLexer.INTEGER_LITERAL)
+            && isType(tokens.get(1), SqlLexer.DOT)
+            && isFraction(tokens.get(2));
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isFraction(Token token) {
+    return isType(token, SqlLexer.INTEGER_LITERAL) || isType(token, SqlLexer.EXPONENT_NUM_PART);
+  }
+
+  /** node names separated by dots, e.g., root.sg.d1 or s1 */
+  private static boolean isPath(List<? extends Token> tokens) {
+    if (tokens.size() % 2 == 0) {
+      return false;
+    }
+    for (int i = 0; i < tokens.size(); i++) {
+      boolean valid =
+          i % 2 == 0
+              ? NODE_NAME_TYPES.contains(tokens.get(i).getType())
+              : isType(tokens.get(i), SqlLexer.DOT);
+      if (!valid) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isType(Token token, int type) {
+    return token.getType() == type;
+  }
+
+  /** The parameters bound to the prepared statement for one execution. */
+  public class Binding {
+
+    private final List<List<? extends Token>> parameterTokens;
+
+    /** the complete SQL with the parameters */
+    private final String sql;
+
+    /** the offsets of the first code point of each parameter in the SQL */
+    private final int[] parameterOffsets;
+
+    private Binding(List<List<? extends Token>> parameterTokens) {
+      this.parameterTokens = parameterTokens;
+      this.parameterOffsets = new int[parameterTokens.size()];
+      StringBuilder builder = new StringBuilder(parts.get(0));
+      for (int i = 0; i < parameterTokens.size(); i++) {
+        parameterOffsets[i] = builder.codePointCount(0, builder.length());
+        for (Token token : parameterTokens.get(i)) {
+          builder.append(token.getText());
+        }
+        builder.append(parts.get(i + 1));
+      }
+      this.sql = builder.toString();
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    /**
+     * Visit the parse tree of the SQL by the generator. The generator must not keep the parse tree
+     * after it returns, since the parse tree is rebound by the next execution.
+     */
+    public <T> T generate(Function<ParseTree, T> generator) {
+      List<Integer> types = new ArrayList<>();
+      for (List<? extends Token> tokens : parameterTokens) {
+        for (Token token : tokens) {
+          types.add(token.getType());
+        }
+        // separates the parameters
+        types.add(Token.INVALID_TYPE);
+      }
+      ReusableParseTree parseTree = parseTrees.get(types);
+      if (parseTree == null) {
+        parseTree = new ReusableParseTree(ParseTreeCache.parseSql(sql));
+        parseTree.findParameterTokens(this);
+        if (parseTrees.size() < MAX_PARSE_TREE_NUM) {
+          parseTrees.putIfAbsent(types, parseTree);
+        }
+      }
+      if (parseTree.parameterTokens == null) {
+        // the parameters are merged with the tokens around them, so the tree cannot be rebound
+        return generator.apply(ParseTreeCache.parseSql(sql));
+      }
+      synchronized (parseTree) {
+        for (int i = 0; i < parameterTokens.size(); i++) {
+          List<? extends Token> tokens = parameterTokens.get(i);
+          for (int j = 0; j < tokens.size(); j++) {
+            parseTree.parameterTokens[i][j].setText(tokens.get(j).getText());
+          }
+        }
+        return generator.apply(parseTree.tree);
+      }
+    }
+  }
+
+  /** A parse tree of the SQL whose parameter tokens can be rebound. */
+  private static class ReusableParseTree {
+
+    private final ParseTree tree;
+
+    /** the tokens of each parameter in the tree, null if they cannot be found */
+    private WritableToken[][] parameterTokens;
+
+    private ReusableParseTree(ParseTree tree) {
+      this.tree = tree;
+    }
+
+    /** Find the tokens of the parameters by their offsets in the SQL the tree is parsed from. */
+    private void findParameterTokens(Binding binding) {
+      List<Token> treeTokens = new ArrayList<>();
+      for (ParseTree node : Trees.getDescendants(tree)) {
+        if (node instanceof TerminalNode) {
+          treeTokens.add(((TerminalNode) node).getSymbol());
+        }
+      }
+      WritableToken[][] tokens = new WritableToken[binding.parameterTokens.size()][];
+      for (int i = 0; i < tokens.length; i++) {
+        List<? extends Token> expected = binding.parameterTokens.get(i);
+        int start = binding.parameterOffsets[i];
+        int end = start;
+        for (Token token : expected) {
+          end += token.getText().codePointCount(0, token.getText().length());
+        }
+        List<Token> found = new ArrayList<>();
+        for (Token token : treeTokens) {
+          if (token.getStopIndex() < start || token.getStartIndex() >= end) {
+            continue;
+          }
+          if (token.getStartIndex() < start
+              || token.getStopIndex() >= end
+              || !(token instanceof WritableToken)) {
+            return;
+          }
+          found.add(token);
+        }
+        if (found.size() != expected.size()) {
+          return;
+        }
+        tokens[i] = new WritableToken[found.size()];
+        for (int j = 0; j < found.size(); j++) {
+          if (found.get(j).getType() != expected.get(j).getType()) {
+            return;
+          }
+          tokens[i][j] = (WritableToken) found.get(j);
+        }
+      }
+      parameterTokens = tokens;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.idtable.IDTable;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.externalsort.ExternalSortMemoryManager;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
 import org.apache.iotdb.db.service.TemporaryQueryDataFileService;
 import org.apache.iotdb.db.utils.QueryUtils;
@@ -211,6 +212,7 @@ public class QueryResourceManager {
         }
       }
       externalSortFileMap.remove(queryId);
+      ExternalSortMemoryManager.getInstance().releaseAll(queryId);
     }
 
     // remove usage of opened file paths of current thread
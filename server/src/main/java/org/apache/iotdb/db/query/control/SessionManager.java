@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.auth.AuthException;
 import org.apache.iotdb.commons.conf.IoTDBConstant;
 import org.apache.iotdb.db.auth.AuthorityChecker;
 import org.apache.iotdb.db.auth.AuthorizerManager;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.OperationType;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.mpp.common.SessionInfo;
@@ -71,6 +72,9 @@ public class SessionManager {
   private final Map<Long, Set<Long>> statementIdToQueryId = new ConcurrentHashMap<>();
   // (queryId -> QueryDataSet)
   private final Map<Long, QueryDataSet> queryIdToDataSet = new ConcurrentHashMap<>();
+  // (sessionId -> (preparedStatementId -> PreparedStatementTemplate))
+  private final Map<Long, Map<Long, PreparedStatementTemplate>> sessionIdToPreparedStatements =
+      new ConcurrentHashMap<>();
 
   // (sessionId -> client version number)
   private final Map<Long, IoTDBConstant.ClientVersion> sessionIdToClientVersion =
@@ -223,6 +227,7 @@ public class SessionManager {
   public boolean releaseSessionResource(long sessionId, Consumer<Long> releaseQueryResource) {
     sessionIdToZoneId.remove(sessionId);
     sessionIdToClientVersion.remove(sessionId);
+    sessionIdToPreparedStatements.remove(sessionId);
 
     Set<Long> statementIdSet = sessionIdToStatementId.remove(sessionId);
     if (statementIdSet != null) {
@@ -274,6 +279,39 @@ public class SessionManager {
     }
   }
 
+  /**
+   * Save the prepared statement, replacing the one with the same id in the session if any.
+   *
+   * @return false if the session has prepared too many statements to prepare another one
+   */
+  public boolean prepareStatement(
+      long sessionId, long preparedStatementId, PreparedStatementTemplate template) {
+    Map<Long, PreparedStatementTemplate> preparedStatements =
+        sessionIdToPreparedStatements.computeIfAbsent(sessionId, s -> new ConcurrentHashMap<>());
+    if (!preparedStatements.containsKey(preparedStatementId)
+        && preparedStatements.size()
+            >= IoTDBDescriptor.getInstance().getConfig().getMaxPreparedStatementNumPerSession()) {
+      return false;
+    }
+    preparedStatements.put(preparedStatementId, template);
+    return true;
+  }
+
+  /** @return the prepared statement, or null if it is not prepared in the session */
+  public PreparedStatementTemplate getPreparedStatement(long sessionId, long preparedStatementId) {
+    Map<Long, PreparedStatementTemplate> preparedStatements =
+        sessionIdToPreparedStatements.get(sessionId);
+    return preparedStatements == null ? null : preparedStatements.get(preparedStatementId);
+  }
+
+  public void closePreparedStatement(long sessionId, long preparedStatementId) {
+    Map<Long, PreparedStatementTemplate> preparedStatements =
+        sessionIdToPreparedStatements.get(sessionId);
+    if (preparedStatements != null) {
+      preparedStatements.remove(preparedStatementId);
+    }
+  }
+
   public long requestQueryId(Long statementId, boolean isDataQuery) {
     long queryId = requestQueryId(isDataQuery);
     statementIdToQueryId
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.externalsort;
+
+import org.apache.iotdb.db.mpp.execution.memory.LocalMemoryManager;
+import org.apache.iotdb.db.mpp.execution.memory.MemoryPool;
+
+/**
+ * Grants the spill buffers of external sort from the query pool of {@link LocalMemoryManager}, so
+ * that they share the read memory with the data blocks of the queries.
+ */
+public class ExternalSortMemoryManager {
+
+  static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+  static final int MIN_BUFFER_SIZE = 64 * 1024;
+
+  private final MemoryPool pool;
+
+  private ExternalSortMemoryManager() {
+    pool = LocalMemoryManager.getInstance().getQueryPool();
+  }
+
+  /**
+   * Reserve a spill buffer for the query, the size is halved until it fits into the remaining
+   * memory of the query.
+   *
+   * @return the reserved bytes, or 0 if even the smallest buffer can not be reserved
+   */
+  public int reserve(long queryId) {
+    String id = Long.toString(queryId);
+    for (int size = MAX_BUFFER_SIZE; size >= MIN_BUFFER_SIZE; size /= 2) {
+      if (size <= pool.getMaxBytesPerQuery() && pool.tryReserve(id, size)) {
+        return size;
+      }
+    }
+    return 0;
+  }
+
+  public void release(long queryId, int bytes) {
+    if (bytes > 0) {
+      pool.free(Long.toString(queryId), bytes);
+    }
+  }
+
+  /** Release the buffers held by the spill file readers of the query when it ends. */
+  public void releaseAll(long queryId) {
+    String id = Long.toString(queryId);
+    long reserved = pool.getQueryMemoryReservedBytes(id);
+    if (reserved > 0) {
+      pool.free(id, reserved);
+    }
+  }
+
+  /** A buffer of the minimum size is still used without reservation so that the sort proceeds. */
+  public static int getBufferSize(int reservedBytes) {
+    return Math.max(reservedBytes, MIN_BUFFER_SIZE);
+  }
+
+  public static ExternalSortMemoryManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  private static class InstanceHolder {
+
+    private static final ExternalSortMemoryManager INSTANCE = new ExternalSortMemoryManager();
+  }
+}
@@ -21,14 +21,21 @@ package org.apache.iotdb.db.query.externalsort;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileSerializer;
-import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthIExternalSortFileDeserializer;
-import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthTimeValuePairSerializer;
-import org.apache.iotdb.db.query.reader.universal.PriorityMergeReader;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.ColumnarExternalSortFileDeserializer;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.ColumnarTimeValuePairSerializer;
+import org.apache.iotdb.db.utils.datastructure.LoserTree;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Merges the readers with a k-way loser tree into a columnar spill file. Points of the same
+ * timestamp are deduplicated, the one from the reader that comes last in the list is kept, as a
+ * later reader has a higher priority.
+ */
 public class LineMerger {
 
   private String tmpFilePath;
@@ -40,16 +47,86 @@ public class LineMerger {
   }
 
   public IPointReader merge(List<IPointReader> prioritySeriesReaders) throws IOException {
-    IExternalSortFileSerializer serializer = new FixLengthTimeValuePairSerializer(tmpFilePath);
-    PriorityMergeReader reader = new PriorityMergeReader(prioritySeriesReaders, 1);
-    while (reader.hasNextTimeValuePair()) {
-      serializer.write(reader.nextTimeValuePair());
+    ExternalSortMemoryManager memoryManager = ExternalSortMemoryManager.getInstance();
+    int writeBufferSize = memoryManager.reserve(queryId);
+    try {
+      IExternalSortFileSerializer serializer =
+          new ColumnarTimeValuePairSerializer(
+              tmpFilePath, ExternalSortMemoryManager.getBufferSize(writeBufferSize));
+      try {
+        merge(prioritySeriesReaders, serializer);
+      } finally {
+        serializer.close();
+      }
+    } finally {
+      memoryManager.release(queryId, writeBufferSize);
+    }
+
+    // the read buffer is released when the query ends
+    int readBufferSize = memoryManager.reserve(queryId);
+    IExternalSortFileDeserializer deserializer;
+    try {
+      deserializer =
+          new ColumnarExternalSortFileDeserializer(
+              tmpFilePath, ExternalSortMemoryManager.getBufferSize(readBufferSize));
+    } catch (IOException | RuntimeException e) {
+      memoryManager.release(queryId, readBufferSize);
+      throw e;
     }
-    reader.close();
-    serializer.close();
-    IExternalSortFileDeserializer deserializer =
-        new FixLengthIExternalSortFileDeserializer(tmpFilePath);
     QueryResourceManager.getInstance().registerTempExternalSortFile(queryId, deserializer);
     return deserializer;
   }
+
+  private void merge(List<IPointReader> readers, IExternalSortFileSerializer serializer)
+      throws IOException {
+    LoserTree<MergeCursor> tree = new LoserTree<>(Comparator.naturalOrder());
+    for (int i = 0; i < readers.size(); i++) {
+      IPointReader reader = readers.get(i);
+      if (reader.hasNextTimeValuePair()) {
+        tree.add(new MergeCursor(reader, i, reader.nextTimeValuePair()));
+      }
+    }
+    boolean written = false;
+    long lastTime = Long.MIN_VALUE;
+    while (!tree.isEmpty()) {
+      MergeCursor top = tree.peek();
+      TimeValuePair pair = top.current;
+      if (!written || pair.getTimestamp() != lastTime) {
+        serializer.write(pair);
+        lastTime = pair.getTimestamp();
+        written = true;
+      }
+      if (top.reader.hasNextTimeValuePair()) {
+        top.current = top.reader.nextTimeValuePair();
+        tree.updateTop();
+      } else {
+        tree.poll();
+      }
+    }
+    for (IPointReader reader : readers) {
+      reader.close();
+    }
+  }
+
+  private static class MergeCursor implements Comparable<MergeCursor> {
+
+    private final IPointReader reader;
+    /** the index of the reader, a larger one wins on the same timestamp */
+    private final int priority;
+
+    private TimeValuePair current;
+
+    private MergeCursor(IPointReader reader, int priority, TimeValuePair current) {
+      this.reader = reader;
+      this.priority = priority;
+      this.current = current;
+    }
+
+    /** On the same timestamp, the cursor of the later reader comes first and its point is kept. */
+    @Override
+    public int compareTo(MergeCursor o) {
+      int cmp = Long.compare(current.getTimestamp(), o.current.getTimestamp());
+      return cmp != 0 ? cmp : Integer.compare(o.priority, priority);
+    }
+  }
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.externalsort.serialize.impl;
+
+import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the file written by {@link ColumnarTimeValuePairSerializer} block by block, each block is
+ * decoded in bulk into a columnar run.
+ */
+public class ColumnarExternalSortFileDeserializer implements IExternalSortFileDeserializer {
+
+  private final String tmpFilePath;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private boolean endOfFile;
+
+  private ColumnarRun run;
+  private int index;
+
+  public ColumnarExternalSortFileDeserializer(String tmpFilePath, int bufferSize)
+      throws IOException {
+    this.tmpFilePath = tmpFilePath;
+    channel = FileChannel.open(Paths.get(tmpFilePath), StandardOpenOption.READ);
+    buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, Long.BYTES));
+    buffer.order(ByteOrder.nativeOrder());
+    buffer.flip();
+    if (hasMoreBytes()) {
+      ensureRemaining(Byte.BYTES);
+      run = new ColumnarRun(TSDataType.deserialize(buffer.get()), 0);
+    }
+  }
+
+  @Override
+  public boolean hasNextTimeValuePair() throws IOException {
+    return run != null && (index < run.size || hasMoreBytes());
+  }
+
+  @Override
+  public TimeValuePair nextTimeValuePair() throws IOException {
+    if (run == null || (index >= run.size && !hasMoreBytes())) {
+      throw new IOException("No more data in external sort tmp file. FilePath:" + tmpFilePath);
+    }
+    if (index >= run.size) {
+      readRun();
+    }
+    return run.get(index++);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    File file = new File(tmpFilePath);
+    if (!file.exists()) {
+      return;
+    }
+    if (!file.delete()) {
+      throw new IOException("Delete external sort tmp file error. FilePath:" + tmpFilePath);
+    }
+  }
+
+  public String getTmpFilePath() {
+    return tmpFilePath;
+  }
+
+  private void readRun() throws IOException {
+    ensureRemaining(Integer.BYTES);
+    int count = buffer.getInt();
+    run.reset(count);
+    getLongs(run.times, count);
+    switch (run.getDataType()) {
+      case BOOLEAN:
+        for (int i = 0; i < count; i++) {
+          ensureRemaining(Byte.BYTES);
+          run.booleanValues[i] = buffer.get() != 0;
+        }
+        break;
+      case INT32:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Integer.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Integer.BYTES);
+          buffer.asIntBuffer().get(run.intValues, offset, length);
+          buffer.position(buffer.position() + length * Integer.BYTES);
+          offset += length;
+        }
+        break;
+      case INT64:
+        getLongs(run.longValues, count);
+        break;
+      case FLOAT:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Float.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Float.BYTES);
+          buffer.asFloatBuffer().get(run.floatValues, offset, length);
+          buffer.position(buffer.position() + length * Float.BYTES);
+          offset += length;
+        }
+        break;
+      case DOUBLE:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Double.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Double.BYTES);
+          buffer.asDoubleBuffer().get(run.doubleValues, offset, length);
+          buffer.position(buffer.position() + length * Double.BYTES);
+          offset += length;
+        }
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          ensureRemaining(Integer.BYTES);
+          byte[] bytes = new byte[buffer.getInt()];
+          getBytes(bytes);
+          run.binaryValues[i] = new Binary(bytes);
+        }
+        break;
+    }
+    run.size = count;
+    index = 0;
+  }
+
+  private void getLongs(long[] values, int count) throws IOException {
+    for (int offset = 0; offset < count; ) {
+      ensureRemaining(Long.BYTES);
+      int length = Math.min(count - offset, buffer.remaining() / Long.BYTES);
+      buffer.asLongBuffer().get(values, offset, length);
+      buffer.position(buffer.position() + length * Long.BYTES);
+      offset += length;
+    }
+  }
+
+  private void getBytes(byte[] bytes) throws IOException {
+    for (int offset = 0; offset < bytes.length; ) {
+      ensureRemaining(Byte.BYTES);
+      int length = Math.min(bytes.length - offset, buffer.remaining());
+      buffer.get(bytes, offset, length);
+      offset += length;
+    }
+  }
+
+  private boolean hasMoreBytes() throws IOException {
+    if (!buffer.hasRemaining()) {
+      fill(Byte.BYTES);
+    }
+    return buffer.hasRemaining();
+  }
+
+  private void ensureRemaining(int bytes) throws IOException {
+    if (buffer.remaining() >= bytes) {
+      return;
+    }
+    fill(bytes);
+    if (buffer.remaining() < bytes) {
+      throw new IOException(
+          String.format(
+              "Intend to read %d bytes but %d are actually returned", bytes, buffer.remaining()));
+    }
+  }
+
+  /** Refill the buffer until it has at least the given bytes or the file ends. */
+  private void fill(int bytes) throws IOException {
+    if (endOfFile) {
+      return;
+    }
+    buffer.compact();
+    while (buffer.position() < bytes) {
+      if (channel.read(buffer) < 0) {
+        endOfFile = true;
+        break;
+      }
+    }
+    buffer.flip();
+  }
+}
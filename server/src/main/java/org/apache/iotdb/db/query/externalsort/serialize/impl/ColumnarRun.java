@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.externalsort.serialize.impl;
+
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.TsPrimitiveType;
+
+import java.util.Arrays;
+
+/** A run of points of one data type kept as a time column and a primitive value column. */
+class ColumnarRun {
+
+  private final TSDataType dataType;
+
+  long[] times;
+  boolean[] booleanValues;
+  int[] intValues;
+  long[] longValues;
+  float[] floatValues;
+  double[] doubleValues;
+  Binary[] binaryValues;
+
+  int size;
+
+  ColumnarRun(TSDataType dataType, int capacity) {
+    this.dataType = dataType;
+    times = new long[capacity];
+    switch (dataType) {
+      case BOOLEAN:
+        booleanValues = new boolean[capacity];
+        break;
+      case INT32:
+        intValues = new int[capacity];
+        break;
+      case INT64:
+        longValues = new long[capacity];
+        break;
+      case FLOAT:
+        floatValues = new float[capacity];
+        break;
+      case DOUBLE:
+        doubleValues = new double[capacity];
+        break;
+      case TEXT:
+        binaryValues = new Binary[capacity];
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            "Unsupported data type in external sort: " + dataType);
+    }
+  }
+
+  TSDataType getDataType() {
+    return dataType;
+  }
+
+  int capacity() {
+    return times.length;
+  }
+
+  boolean isFull() {
+    return size == times.length;
+  }
+
+  void clear() {
+    if (binaryValues != null) {
+      Arrays.fill(binaryValues, 0, size, null);
+    }
+    size = 0;
+  }
+
+  /** Make sure the run can hold the given number of points, the existing points are dropped. */
+  void reset(int capacity) {
+    clear();
+    if (capacity <= times.length) {
+      return;
+    }
+    times = new long[capacity];
+    switch (dataType) {
+      case BOOLEAN:
+        booleanValues = new boolean[capacity];
+        break;
+      case INT32:
+        intValues = new int[capacity];
+        break;
+      case INT64:
+        longValues = new long[capacity];
+        break;
+      case FLOAT:
+        floatValues = new float[capacity];
+        break;
+      case DOUBLE:
+        doubleValues = new double[capacity];
+        break;
+      default:
+        binaryValues = new Binary[capacity];
+        break;
+    }
+  }
+
+  void append(TimeValuePair timeValuePair) {
+    times[size] = timeValuePair.getTimestamp();
+    TsPrimitiveType value = timeValuePair.getValue();
+    switch (dataType) {
+      case BOOLEAN:
+        booleanValues[size] = value.getBoolean();
+        break;
+      case INT32:
+        intValues[size] = value.getInt();
+        break;
+      case INT64:
+        longValues[size] = value.getLong();
+        break;
+      case FLOAT:
+        floatValues[size] = value.getFloat();
+        break;
+      case DOUBLE:
+        doubleValues[size] = value.getDouble();
+        break;
+      default:
+        binaryValues[size] = value.getBinary();
+        break;
+    }
+    size++;
+  }
+
+  TimeValuePair get(int index) {
+    switch (dataType) {
+      case BOOLEAN:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsBoolean(booleanValues[index]));
+      case INT32:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsInt(intValues[index]));
+      case INT64:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsLong(longValues[index]));
+      case FLOAT:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsFloat(floatValues[index]));
+      case DOUBLE:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsDouble(doubleValues[index]));
+      default:
+        return new TimeValuePair(times[index], new TsPrimitiveType.TsBinary(binaryValues[index]));
+    }
+  }
+}
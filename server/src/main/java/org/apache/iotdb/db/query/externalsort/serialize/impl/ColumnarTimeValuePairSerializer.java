@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.externalsort.serialize.impl;
+
+import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileSerializer;
+import org.apache.iotdb.tsfile.read.TimeValuePair;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffers the points into columnar runs and spills each run in bulk through a large direct buffer.
+ * One instance should be used with the same type of TimeValuePair.
+ *
+ * <p>FileFormat: [DataType][Block]*
+ *
+ * <p>[Block] = [Count] + [Timestamp]*Count + [Value]*Count, a TEXT value is [Length][Bytes]
+ *
+ * <p>Numbers are in native byte order, as the file never leaves the node that writes it.
+ */
+public class ColumnarTimeValuePairSerializer implements IExternalSortFileSerializer {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int runCapacity;
+  private ColumnarRun run;
+
+  /**
+   * @param bufferSize the bytes used by this serializer, half of them are the spill buffer and the
+   *     others hold the columnar run
+   */
+  public ColumnarTimeValuePairSerializer(String tmpFilePath, int bufferSize) throws IOException {
+    File file = new File(tmpFilePath);
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+    channel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    buffer = ByteBuffer.allocateDirect(Math.max(bufferSize / 2, Long.BYTES));
+    buffer.order(ByteOrder.nativeOrder());
+    runCapacity = Math.max(bufferSize / 2 / (Long.BYTES * 2), 1);
+  }
+
+  @Override
+  public void write(TimeValuePair timeValuePair) throws IOException {
+    if (run == null) {
+      run = new ColumnarRun(timeValuePair.getValue().getDataType(), runCapacity);
+      ensureRemaining(Byte.BYTES);
+      buffer.put(run.getDataType().serialize());
+    }
+    run.append(timeValuePair);
+    if (run.isFull()) {
+      writeRun();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (run != null && run.size > 0) {
+        writeRun();
+      }
+      flushBuffer();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void writeRun() throws IOException {
+    int count = run.size;
+    ensureRemaining(Integer.BYTES);
+    buffer.putInt(count);
+    putLongs(run.times, count);
+    switch (run.getDataType()) {
+      case BOOLEAN:
+        for (int i = 0; i < count; i++) {
+          ensureRemaining(Byte.BYTES);
+          buffer.put(run.booleanValues[i] ? (byte) 1 : (byte) 0);
+        }
+        break;
+      case INT32:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Integer.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Integer.BYTES);
+          buffer.asIntBuffer().put(run.intValues, offset, length);
+          buffer.position(buffer.position() + length * Integer.BYTES);
+          offset += length;
+        }
+        break;
+      case INT64:
+        putLongs(run.longValues, count);
+        break;
+      case FLOAT:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Float.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Float.BYTES);
+          buffer.asFloatBuffer().put(run.floatValues, offset, length);
+          buffer.position(buffer.position() + length * Float.BYTES);
+          offset += length;
+        }
+        break;
+      case DOUBLE:
+        for (int offset = 0; offset < count; ) {
+          ensureRemaining(Double.BYTES);
+          int length = Math.min(count - offset, buffer.remaining() / Double.BYTES);
+          buffer.asDoubleBuffer().put(run.doubleValues, offset, length);
+          buffer.position(buffer.position() + length * Double.BYTES);
+          offset += length;
+        }
+        break;
+      default:
+        for (int i = 0; i < count; i++) {
+          byte[] bytes = run.binaryValues[i].getValues();
+          ensureRemaining(Integer.BYTES);
+          buffer.putInt(bytes.length);
+          putBytes(bytes);
+        }
+        break;
+    }
+    run.clear();
+  }
+
+  private void putLongs(long[] values, int count) throws IOException {
+    for (int offset = 0; offset < count; ) {
+      ensureRemaining(Long.BYTES);
+      int length = Math.min(count - offset, buffer.remaining() / Long.BYTES);
+      buffer.asLongBuffer().put(values, offset, length);
+      buffer.position(buffer.position() + length * Long.BYTES);
+      offset += length;
+    }
+  }
+
+  private void putBytes(byte[] bytes) throws IOException {
+    for (int offset = 0; offset < bytes.length; ) {
+      ensureRemaining(Byte.BYTES);
+      int length = Math.min(bytes.length - offset, buffer.remaining());
+      buffer.put(bytes, offset, length);
+      offset += length;
+    }
+  }
+
+  private void ensureRemaining(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -61,11 +61,12 @@ public class CachedPriorityMergeReader extends PriorityMergeReader {
       }
       // remove duplicates
       while (heap.peek() != null && heap.peek().currTime() == lastTimestamp) {
-        top = heap.poll();
+        top = heap.peek();
         if (top.hasNext()) {
           top.next();
-          heap.add(top);
+          heap.updateTop();
         } else {
+          heap.poll();
           top.close();
         }
       }
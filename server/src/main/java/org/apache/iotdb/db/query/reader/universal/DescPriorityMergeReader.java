@@ -20,19 +20,18 @@
 package org.apache.iotdb.db.query.reader.universal;
 
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.utils.datastructure.LoserTree;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 
 import java.io.IOException;
-import java.util.PriorityQueue;
 
 public class DescPriorityMergeReader extends PriorityMergeReader {
 
   public DescPriorityMergeReader() {
     super.heap =
-        new PriorityQueue<>(
+        new LoserTree<>(
             (o1, o2) -> {
-              int timeCompare =
-                  Long.compare(o2.currPair().getTimestamp(), o1.currPair().getTimestamp());
+              int timeCompare = Long.compare(o2.currTime(), o1.currTime());
               return timeCompare != 0 ? timeCompare : o2.getPriority().compareTo(o1.getPriority());
             });
   }
@@ -20,15 +20,20 @@ package org.apache.iotdb.db.query.reader.universal;
 
 import org.apache.iotdb.db.query.context.QueryContext;
 import org.apache.iotdb.db.query.control.tracing.TracingManager;
+import org.apache.iotdb.db.utils.datastructure.LoserTree;
 import org.apache.iotdb.tsfile.read.TimeValuePair;
 import org.apache.iotdb.tsfile.read.reader.IPointReader;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
-import java.util.PriorityQueue;
 
-/** This class implements {@link IPointReader} for data sources with different priorities. */
+/**
+ * This class implements {@link IPointReader} for data sources with different priorities. The
+ * sources are merged by a {@link LoserTree}, the top source is advanced in place and replayed
+ * instead of being polled and re-added. The merged points are still the {@link TimeValuePair}s
+ * produced by the sources, so each point keeps its boxed value.
+ */
 @SuppressWarnings("ConstantConditions") // heap is ensured by hasNext non-empty
 public class PriorityMergeReader implements IPointReader {
 
@@ -36,14 +41,13 @@ public class PriorityMergeReader implements IPointReader {
   // or min time of all added readers in DescPriorityMergeReader
   protected long currentReadStopTime;
 
-  protected PriorityQueue<Element> heap;
+  protected LoserTree<Element> heap;
 
   public PriorityMergeReader() {
     heap =
-        new PriorityQueue<>(
+        new LoserTree<>(
             (o1, o2) -> {
-              int timeCompare =
-                  Long.compare(o1.timeValuePair.getTimestamp(), o2.timeValuePair.getTimestamp());
+              int timeCompare = Long.compare(o1.currTime(), o2.currTime());
               return timeCompare != 0 ? timeCompare : o2.priority.compareTo(o1.priority);
             });
   }
@@ -51,13 +55,7 @@ public class PriorityMergeReader implements IPointReader {
   // only used in external sort, need to refactor later
   public PriorityMergeReader(List<IPointReader> prioritySeriesReaders, int startPriority)
       throws IOException {
-    heap =
-        new PriorityQueue<>(
-            (o1, o2) -> {
-              int timeCompare =
-                  Long.compare(o1.timeValuePair.getTimestamp(), o2.timeValuePair.getTimestamp());
-              return timeCompare != 0 ? timeCompare : o2.priority.compareTo(o1.priority);
-            });
+    this();
     for (IPointReader reader : prioritySeriesReaders) {
       addReader(reader, startPriority++);
     }
@@ -103,18 +101,18 @@ public class PriorityMergeReader implements IPointReader {
 
   @Override
   public TimeValuePair nextTimeValuePair() throws IOException {
-    Element top = heap.poll();
+    Element top = heap.peek();
     TimeValuePair ret = top.getTimeValuePair();
     TimeValuePair topNext = null;
     if (top.hasNext()) {
       top.next();
       topNext = top.currPair();
+      // the next time of the top is larger than ret, so it does not join the loop in updateHeap
+      heap.updateTop();
+    } else {
+      heap.poll();
     }
     updateHeap(ret, topNext);
-    if (topNext != null) {
-      top.timeValuePair = topNext;
-      heap.add(top);
-    }
     return ret;
   }
 
@@ -132,9 +130,10 @@ public class PriorityMergeReader implements IPointReader {
     long topTime = ret.getTimestamp();
     long topNextTime = (topNext == null ? Long.MAX_VALUE : topNext.getTimestamp());
     while (!heap.isEmpty() && heap.peek().currTime() == topTime) {
-      Element e = heap.poll();
+      Element e = heap.peek();
       fillNullValue(ret, e.getTimeValuePair());
       if (!e.hasNext()) {
+        heap.poll();
         e.reader.close();
         continue;
       }
@@ -144,13 +143,14 @@ public class PriorityMergeReader implements IPointReader {
         fillNullValue(topNext, e.getTimeValuePair());
         if (e.hasNext()) {
           e.next();
-          heap.add(e);
+          heap.updateTop();
         } else {
           // the chunk is end
+          heap.poll();
           e.close();
         }
       } else {
-        heap.add(e);
+        heap.updateTop();
       }
     }
   }
@@ -22,6 +22,7 @@ import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.timeindex.DeviceIdDictionary;
 import org.apache.iotdb.db.engine.storagegroup.timeindex.TimeIndexLevel;
 
 import org.slf4j.Logger;
@@ -71,12 +72,8 @@ public class TsFileResourceManager {
   public synchronized void removeTsFileResource(TsFileResource tsFileResource) {
     if (sealedTsFileResources.contains(tsFileResource)) {
       sealedTsFileResources.remove(tsFileResource);
-      if (TimeIndexLevel.valueOf(tsFileResource.getTimeIndexType())
-          == TimeIndexLevel.FILE_TIME_INDEX) {
-        totalTimeIndexMemCost -= tsFileResource.calculateRamSize();
-      } else {
-        totalTimeIndexMemCost -= tsFileResource.getRamSize();
-      }
+      // the ram size is updated when the time index is degraded
+      totalTimeIndexMemCost -= tsFileResource.getRamSize();
     }
   }
 
@@ -87,14 +84,21 @@ public class TsFileResourceManager {
 
   /**
    * choose the top TsFileResource in priorityQueue to degrade until the memory is smaller than
-   * threshold.
+   * threshold. The device id dictionary of the compressed time indexes is charged as well.
    */
   private void chooseTsFileResourceToDegrade() {
-    while (totalTimeIndexMemCost > TIME_INDEX_MEMORY_THRESHOLD) {
+    while (totalTimeIndexMemCost + getDictionaryMemCost() > TIME_INDEX_MEMORY_THRESHOLD) {
       TsFileResource tsFileResource = sealedTsFileResources.pollFirst();
       if (tsFileResource == null
           || TimeIndexLevel.valueOf(tsFileResource.getTimeIndexType())
               == TimeIndexLevel.FILE_TIME_INDEX) {
+        if (totalTimeIndexMemCost <= TIME_INDEX_MEMORY_THRESHOLD) {
+          // the devices of the degraded indexes leave the dictionary once they are collected
+          if (tsFileResource != null) {
+            sealedTsFileResources.add(tsFileResource);
+          }
+          return;
+        }
         logger.error("Can't degrade any more");
         throw new RuntimeException("Can't degrade any more");
       }
@@ -106,6 +110,13 @@ public class TsFileResourceManager {
     }
   }
 
+  /** the device id dictionary is only filled by the compressed time indexes */
+  private long getDictionaryMemCost() {
+    return CONFIG.isEnableCompressedDeviceTimeIndex()
+        ? DeviceIdDictionary.getInstance().ramBytesUsed()
+        : 0;
+  }
+
   /** function for clearing TsFileManager */
   public synchronized void clear() {
     if (this.sealedTsFileResources != null) {
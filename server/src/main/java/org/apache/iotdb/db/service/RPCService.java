@@ -25,13 +25,22 @@ import org.apache.iotdb.commons.service.ThriftService;
 import org.apache.iotdb.commons.service.ThriftServiceThread;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.service.metrics.MetricsService;
+import org.apache.iotdb.db.service.metrics.enums.Metric;
+import org.apache.iotdb.db.service.metrics.enums.Tag;
 import org.apache.iotdb.db.service.thrift.ProcessorWithMetrics;
 import org.apache.iotdb.db.service.thrift.handler.RPCServiceThriftHandler;
 import org.apache.iotdb.db.service.thrift.impl.TSIEventHandler;
 import org.apache.iotdb.metrics.config.MetricConfigDescriptor;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.rpc.RpcStat;
+import org.apache.iotdb.rpc.RpcTransportFactory;
 import org.apache.iotdb.service.rpc.thrift.TSIService.Processor;
 
+import org.apache.thrift.transport.TTransportFactory;
+
 import java.lang.reflect.InvocationTargetException;
+import java.util.function.LongSupplier;
 
 /** A service to handle jdbc request from client. */
 public class RPCService extends ThriftService implements RPCServiceMBean {
@@ -54,11 +63,35 @@ public class RPCService extends ThriftService implements RPCServiceMBean {
     initSyncedServiceImpl(null);
     if (MetricConfigDescriptor.getInstance().getMetricConfig().getEnableMetric()) {
       processor = new ProcessorWithMetrics(impl);
+      registerTransportMetrics();
     } else {
       processor = new Processor<>(impl);
     }
   }
 
+  /** Exposes the byte, frame and buffer allocation counters of the rpc transports. */
+  private void registerTransportMetrics() {
+    registerTransportMetric("read_bytes", RpcStat::getReadBytes);
+    registerTransportMetric("read_compressed_bytes", RpcStat::getReadCompressedBytes);
+    registerTransportMetric("write_bytes", RpcStat::getWriteBytes);
+    registerTransportMetric("write_compressed_bytes", RpcStat::getWriteCompressedBytes);
+    registerTransportMetric("read_frames", RpcStat::getReadFrames);
+    registerTransportMetric("buffer_allocations", RpcStat::getBufferAllocations);
+    registerTransportMetric("buffer_allocated_bytes", RpcStat::getBufferAllocatedBytes);
+  }
+
+  private void registerTransportMetric(String name, LongSupplier counter) {
+    MetricsService.getInstance()
+        .getMetricManager()
+        .getOrCreateAutoGauge(
+            Metric.RPC_TRANSPORT.toString(),
+            MetricLevel.IMPORTANT,
+            this,
+            service -> counter.getAsLong(),
+            Tag.NAME.toString(),
+            name);
+  }
+
   @Override
   public void initThriftServiceThread() throws IllegalAccessException {
     IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
@@ -73,7 +106,14 @@ public class RPCService extends ThriftService implements RPCServiceMBean {
               config.getRpcMaxConcurrentClientNum(),
               config.getThriftServerAwaitTimeForStopService(),
               new RPCServiceThriftHandler(impl),
-              IoTDBDescriptor.getInstance().getConfig().isRpcThriftCompressionEnable());
+              IoTDBDescriptor.getInstance().getConfig().isRpcThriftCompressionEnable()) {
+            @Override
+            public TTransportFactory getTTransportFactory() {
+              // the handlers copy the binary fields of a request, e.g., the timestamps and values
+              // of a tablet, into the plans before returning, so they can be read without copying
+              return RpcTransportFactory.ZERO_COPY_READ_INSTANCE;
+            }
+          };
     } catch (RPCServiceException e) {
       throw new IllegalAccessException(e.getMessage());
     }
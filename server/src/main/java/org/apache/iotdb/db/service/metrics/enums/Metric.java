@@ -31,6 +31,9 @@ public enum Metric {
   QUANTITY,
   DATA_WRITTEN,
   DATA_READ,
+  RPC_TRANSPORT,
+  OPERATOR_EXECUTION_COST,
+  OPERATOR_OUTPUT,
   COMPACTION_TASK_COUNT,
   CLUSTER_NODE_STATUS,
   CLUSTER_NODE_LEADER_COUNT,
@@ -26,6 +26,7 @@ import org.apache.iotdb.db.auth.AuthorityChecker;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.OperationType;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.mpp.common.QueryId;
 import org.apache.iotdb.db.mpp.common.header.DatasetHeader;
 import org.apache.iotdb.db.mpp.plan.Coordinator;
@@ -44,11 +45,13 @@ import org.apache.iotdb.db.mpp.plan.statement.crud.InsertRowStatement;
 import org.apache.iotdb.db.mpp.plan.statement.crud.InsertRowsOfOneDeviceStatement;
 import org.apache.iotdb.db.mpp.plan.statement.crud.InsertRowsStatement;
 import org.apache.iotdb.db.mpp.plan.statement.crud.InsertTabletStatement;
+import org.apache.iotdb.db.mpp.plan.statement.crud.QueryStatement;
 import org.apache.iotdb.db.mpp.plan.statement.metadata.CreateAlignedTimeSeriesStatement;
 import org.apache.iotdb.db.mpp.plan.statement.metadata.CreateMultiTimeSeriesStatement;
 import org.apache.iotdb.db.mpp.plan.statement.metadata.CreateTimeSeriesStatement;
 import org.apache.iotdb.db.mpp.plan.statement.metadata.DeleteStorageGroupStatement;
 import org.apache.iotdb.db.mpp.plan.statement.metadata.SetStorageGroupStatement;
+import org.apache.iotdb.db.query.control.PreparedStatementTemplate;
 import org.apache.iotdb.db.query.control.SessionManager;
 import org.apache.iotdb.db.query.control.SessionTimeoutManager;
 import org.apache.iotdb.db.service.basic.BasicOpenSessionResp;
@@ -64,6 +67,7 @@ import org.apache.iotdb.service.rpc.thrift.ServerProperties;
 import org.apache.iotdb.service.rpc.thrift.TSAppendSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
+import org.apache.iotdb.service.rpc.thrift.TSClosePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateAlignedTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateMultiTimeseriesReq;
@@ -72,6 +76,7 @@ import org.apache.iotdb.service.rpc.thrift.TSCreateTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSDeleteDataReq;
 import org.apache.iotdb.service.rpc.thrift.TSDropSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementReq;
+import org.apache.iotdb.service.rpc.thrift.TSExecutePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataReq;
@@ -90,6 +95,8 @@ import org.apache.iotdb.service.rpc.thrift.TSInsertTabletsReq;
 import org.apache.iotdb.service.rpc.thrift.TSLastDataQueryReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSPrepareStatementReq;
+import org.apache.iotdb.service.rpc.thrift.TSPrepareStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSPruneSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSQueryTemplateReq;
@@ -525,6 +532,12 @@ public class DataNodeTSIServiceImpl implements TSIEventHandler {
     Statement s =
         StatementGenerator.createStatement(
             statement, SESSION_MANAGER.getZoneId(req.getSessionId()));
+    return executeStatement(req, s, SCHEMA_FETCHER, startTime);
+  }
+
+  private TSExecuteStatementResp executeStatement(
+      TSExecuteStatementReq req, Statement s, ISchemaFetcher schemaFetcher, long startTime) {
+    String statement = req.getStatement();
 
     // permission check
     TSStatus status = AuthorityChecker.checkAuthority(s, req.sessionId);
@@ -546,7 +559,7 @@ public class DataNodeTSIServiceImpl implements TSIEventHandler {
               SESSION_MANAGER.getSessionInfo(req.sessionId),
               statement,
               PARTITION_FETCHER,
-              SCHEMA_FETCHER);
+              schemaFetcher);
 
       if (result.status.code != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
         throw new RuntimeException("error code: " + result.status);
@@ -594,6 +607,91 @@ public class DataNodeTSIServiceImpl implements TSIEventHandler {
     return executeStatement(req);
   }
 
+  @Override
+  public TSPrepareStatementResp prepareStatement(TSPrepareStatementReq req) {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return new TSPrepareStatementResp(getNotLoggedInStatus());
+    }
+
+    PreparedStatementTemplate template;
+    try {
+      template = new PreparedStatementTemplate(req.getSql());
+    } catch (QueryProcessException e) {
+      return new TSPrepareStatementResp(
+          onQueryException(e, "\"" + req.getSql() + "\". " + OperationType.PREPARE_STATEMENT));
+    }
+    if (!SESSION_MANAGER.prepareStatement(
+        req.getSessionId(), req.getPreparedStatementId(), template)) {
+      return new TSPrepareStatementResp(
+          RpcUtils.getStatus(
+              TSStatusCode.EXECUTE_STATEMENT_ERROR,
+              "Too many statements are prepared in the session, close some of them first."));
+    }
+    return new TSPrepareStatementResp(RpcUtils.SUCCESS_STATUS)
+        .setParameterCount(template.getParameterCount());
+  }
+
+  @Override
+  public TSExecuteStatementResp executePreparedStatement(TSExecutePreparedStatementReq req)
+      throws TException {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return RpcUtils.getTSExecuteStatementResp(getNotLoggedInStatus());
+    }
+
+    PreparedStatementTemplate template =
+        SESSION_MANAGER.getPreparedStatement(req.getSessionId(), req.getPreparedStatementId());
+    if (template == null) {
+      return RpcUtils.getTSExecuteStatementResp(
+          TSStatusCode.EXECUTE_STATEMENT_ERROR,
+          "Prepared statement " + req.getPreparedStatementId() + " does not exist.");
+    }
+
+    long startTime = System.currentTimeMillis();
+    PreparedStatementTemplate.Binding binding;
+    try {
+      binding = template.bind(req.getParameters());
+    } catch (QueryProcessException e) {
+      return RpcUtils.getTSExecuteStatementResp(
+          onQueryException(e, OperationType.EXECUTE_PREPARED_STATEMENT));
+    }
+    TSExecuteStatementReq executeReq =
+        new TSExecuteStatementReq(req.getSessionId(), binding.getSql(), req.getStatementId());
+    if (req.isSetFetchSize()) {
+      executeReq.setFetchSize(req.getFetchSize());
+    }
+    if (req.isSetTimeout()) {
+      executeReq.setTimeout(req.getTimeout());
+    }
+    if (req.isSetEnableRedirectQuery()) {
+      executeReq.setEnableRedirectQuery(req.isEnableRedirectQuery());
+    }
+    if (req.isSetJdbcQuery()) {
+      executeReq.setJdbcQuery(req.isJdbcQuery());
+    }
+
+    ZoneId zoneId = SESSION_MANAGER.getZoneId(req.getSessionId());
+    Statement s = binding.generate(tree -> StatementGenerator.createStatement(tree, zoneId));
+    if (!(s instanceof QueryStatement)) {
+      return RpcUtils.getTSExecuteStatementResp(
+          TSStatusCode.EXECUTE_STATEMENT_ERROR, "Statement is not a query statement.");
+    }
+    // the schema fetched from the other nodes is cached for the next executions, the local schema
+    // in the standalone mode is cheap to fetch and its changes do not invalidate the cache
+    ISchemaFetcher schemaFetcher =
+        config.isClusterMode() ? template.getSchemaFetcher(SCHEMA_FETCHER) : SCHEMA_FETCHER;
+    return executeStatement(executeReq, s, schemaFetcher, startTime);
+  }
+
+  @Override
+  public TSStatus closePreparedStatement(TSClosePreparedStatementReq req) {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return getNotLoggedInStatus();
+    }
+
+    SESSION_MANAGER.closePreparedStatement(req.getSessionId(), req.getPreparedStatementId());
+    return RpcUtils.SUCCESS_STATUS;
+  }
+
   @Override
   public TSFetchResultsResp fetchResults(TSFetchResultsReq req) {
     try {
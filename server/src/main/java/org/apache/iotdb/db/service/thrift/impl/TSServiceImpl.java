@@ -33,11 +33,13 @@ import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.conf.OperationType;
 import org.apache.iotdb.db.engine.selectinto.InsertTabletPlansIterator;
+import org.apache.iotdb.db.engine.selectinto.InsertTabletPlansWriter;
 import org.apache.iotdb.db.exception.QueryInBatchStatementException;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.metadata.path.MeasurementPath;
 import org.apache.iotdb.db.metadata.template.TemplateQueryType;
+import org.apache.iotdb.db.qp.logical.Operator;
 import org.apache.iotdb.db.qp.logical.Operator.OperatorType;
 import org.apache.iotdb.db.qp.physical.PhysicalPlan;
 import org.apache.iotdb.db.qp.physical.crud.DeletePlan;
@@ -62,7 +64,9 @@ import org.apache.iotdb.db.qp.physical.sys.SetStorageGroupPlan;
 import org.apache.iotdb.db.qp.physical.sys.SetTemplatePlan;
 import org.apache.iotdb.db.qp.physical.sys.ShowQueryProcesslistPlan;
 import org.apache.iotdb.db.qp.physical.sys.UnsetTemplatePlan;
+import org.apache.iotdb.db.qp.strategy.LogicalGenerator;
 import org.apache.iotdb.db.query.context.QueryContext;
+import org.apache.iotdb.db.query.control.PreparedStatementTemplate;
 import org.apache.iotdb.db.query.control.SessionManager;
 import org.apache.iotdb.db.query.control.tracing.TracingConstant;
 import org.apache.iotdb.db.query.dataset.DirectAlignByTimeDataSet;
@@ -86,6 +90,7 @@ import org.apache.iotdb.service.rpc.thrift.ServerProperties;
 import org.apache.iotdb.service.rpc.thrift.TSAppendSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSCancelOperationReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseOperationReq;
+import org.apache.iotdb.service.rpc.thrift.TSClosePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateAlignedTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateMultiTimeseriesReq;
@@ -94,6 +99,7 @@ import org.apache.iotdb.service.rpc.thrift.TSCreateTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSDeleteDataReq;
 import org.apache.iotdb.service.rpc.thrift.TSDropSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteBatchStatementReq;
+import org.apache.iotdb.service.rpc.thrift.TSExecutePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSFetchMetadataReq;
@@ -112,6 +118,8 @@ import org.apache.iotdb.service.rpc.thrift.TSInsertTabletsReq;
 import org.apache.iotdb.service.rpc.thrift.TSLastDataQueryReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSPrepareStatementReq;
+import org.apache.iotdb.service.rpc.thrift.TSPrepareStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSPruneSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.service.rpc.thrift.TSQueryNonAlignDataSet;
@@ -941,7 +949,8 @@ public class TSServiceImpl implements TSIEventHandler {
       TRACING_MANAGER.setSeriesPathNum(queryId, queryPlan.getPaths().size());
     }
 
-    try {
+    try (InsertTabletPlansWriter insertTabletPlansWriter =
+        new InsertTabletPlansWriter(plans -> insertTabletsInternally(plans, sessionId))) {
       InsertTabletPlansIterator insertTabletPlansIterator =
           new InsertTabletPlansIterator(
               queryPlan,
@@ -949,18 +958,21 @@ public class TSServiceImpl implements TSIEventHandler {
               selectIntoPlan.getFromPath(),
               selectIntoPlan.getIntoPaths(),
               selectIntoPlan.isIntoPathsAligned());
+      // the query thread generates the plans while the writers insert the previous ones
       while (insertTabletPlansIterator.hasNext()) {
         List<InsertTabletPlan> insertTabletPlans = insertTabletPlansIterator.next();
         if (insertTabletPlans.isEmpty()) {
           continue;
         }
-        TSStatus executionStatus = insertTabletsInternally(insertTabletPlans, sessionId);
-        if (executionStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()
-            && executionStatus.getCode() != TSStatusCode.NEED_REDIRECTION.getStatusCode()) {
-          return RpcUtils.getTSExecuteStatementResp(executionStatus).setQueryId(queryId);
+        if (!insertTabletPlansWriter.write(insertTabletPlans)) {
+          break;
         }
       }
 
+      TSStatus executionStatus = insertTabletPlansWriter.finish();
+      if (executionStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+        return RpcUtils.getTSExecuteStatementResp(executionStatus).setQueryId(queryId);
+      }
       return RpcUtils.getTSExecuteStatementResp(TSStatusCode.SUCCESS_STATUS).setQueryId(queryId);
     } finally {
       SESSION_MANAGER.releaseQueryResourceNoExceptions(queryId);
@@ -1089,6 +1101,104 @@ public class TSServiceImpl implements TSIEventHandler {
     }
   }
 
+  @Override
+  public TSPrepareStatementResp prepareStatement(TSPrepareStatementReq req) {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return new TSPrepareStatementResp(getNotLoggedInStatus());
+    }
+
+    PreparedStatementTemplate template;
+    try {
+      template = new PreparedStatementTemplate(req.getSql());
+    } catch (QueryProcessException e) {
+      return new TSPrepareStatementResp(
+          onQueryException(e, "\"" + req.getSql() + "\". " + OperationType.PREPARE_STATEMENT));
+    }
+    if (!SESSION_MANAGER.prepareStatement(
+        req.getSessionId(), req.getPreparedStatementId(), template)) {
+      return new TSPrepareStatementResp(
+          RpcUtils.getStatus(
+              TSStatusCode.EXECUTE_STATEMENT_ERROR,
+              "Too many statements are prepared in the session, close some of them first."));
+    }
+    return new TSPrepareStatementResp(RpcUtils.SUCCESS_STATUS)
+        .setParameterCount(template.getParameterCount());
+  }
+
+  @Override
+  public TSExecuteStatementResp executePreparedStatement(TSExecutePreparedStatementReq req) {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return RpcUtils.getTSExecuteStatementResp(getNotLoggedInStatus());
+    }
+
+    PreparedStatementTemplate template =
+        SESSION_MANAGER.getPreparedStatement(req.getSessionId(), req.getPreparedStatementId());
+    if (template == null) {
+      return RpcUtils.getTSExecuteStatementResp(
+          TSStatusCode.EXECUTE_STATEMENT_ERROR,
+          "Prepared statement " + req.getPreparedStatementId() + " does not exist.");
+    }
+
+    long startTime = System.currentTimeMillis();
+    PreparedStatementTemplate.Binding binding;
+    try {
+      binding = template.bind(req.getParameters());
+    } catch (QueryProcessException e) {
+      return RpcUtils.getTSExecuteStatementResp(
+          onQueryException(e, OperationType.EXECUTE_PREPARED_STATEMENT));
+    }
+    TSExecuteStatementReq executeReq =
+        new TSExecuteStatementReq(req.getSessionId(), binding.getSql(), req.getStatementId());
+    if (req.isSetFetchSize()) {
+      executeReq.setFetchSize(req.getFetchSize());
+    }
+    if (req.isSetTimeout()) {
+      executeReq.setTimeout(req.getTimeout());
+    }
+    if (req.isSetEnableRedirectQuery()) {
+      executeReq.setEnableRedirectQuery(req.isEnableRedirectQuery());
+    }
+    if (req.isSetJdbcQuery()) {
+      executeReq.setJdbcQuery(req.isJdbcQuery());
+    }
+
+    try {
+      ZoneId zoneId = SESSION_MANAGER.getZoneId(req.getSessionId());
+      IoTDBConstant.ClientVersion clientVersion =
+          SESSION_MANAGER.getClientVersion(req.getSessionId());
+      Operator operator =
+          binding.generate(tree -> LogicalGenerator.generate(tree, zoneId, clientVersion));
+      PhysicalPlan physicalPlan =
+          serviceProvider.getPlanner().operatorToPhysicalPlan(operator, clientVersion);
+      if (physicalPlan.isQuery()) {
+        return submitQueryTask(physicalPlan, startTime, executeReq);
+      } else {
+        return RpcUtils.getTSExecuteStatementResp(
+            TSStatusCode.EXECUTE_STATEMENT_ERROR, "Statement is not a query statement.");
+      }
+    } catch (InterruptedException e) {
+      LOGGER.error(INFO_INTERRUPT_ERROR, req, e);
+      Thread.currentThread().interrupt();
+      return RpcUtils.getTSExecuteStatementResp(
+          onQueryException(
+              e, "\"" + binding.getSql() + "\". " + OperationType.EXECUTE_PREPARED_STATEMENT));
+    } catch (Exception e) {
+      return RpcUtils.getTSExecuteStatementResp(
+          onQueryException(
+              e, "\"" + binding.getSql() + "\". " + OperationType.EXECUTE_PREPARED_STATEMENT));
+    }
+  }
+
+  @Override
+  public TSStatus closePreparedStatement(TSClosePreparedStatementReq req) {
+    if (!SESSION_MANAGER.checkLogin(req.getSessionId())) {
+      return getNotLoggedInStatus();
+    }
+
+    SESSION_MANAGER.closePreparedStatement(req.getSessionId(), req.getPreparedStatementId());
+    return RpcUtils.SUCCESS_STATUS;
+  }
+
   /** update statement can be: 1. select-into statement 2. non-query statement */
   private TSExecuteStatementResp executeUpdateStatement(
       String statement,
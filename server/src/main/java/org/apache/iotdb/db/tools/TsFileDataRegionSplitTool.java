@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools;
+
+import org.apache.iotdb.commons.exception.MetadataException;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.engine.modification.Modification;
+import org.apache.iotdb.db.engine.modification.ModificationFile;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
+import org.apache.iotdb.db.engine.storagegroup.dataregion.HashVirtualPartitioner;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.tsfile.file.metadata.AlignedChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
+import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
+import org.apache.iotdb.tsfile.read.TsFileDeviceIterator;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.writer.TsFileIOWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Split a closed TsFile whose devices belong to different data regions into one TsFile per data
+ * region, so that each of them can be loaded into the region that serves its devices. The chunks
+ * are copied as they are, nothing is decoded or rewritten.
+ */
+public class TsFileDataRegionSplitTool implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(TsFileDataRegionSplitTool.class);
+
+  private final TsFileResource oldTsFileResource;
+  private final TsFileSequenceReader reader;
+
+  /** storage group/data region id -> TsFileIOWriter */
+  private final Map<String, TsFileIOWriter> regionWriterMap = new LinkedHashMap<>();
+
+  public TsFileDataRegionSplitTool(TsFileResource resourceToBeSplit) throws IOException {
+    oldTsFileResource = resourceToBeSplit;
+    reader = new TsFileSequenceReader(resourceToBeSplit.getTsFile().getAbsolutePath());
+  }
+
+  /** Check whether the devices of the tsFile are served by more than one data region. */
+  public static boolean isSpanMultiDataRegions(TsFileResource resource) throws MetadataException {
+    Set<String> regions = new HashSet<>();
+    for (String device : resource.getDevices()) {
+      regions.add(getDataRegion(device));
+      if (regions.size() > 1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Split a tsFile by the data regions of its devices
+   *
+   * @param resourceToBeSplit the tsFile to be split, it is left untouched
+   * @param splitResources the split files, one for each data region
+   */
+  public static void splitTsFile(
+      TsFileResource resourceToBeSplit, List<TsFileResource> splitResources)
+      throws IOException, MetadataException {
+    try (TsFileDataRegionSplitTool splitTool = new TsFileDataRegionSplitTool(resourceToBeSplit)) {
+      splitTool.split(splitResources);
+    }
+  }
+
+  /** The storage group and the data region id of the device, joined as a relative directory. */
+  private static String getDataRegion(String device) throws MetadataException {
+    PartialPath devicePath = new PartialPath(device);
+    PartialPath storageGroup = IoTDB.schemaProcessor.getBelongedStorageGroup(devicePath);
+    return storageGroup.getFullPath()
+        + File.separator
+        + HashVirtualPartitioner.getInstance().deviceToDataRegionId(devicePath);
+  }
+
+  public void split(List<TsFileResource> splitResources) throws IOException, MetadataException {
+    TsFileDeviceIterator deviceIterator = reader.getAllDevicesIteratorWithIsAligned();
+    while (deviceIterator.hasNext()) {
+      Pair<String, Boolean> deviceInfo = deviceIterator.next();
+      String device = deviceInfo.left;
+      TsFileIOWriter writer = getOrDefaultTsFileIOWriter(getDataRegion(device));
+      writer.startChunkGroup(device);
+      if (Boolean.TRUE.equals(deviceInfo.right)) {
+        // keep each time chunk followed by its value chunks, as the aligned writer does
+        for (AlignedChunkMetadata alignedChunkMetadata : reader.getAlignedChunkMetadata(device)) {
+          copyChunk(writer, alignedChunkMetadata.getTimeChunkMetadata());
+          for (IChunkMetadata valueChunkMetadata :
+              alignedChunkMetadata.getValueChunkMetadataList()) {
+            if (valueChunkMetadata != null) {
+              copyChunk(writer, valueChunkMetadata);
+            }
+          }
+        }
+      } else {
+        for (List<ChunkMetadata> chunkMetadataList :
+            reader.readChunkMetadataInDevice(device).values()) {
+          for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+            copyChunk(writer, chunkMetadata);
+          }
+        }
+      }
+      writer.endChunkGroup();
+    }
+
+    for (TsFileIOWriter writer : regionWriterMap.values()) {
+      splitResources.add(endFileAndGenerateResource(writer));
+    }
+  }
+
+  private void copyChunk(TsFileIOWriter writer, IChunkMetadata chunkMetadata) throws IOException {
+    writer.writeChunk(
+        reader.readMemChunk((ChunkMetadata) chunkMetadata), (ChunkMetadata) chunkMetadata);
+  }
+
+  private TsFileIOWriter getOrDefaultTsFileIOWriter(String region) throws IOException {
+    TsFileIOWriter writer = regionWriterMap.get(region);
+    if (writer != null) {
+      return writer;
+    }
+    File oldTsFile = oldTsFileResource.getTsFile();
+    File regionDir =
+        FSFactoryProducer.getFSFactory().getFile(oldTsFile.getParent() + File.separator + region);
+    if (!regionDir.exists()) {
+      regionDir.mkdirs();
+    }
+    File newFile =
+        FSFactoryProducer.getFSFactory()
+            .getFile(regionDir + File.separator + oldTsFile.getName());
+    if (newFile.exists()) {
+      logger.debug("delete uncompleted file {}", newFile);
+      Files.delete(newFile.toPath());
+    }
+    writer = new TsFileIOWriter(newFile);
+    regionWriterMap.put(region, writer);
+    return writer;
+  }
+
+  private TsFileResource endFileAndGenerateResource(TsFileIOWriter writer) throws IOException {
+    writer.endFile();
+    TsFileResource tsFileResource = new TsFileResource(writer.getFile());
+    for (String device : writer.getDeviceTimeseriesMetadataMap().keySet()) {
+      tsFileResource.updateStartTime(device, oldTsFileResource.getStartTime(device));
+      tsFileResource.updateEndTime(device, oldTsFileResource.getEndTime(device));
+    }
+    // deletions of the devices that are not in the split file are simply ignored by the readers
+    if (oldTsFileResource.getModFile().exists()) {
+      try (ModificationFile modificationFile = tsFileResource.getModFile()) {
+        for (Modification modification : oldTsFileResource.getModFile().getModifications()) {
+          modificationFile.write(modification);
+        }
+      }
+    }
+    tsFileResource.setMinPlanIndex(oldTsFileResource.getMinPlanIndex());
+    tsFileResource.setMaxPlanIndex(oldTsFileResource.getMaxPlanIndex());
+    tsFileResource.setStatus(TsFileResourceStatus.CLOSED);
+    tsFileResource.serialize();
+    return tsFileResource;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+    for (TsFileIOWriter writer : regionWriterMap.values()) {
+      if (writer.canWrite()) {
+        writer.close();
+      }
+    }
+  }
+}
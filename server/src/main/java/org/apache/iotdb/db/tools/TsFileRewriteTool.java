@@ -374,9 +374,11 @@ public class TsFileRewriteTool implements AutoCloseable {
       PageHeader pageHeader,
       ByteBuffer pageData,
       Map<Long, ChunkWriterImpl> partitionChunkWriterMap)
-      throws PageException {
+      throws PageException, IOException {
     long partitionId = StorageEngine.getTimePartition(pageHeader.getStartTime());
-    getOrDefaultTsFileIOWriter(oldTsFile, partitionId);
+    // the compressed page is copied, so the new file needs the zstd dictionaries of the old one
+    getOrDefaultTsFileIOWriter(oldTsFile, partitionId)
+        .addSourceZstdDictionaries(reader.getZstdDictionaries(schema.getCompressor()));
     ChunkWriterImpl chunkWriter =
         partitionChunkWriterMap.computeIfAbsent(partitionId, v -> new ChunkWriterImpl(schema));
     chunkWriter.writePageHeaderAndDataIntoBuff(pageData, pageHeader);
@@ -477,7 +479,7 @@ public class TsFileRewriteTool implements AutoCloseable {
     }
 
     byte versionNumber = reader.readVersionNumber();
-    if (versionNumber != TSFileConfig.VERSION_NUMBER) {
+    if (!TSFileConfig.isCompatibleVersion(versionNumber)) {
       logger.error("the file's Version Number is incorrect, file path: {}", reader.getFileName());
       return false;
     }
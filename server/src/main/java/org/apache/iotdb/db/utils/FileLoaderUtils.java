@@ -18,7 +18,10 @@
  */
 package org.apache.iotdb.db.utils;
 
+import org.apache.iotdb.commons.conf.IoTDBConstant;
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.engine.cache.BloomFilterCache;
+import org.apache.iotdb.db.engine.cache.BloomFilterCache.BloomFilterCacheKey;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
 import org.apache.iotdb.db.engine.modification.Modification;
@@ -163,32 +166,52 @@ public class FileLoaderUtils {
       // the order of timeSeriesMetadata list is same as subSensorList's order
       TimeSeriesMetadataCache cache = TimeSeriesMetadataCache.getInstance();
       List<String> valueMeasurementList = vectorPath.getMeasurementList();
-      Set<String> allSensors = new HashSet<>(valueMeasurementList);
-      allSensors.add("");
       boolean isDebug = context.isDebug();
       String filePath = resource.getTsFilePath();
       String deviceId = vectorPath.getDevice();
 
+      // check all the value columns against the bloom filter at once, the ones filtered out are
+      // not in the file and need no lookup
+      String devicePrefix = deviceId + IoTDBConstant.PATH_SEPARATOR;
+      List<String> valuePaths = new ArrayList<>(valueMeasurementList.size());
+      for (String valueMeasurement : valueMeasurementList) {
+        valuePaths.add(devicePrefix + valueMeasurement);
+      }
+      Set<String> mayExistPaths =
+          new HashSet<>(
+              BloomFilterCache.getInstance()
+                  .filter(new BloomFilterCacheKey(filePath), valuePaths, isDebug));
+      Set<String> allSensors = new HashSet<>();
+      for (String mayExistPath : mayExistPaths) {
+        allSensors.add(mayExistPath.substring(devicePrefix.length()));
+      }
+      allSensors.add("");
+
       // when resource.getTimeIndexType() == 1, TsFileResource.timeIndexType is deviceTimeIndex
       // we should not ignore the non-exist of device in TsFileMetadata
       TimeseriesMetadata timeColumn =
-          cache.get(
-              new TimeSeriesMetadataCacheKey(filePath, deviceId, ""),
-              allSensors,
-              resource.getTimeIndexType() != 1,
-              isDebug);
+          mayExistPaths.isEmpty()
+              ? null
+              : cache.get(
+                  new TimeSeriesMetadataCacheKey(filePath, deviceId, ""),
+                  allSensors,
+                  resource.getTimeIndexType() != 1,
+                  isDebug);
       if (timeColumn != null) {
         List<TimeseriesMetadata> valueTimeSeriesMetadataList =
             new ArrayList<>(valueMeasurementList.size());
         // if all the queried aligned sensors does not exist, we will return null
         boolean exist = false;
-        for (String valueMeasurement : valueMeasurementList) {
+        for (int i = 0; i < valueMeasurementList.size(); i++) {
           TimeseriesMetadata valueColumn =
-              cache.get(
-                  new TimeSeriesMetadataCacheKey(filePath, deviceId, valueMeasurement),
-                  allSensors,
-                  resource.getTimeIndexType() != 1,
-                  isDebug);
+              mayExistPaths.contains(valuePaths.get(i))
+                  ? cache.get(
+                      new TimeSeriesMetadataCacheKey(
+                          filePath, deviceId, valueMeasurementList.get(i)),
+                      allSensors,
+                      resource.getTimeIndexType() != 1,
+                      isDebug)
+                  : null;
           exist = (exist || (valueColumn != null));
           valueTimeSeriesMetadataList.add(valueColumn);
         }
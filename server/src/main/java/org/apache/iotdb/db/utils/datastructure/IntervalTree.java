@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * An augmented treap of closed intervals [start, end]. Each node keeps the max end time of its
+ * subtree, so an overlap query for [lo, hi] only descends into subtrees that may intersect it and
+ * costs O(log n + k) in expectation, where k is the number of reported intervals.
+ *
+ * <p>Intervals are ordered by their start time and then by insertion order, so the same value may
+ * be inserted several times with different intervals. {@link #insert} returns the node handle that
+ * must be used to remove the interval. This class is not thread-safe.
+ */
+public class IntervalTree<T> {
+
+  private final Random random = new Random();
+
+  private Node<T> root;
+  private long nextSeq = 0;
+  private int size = 0;
+
+  /** Insert the closed interval [start, end] carrying the given value. */
+  public Node<T> insert(long start, long end, T value) {
+    Node<T> node = new Node<>(start, end, nextSeq++, random.nextInt(), value);
+    root = insert(root, node);
+    size++;
+    return node;
+  }
+
+  /** Remove an interval previously returned by {@link #insert}. */
+  public boolean remove(Node<T> node) {
+    int oldSize = size;
+    root = remove(root, node);
+    return size < oldSize;
+  }
+
+  /** Pass the values of all intervals overlapping [lo, hi] to the consumer, ordered by start. */
+  public void query(long lo, long hi, Consumer<T> consumer) {
+    if (lo <= hi) {
+      query(root, lo, hi, consumer);
+    }
+  }
+
+  public List<T> query(long lo, long hi) {
+    List<T> result = new ArrayList<>();
+    query(lo, hi, result::add);
+    return result;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  private Node<T> insert(Node<T> current, Node<T> node) {
+    if (current == null) {
+      return node;
+    }
+    if (compare(node, current) < 0) {
+      current.left = insert(current.left, node);
+      if (current.left.priority > current.priority) {
+        current = rotateRight(current);
+      }
+    } else {
+      current.right = insert(current.right, node);
+      if (current.right.priority > current.priority) {
+        current = rotateLeft(current);
+      }
+    }
+    update(current);
+    return current;
+  }
+
+  private Node<T> remove(Node<T> current, Node<T> node) {
+    if (current == null) {
+      return null;
+    }
+    if (current == node) {
+      size--;
+      return merge(current.left, current.right);
+    }
+    if (compare(node, current) < 0) {
+      current.left = remove(current.left, node);
+    } else {
+      current.right = remove(current.right, node);
+    }
+    update(current);
+    return current;
+  }
+
+  /** Merge two treaps where all keys of the left one are smaller than those of the right one. */
+  private Node<T> merge(Node<T> left, Node<T> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      update(left);
+      return left;
+    } else {
+      right.left = merge(left, right.left);
+      update(right);
+      return right;
+    }
+  }
+
+  private void query(Node<T> current, long lo, long hi, Consumer<T> consumer) {
+    if (current == null || current.maxEnd < lo) {
+      return;
+    }
+    query(current.left, lo, hi, consumer);
+    if (current.start > hi) {
+      // all intervals in the right subtree start even later
+      return;
+    }
+    if (current.end >= lo) {
+      consumer.accept(current.value);
+    }
+    query(current.right, lo, hi, consumer);
+  }
+
+  private Node<T> rotateRight(Node<T> node) {
+    Node<T> left = node.left;
+    node.left = left.right;
+    left.right = node;
+    update(node);
+    update(left);
+    return left;
+  }
+
+  private Node<T> rotateLeft(Node<T> node) {
+    Node<T> right = node.right;
+    node.right = right.left;
+    right.left = node;
+    update(node);
+    update(right);
+    return right;
+  }
+
+  private static <T> void update(Node<T> node) {
+    long maxEnd = node.end;
+    if (node.left != null && node.left.maxEnd > maxEnd) {
+      maxEnd = node.left.maxEnd;
+    }
+    if (node.right != null && node.right.maxEnd > maxEnd) {
+      maxEnd = node.right.maxEnd;
+    }
+    node.maxEnd = maxEnd;
+  }
+
+  private static <T> int compare(Node<T> a, Node<T> b) {
+    int cmp = Long.compare(a.start, b.start);
+    return cmp != 0 ? cmp : Long.compare(a.seq, b.seq);
+  }
+
+  public static class Node<T> {
+    private final long start;
+    private final long end;
+    private final long seq;
+    private final int priority;
+    private final T value;
+    private long maxEnd;
+    private Node<T> left;
+    private Node<T> right;
+
+    private Node(long start, long end, long seq, int priority, T value) {
+      this.start = start;
+      this.end = end;
+      this.seq = seq;
+      this.priority = priority;
+      this.value = value;
+      this.maxEnd = end;
+    }
+
+    public long getStart() {
+      return start;
+    }
+
+    public long getEnd() {
+      return end;
+    }
+
+    public T getValue() {
+      return value;
+    }
+  }
+}
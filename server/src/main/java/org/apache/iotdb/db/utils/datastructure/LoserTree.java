@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+
+/**
+ * A tournament tree of losers for k-way merging. Each internal node keeps the loser of the match
+ * played there and the overall winner is kept at the root, so {@link #peek()} costs O(1) and
+ * replaying the path of the winner after it changes costs exactly one comparison per level, about
+ * half of the comparisons a binary heap needs for a sift-down.
+ *
+ * <p>The intended usage is to look at the winner with {@link #peek()}, advance it in place and
+ * call {@link #updateTop()}, or remove it with {@link #poll()} once it is exhausted. {@link #add}
+ * puts an element into a free leaf and only marks the tree stale, so a batch of additions costs a
+ * single O(k) rebuild when the winner is needed next. A rebuild also halves the capacity while at
+ * most a quarter of the leaves are used, keeping the order of the remaining leaves. Elements the
+ * comparator considers equal are ordered by their leaves. This class is not thread-safe.
+ */
+public class LoserTree<E> {
+
+  private static final int INIT_CAPACITY = 4;
+
+  private final Comparator<? super E> comparator;
+
+  /** leaves[i] is null if leaf i is empty, which loses against any element */
+  private E[] leaves;
+  /** tree[0] is the winner leaf, tree[n] is the loser leaf of the match at internal node n */
+  private int[] tree;
+
+  private final Deque<Integer> freeLeaves = new ArrayDeque<>();
+  private int size = 0;
+  /** whether elements are added after the last rebuild, so the stored losers are stale */
+  private boolean stale = false;
+
+  public LoserTree(Comparator<? super E> comparator) {
+    this.comparator = comparator;
+    init(INIT_CAPACITY);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void init(int capacity) {
+    leaves = (E[]) new Object[capacity];
+    tree = new int[capacity];
+    for (int i = 0; i < capacity; i++) {
+      freeLeaves.add(i);
+    }
+    rebuild();
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** @return the winner, or null if the tree is empty */
+  public E peek() {
+    if (size == 0) {
+      return null;
+    }
+    rebuildIfStale();
+    return leaves[tree[0]];
+  }
+
+  /** Remove and return the winner, or return null if the tree is empty. */
+  public E poll() {
+    if (size == 0) {
+      return null;
+    }
+    rebuildIfStale();
+    int winner = tree[0];
+    E element = leaves[winner];
+    leaves[winner] = null;
+    freeLeaves.push(winner);
+    size--;
+    replay(winner);
+    if (leaves.length > INIT_CAPACITY && size <= leaves.length / 4) {
+      // shrink in the next rebuild, which is amortized by the elements polled since the last one
+      stale = true;
+    }
+    return element;
+  }
+
+  /** Must be called after the order of the winner is changed, e.g. its reader is advanced. */
+  public void updateTop() {
+    if (stale) {
+      // the rebuild plays all the matches with the changed winner
+      rebuild();
+    } else if (size > 0) {
+      replay(tree[0]);
+    }
+  }
+
+  public void add(E element) {
+    if (freeLeaves.isEmpty()) {
+      int capacity = leaves.length;
+      leaves = Arrays.copyOf(leaves, capacity * 2);
+      tree = new int[capacity * 2];
+      for (int i = capacity; i < capacity * 2; i++) {
+        freeLeaves.add(i);
+      }
+    }
+    leaves[freeLeaves.pop()] = element;
+    size++;
+    // the match of the new leaf against the winner of the sibling subtree is not recorded anywhere,
+    // so the tree is rebuilt before the winner is needed next
+    stale = true;
+  }
+
+  public void clear() {
+    freeLeaves.clear();
+    size = 0;
+    init(INIT_CAPACITY);
+  }
+
+  private void rebuildIfStale() {
+    if (stale) {
+      rebuild();
+    }
+  }
+
+  private void rebuild() {
+    stale = false;
+    shrinkIfSparse();
+    int capacity = leaves.length;
+    int[] winners = new int[capacity * 2];
+    for (int i = 0; i < capacity; i++) {
+      winners[capacity + i] = i;
+    }
+    for (int node = capacity - 1; node >= 1; node--) {
+      int left = winners[node * 2];
+      int right = winners[node * 2 + 1];
+      if (beats(left, right)) {
+        winners[node] = left;
+        tree[node] = right;
+      } else {
+        winners[node] = right;
+        tree[node] = left;
+      }
+    }
+    tree[0] = winners[1];
+  }
+
+  /** Move the elements to the first leaves of a smaller tree, keeping their order. */
+  @SuppressWarnings("unchecked")
+  private void shrinkIfSparse() {
+    int capacity = leaves.length;
+    if (capacity <= INIT_CAPACITY || size > capacity / 4) {
+      return;
+    }
+    int newCapacity = Math.max(INIT_CAPACITY, Integer.highestOneBit(Math.max(1, size)) * 2);
+    E[] newLeaves = (E[]) new Object[newCapacity];
+    int leaf = 0;
+    for (E element : leaves) {
+      if (element != null) {
+        newLeaves[leaf++] = element;
+      }
+    }
+    leaves = newLeaves;
+    tree = new int[newCapacity];
+    freeLeaves.clear();
+    for (int i = leaf; i < newCapacity; i++) {
+      freeLeaves.add(i);
+    }
+  }
+
+  /** Replay the matches from the given leaf to the root, the leaf must be the last winner. */
+  private void replay(int leaf) {
+    int winner = leaf;
+    for (int node = (leaf + leaves.length) >>> 1; node >= 1; node >>>= 1) {
+      if (beats(tree[node], winner)) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  private boolean beats(int a, int b) {
+    E ea = leaves[a];
+    E eb = leaves[b];
+    if (ea == null) {
+      return eb == null && a < b;
+    }
+    if (eb == null) {
+      return true;
+    }
+    int cmp = comparator.compare(ea, eb);
+    return cmp != 0 ? cmp < 0 : a < b;
+  }
+}
@@ -39,6 +39,8 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class BloomFilterCacheTest {
@@ -104,6 +106,17 @@ public class BloomFilterCacheTest {
     }
   }
 
+  @Test
+  public void testFilter() throws IOException {
+    String path = pathList.get(0);
+    BloomFilterCache.BloomFilterCacheKey key = new BloomFilterCache.BloomFilterCacheKey(path);
+    List<String> paths = Arrays.asList("d1.sensor_1", "d1.sensor_10", "d1.sensor_5");
+    Assert.assertEquals(paths, bloomFilterCache.filter(key, paths, false));
+    Assert.assertEquals(
+        Collections.emptyList(),
+        bloomFilterCache.filter(key, Collections.singletonList(null), false));
+  }
+
   @Test
   public void testRemove() {
     try {
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.cq;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.qp.physical.sys.CreateContinuousQueryPlan;
+import org.apache.iotdb.tsfile.utils.Pair;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class IncrementalContinuousQueryStateTest {
+
+  /** every 20, for 60, group by 10, the first window is [0, 60) */
+  private IncrementalContinuousQueryState createState() throws IllegalPathException {
+    CreateContinuousQueryPlan plan =
+        new CreateContinuousQueryPlan(
+            "select count(s1) from root.sg.* group by ([now() - 60ms, now()), 10ms)",
+            "cq1",
+            new PartialPath("root.sg_count.d.s1"),
+            20,
+            60,
+            10,
+            "10ms",
+            0L);
+    Assert.assertTrue(IncrementalContinuousQueryState.isSupported(plan));
+    return new IncrementalContinuousQueryState(plan, new PartialPath("root.sg.*"));
+  }
+
+  @Test
+  public void testAdvanceWatermark() throws IllegalPathException {
+    IncrementalContinuousQueryState state = createState();
+    Assert.assertEquals(
+        Collections.singletonList(new Pair<>(0L, 60L)), state.advanceWatermark(60));
+    Assert.assertEquals(60, state.getWatermark());
+    // only the new time range is computed
+    Assert.assertEquals(
+        Collections.singletonList(new Pair<>(60L, 80L)), state.advanceWatermark(80));
+    Assert.assertEquals(
+        Collections.singletonList(new Pair<>(80L, 100L)), state.advanceWatermark(100));
+  }
+
+  @Test
+  public void testLateWrites() throws IllegalPathException {
+    IncrementalContinuousQueryState state = createState();
+    state.advanceWatermark(60);
+    state.advanceWatermark(80);
+
+    // data after the watermark and data of other devices are ignored
+    state.onDataInserted(new PartialPath("root.sg.d1"), 85, 90);
+    state.onDataInserted(new PartialPath("root.other.d1"), 45, 45);
+    // window [30, 40) is before the next execution window [40, 100)
+    state.onDataInserted(new PartialPath("root.sg.d1"), 35, 35);
+    // late writes touch window [40, 50) and [60, 70)
+    state.onDataInserted(new PartialPath("root.sg.d1"), 45, 45);
+    state.onDataInserted(new PartialPath("root.sg.d2"), 61, 66);
+    List<Pair<Long, Long>> expected =
+        Arrays.asList(new Pair<>(40L, 50L), new Pair<>(60L, 70L), new Pair<>(80L, 100L));
+    Assert.assertEquals(expected, state.advanceWatermark(100));
+
+    // adjacent windows are merged
+    state.onDataInserted(new PartialPath("root.sg.d1"), 75, 99);
+    Assert.assertEquals(
+        Collections.singletonList(new Pair<>(70L, 120L)), state.advanceWatermark(120));
+  }
+
+  @Test
+  public void testAbortedExecution() throws IllegalPathException {
+    IncrementalContinuousQueryState state = createState();
+    state.advanceWatermark(60);
+    List<Pair<Long, Long>> timeRanges = state.advanceWatermark(80);
+    state.onExecutionAborted(timeRanges);
+    Assert.assertEquals(
+        Collections.singletonList(new Pair<>(60L, 100L)), state.advanceWatermark(100));
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.selectinto;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.qp.physical.crud.InsertTabletPlan;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.rpc.RpcUtils;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InsertTabletPlansWriterTest {
+
+  @Before
+  public void setUp() {
+    EnvironmentUtils.envSetUp();
+  }
+
+  @After
+  public void tearDown() throws IOException, StorageEngineException {
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testOrderOfDevice() throws Exception {
+    Map<String, List<InsertTabletPlan>> insertedPlans = new ConcurrentHashMap<>();
+    Map<String, List<InsertTabletPlan>> expectedPlans = new HashMap<>();
+    try (InsertTabletPlansWriter writer =
+        new InsertTabletPlansWriter(
+            plans -> {
+              for (InsertTabletPlan plan : plans) {
+                insertedPlans
+                    .computeIfAbsent(plan.getDevicePath().getFullPath(), k -> new ArrayList<>())
+                    .add(plan);
+              }
+              return RpcUtils.getStatus(TSStatusCode.SUCCESS_STATUS);
+            })) {
+      for (int i = 0; i < 100; i++) {
+        List<InsertTabletPlan> batch = new ArrayList<>();
+        for (int j = 0; j < 8; j++) {
+          InsertTabletPlan plan = createPlan("root.sg" + j + ".d" + j);
+          expectedPlans
+              .computeIfAbsent(plan.getDevicePath().getFullPath(), k -> new ArrayList<>())
+              .add(plan);
+          batch.add(plan);
+        }
+        Assert.assertTrue(writer.write(batch));
+      }
+      Assert.assertEquals(TSStatusCode.SUCCESS_STATUS.getStatusCode(), writer.finish().getCode());
+    }
+    Assert.assertEquals(expectedPlans.keySet(), insertedPlans.keySet());
+    for (Map.Entry<String, List<InsertTabletPlan>> entry : expectedPlans.entrySet()) {
+      List<InsertTabletPlan> inserted = insertedPlans.get(entry.getKey());
+      Assert.assertEquals(entry.getValue().size(), inserted.size());
+      for (int i = 0; i < inserted.size(); i++) {
+        // the plans are equal by value, so check that they are the same ones in the same order
+        Assert.assertSame(entry.getValue().get(i), inserted.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testFirstFailure() throws Exception {
+    AtomicInteger insertCount = new AtomicInteger();
+    TSStatus failure = RpcUtils.getStatus(TSStatusCode.WRITE_PROCESS_ERROR, "first failure");
+    try (InsertTabletPlansWriter writer =
+        new InsertTabletPlansWriter(
+            plans ->
+                insertCount.getAndIncrement() == 0
+                    ? failure
+                    : RpcUtils.getStatus(TSStatusCode.INTERNAL_SERVER_ERROR, "later failure"))) {
+      boolean writable = true;
+      for (int i = 0; i < 100 && writable; i++) {
+        writable = writer.write(Collections.singletonList(createPlan("root.sg.d1")));
+      }
+      Assert.assertEquals(failure, writer.finish());
+      Assert.assertFalse(writer.write(Collections.singletonList(createPlan("root.sg.d1"))));
+    }
+    // the plans after the failure are not inserted
+    Assert.assertEquals(1, insertCount.get());
+  }
+
+  @Test
+  public void testAbort() throws Exception {
+    CountDownLatch insertStarted = new CountDownLatch(1);
+    CountDownLatch insertReleased = new CountDownLatch(1);
+    AtomicInteger insertCount = new AtomicInteger();
+    AtomicBoolean isInserting = new AtomicBoolean();
+    InsertTabletPlansWriter writer =
+        new InsertTabletPlansWriter(
+            plans -> {
+              isInserting.set(true);
+              insertCount.incrementAndGet();
+              insertStarted.countDown();
+              try {
+                insertReleased.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              isInserting.set(false);
+              return RpcUtils.getStatus(TSStatusCode.SUCCESS_STATUS);
+            });
+    Assert.assertTrue(writer.write(Collections.singletonList(createPlan("root.sg.d1"))));
+    insertStarted.await();
+    Assert.assertTrue(writer.write(Collections.singletonList(createPlan("root.sg.d1"))));
+
+    Thread closeThread = new Thread(writer::close);
+    closeThread.start();
+    // close waits for the batch being inserted
+    closeThread.join(100);
+    Assert.assertTrue(closeThread.isAlive());
+    insertReleased.countDown();
+    closeThread.join();
+
+    Assert.assertFalse(isInserting.get());
+    // the pending batch is discarded
+    Assert.assertEquals(1, insertCount.get());
+  }
+
+  private InsertTabletPlan createPlan(String device) throws IllegalPathException {
+    return new InsertTabletPlan(new PartialPath(device), new String[] {"s1"});
+  }
+}
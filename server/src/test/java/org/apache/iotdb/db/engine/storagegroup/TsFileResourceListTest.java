@@ -20,12 +20,17 @@
 package org.apache.iotdb.db.engine.storagegroup;
 
 import org.apache.iotdb.db.constant.TestConstant;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -212,4 +217,64 @@ public class TsFileResourceListTest {
         tsFileResourceList.getHeader(), tsFileResources.get(tsFileResources.size() - 1));
     Assert.assertEquals(tsFileResourceList.getTail(), tsFileResources.get(0));
   }
+
+  @Test
+  public void testGetCandidates() throws Exception {
+    TsFileResourceList tsFileResourceList = new TsFileResourceList();
+    List<TsFileResource> resources = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      TsFileResource resource = generateTsFileResource(i);
+      resource.updateStartTime("root.sg.d1", i * 100);
+      resource.updateEndTime("root.sg.d1", i * 100 + 99);
+      if (i % 2 == 0) {
+        resource.updateStartTime("root.sg.d2", i * 100);
+        resource.updateEndTime("root.sg.d2", i * 100 + 99);
+      }
+      resources.add(resource);
+    }
+    // insert out of order to exercise the order labels
+    for (int i = 9; i >= 0; i--) {
+      resources.get(i).setStatus(TsFileResourceStatus.CLOSED);
+      tsFileResourceList.keepOrderInsert(resources.get(i));
+    }
+
+    Filter recent = TimeFilter.gtEq(750L);
+    Assert.assertEquals(
+        resources.subList(7, 10), tsFileResourceList.getCandidates("root.sg.d1", recent));
+    Assert.assertEquals(
+        Collections.singletonList(resources.get(8)),
+        tsFileResourceList.getCandidates("root.sg.d2", recent));
+    Assert.assertTrue(tsFileResourceList.getCandidates("root.sg.d3", recent).isEmpty());
+    Assert.assertEquals(
+        resources.subList(7, 10), tsFileResourceList.getCandidates(null, recent));
+    Assert.assertEquals(
+        Arrays.asList(resources.get(2), resources.get(3)),
+        tsFileResourceList.getCandidates(
+            "root.sg.d1", FilterFactory.and(TimeFilter.gt(250L), TimeFilter.lt(301L))));
+    Assert.assertTrue(
+        tsFileResourceList
+            .getCandidates(
+                "root.sg.d1", FilterFactory.and(TimeFilter.gt(300L), TimeFilter.lt(200L)))
+            .isEmpty());
+    Assert.assertEquals(resources, tsFileResourceList.getCandidates("root.sg.d1", null));
+
+    // an unsealed file is always a candidate until it is closed
+    TsFileResource unsealed = generateTsFileResource(10);
+    unsealed.updateStartTime("root.sg.d1", 1000);
+    tsFileResourceList.add(unsealed);
+    Assert.assertTrue(
+        tsFileResourceList.getCandidates("root.sg.d1", TimeFilter.lt(0L)).contains(unsealed));
+    unsealed.updateEndTime("root.sg.d1", 1099);
+    unsealed.setStatus(TsFileResourceStatus.CLOSED);
+    Assert.assertTrue(
+        tsFileResourceList.getCandidates("root.sg.d1", TimeFilter.lt(0L)).isEmpty());
+    Assert.assertEquals(
+        Collections.singletonList(unsealed),
+        tsFileResourceList.getCandidates("root.sg.d1", TimeFilter.gt(1000L)));
+
+    tsFileResourceList.remove(resources.get(8));
+    Assert.assertTrue(tsFileResourceList.getCandidates("root.sg.d2", recent).isEmpty());
+    tsFileResourceList.clear();
+    Assert.assertTrue(tsFileResourceList.getCandidates(null, null).isEmpty());
+  }
 }
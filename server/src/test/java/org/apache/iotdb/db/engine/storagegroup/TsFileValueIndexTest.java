@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup;
+
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.utils.Binary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TsFileValueIndexTest {
+
+  /** chunk i of s1 holds the values [i * 10, i * 10 + 5] at offset i * 100 */
+  private TsFileValueIndex buildIndex() {
+    int chunkNum = 100;
+    ArrayList<ChunkMetadata> chunkMetadataList = new ArrayList<>();
+    for (int i = 0; i < chunkNum; i++) {
+      Statistics<?> statistics = Statistics.getStatsByType(TSDataType.DOUBLE);
+      statistics.update(i, i * 10.0);
+      statistics.update(i + 1, i * 10.0 + 5);
+      chunkMetadataList.add(new ChunkMetadata("s1", TSDataType.DOUBLE, i * 100L, statistics));
+    }
+    TimeseriesMetadata numericSeries = new TimeseriesMetadata();
+    numericSeries.setMeasurementId("s1");
+    numericSeries.setTSDataType(TSDataType.DOUBLE);
+    numericSeries.setChunkMetadataList(chunkMetadataList);
+
+    Statistics<?> textStatistics = Statistics.getStatsByType(TSDataType.TEXT);
+    textStatistics.update(0, new Binary("a"));
+    TimeseriesMetadata textSeries = new TimeseriesMetadata();
+    textSeries.setMeasurementId("s2");
+    textSeries.setTSDataType(TSDataType.TEXT);
+    textSeries.setChunkMetadataList(
+        new ArrayList<>(
+            Collections.singletonList(
+                new ChunkMetadata("s2", TSDataType.TEXT, 0, textStatistics))));
+
+    Map<String, List<TimeseriesMetadata>> deviceTimeseriesMetadata = new HashMap<>();
+    List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
+    timeseriesMetadataList.add(numericSeries);
+    timeseriesMetadataList.add(textSeries);
+    deviceTimeseriesMetadata.put("root.sg.d1", timeseriesMetadataList);
+    return TsFileValueIndex.build(deviceTimeseriesMetadata);
+  }
+
+  @Test
+  public void testGetCandidateChunks() throws IOException {
+    TsFileValueIndex index = buildIndex();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    index.serialize(outputStream);
+    TsFileValueIndex deserialized =
+        TsFileValueIndex.deserialize(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    for (TsFileValueIndex valueIndex : new TsFileValueIndex[] {index, deserialized}) {
+      Assert.assertArrayEquals(
+          new long[] {9800, 9900}, valueIndex.getCandidateChunks("root.sg.d1", "s1", 985, 2000));
+      Assert.assertArrayEquals(
+          new long[] {500}, valueIndex.getCandidateChunks("root.sg.d1", "s1", 52, 54));
+      // the gap between two chunks
+      Assert.assertEquals(0, valueIndex.getCandidateChunks("root.sg.d1", "s1", 56, 59).length);
+      Assert.assertEquals(0, valueIndex.getCandidateChunks("root.sg.d1", "s1", 1000, 2000).length);
+      Assert.assertEquals(
+          100,
+          valueIndex.getCandidateChunks(
+                  "root.sg.d1", "s1", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)
+              .length);
+      // not indexed
+      Assert.assertNull(valueIndex.getCandidateChunks("root.sg.d1", "s2", 0, 1));
+      Assert.assertNull(valueIndex.getCandidateChunks("root.sg.d2", "s1", 0, 1));
+    }
+  }
+
+  @Test
+  public void testBuildFromChunkMetadata() {
+    Map<String, List<ChunkMetadata>> seriesChunkMetadata = new HashMap<>();
+    Map<String, List<ChunkMetadata>> alignedChunkMetadata = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      Statistics<?> statistics = Statistics.getStatsByType(TSDataType.INT64);
+      statistics.update(i, i * 10L);
+      statistics.update(i + 1, i * 10L + 5);
+      seriesChunkMetadata
+          .computeIfAbsent("s1", k -> new ArrayList<>())
+          .add(new ChunkMetadata("s1", TSDataType.INT64, i * 100L, statistics));
+
+      Statistics<?> timeStatistics = Statistics.getStatsByType(TSDataType.VECTOR);
+      timeStatistics.update(i);
+      alignedChunkMetadata
+          .computeIfAbsent("", k -> new ArrayList<>())
+          .add(new ChunkMetadata("", TSDataType.VECTOR, i * 200L, timeStatistics));
+      alignedChunkMetadata
+          .computeIfAbsent("s1", k -> new ArrayList<>())
+          .add(new ChunkMetadata("s1", TSDataType.INT64, i * 200L + 100, statistics));
+    }
+    Map<String, Map<String, List<ChunkMetadata>>> deviceChunkMetadata = new HashMap<>();
+    deviceChunkMetadata.put("root.sg.d1", seriesChunkMetadata);
+    deviceChunkMetadata.put("root.sg.d2", alignedChunkMetadata);
+
+    TsFileValueIndex index = TsFileValueIndex.buildFromChunkMetadata(deviceChunkMetadata);
+    Assert.assertArrayEquals(
+        new long[] {300}, index.getCandidateChunks("root.sg.d1", "s1", 31, 34));
+    Assert.assertEquals(0, index.getCandidateChunks("root.sg.d1", "s1", 100, 200).length);
+    // the columns of aligned devices are not indexed
+    Assert.assertNull(index.getCandidateChunks("root.sg.d2", "s1", 31, 34));
+    // at least the offsets, the value ranges and the bitmaps of the chunks
+    Assert.assertTrue(index.ramBytesUsed() > 10 * (Long.BYTES + 2 * Double.BYTES));
+  }
+
+  @Test
+  public void testGetValueBounds() {
+    double[] bounds = TsFileValueIndex.getValueBounds(ValueFilter.gt(90.0));
+    Assert.assertTrue(bounds[0] <= 90.0 && bounds[1] == Double.POSITIVE_INFINITY);
+
+    bounds =
+        TsFileValueIndex.getValueBounds(
+            FilterFactory.and(ValueFilter.gtEq(10), ValueFilter.ltEq(20)));
+    Assert.assertTrue(bounds[0] <= 10 && bounds[0] > 9 && bounds[1] >= 20 && bounds[1] < 21);
+
+    // time filters do not bound the values
+    bounds =
+        TsFileValueIndex.getValueBounds(
+            FilterFactory.and(TimeFilter.gt(100L), ValueFilter.lt(5L)));
+    Assert.assertTrue(bounds[0] == Double.NEGATIVE_INFINITY && bounds[1] >= 5);
+    bounds =
+        TsFileValueIndex.getValueBounds(
+            FilterFactory.or(TimeFilter.gt(100L), ValueFilter.lt(5L)));
+    Assert.assertTrue(
+        bounds[0] == Double.NEGATIVE_INFINITY && bounds[1] == Double.POSITIVE_INFINITY);
+
+    // disjoint ranges can not be satisfied
+    bounds =
+        TsFileValueIndex.getValueBounds(FilterFactory.and(ValueFilter.gt(10), ValueFilter.lt(5)));
+    Assert.assertTrue(bounds[0] > bounds[1]);
+
+    bounds = TsFileValueIndex.getValueBounds(ValueFilter.not(ValueFilter.gt(10)));
+    Assert.assertTrue(
+        bounds[0] == Double.NEGATIVE_INFINITY && bounds[1] == Double.POSITIVE_INFINITY);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.engine.storagegroup.timeindex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+
+public class CompressedDeviceTimeIndexTest {
+
+  private static final String DEVICE_PREFIX = "root.compressedTimeIndexTest.d";
+
+  @Test
+  public void testLookup() throws IOException {
+    Random random = new Random(0);
+    DeviceTimeIndex deviceTimeIndex = new DeviceTimeIndex();
+    for (int i = 0; i < 500; i++) {
+      long startTime = 1_600_000_000_000L + random.nextInt(1_000_000);
+      deviceTimeIndex.updateStartTime(DEVICE_PREFIX + i, startTime);
+      deviceTimeIndex.updateEndTime(DEVICE_PREFIX + i, startTime + random.nextInt(100_000));
+    }
+    // extreme values must survive the offset encoding
+    deviceTimeIndex.updateStartTime(DEVICE_PREFIX + "min", Long.MIN_VALUE);
+    deviceTimeIndex.updateEndTime(DEVICE_PREFIX + "max", Long.MAX_VALUE);
+    deviceTimeIndex.close();
+
+    CompressedDeviceTimeIndex compressed = new CompressedDeviceTimeIndex(deviceTimeIndex, null);
+    assertSameIndex(deviceTimeIndex, compressed);
+    Assert.assertFalse(compressed.mayContainsDevice(DEVICE_PREFIX + "unknown"));
+    Assert.assertEquals(Long.MAX_VALUE, compressed.getStartTime(DEVICE_PREFIX + "unknown"));
+    Assert.assertTrue(compressed.calculateRamSize() < deviceTimeIndex.calculateRamSize());
+    // no .resource file to page in from
+    Assert.assertFalse(compressed.evict());
+
+    // serialized in the format of DeviceTimeIndex
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    compressed.serialize(outputStream);
+    ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+    DeviceTimeIndex deserialized = new DeviceTimeIndex().deserialize(buffer.duplicate());
+    assertSameIndex(deserialized, compressed);
+    assertSameIndex(deviceTimeIndex, new CompressedDeviceTimeIndex().deserialize(buffer));
+  }
+
+  @Test
+  public void testEmpty() {
+    DeviceTimeIndex deviceTimeIndex = new DeviceTimeIndex();
+    deviceTimeIndex.close();
+    CompressedDeviceTimeIndex compressed = new CompressedDeviceTimeIndex(deviceTimeIndex, null);
+    Assert.assertTrue(compressed.getDevices(null, null).isEmpty());
+    Assert.assertTrue(compressed.endTimeEmpty());
+    Assert.assertFalse(compressed.mayContainsDevice(DEVICE_PREFIX + 0));
+  }
+
+  @Test
+  public void testReleaseDevices() throws InterruptedException {
+    DeviceIdDictionary dictionary = DeviceIdDictionary.getInstance();
+    String device = DEVICE_PREFIX + "released";
+    DeviceTimeIndex deviceTimeIndex = new DeviceTimeIndex();
+    deviceTimeIndex.updateStartTime(device, 1);
+    deviceTimeIndex.updateEndTime(device, 2);
+    deviceTimeIndex.close();
+    CompressedDeviceTimeIndex compressed = new CompressedDeviceTimeIndex(deviceTimeIndex, null);
+    Assert.assertTrue(compressed.mayContainsDevice(device));
+    Assert.assertNotEquals(DeviceIdDictionary.UNKNOWN_DEVICE, dictionary.getCode(device));
+    Assert.assertTrue(dictionary.ramBytesUsed() > 0);
+
+    // the device is removed once the compressed index is collected
+    compressed = null;
+    int retries = 0;
+    while (dictionary.getCode(device) != DeviceIdDictionary.UNKNOWN_DEVICE && retries++ < 100) {
+      System.gc();
+      Thread.sleep(10);
+      dictionary.ramBytesUsed();
+    }
+    Assert.assertEquals(DeviceIdDictionary.UNKNOWN_DEVICE, dictionary.getCode(device));
+  }
+
+  private void assertSameIndex(DeviceTimeIndex expected, CompressedDeviceTimeIndex actual) {
+    Assert.assertEquals(
+        new HashSet<>(expected.getDevices(null, null)), actual.getDevices(null, null));
+    for (String device : expected.getDevices(null, null)) {
+      Assert.assertTrue(actual.mayContainsDevice(device));
+      Assert.assertEquals(expected.getStartTime(device), actual.getStartTime(device));
+      Assert.assertEquals(expected.getEndTime(device), actual.getEndTime(device));
+    }
+    Assert.assertEquals(expected.getMinStartTime(), actual.getMinStartTime());
+    Assert.assertEquals(expected.getMaxEndTime(), actual.getMaxEndTime());
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.plan.execution;
+
+import org.apache.iotdb.common.rpc.thrift.TConsensusGroupId;
+import org.apache.iotdb.common.rpc.thrift.TConsensusGroupType;
+import org.apache.iotdb.common.rpc.thrift.TRegionReplicaSet;
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.plan.analyze.QueryType;
+import org.apache.iotdb.db.mpp.plan.planner.plan.DistributedQueryPlan;
+import org.apache.iotdb.db.mpp.plan.planner.plan.FragmentInstance;
+import org.apache.iotdb.db.mpp.plan.planner.plan.PlanFragment;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.process.LimitNode;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.source.SeriesScanNode;
+import org.apache.iotdb.db.mpp.plan.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExplainAnalyzePrinterTest {
+
+  @Test
+  public void testPrintWithoutFragmentInstance() throws InterruptedException {
+    List<String> lines = ExplainAnalyzePrinter.print("test_query", null, 1_500_000L, 0);
+    assertEquals(2, lines.size());
+    assertEquals("Query: test_query, Elapsed: 1.500 ms, Output rows: 0", lines.get(0));
+    assertEquals("The query is finished without executing any fragment instance", lines.get(1));
+  }
+
+  @Test
+  public void testPrintInstanceNotInThisNode() throws IllegalPathException, InterruptedException {
+    SeriesScanNode seriesScanNode =
+        new SeriesScanNode(
+            new PlanNodeId("1"),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            OrderBy.TIMESTAMP_ASC);
+    seriesScanNode.setRegionReplicaSet(
+        new TRegionReplicaSet(
+            new TConsensusGroupId(TConsensusGroupType.DataRegion, 1), Collections.emptyList()));
+    LimitNode limitNode = new LimitNode(new PlanNodeId("2"), seriesScanNode, 10);
+
+    PlanFragmentId fragmentId = new PlanFragmentId("test_query", 0);
+    PlanFragment fragment = new PlanFragment(fragmentId, limitNode);
+    FragmentInstance instance =
+        new FragmentInstance(fragment, fragmentId.genFragmentInstanceId(), null, QueryType.READ);
+    instance.setProfiling(true);
+    DistributedQueryPlan distributedPlan =
+        new DistributedQueryPlan(
+            null,
+            null,
+            Collections.singletonList(fragment),
+            Collections.singletonList(instance));
+
+    List<String> lines = ExplainAnalyzePrinter.print("test_query", distributedPlan, 0, 10);
+    assertEquals("Query: test_query, Elapsed: 0.000 ms, Output rows: 10", lines.get(0));
+    assertEquals(
+        String.format("Fragment Instance: %s, Host: Not set", instance.getId()), lines.get(2));
+    assertEquals("  Statistics are not available in this node", lines.get(3));
+    String graph = String.join("\n", lines.subList(4, lines.size()));
+    assertTrue(graph.contains("Limit-2"));
+    assertTrue(graph.contains("SeriesScanNode-1"));
+  }
+}
@@ -63,6 +63,7 @@ import org.apache.iotdb.db.mpp.plan.planner.plan.parameter.AggregationDescriptor
 import org.apache.iotdb.db.mpp.plan.planner.plan.parameter.AggregationStep;
 import org.apache.iotdb.db.mpp.plan.planner.plan.parameter.GroupByLevelDescriptor;
 import org.apache.iotdb.db.mpp.plan.statement.component.OrderBy;
+import org.apache.iotdb.db.mpp.plan.statement.crud.QueryStatement;
 import org.apache.iotdb.db.query.aggregation.AggregationType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
@@ -79,6 +80,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class DistributionPlannerTest {
@@ -102,6 +104,39 @@ public class DistributionPlannerTest {
     assertEquals(2, plan.getInstances().size());
   }
 
+  @Test
+  public void testProfilingOnlyForExplainAnalyze() throws IllegalPathException {
+    QueryId queryId = new QueryId("test_query");
+    SeriesScanNode root =
+        new SeriesScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            OrderBy.TIMESTAMP_ASC);
+
+    Analysis analysis = constructAnalysis();
+    QueryStatement queryStatement = new QueryStatement();
+    analysis.setStatement(queryStatement);
+    MPPQueryContext context =
+        new MPPQueryContext("", queryId, null, new TEndPoint(), new TEndPoint());
+    DistributedQueryPlan plan =
+        new DistributionPlanner(analysis, new LogicalQueryPlan(context, root)).planFragments();
+    for (FragmentInstance instance : plan.getInstances()) {
+      assertFalse(instance.isProfiling());
+    }
+
+    queryStatement.setExplainAnalyze(true);
+    root =
+        new SeriesScanNode(
+            queryId.genPlanNodeId(),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            OrderBy.TIMESTAMP_ASC);
+    plan = new DistributionPlanner(analysis, new LogicalQueryPlan(context, root)).planFragments();
+    assertEquals(2, plan.getInstances().size());
+    for (FragmentInstance instance : plan.getInstances()) {
+      assertTrue(instance.isProfiling());
+    }
+  }
+
   @Test
   public void testSingleSeriesScanRewriteSource() throws IllegalPathException {
     QueryId queryId = new QueryId("test_query");
@@ -47,6 +47,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class FragmentInstanceSerdeTest {
 
@@ -79,6 +80,25 @@ public class FragmentInstanceSerdeTest {
     assertEquals(deserializeFragmentInstance, fragmentInstance);
   }
 
+  @Test
+  public void testSerializeAndDeserializeWithProfiling() throws IllegalPathException {
+    PlanFragmentId planFragmentId = new PlanFragmentId("test", -1);
+    FragmentInstance fragmentInstance =
+        new FragmentInstance(
+            new PlanFragment(planFragmentId, constructPlanNodeTree()),
+            planFragmentId.genFragmentInstanceId(),
+            null,
+            QueryType.READ);
+    fragmentInstance.setProfiling(true);
+
+    ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
+    fragmentInstance.serializeRequest(byteBuffer);
+    byteBuffer.flip();
+    FragmentInstance deserializeFragmentInstance = FragmentInstance.deserializeFrom(byteBuffer);
+    assertTrue(deserializeFragmentInstance.isProfiling());
+    assertEquals(deserializeFragmentInstance, fragmentInstance);
+  }
+
   @Test
   public void testSerializeAndDeserializeWithNullFilter() throws IllegalPathException {
     TDataNodeLocation dataNodeLocation = new TDataNodeLocation();
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.mpp.plan.plan;
+
+import org.apache.iotdb.common.rpc.thrift.TEndPoint;
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.engine.storagegroup.DataRegion;
+import org.apache.iotdb.db.metadata.path.MeasurementPath;
+import org.apache.iotdb.db.mpp.common.FragmentInstanceId;
+import org.apache.iotdb.db.mpp.common.PlanFragmentId;
+import org.apache.iotdb.db.mpp.common.QueryId;
+import org.apache.iotdb.db.mpp.execution.driver.DataDriver;
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceStateMachine;
+import org.apache.iotdb.db.mpp.execution.operator.Operator;
+import org.apache.iotdb.db.mpp.execution.operator.ProfiledOperator;
+import org.apache.iotdb.db.mpp.execution.operator.process.LimitOperator;
+import org.apache.iotdb.db.mpp.plan.analyze.TypeProvider;
+import org.apache.iotdb.db.mpp.plan.planner.LocalExecutionPlanner;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.process.LimitNode;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.sink.FragmentSinkNode;
+import org.apache.iotdb.db.mpp.plan.planner.plan.node.source.SeriesScanNode;
+import org.apache.iotdb.db.mpp.plan.statement.component.OrderBy;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.apache.iotdb.db.mpp.execution.fragment.FragmentInstanceContext.createFragmentInstanceContext;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LocalExecutionPlannerTest {
+
+  private ExecutorService instanceNotificationExecutor;
+
+  @Before
+  public void setUp() {
+    instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+  }
+
+  @After
+  public void tearDown() {
+    instanceNotificationExecutor.shutdown();
+  }
+
+  @Test
+  public void testOperatorsNotProfiledByDefault() throws IllegalPathException {
+    DataDriver driver = plan("not_profiled_query", false);
+    try {
+      Operator root = driver.getRoot();
+      assertFalse(root instanceof ProfiledOperator);
+      assertTrue(root instanceof LimitOperator);
+    } finally {
+      driver.getSinkHandle().abort();
+    }
+  }
+
+  @Test
+  public void testOperatorsProfiledForExplainAnalyze() throws IllegalPathException {
+    DataDriver driver = plan("profiled_query", true);
+    try {
+      Operator root = driver.getRoot();
+      assertTrue(root instanceof ProfiledOperator);
+      assertTrue(((ProfiledOperator) root).getOperator() instanceof LimitOperator);
+    } finally {
+      driver.getSinkHandle().abort();
+    }
+  }
+
+  private DataDriver plan(String queryId, boolean profiling) throws IllegalPathException {
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(new QueryId(queryId), 0), "stub-instance");
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext instanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    instanceContext.setProfiling(profiling);
+
+    SeriesScanNode seriesScanNode =
+        new SeriesScanNode(
+            new PlanNodeId("1"),
+            new MeasurementPath("root.sg.d1.s1", TSDataType.INT32),
+            OrderBy.TIMESTAMP_ASC);
+    LimitNode limitNode = new LimitNode(new PlanNodeId("2"), seriesScanNode, 10);
+    FragmentSinkNode sinkNode = new FragmentSinkNode(new PlanNodeId("3"));
+    sinkNode.setChild(limitNode);
+    sinkNode.setDownStream(
+        new TEndPoint("127.0.0.1", 8777),
+        new FragmentInstanceId(new PlanFragmentId(new QueryId(queryId), 1), "stub-downstream"),
+        new PlanNodeId("4"));
+
+    return LocalExecutionPlanner.getInstance()
+        .plan(sinkNode, new TypeProvider(), instanceContext, null, Mockito.mock(DataRegion.class));
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.qp.strategy;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParseTreeCacheTest {
+
+  @Test
+  public void testHitAndMiss() {
+    ParseTreeCache cache = new ParseTreeCache(1024 * 1024);
+    ParseTree tree = cache.parse("select s1 from root.sg.d1 where time > 10");
+    Assert.assertSame(tree, cache.parse("select s1 from root.sg.d1 where time > 10"));
+    // the cache is keyed by the complete SQL, so a different literal misses it
+    Assert.assertNotSame(tree, cache.parse("select s1 from root.sg.d1 where time > 20"));
+  }
+
+  @Test
+  public void testOnlyCacheQueries() {
+    ParseTreeCache cache = new ParseTreeCache(1024 * 1024);
+    String insert = "insert into root.sg.d1(time, s1) values(1, 1)";
+    Assert.assertNotSame(cache.parse(insert), cache.parse(insert));
+    String setTTL = "set ttl to root.sg 1000";
+    Assert.assertNotSame(cache.parse(setTTL), cache.parse(setTTL));
+  }
+
+  @Test
+  public void testDisabled() {
+    ParseTreeCache cache = new ParseTreeCache(0);
+    String sql = "select s1 from root.sg.d1";
+    Assert.assertNotSame(cache.parse(sql), cache.parse(sql));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.query.control;
+
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PreparedStatementTemplateTest {
+
+  @Test
+  public void testBind() throws QueryProcessException {
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate("select s1 from ? where time > ? and s2 = ?");
+    Assert.assertEquals(3, template.getParameterCount());
+    Assert.assertEquals(
+        "select s1 from root.sg.d1 where time > 1000 and s2 = 'a'",
+        template.bind(Arrays.asList("root.sg.d1", "1000", "'a'")).getSql());
+  }
+
+  @Test
+  public void testQuotedQuestionMark() throws QueryProcessException {
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate(
+            "select `s?` from root.sg.d1 where s1 = '?' and s2 = \"\\\"?\" and time > ?");
+    Assert.assertEquals(1, template.getParameterCount());
+    Assert.assertEquals(
+        "select `s?` from root.sg.d1 where s1 = '?' and s2 = \"\\\"?\" and time > 10",
+        template.bind(Collections.singletonList("10")).getSql());
+  }
+
+  @Test
+  public void testNoParameter() throws QueryProcessException {
+    PreparedStatementTemplate template = new PreparedStatementTemplate("select * from root.**");
+    Assert.assertEquals(0, template.getParameterCount());
+    Assert.assertEquals("select * from root.**", template.bind(Collections.emptyList()).getSql());
+  }
+
+  @Test
+  public void testValidParameters() throws QueryProcessException {
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate("select s1 from ? where s1 = ?");
+    for (String value :
+        Arrays.asList(
+            "10",
+            "-1.5",
+            "+.5",
+            "1.",
+            "1e10",
+            "'a b'",
+            "\"a\"",
+            "true",
+            "null",
+            "1d",
+            "2022-01-01T00:00:00")) {
+      Assert.assertEquals(
+          "select s1 from root.sg.d1 where s1 = " + value,
+          template.bind(Arrays.asList("root.sg.d1", " " + value + " ")).getSql());
+    }
+    Assert.assertEquals(
+        "select s1 from root.sg.`d 1` where s1 = 1",
+        template.bind(Arrays.asList("root.sg.`d 1`", "1")).getSql());
+  }
+
+  @Test
+  public void testInvalidParameters() throws QueryProcessException {
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate("select s1 from root.sg.d1 where time > ?");
+    for (String parameter :
+        Arrays.asList(
+            "",
+            "1 or time > 0",
+            "root.**",
+            "root.sg.*",
+            "s1, s2",
+            "1 1",
+            "- -1",
+            "-root.sg",
+            "'a",
+            "1; delete timeseries root.**")) {
+      try {
+        template.bind(Collections.singletonList(parameter));
+        Assert.fail(parameter);
+      } catch (QueryProcessException e) {
+        Assert.assertTrue(e.getMessage().contains("is not a literal or a path"));
+      }
+    }
+  }
+
+  @Test(expected = QueryProcessException.class)
+  public void testWrongParameterCount() throws QueryProcessException {
+    new PreparedStatementTemplate("select s1 from root.sg.d1 where time > ?")
+        .bind(Arrays.asList("1", "2"));
+  }
+
+  @Test
+  public void testRebindParseTree() throws QueryProcessException {
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate("select s1 from ? where time > ? and s1 = ?");
+    List<ParseTree> trees = new ArrayList<>();
+    Assert.assertEquals(
+        "selects1fromroot.sg.d1wheretime>1ands1='a'<EOF>",
+        generate(template, trees, "root.sg.d1", "1", "'a'"));
+    Assert.assertEquals(
+        "selects1fromroot.sg.d2wheretime>100ands1='b'<EOF>",
+        generate(template, trees, "root.sg.d2", "100", "'b'"));
+    // the parameters of the same token types are bound into the same parse tree
+    Assert.assertSame(trees.get(0), trees.get(1));
+
+    Assert.assertEquals(
+        "selects1fromroot.sg.d1wheretime>1.5ands1=true<EOF>",
+        generate(template, trees, "root.sg.d1", "1.5", "true"));
+    Assert.assertNotSame(trees.get(0), trees.get(2));
+    Assert.assertEquals(
+        "selects1fromroot.sg.d3wheretime>2ands1='c'<EOF>",
+        generate(template, trees, "root.sg.d3", "2", "'c'"));
+    Assert.assertSame(trees.get(0), trees.get(3));
+  }
+
+  @Test
+  public void testParameterMergedWithSql() throws QueryProcessException {
+    // the parameter is lexed together with the "d" before it, so the tree cannot be rebound
+    PreparedStatementTemplate template =
+        new PreparedStatementTemplate("select s1 from root.sg.d? where time > 0");
+    List<ParseTree> trees = new ArrayList<>();
+    Assert.assertEquals("selects1fromroot.sg.d1wheretime>0<EOF>", generate(template, trees, "1"));
+    Assert.assertEquals("selects1fromroot.sg.d2wheretime>0<EOF>", generate(template, trees, "2"));
+  }
+
+  private static String generate(
+      PreparedStatementTemplate template, List<ParseTree> trees, String... parameters)
+      throws QueryProcessException {
+    return template
+        .bind(Arrays.asList(parameters))
+        .generate(
+            tree -> {
+              trees.add(tree);
+              return tree.getText();
+            });
+  }
+
+  @Test
+  public void testPrepareNonQuery() {
+    for (String sql :
+        Arrays.asList(
+            "insert into root.sg.d1(time, s1) values(?, ?)",
+            "delete from root.sg.d1.s1 where time < ?",
+            "select s1 into root.sg.d2.s1 from root.sg.d1 where time > ?",
+            "select s1 from root.sg.d1 where s1 = 'a",
+            "")) {
+      try {
+        new PreparedStatementTemplate(sql);
+        Assert.fail(sql);
+      } catch (QueryProcessException e) {
+        // expected
+      }
+    }
+  }
+}
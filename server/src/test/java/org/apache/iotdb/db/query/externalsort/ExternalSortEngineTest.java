@@ -21,6 +21,8 @@ package org.apache.iotdb.db.query.externalsort;
 
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.mpp.execution.memory.LocalMemoryManager;
+import org.apache.iotdb.db.mpp.execution.memory.MemoryPool;
 import org.apache.iotdb.db.query.control.QueryResourceManager;
 import org.apache.iotdb.db.query.reader.chunk.ChunkReaderWrap;
 import org.apache.iotdb.db.query.reader.universal.FakedSeriesReader;
@@ -101,6 +103,27 @@ public class ExternalSortEngineTest {
     reader2.close();
   }
 
+  @Test
+  public void testMergeOverlappedTimestamps() throws IOException {
+    // the readers of genSimple() overlap at 1, 4, 5, 6 and 7
+    IPointReader merged = new LineMerger(queryId, baseDir + "lineMergerTest").merge(genSimple());
+    PriorityMergeReader expected = new PriorityMergeReader(genSimple(), 1);
+    check(merged, expected);
+    expected.close();
+  }
+
+  @Test
+  public void testSpillBufferReservedFromQueryPool() throws IOException, StorageEngineException {
+    MemoryPool pool = LocalMemoryManager.getInstance().getQueryPool();
+    String id = Long.toString(queryId);
+    long reserved = pool.getQueryMemoryReservedBytes(id);
+    new LineMerger(queryId, baseDir + "lineMergerMemoryTest").merge(genSimple());
+    // the read buffer of the spill file is held until the query ends
+    Assert.assertTrue(pool.getQueryMemoryReservedBytes(id) > reserved);
+    QueryResourceManager.getInstance().endQuery(queryId);
+    Assert.assertEquals(0, pool.getQueryMemoryReservedBytes(id));
+  }
+
   public void efficiencyTest() throws IOException {
     engine.setMinExternalSortSourceCount(50);
     int lineCount = 100000;
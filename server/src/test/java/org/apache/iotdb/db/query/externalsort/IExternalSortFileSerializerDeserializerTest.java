@@ -21,6 +21,8 @@ package org.apache.iotdb.db.query.externalsort;
 import org.apache.iotdb.db.constant.TestConstant;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileDeserializer;
 import org.apache.iotdb.db.query.externalsort.serialize.IExternalSortFileSerializer;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.ColumnarExternalSortFileDeserializer;
+import org.apache.iotdb.db.query.externalsort.serialize.impl.ColumnarTimeValuePairSerializer;
 import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthIExternalSortFileDeserializer;
 import org.apache.iotdb.db.query.externalsort.serialize.impl.FixLengthTimeValuePairSerializer;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -40,9 +42,13 @@ public class IExternalSortFileSerializerDeserializerTest {
 
   private enum Type {
     SIMPLE,
-    FIX_LENGTH
+    FIX_LENGTH,
+    COLUMNAR
   }
 
+  /** a tiny buffer so that the runs and values are split across several buffer flushes */
+  private static final int COLUMNAR_BUFFER_SIZE = 100;
+
   @Test
   public void testFIX_LENGTH() throws IOException {
     String rootPath = TestConstant.BASE_OUTPUT_PATH.concat("tmpFile2");
@@ -62,12 +68,33 @@ public class IExternalSortFileSerializerDeserializerTest {
         genTimeValuePairs(count, TSDataType.TEXT), count, rootPath, filePath, Type.FIX_LENGTH);
   }
 
+  @Test
+  public void testCOLUMNAR() throws IOException {
+    String rootPath = TestConstant.BASE_OUTPUT_PATH.concat("tmpFile3");
+    String filePath = rootPath;
+    int count = 10000;
+    for (TSDataType dataType :
+        new TSDataType[] {
+          TSDataType.BOOLEAN,
+          TSDataType.INT32,
+          TSDataType.INT64,
+          TSDataType.FLOAT,
+          TSDataType.DOUBLE,
+          TSDataType.TEXT
+        }) {
+      testReadWrite(genTimeValuePairs(count, dataType), count, rootPath, filePath, Type.COLUMNAR);
+    }
+    testReadWrite(new TimeValuePair[0], 0, rootPath, filePath, Type.COLUMNAR);
+  }
+
   private void testReadWrite(
       TimeValuePair[] timeValuePairs, int count, String rootPath, String filePath, Type type)
       throws IOException {
     IExternalSortFileSerializer serializer;
     if (type == Type.FIX_LENGTH) {
       serializer = new FixLengthTimeValuePairSerializer(filePath);
+    } else if (type == Type.COLUMNAR) {
+      serializer = new ColumnarTimeValuePairSerializer(filePath, COLUMNAR_BUFFER_SIZE);
     } else {
       throw new IOException("Unsupported serializer type " + type);
     }
@@ -80,6 +107,8 @@ public class IExternalSortFileSerializerDeserializerTest {
     IExternalSortFileDeserializer deserializer;
     if (type == Type.FIX_LENGTH) {
       deserializer = new FixLengthIExternalSortFileDeserializer(filePath);
+    } else if (type == Type.COLUMNAR) {
+      deserializer = new ColumnarExternalSortFileDeserializer(filePath, COLUMNAR_BUFFER_SIZE);
     } else {
       throw new IOException("Unsupported deserializer type " + type);
     }
@@ -28,6 +28,9 @@ import org.apache.iotdb.db.engine.cache.ChunkCache;
 import org.apache.iotdb.db.engine.cache.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
 import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
+import org.apache.iotdb.db.engine.storagegroup.timeindex.CompressedDeviceTimeIndex;
+import org.apache.iotdb.db.engine.storagegroup.timeindex.DeviceIdDictionary;
+import org.apache.iotdb.db.engine.storagegroup.timeindex.DeviceTimeIndex;
 import org.apache.iotdb.db.engine.storagegroup.timeindex.TimeIndexLevel;
 import org.apache.iotdb.db.exception.StorageEngineException;
 import org.apache.iotdb.db.query.control.FileReaderManager;
@@ -56,6 +59,8 @@ import java.util.List;
 
 import static org.apache.iotdb.commons.conf.IoTDBConstant.PATH_SEPARATOR;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ResourceManagerTest {
 
@@ -397,4 +402,116 @@ public class ResourceManagerTest {
       throw e;
     }
   }
+
+  @Test
+  public void testDegradeToCompressedTimeIndex() throws IOException, WriteProcessException {
+    boolean enableCompressedDeviceTimeIndex = CONFIG.isEnableCompressedDeviceTimeIndex();
+    CONFIG.setEnableCompressedDeviceTimeIndex(true);
+    try {
+      File file =
+          new File(
+              TestConstant.BASE_OUTPUT_PATH.concat(
+                  0
+                      + IoTDBConstant.FILE_NAME_SEPARATOR
+                      + 0
+                      + IoTDBConstant.FILE_NAME_SEPARATOR
+                      + 0
+                      + IoTDBConstant.FILE_NAME_SEPARATOR
+                      + 0
+                      + ".tsfile"));
+      TsFileResource tsFileResource = new TsFileResource(file);
+      tsFileResource.setStatus(TsFileResourceStatus.CLOSED);
+      tsFileResource.updatePlanIndexes((long) 0);
+      seqResources.add(tsFileResource);
+      prepareFile(tsFileResource, 0, ptNum, 0);
+      tsFileResource.serialize();
+      long previousRamSize = tsFileResource.calculateRamSize();
+
+      // compress
+      long reducedMemory = tsFileResource.degradeTimeIndex();
+      assertTrue(reducedMemory > 0);
+      assertEquals(previousRamSize - tsFileResource.calculateRamSize(), reducedMemory);
+      assertDeviceTimes(tsFileResource, 0);
+
+      // evict, the device times are paged in from the .resource file
+      previousRamSize = tsFileResource.getRamSize();
+      reducedMemory = tsFileResource.degradeTimeIndex();
+      assertTrue(reducedMemory > 0);
+      assertEquals(previousRamSize - tsFileResource.calculateRamSize(), reducedMemory);
+      assertDeviceTimes(tsFileResource, 0);
+
+      // degrade to FileTimeIndex at last
+      tsFileResource.degradeTimeIndex();
+      assertEquals(
+          TimeIndexLevel.FILE_TIME_INDEX,
+          TimeIndexLevel.valueOf(tsFileResource.getTimeIndexType()));
+    } finally {
+      CONFIG.setEnableCompressedDeviceTimeIndex(enableCompressedDeviceTimeIndex);
+    }
+  }
+
+  @Test
+  public void testTwoResourceToCompress() throws IOException, WriteProcessException {
+    boolean enableCompressedDeviceTimeIndex = CONFIG.isEnableCompressedDeviceTimeIndex();
+    CONFIG.setEnableCompressedDeviceTimeIndex(true);
+    try {
+      List<Long> ramSizes = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        File file =
+            new File(
+                TestConstant.BASE_OUTPUT_PATH.concat(
+                    i
+                        + IoTDBConstant.FILE_NAME_SEPARATOR
+                        + i
+                        + IoTDBConstant.FILE_NAME_SEPARATOR
+                        + 0
+                        + IoTDBConstant.FILE_NAME_SEPARATOR
+                        + 0
+                        + ".tsfile"));
+        TsFileResource tsFileResource = new TsFileResource(file);
+        tsFileResource.setStatus(TsFileResourceStatus.CLOSED);
+        tsFileResource.updatePlanIndexes((long) i);
+        seqResources.add(tsFileResource);
+        prepareFile(tsFileResource, i * ptNum, ptNum, 0);
+        tsFileResource.serialize();
+        ramSizes.add(tsFileResource.calculateRamSize());
+      }
+      // the devices are put into the dictionary beforehand, which is charged as well
+      DeviceTimeIndex deviceTimeIndex = new DeviceTimeIndex();
+      for (String deviceId : deviceIds) {
+        deviceTimeIndex.updateStartTime(deviceId, 0);
+        deviceTimeIndex.updateEndTime(deviceId, 0);
+      }
+      deviceTimeIndex.close();
+      CompressedDeviceTimeIndex dictionaryHolder =
+          new CompressedDeviceTimeIndex(deviceTimeIndex, null);
+      // room for one uncompressed index only
+      tsFileResourceManager.setTimeIndexMemoryThreshold(
+          ramSizes.get(0) + ramSizes.get(1) - 1 + DeviceIdDictionary.getInstance().ramBytesUsed());
+      tsFileResourceManager.registerSealedTsFileResource(seqResources.get(0));
+      tsFileResourceManager.registerSealedTsFileResource(seqResources.get(1));
+      // the older file is compressed instead of degraded to FileTimeIndex
+      assertTrue(seqResources.get(0).getRamSize() < ramSizes.get(0));
+      assertEquals(ramSizes.get(1).longValue(), seqResources.get(1).getRamSize());
+      for (int i = 0; i < 2; i++) {
+        assertEquals(
+            TimeIndexLevel.DEVICE_TIME_INDEX,
+            TimeIndexLevel.valueOf(seqResources.get(i).getTimeIndexType()));
+        assertDeviceTimes(seqResources.get(i), i * ptNum);
+      }
+      assertTrue(dictionaryHolder.mayContainsDevice(deviceIds[0]));
+    } finally {
+      CONFIG.setEnableCompressedDeviceTimeIndex(enableCompressedDeviceTimeIndex);
+    }
+  }
+
+  private void assertDeviceTimes(TsFileResource tsFileResource, long timeOffset) {
+    assertEquals(deviceNum, tsFileResource.getDevices().size());
+    for (String deviceId : deviceIds) {
+      assertTrue(tsFileResource.mayContainsDevice(deviceId));
+      assertEquals(timeOffset, tsFileResource.getStartTime(deviceId));
+      assertEquals(timeOffset + ptNum - 1, tsFileResource.getEndTime(deviceId));
+    }
+    assertFalse(tsFileResource.mayContainsDevice(RESOURCE_MANAGER_TEST_SG + ".unknown"));
+  }
 }
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.tools;
+
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResource;
+import org.apache.iotdb.db.engine.storagegroup.TsFileResourceStatus;
+import org.apache.iotdb.db.service.IoTDB;
+import org.apache.iotdb.db.utils.EnvironmentUtils;
+import org.apache.iotdb.tsfile.file.metadata.AlignedChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.TsFileDeviceIterator;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.Pair;
+import org.apache.iotdb.tsfile.write.TsFileWriter;
+import org.apache.iotdb.tsfile.write.record.TSRecord;
+import org.apache.iotdb.tsfile.write.record.datapoint.LongDataPoint;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TsFileDataRegionSplitToolTest {
+
+  private final String folder = "target" + File.separator + "regionSplit";
+  private final String SG0 = "root.sg_0";
+  private final String SG1 = "root.sg_1";
+  private final String DEVICE0 = SG0 + ".d0";
+  private final String ALIGNED_DEVICE0 = SG0 + ".aligned_d0";
+  private final String DEVICE1 = SG1 + ".d1";
+  private final String ALIGNED_DEVICE1 = SG1 + ".aligned_d1";
+  private final List<String> devices =
+      Arrays.asList(DEVICE0, ALIGNED_DEVICE0, DEVICE1, ALIGNED_DEVICE1);
+  private final List<MeasurementSchema> schemas =
+      Arrays.asList(
+          new MeasurementSchema("s0", TSDataType.INT64),
+          new MeasurementSchema("s1", TSDataType.INT64));
+  private final int ptNum = 100;
+
+  private TsFileResource tsFileResource;
+
+  @Before
+  public void setUp() throws Exception {
+    EnvironmentUtils.envSetUp();
+    IoTDB.schemaProcessor.setStorageGroup(new PartialPath(SG0));
+    IoTDB.schemaProcessor.setStorageGroup(new PartialPath(SG1));
+
+    File file = new File(folder + File.separator + "1-1-0-0.tsfile");
+    Assert.assertTrue(file.getParentFile().mkdirs());
+    tsFileResource = new TsFileResource(file);
+    try (TsFileWriter writer = new TsFileWriter(file)) {
+      writer.registerTimeseries(new Path(DEVICE0), schemas);
+      writer.registerAlignedTimeseries(new Path(ALIGNED_DEVICE0), schemas);
+      writer.registerTimeseries(new Path(DEVICE1), schemas);
+      writer.registerAlignedTimeseries(new Path(ALIGNED_DEVICE1), schemas);
+      for (long time = 0; time < ptNum; time++) {
+        for (String device : devices) {
+          TSRecord record = new TSRecord(time, device);
+          for (MeasurementSchema schema : schemas) {
+            record.addTuple(new LongDataPoint(schema.getMeasurementId(), time));
+          }
+          if (device.contains("aligned")) {
+            writer.writeAligned(record);
+          } else {
+            writer.write(record);
+          }
+          tsFileResource.updateStartTime(device, time);
+          tsFileResource.updateEndTime(device, time);
+        }
+        // several chunks for each series
+        if ((time + 1) % 30 == 0) {
+          writer.flushAllChunkGroups();
+        }
+      }
+    }
+    tsFileResource.setStatus(TsFileResourceStatus.CLOSED);
+    tsFileResource.serialize();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(new File(folder));
+    EnvironmentUtils.cleanEnv();
+  }
+
+  @Test
+  public void testSplitByStorageGroup() throws Exception {
+    Assert.assertTrue(TsFileDataRegionSplitTool.isSpanMultiDataRegions(tsFileResource));
+
+    List<TsFileResource> splitResources = new ArrayList<>();
+    TsFileDataRegionSplitTool.splitTsFile(tsFileResource, splitResources);
+    Assert.assertEquals(2, splitResources.size());
+    Assert.assertTrue(tsFileResource.getTsFile().exists());
+
+    Map<String, Boolean> deviceIsAligned = new HashMap<>();
+    for (TsFileResource splitResource : splitResources) {
+      Assert.assertFalse(TsFileDataRegionSplitTool.isSpanMultiDataRegions(splitResource));
+      try (TsFileSequenceReader reader =
+          new TsFileSequenceReader(splitResource.getTsFile().getAbsolutePath())) {
+        TsFileDeviceIterator deviceIterator = reader.getAllDevicesIteratorWithIsAligned();
+        while (deviceIterator.hasNext()) {
+          Pair<String, Boolean> deviceInfo = deviceIterator.next();
+          String device = deviceInfo.left;
+          deviceIsAligned.put(device, deviceInfo.right);
+          Assert.assertEquals(0, splitResource.getStartTime(device));
+          Assert.assertEquals(ptNum - 1, splitResource.getEndTime(device));
+          if (deviceInfo.right) {
+            for (MeasurementSchema schema : schemas) {
+              long points = 0;
+              for (AlignedChunkMetadata chunkMetadata : reader.getAlignedChunkMetadata(device)) {
+                for (IChunkMetadata valueChunkMetadata :
+                    chunkMetadata.getValueChunkMetadataList()) {
+                  if (valueChunkMetadata.getMeasurementUid().equals(schema.getMeasurementId())) {
+                    points += valueChunkMetadata.getStatistics().getCount();
+                  }
+                }
+              }
+              Assert.assertEquals(ptNum, points);
+            }
+          } else {
+            Map<String, List<ChunkMetadata>> chunkMetadataMap =
+                reader.readChunkMetadataInDevice(device);
+            Assert.assertEquals(schemas.size(), chunkMetadataMap.size());
+            for (List<ChunkMetadata> chunkMetadataList : chunkMetadataMap.values()) {
+              long points = 0;
+              for (ChunkMetadata chunkMetadata : chunkMetadataList) {
+                points += chunkMetadata.getStatistics().getCount();
+              }
+              Assert.assertEquals(ptNum, points);
+            }
+          }
+        }
+      }
+    }
+
+    Assert.assertEquals(devices.size(), deviceIsAligned.size());
+    Assert.assertFalse(deviceIsAligned.get(DEVICE0));
+    Assert.assertTrue(deviceIsAligned.get(ALIGNED_DEVICE0));
+    Assert.assertFalse(deviceIsAligned.get(DEVICE1));
+    Assert.assertTrue(deviceIsAligned.get(ALIGNED_DEVICE1));
+  }
+}
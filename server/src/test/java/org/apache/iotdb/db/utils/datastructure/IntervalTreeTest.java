@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class IntervalTreeTest {
+
+  @Test
+  public void testQuery() {
+    IntervalTree<Integer> tree = new IntervalTree<>();
+    tree.insert(0, 10, 0);
+    tree.insert(5, 15, 1);
+    tree.insert(20, 30, 2);
+    tree.insert(20, 20, 3);
+    Assert.assertEquals(4, tree.size());
+
+    Assert.assertEquals(Collections.singletonList(0), tree.query(-5, 4));
+    Assert.assertEquals(Arrays.asList(0, 1), tree.query(10, 10));
+    Assert.assertEquals(Collections.emptyList(), tree.query(16, 19));
+    Assert.assertEquals(Arrays.asList(2, 3), tree.query(20, 20));
+    Assert.assertEquals(Collections.singletonList(2), tree.query(25, 100));
+    Assert.assertEquals(4, tree.query(Long.MIN_VALUE, Long.MAX_VALUE).size());
+    Assert.assertTrue(tree.query(10, 0).isEmpty());
+  }
+
+  @Test
+  public void testRemove() {
+    IntervalTree<Integer> tree = new IntervalTree<>();
+    IntervalTree.Node<Integer> node0 = tree.insert(0, 10, 0);
+    IntervalTree.Node<Integer> node1 = tree.insert(0, 10, 1);
+    Assert.assertTrue(tree.remove(node0));
+    Assert.assertFalse(tree.remove(node0));
+    Assert.assertEquals(Collections.singletonList(1), tree.query(5, 5));
+    Assert.assertTrue(tree.remove(node1));
+    Assert.assertTrue(tree.isEmpty());
+    Assert.assertTrue(tree.query(5, 5).isEmpty());
+  }
+
+  @Test
+  public void testRandom() {
+    Random random = new Random(0);
+    IntervalTree<Integer> tree = new IntervalTree<>();
+    List<IntervalTree.Node<Integer>> nodes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      long start = random.nextInt(10000);
+      nodes.add(tree.insert(start, start + random.nextInt(200), i));
+    }
+    for (int i = 0; i < 500; i++) {
+      tree.remove(nodes.remove(random.nextInt(nodes.size())));
+    }
+    Assert.assertEquals(nodes.size(), tree.size());
+
+    for (int i = 0; i < 200; i++) {
+      long lo = random.nextInt(10000);
+      long hi = lo + random.nextInt(100);
+      List<Integer> expected = new ArrayList<>();
+      for (IntervalTree.Node<Integer> node : nodes) {
+        if (node.getStart() <= hi && node.getEnd() >= lo) {
+          expected.add(node.getValue());
+        }
+      }
+      List<Integer> actual = tree.query(lo, hi);
+      Collections.sort(expected);
+      Collections.sort(actual);
+      Assert.assertEquals(expected, actual);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class LoserTreeTest {
+
+  @Test
+  public void testPollInOrder() {
+    LoserTree<Integer> tree = new LoserTree<>(Comparator.naturalOrder());
+    Assert.assertNull(tree.peek());
+    Assert.assertNull(tree.poll());
+    int[] values = {5, 3, 9, 1, 7, 3, 8, 2, 6};
+    for (int value : values) {
+      tree.add(value);
+    }
+    Assert.assertEquals(values.length, tree.size());
+    int[] expected = {1, 2, 3, 3, 5, 6, 7, 8, 9};
+    for (int value : expected) {
+      Assert.assertEquals(value, (int) tree.peek());
+      Assert.assertEquals(value, (int) tree.poll());
+    }
+    Assert.assertTrue(tree.isEmpty());
+  }
+
+  @Test
+  public void testGrowAndShrink() {
+    Random random = new Random(0);
+    LoserTree<Integer> tree = new LoserTree<>(Comparator.naturalOrder());
+    PriorityQueue<Integer> heap = new PriorityQueue<>();
+    for (int round = 0; round < 5; round++) {
+      // a batch of additions, then drain most of them so the tree shrinks
+      for (int i = 0; i < 1000; i++) {
+        int value = random.nextInt(10000);
+        tree.add(value);
+        heap.add(value);
+      }
+      while (heap.size() > 3) {
+        Assert.assertEquals(heap.poll(), tree.poll());
+        // additions between polls
+        if (random.nextInt(100) == 0) {
+          int value = random.nextInt(10000);
+          tree.add(value);
+          heap.add(value);
+        }
+      }
+      Assert.assertEquals(heap.size(), tree.size());
+      Assert.assertEquals(heap.peek(), tree.peek());
+    }
+    while (!heap.isEmpty()) {
+      Assert.assertEquals(heap.poll(), tree.poll());
+    }
+    Assert.assertTrue(tree.isEmpty());
+  }
+
+  @Test
+  public void testMergeSources() {
+    Random random = new Random(0);
+    Comparator<long[]> comparator = Comparator.comparingLong(cursor -> cursor[0]);
+    LoserTree<long[]> tree = new LoserTree<>(comparator);
+    PriorityQueue<long[]> heap = new PriorityQueue<>(comparator);
+    // each source is a cursor of {current value, step, remaining}
+    for (int i = 0; i < 20; i++) {
+      long[] cursor = {random.nextInt(1000), 1 + random.nextInt(10), random.nextInt(100)};
+      tree.add(cursor);
+      heap.add(cursor.clone());
+    }
+    while (!heap.isEmpty()) {
+      long[] expected = heap.poll();
+      long[] actual = tree.peek();
+      Assert.assertEquals(expected[0], actual[0]);
+      if (expected[2] > 0) {
+        heap.add(new long[] {expected[0] + expected[1], expected[1], expected[2] - 1});
+      }
+      if (actual[2] > 0) {
+        // advance the winner in place
+        actual[0] += actual[1];
+        actual[2]--;
+        tree.updateTop();
+      } else {
+        tree.poll();
+      }
+      // sources may join in the middle of the merge
+      if (random.nextInt(50) == 0) {
+        long[] cursor = {actual[0] + random.nextInt(100), 1, random.nextInt(10)};
+        tree.add(cursor);
+        heap.add(cursor.clone());
+      }
+    }
+    Assert.assertTrue(tree.isEmpty());
+    tree.clear();
+    tree.add(new long[] {1, 1, 0});
+    Assert.assertEquals(1, tree.size());
+  }
+}
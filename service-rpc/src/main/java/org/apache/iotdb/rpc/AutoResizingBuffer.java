@@ -45,6 +45,7 @@ class AutoResizingBuffer {
   public AutoResizingBuffer(int initialCapacity) {
     this.array = new byte[initialCapacity];
     this.initialCapacity = initialCapacity;
+    recordAllocation(initialCapacity);
   }
 
   public void resizeIfNecessary(int size) {
@@ -55,6 +56,7 @@ class AutoResizingBuffer {
       int growCapacity = currentCapacity + (currentCapacity >> 1);
       int newCapacity = Math.max(growCapacity, size);
       this.array = Arrays.copyOf(array, newCapacity);
+      recordAllocation(newCapacity);
       bufTooLargeCounter = RpcUtils.MAX_BUFFER_OVERSIZE_TIME;
       logger.debug(
           "{} expand from {} to {}, request: {}", this, currentCapacity, newCapacity, size);
@@ -64,12 +66,18 @@ class AutoResizingBuffer {
         && System.currentTimeMillis() - lastShrinkTime > RpcUtils.MIN_SHRINK_INTERVAL) {
       // do not resize if it is reading the request size and do not shrink too often
       array = Arrays.copyOf(array, size + (currentCapacity - size) / 2);
+      recordAllocation(array.length);
       bufTooLargeCounter = RpcUtils.MAX_BUFFER_OVERSIZE_TIME;
       lastShrinkTime = System.currentTimeMillis();
       logger.debug("{} shrink from {} to {}", this, currentCapacity, size);
     }
   }
 
+  private static void recordAllocation(int capacity) {
+    RpcStat.bufferAllocations.incrementAndGet();
+    RpcStat.bufferAllocatedBytes.addAndGet(capacity);
+  }
+
   public byte[] array() {
     return this.array;
   }
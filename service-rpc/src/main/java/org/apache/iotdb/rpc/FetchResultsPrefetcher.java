@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.rpc;
+
+import org.apache.iotdb.service.rpc.thrift.TSFetchResultsReq;
+import org.apache.iotdb.service.rpc.thrift.TSFetchResultsResp;
+import org.apache.iotdb.service.rpc.thrift.TSIService;
+import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
+import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+
+import org.apache.thrift.TException;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches the next page of a query in the background, so that the client consumes the current page
+ * while the next one is transferred. The client should be synchronized by {@link
+ * RpcUtils#newSynchronizedClient}, as the fetch runs concurrently with the other requests of the
+ * connection. As the buffers of a response may share the buffer of the transport, which is
+ * overwritten by the next response, the pages are copied before they are handed out.
+ */
+public class FetchResultsPrefetcher {
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+  private static final ExecutorService PREFETCH_EXECUTOR =
+      Executors.newCachedThreadPool(
+          r -> {
+            Thread thread = new Thread(r, "ResultPrefetcher-" + THREAD_COUNT.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private Future<TSFetchResultsResp> nextResults;
+
+  public void prefetch(TSIService.Iface client, TSFetchResultsReq req) {
+    nextResults =
+        PREFETCH_EXECUTOR.submit(
+            () -> {
+              TSFetchResultsResp resp = client.fetchResults(req);
+              if (resp.isSetQueryDataSet()) {
+                deepCopy(resp.getQueryDataSet());
+              }
+              return resp;
+            });
+  }
+
+  /** detach the buffers of the data set from the buffer of the transport */
+  public static void deepCopy(TSQueryDataSet tsQueryDataSet) {
+    tsQueryDataSet.setTime(ReadWriteIOUtils.clone(tsQueryDataSet.time));
+    tsQueryDataSet.setValueList(copy(tsQueryDataSet.valueList));
+    tsQueryDataSet.setBitmapList(copy(tsQueryDataSet.bitmapList));
+  }
+
+  private static List<ByteBuffer> copy(List<ByteBuffer> buffers) {
+    return buffers.stream().map(ReadWriteIOUtils::clone).collect(Collectors.toList());
+  }
+
+  public boolean hasPrefetched() {
+    return nextResults != null;
+  }
+
+  /** @return the prefetched page, waiting for it if it is still being transferred */
+  public TSFetchResultsResp take() throws TException {
+    Future<TSFetchResultsResp> results = nextResults;
+    nextResults = null;
+    try {
+      return results.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TException("Interrupted when waiting for the prefetched results", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof TException) {
+        throw (TException) e.getCause();
+      }
+      throw new TException(e.getCause());
+    }
+  }
+
+  /**
+   * drop the page if it is still being fetched or its fetch failed, e.g., when the client is
+   * replaced after a reconnection, while a fetched page is kept
+   */
+  public void dropUnfinished() {
+    if (nextResults == null) {
+      return;
+    }
+    if (nextResults.isDone() && !nextResults.isCancelled()) {
+      try {
+        nextResults.get();
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // the fetch failed, drop it so that the page is fetched again
+      }
+    }
+    cancel();
+  }
+
+  /** drop the prefetched page, the fetch is not sent if it has not started */
+  public void cancel() {
+    if (nextResults != null) {
+      nextResults.cancel(false);
+      nextResults = null;
+    }
+  }
+}
@@ -78,6 +78,11 @@ public class IoTDBJDBCDataSet {
   public static final int FLAG =
       0x80; // used to do `and` operation with bitmap to judge whether the value is null
 
+  // not null once prefetch is enabled, it keeps the pending page after prefetch is disabled
+  private FetchResultsPrefetcher prefetcher;
+  // whether the next page is prefetched after the current one is fetched
+  private boolean prefetch;
+
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public IoTDBJDBCDataSet(
       String sql,
@@ -286,10 +291,55 @@ public class IoTDBJDBCDataSet {
     this.emptyResultSet = (queryDataSet == null || !queryDataSet.time.hasRemaining());
   }
 
+  /**
+   * Fetch the next page in the background while the current page is consumed. The client should be
+   * synchronized, as the fetch may run concurrently with the other requests of the connection.
+   */
+  public void setPrefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+    if (!prefetch) {
+      // a page that is already prefetched or being prefetched is still returned by the next fetch
+      return;
+    }
+    if (prefetcher == null) {
+      prefetcher = new FetchResultsPrefetcher();
+    }
+    startPrefetch();
+  }
+
+  /**
+   * Rebind the data set to the client of a new connection. A page that is still being fetched by
+   * the replaced client is dropped and prefetched again by the new one.
+   */
+  public void setClient(TSIService.Iface client) {
+    this.client = client;
+    if (prefetcher != null) {
+      prefetcher.dropUnfinished();
+      startPrefetch();
+    }
+  }
+
+  private void startPrefetch() {
+    if (prefetch && !prefetcher.hasPrefetched() && !emptyResultSet && !isClosed && client != null) {
+      // the current page must not be overwritten by the prefetched one
+      FetchResultsPrefetcher.deepCopy(tsQueryDataSet);
+      prefetcher.prefetch(client, createFetchResultsReq());
+    }
+  }
+
+  private TSFetchResultsReq createFetchResultsReq() {
+    TSFetchResultsReq req = new TSFetchResultsReq(sessionId, sql, fetchSize, queryId, true);
+    req.setTimeout(timeout);
+    return req;
+  }
+
   public void close() throws StatementExecutionException, TException {
     if (isClosed) {
       return;
     }
+    if (prefetcher != null) {
+      prefetcher.cancel();
+    }
     if (client != null) {
       try {
         TSCloseOperationReq closeReq = new TSCloseOperationReq(sessionId);
@@ -338,10 +388,10 @@ public class IoTDBJDBCDataSet {
 
   public boolean fetchResults() throws StatementExecutionException, IoTDBConnectionException {
     rowsIndex = 0;
-    TSFetchResultsReq req = new TSFetchResultsReq(sessionId, sql, fetchSize, queryId, true);
-    req.setTimeout(timeout);
     try {
-      TSFetchResultsResp resp = client.fetchResults(req);
+      boolean prefetched = prefetcher != null && prefetcher.hasPrefetched();
+      TSFetchResultsResp resp =
+          prefetched ? prefetcher.take() : client.fetchResults(createFetchResultsReq());
 
       RpcUtils.verifySuccess(resp.getStatus());
       if (!resp.hasResultSet) {
@@ -349,6 +399,13 @@ public class IoTDBJDBCDataSet {
         close();
       } else {
         tsQueryDataSet = resp.getQueryDataSet();
+        if (prefetch) {
+          if (!prefetched) {
+            // the current page must not be overwritten by the prefetched one
+            FetchResultsPrefetcher.deepCopy(tsQueryDataSet);
+          }
+          prefetcher.prefetch(client, createFetchResultsReq());
+        }
       }
       return resp.hasResultSet;
     } catch (TException e) {
@@ -27,6 +27,16 @@ import org.apache.iotdb.service.rpc.thrift.TSIService;
 import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.column.BinaryColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.BooleanColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+import org.apache.iotdb.tsfile.read.common.block.column.DoubleColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.FloatColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.IntColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.LongColumn;
+import org.apache.iotdb.tsfile.read.common.block.column.TimeColumn;
+import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 
@@ -40,6 +50,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 public class IoTDBRpcDataSet {
 
@@ -77,6 +88,11 @@ public class IoTDBRpcDataSet {
   public static final int FLAG =
       0x80; // used to do `and` operation with bitmap to judge whether the value is null
 
+  // not null once prefetch is enabled, it keeps the pending page after prefetch is disabled
+  private FetchResultsPrefetcher prefetcher;
+  // whether the next page is prefetched after the current one is fetched
+  private boolean prefetch;
+
   @SuppressWarnings("squid:S3776") // Suppress high Cognitive Complexity warning
   public IoTDBRpcDataSet(
       String sql,
@@ -176,10 +192,55 @@ public class IoTDBRpcDataSet {
     this.emptyResultSet = (queryDataSet == null || !queryDataSet.time.hasRemaining());
   }
 
+  /**
+   * Fetch the next page in the background while the current page is consumed. The client should be
+   * synchronized, as the fetch may run concurrently with the other requests of the connection.
+   */
+  public void setPrefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+    if (!prefetch) {
+      // a page that is already prefetched or being prefetched is still returned by the next fetch
+      return;
+    }
+    if (prefetcher == null) {
+      prefetcher = new FetchResultsPrefetcher();
+    }
+    startPrefetch();
+  }
+
+  /**
+   * Rebind the data set to the client of a new connection. A page that is still being fetched by
+   * the replaced client is dropped and prefetched again by the new one.
+   */
+  public void setClient(TSIService.Iface client) {
+    this.client = client;
+    if (prefetcher != null) {
+      prefetcher.dropUnfinished();
+      startPrefetch();
+    }
+  }
+
+  private void startPrefetch() {
+    if (prefetch && !prefetcher.hasPrefetched() && !emptyResultSet && !isClosed && client != null) {
+      // the current page must not be overwritten by the prefetched one
+      FetchResultsPrefetcher.deepCopy(tsQueryDataSet);
+      prefetcher.prefetch(client, createFetchResultsReq());
+    }
+  }
+
+  private TSFetchResultsReq createFetchResultsReq() {
+    TSFetchResultsReq req = new TSFetchResultsReq(sessionId, sql, fetchSize, queryId, true);
+    req.setTimeout(timeout);
+    return req;
+  }
+
   public void close() throws StatementExecutionException, TException {
     if (isClosed) {
       return;
     }
+    if (prefetcher != null) {
+      prefetcher.cancel();
+    }
     if (client != null) {
       try {
         TSCloseOperationReq closeReq = new TSCloseOperationReq(sessionId);
@@ -229,10 +290,10 @@ public class IoTDBRpcDataSet {
 
   public boolean fetchResults() throws StatementExecutionException, IoTDBConnectionException {
     rowsIndex = 0;
-    TSFetchResultsReq req = new TSFetchResultsReq(sessionId, sql, fetchSize, queryId, true);
-    req.setTimeout(timeout);
     try {
-      TSFetchResultsResp resp = client.fetchResults(req);
+      boolean prefetched = prefetcher != null && prefetcher.hasPrefetched();
+      TSFetchResultsResp resp =
+          prefetched ? prefetcher.take() : client.fetchResults(createFetchResultsReq());
 
       RpcUtils.verifySuccess(resp.getStatus());
       if (!resp.hasResultSet) {
@@ -240,6 +301,13 @@ public class IoTDBRpcDataSet {
         close();
       } else {
         tsQueryDataSet = resp.getQueryDataSet();
+        if (prefetch) {
+          if (!prefetched) {
+            // the current page must not be overwritten by the prefetched one
+            FetchResultsPrefetcher.deepCopy(tsQueryDataSet);
+          }
+          prefetcher.prefetch(client, createFetchResultsReq());
+        }
       }
       return resp.hasResultSet;
     } catch (TException e) {
@@ -285,6 +353,151 @@ public class IoTDBRpcDataSet {
     hasCachedRecord = true;
   }
 
+  /**
+   * Decode all the remaining rows of the current page column by column, fetching the next page if
+   * the current one is consumed. The value columns of the block are in the order of the
+   * deduplicated columns, see {@link #columnOrdinalMap}.
+   *
+   * @return null if there are no more rows
+   */
+  public TsBlock nextBlock() throws StatementExecutionException, IoTDBConnectionException {
+    if (!hasCachedResults() && (emptyResultSet || !fetchResults() || !hasCachedResults())) {
+      try {
+        close();
+        return null;
+      } catch (TException e) {
+        throw new IoTDBConnectionException(
+            "Cannot close dataset, because of network connection: {} ", e);
+      }
+    }
+    int rowCount = tsQueryDataSet.time.remaining() / Long.BYTES;
+    long[] timestamps = new long[rowCount];
+    tsQueryDataSet.time.asLongBuffer().get(timestamps);
+    tsQueryDataSet.time.position(tsQueryDataSet.time.limit());
+
+    Column[] valueColumns = new Column[columnTypeDeduplicatedList.size()];
+    for (int i = 0; i < valueColumns.length; i++) {
+      boolean[] isNull = new boolean[rowCount];
+      int notNullCount = readBitmap(i, rowCount, isNull);
+      valueColumns[i] =
+          readValueColumn(
+              columnTypeDeduplicatedList.get(i),
+              tsQueryDataSet.valueList.get(i),
+              rowCount,
+              notNullCount,
+              isNull);
+    }
+    rowsIndex += rowCount;
+    hasCachedRecord = false;
+    return new TsBlock(rowCount, new TimeColumn(rowCount, timestamps), valueColumns);
+  }
+
+  /** @return the number of not null values of the column in the next rowCount rows */
+  private int readBitmap(int columnIndex, int rowCount, boolean[] isNull) {
+    ByteBuffer bitmapBuffer = tsQueryDataSet.bitmapList.get(columnIndex);
+    int notNullCount = 0;
+    for (int row = 0; row < rowCount; row++) {
+      if ((rowsIndex + row) % 8 == 0) {
+        currentBitmap[columnIndex] = bitmapBuffer.get();
+      }
+      isNull[row] = isNull(columnIndex, rowsIndex + row);
+      if (!isNull[row]) {
+        notNullCount++;
+      }
+    }
+    return notNullCount;
+  }
+
+  private static Column readValueColumn(
+      TSDataType dataType,
+      ByteBuffer valueBuffer,
+      int rowCount,
+      int notNullCount,
+      boolean[] isNull) {
+    // only the not null values are serialized, so they are read densely and then spread out
+    Optional<boolean[]> valueIsNull =
+        notNullCount == rowCount ? Optional.empty() : Optional.of(isNull);
+    switch (dataType) {
+      case BOOLEAN:
+        boolean[] booleans = new boolean[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+          if (!isNull[row]) {
+            booleans[row] = valueBuffer.get() == 1;
+          }
+        }
+        return new BooleanColumn(rowCount, valueIsNull, booleans);
+      case INT32:
+        int[] ints = new int[rowCount];
+        valueBuffer.asIntBuffer().get(ints, 0, notNullCount);
+        valueBuffer.position(valueBuffer.position() + notNullCount * Integer.BYTES);
+        spread(ints, notNullCount, isNull);
+        return new IntColumn(rowCount, valueIsNull, ints);
+      case INT64:
+        long[] longs = new long[rowCount];
+        valueBuffer.asLongBuffer().get(longs, 0, notNullCount);
+        valueBuffer.position(valueBuffer.position() + notNullCount * Long.BYTES);
+        spread(longs, notNullCount, isNull);
+        return new LongColumn(rowCount, valueIsNull, longs);
+      case FLOAT:
+        float[] floats = new float[rowCount];
+        valueBuffer.asFloatBuffer().get(floats, 0, notNullCount);
+        valueBuffer.position(valueBuffer.position() + notNullCount * Float.BYTES);
+        spread(floats, notNullCount, isNull);
+        return new FloatColumn(rowCount, valueIsNull, floats);
+      case DOUBLE:
+        double[] doubles = new double[rowCount];
+        valueBuffer.asDoubleBuffer().get(doubles, 0, notNullCount);
+        valueBuffer.position(valueBuffer.position() + notNullCount * Double.BYTES);
+        spread(doubles, notNullCount, isNull);
+        return new DoubleColumn(rowCount, valueIsNull, doubles);
+      case TEXT:
+        Binary[] binaries = new Binary[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+          if (!isNull[row]) {
+            int length = valueBuffer.getInt();
+            binaries[row] = new Binary(ReadWriteIOUtils.readBytes(valueBuffer, length));
+          }
+        }
+        return new BinaryColumn(rowCount, valueIsNull, binaries);
+      default:
+        throw new UnSupportedDataTypeException(
+            String.format("Data type %s is not supported.", dataType));
+    }
+  }
+
+  /** move the densely read values to their rows, from the last one to avoid overwriting */
+  private static void spread(int[] values, int notNullCount, boolean[] isNull) {
+    for (int row = isNull.length - 1, index = notNullCount - 1; index < row; row--) {
+      if (!isNull[row]) {
+        values[row] = values[index--];
+      }
+    }
+  }
+
+  private static void spread(long[] values, int notNullCount, boolean[] isNull) {
+    for (int row = isNull.length - 1, index = notNullCount - 1; index < row; row--) {
+      if (!isNull[row]) {
+        values[row] = values[index--];
+      }
+    }
+  }
+
+  private static void spread(float[] values, int notNullCount, boolean[] isNull) {
+    for (int row = isNull.length - 1, index = notNullCount - 1; index < row; row--) {
+      if (!isNull[row]) {
+        values[row] = values[index--];
+      }
+    }
+  }
+
+  private static void spread(double[] values, int notNullCount, boolean[] isNull) {
+    for (int row = isNull.length - 1, index = notNullCount - 1; index < row; row--) {
+      if (!isNull[row]) {
+        values[row] = values[index--];
+      }
+    }
+  }
+
   public boolean isNull(int columnIndex) throws StatementExecutionException {
     int index = columnOrdinalMap.get(findColumnNameByIndex(columnIndex)) - START_INDEX;
     // time column will never be null
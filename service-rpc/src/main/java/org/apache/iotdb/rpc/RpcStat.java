@@ -31,6 +31,9 @@ public class RpcStat {
   static final AtomicLong writeCompressedBytes = new AtomicLong();
   static final AtomicLong readBytes = new AtomicLong();
   static final AtomicLong readCompressedBytes = new AtomicLong();
+  static final AtomicLong readFrames = new AtomicLong();
+  static final AtomicLong bufferAllocations = new AtomicLong();
+  static final AtomicLong bufferAllocatedBytes = new AtomicLong();
 
   public static long getReadBytes() {
     return readBytes.get();
@@ -47,4 +50,22 @@ public class RpcStat {
   public static long getWriteCompressedBytes() {
     return writeCompressedBytes.get();
   }
+
+  /** The number of frames read by the elastic framed transports. */
+  public static long getReadFrames() {
+    return readFrames.get();
+  }
+
+  /**
+   * The number of byte arrays allocated by the transport buffers, including those allocated when
+   * a transport is created or its buffer is resized. The frames read beyond this number reuse the
+   * existing buffers.
+   */
+  public static long getBufferAllocations() {
+    return bufferAllocations.get();
+  }
+
+  public static long getBufferAllocatedBytes() {
+    return bufferAllocatedBytes.get();
+  }
 }
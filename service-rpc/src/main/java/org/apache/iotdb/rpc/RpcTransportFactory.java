@@ -30,6 +30,11 @@ public class RpcTransportFactory extends TTransportFactory {
   // TODO: make it a config
   public static boolean USE_SNAPPY = false;
   public static RpcTransportFactory INSTANCE;
+  /**
+   * The same as INSTANCE, except that the protocols read the binary fields directly from the frame
+   * buffers of its transports. See {@link TElasticFramedTransport#setZeroCopyRead(boolean)}.
+   */
+  public static RpcTransportFactory ZERO_COPY_READ_INSTANCE;
 
   private static int thriftDefaultBufferSize = RpcUtils.THRIFT_DEFAULT_BUF_CAPACITY;
   private static int thriftMaxFrameSize = RpcUtils.THRIFT_FRAME_MAX_SIZE;
@@ -39,14 +44,20 @@ public class RpcTransportFactory extends TTransportFactory {
   }
 
   private final TTransportFactory inner;
+  private final boolean zeroCopyRead;
 
-  private RpcTransportFactory(TTransportFactory inner) {
+  private RpcTransportFactory(TTransportFactory inner, boolean zeroCopyRead) {
     this.inner = inner;
+    this.zeroCopyRead = zeroCopyRead;
   }
 
   @Override
   public TTransport getTransport(TTransport trans) throws TTransportException {
-    return inner.getTransport(trans);
+    TTransport transport = inner.getTransport(trans);
+    if (zeroCopyRead && transport instanceof TElasticFramedTransport) {
+      ((TElasticFramedTransport) transport).setZeroCopyRead(true);
+    }
+    return transport;
   }
 
   public TTransport getTransportWithNoTimeout(String ip, int port) throws TTransportException {
@@ -75,13 +86,13 @@ public class RpcTransportFactory extends TTransportFactory {
   }
 
   public static void reInit() {
-    INSTANCE =
+    TTransportFactory inner =
         USE_SNAPPY
-            ? new RpcTransportFactory(
-                new TimeoutChangeableTSnappyFramedTransport.Factory(
-                    thriftDefaultBufferSize, thriftMaxFrameSize))
-            : new RpcTransportFactory(
-                new TimeoutChangeableTFastFramedTransport.Factory(
-                    thriftDefaultBufferSize, thriftMaxFrameSize));
+            ? new TimeoutChangeableTSnappyFramedTransport.Factory(
+                thriftDefaultBufferSize, thriftMaxFrameSize)
+            : new TimeoutChangeableTFastFramedTransport.Factory(
+                thriftDefaultBufferSize, thriftMaxFrameSize);
+    INSTANCE = new RpcTransportFactory(inner, false);
+    ZERO_COPY_READ_INSTANCE = new RpcTransportFactory(inner, true);
   }
 }
@@ -47,16 +47,17 @@ public abstract class TCompressedElasticFramedTransport extends TElasticFramedTr
           TTransportException.CORRUPTED_DATA, "Read a negative frame size (" + size + ")!");
     }
 
-    readBuffer.fill(underlying, size);
+    readCompressBuffer.fill(underlying, size);
     RpcStat.readCompressedBytes.addAndGet(size);
+    RpcStat.readFrames.incrementAndGet();
     try {
-      int uncompressedLength = uncompressedLength(readBuffer.getBuffer(), 0, size);
+      int uncompressedLength = uncompressedLength(readCompressBuffer.getBuffer(), 0, size);
       RpcStat.readBytes.addAndGet(uncompressedLength);
-      readCompressBuffer.resizeIfNecessary(uncompressedLength);
-      uncompress(readBuffer.getBuffer(), 0, size, readCompressBuffer.getBuffer(), 0);
-      readCompressBuffer.limit(uncompressedLength);
-      readCompressBuffer.position(0);
-      readBuffer.fill(readCompressBuffer, uncompressedLength);
+      // uncompress into the read buffer directly instead of copying the uncompressed frame again
+      readBuffer.resizeIfNecessary(uncompressedLength);
+      uncompress(readCompressBuffer.getBuffer(), 0, size, readBuffer.getBuffer(), 0);
+      readBuffer.limit(uncompressedLength);
+      readBuffer.position(0);
     } catch (IOException e) {
       throw new TTransportException(e);
     }
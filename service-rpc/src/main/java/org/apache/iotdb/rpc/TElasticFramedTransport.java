@@ -81,6 +81,14 @@ public class TElasticFramedTransport extends TTransport {
   protected AutoScalingBufferWriteTransport writeBuffer;
   protected final byte[] i32buf = new byte[4];
 
+  /**
+   * Whether the protocol reads directly from the buffer of the current frame. If so, the binary
+   * fields are wrapped from the frame buffer instead of being copied, and they are overwritten when
+   * the next frame is read. So it should only be enabled for the servers whose handlers do not keep
+   * the binary fields of a request after processing it.
+   */
+  protected boolean zeroCopyRead = false;
+
   @Override
   public boolean isOpen() {
     return underlying.isOpen();
@@ -125,6 +133,7 @@ public class TElasticFramedTransport extends TTransport {
           "Frame size (" + size + ") larger than protect max size (" + thriftMaxFrameSize + ")!");
     }
     readBuffer.fill(underlying, size);
+    RpcStat.readFrames.incrementAndGet();
   }
 
   @Override
@@ -160,4 +169,34 @@ public class TElasticFramedTransport extends TTransport {
   public void write(byte[] buf, int off, int len) {
     writeBuffer.write(buf, off, len);
   }
+
+  public void setZeroCopyRead(boolean zeroCopyRead) {
+    this.zeroCopyRead = zeroCopyRead;
+  }
+
+  @Override
+  public byte[] getBuffer() {
+    return zeroCopyRead ? readBuffer.getBuffer() : super.getBuffer();
+  }
+
+  @Override
+  public int getBufferPosition() {
+    return zeroCopyRead ? readBuffer.getBufferPosition() : super.getBufferPosition();
+  }
+
+  @Override
+  public int getBytesRemainingInBuffer() {
+    return zeroCopyRead
+        ? readBuffer.getBytesRemainingInBuffer()
+        : super.getBytesRemainingInBuffer();
+  }
+
+  @Override
+  public void consumeBuffer(int len) {
+    if (zeroCopyRead) {
+      readBuffer.consumeBuffer(len);
+    } else {
+      super.consumeBuffer(len);
+    }
+  }
 }
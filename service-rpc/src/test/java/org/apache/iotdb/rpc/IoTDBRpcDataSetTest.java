@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.rpc;
+
+import org.apache.iotdb.service.rpc.thrift.TSFetchResultsResp;
+import org.apache.iotdb.service.rpc.thrift.TSIService;
+import org.apache.iotdb.service.rpc.thrift.TSQueryDataSet;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.common.block.column.Column;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IoTDBRpcDataSetTest {
+
+  private static final int ROW_NUM = 20;
+
+  /** s1 INT32 is null in every third row, s2 TEXT is null in row 10, s3 DOUBLE has no nulls */
+  private static TSQueryDataSet createQueryDataSet() {
+    ByteBuffer time = ByteBuffer.allocate(ROW_NUM * Long.BYTES);
+    ByteBuffer intValues = ByteBuffer.allocate(ROW_NUM * Integer.BYTES);
+    ByteBuffer textValues = ByteBuffer.allocate(ROW_NUM * 16);
+    ByteBuffer doubleValues = ByteBuffer.allocate(ROW_NUM * Double.BYTES);
+    byte[][] bitmaps = new byte[3][(ROW_NUM + 7) / 8];
+    for (int i = 0; i < ROW_NUM; i++) {
+      time.putLong(i * 10L);
+      if (i % 3 != 0) {
+        intValues.putInt(i);
+        bitmaps[0][i / 8] |= (byte) (IoTDBRpcDataSet.FLAG >>> (i % 8));
+      }
+      if (i != 10) {
+        byte[] text = ("v" + i).getBytes(StandardCharsets.UTF_8);
+        textValues.putInt(text.length);
+        textValues.put(text);
+        bitmaps[1][i / 8] |= (byte) (IoTDBRpcDataSet.FLAG >>> (i % 8));
+      }
+      doubleValues.putDouble(i * 0.5);
+      bitmaps[2][i / 8] |= (byte) (IoTDBRpcDataSet.FLAG >>> (i % 8));
+    }
+    time.flip();
+    intValues.flip();
+    textValues.flip();
+    doubleValues.flip();
+    return new TSQueryDataSet(
+        time,
+        Arrays.asList(intValues, textValues, doubleValues),
+        Arrays.asList(
+            ByteBuffer.wrap(bitmaps[0]), ByteBuffer.wrap(bitmaps[1]), ByteBuffer.wrap(bitmaps[2])));
+  }
+
+  private static IoTDBRpcDataSet createDataSet() {
+    return createDataSet(null);
+  }
+
+  private static IoTDBRpcDataSet createDataSet(TSIService.Iface client) {
+    return new IoTDBRpcDataSet(
+        "select * from root.sg.d",
+        Arrays.asList("root.sg.d.s1", "root.sg.d.s2", "root.sg.d.s3"),
+        Arrays.asList("INT32", "TEXT", "DOUBLE"),
+        null,
+        false,
+        1L,
+        1L,
+        client,
+        1L,
+        createQueryDataSet(),
+        1024,
+        0);
+  }
+
+  /**
+   * A server that holds one more page of the query, each fetch waits until the server is released.
+   */
+  private static class FakeServer implements InvocationHandler {
+
+    private final AtomicInteger fetchNum = new AtomicInteger(0);
+    private final CountDownLatch fetchStarted = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "fetchResults":
+          fetchStarted.countDown();
+          released.await();
+          TSFetchResultsResp resp = new TSFetchResultsResp(RpcUtils.SUCCESS_STATUS, false, true);
+          if (fetchNum.getAndIncrement() == 0) {
+            resp.setHasResultSet(true);
+            resp.setQueryDataSet(createQueryDataSet());
+          }
+          return resp;
+        case "closeOperation":
+          return RpcUtils.SUCCESS_STATUS;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    }
+
+    private TSIService.Iface newClient() {
+      return (TSIService.Iface)
+          Proxy.newProxyInstance(
+              TSIService.Iface.class.getClassLoader(),
+              new Class<?>[] {TSIService.Iface.class},
+              this);
+    }
+  }
+
+  @Test
+  public void testTogglePrefetch() throws Exception {
+    FakeServer server = new FakeServer();
+    IoTDBRpcDataSet dataSet = createDataSet(server.newClient());
+    Assert.assertTrue(dataSet.next());
+    dataSet.setPrefetch(true);
+    // disable prefetch while the next page is being fetched
+    server.fetchStarted.await();
+    dataSet.setPrefetch(false);
+    server.released.countDown();
+
+    int rowNum = 1;
+    while (dataSet.next()) {
+      Assert.assertEquals(
+          (rowNum % ROW_NUM) * 10L, dataSet.getTimestamp(IoTDBRpcDataSet.TIMESTAMP_STR).getTime());
+      rowNum++;
+      if (rowNum == ROW_NUM / 2) {
+        // the page being prefetched is not fetched again
+        dataSet.setPrefetch(true);
+        dataSet.setPrefetch(false);
+      }
+    }
+    Assert.assertEquals(2 * ROW_NUM, rowNum);
+    // the prefetched page and the last empty fetch
+    Assert.assertEquals(2, server.fetchNum.get());
+    Assert.assertTrue(dataSet.isClosed);
+  }
+
+  @Test
+  public void testPrefetchAfterReconnection() throws Exception {
+    FakeServer oldServer = new FakeServer();
+    FakeServer newServer = new FakeServer();
+    newServer.released.countDown();
+    IoTDBRpcDataSet dataSet = createDataSet(oldServer.newClient());
+    dataSet.setPrefetch(true);
+    // the client is replaced while the next page is being fetched by the old one
+    oldServer.fetchStarted.await();
+    TSIService.Iface newClient = newServer.newClient();
+    dataSet.setClient(newClient);
+    oldServer.released.countDown();
+
+    int rowNum = 0;
+    while (dataSet.next()) {
+      rowNum++;
+    }
+    Assert.assertEquals(2 * ROW_NUM, rowNum);
+    // the next page and the last empty fetch are both sent by the new client
+    Assert.assertEquals(2, newServer.fetchNum.get());
+    Assert.assertSame(newClient, dataSet.client);
+    Assert.assertTrue(dataSet.isClosed);
+  }
+
+  @Test
+  public void testNextBlockAfterRows() throws Exception {
+    IoTDBRpcDataSet dataSet = createDataSet();
+    // read a few rows by row so that the block starts in the middle of a bitmap byte
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(dataSet.next());
+      Assert.assertEquals(i * 10L, dataSet.getTimestamp(IoTDBRpcDataSet.TIMESTAMP_STR).getTime());
+    }
+    Assert.assertEquals(2, dataSet.getInt("root.sg.d.s1"));
+
+    TsBlock block = dataSet.nextBlock();
+    Assert.assertNotNull(block);
+    Assert.assertEquals(ROW_NUM - 3, block.getPositionCount());
+    Assert.assertEquals(3, block.getValueColumnCount());
+    Column intColumn = block.getColumn(0);
+    Column textColumn = block.getColumn(1);
+    Column doubleColumn = block.getColumn(2);
+    for (int row = 0; row < block.getPositionCount(); row++) {
+      int i = row + 3;
+      Assert.assertEquals(i * 10L, block.getTimeByIndex(row));
+      Assert.assertEquals(i % 3 == 0, intColumn.isNull(row));
+      if (i % 3 != 0) {
+        Assert.assertEquals(i, intColumn.getInt(row));
+      }
+      Assert.assertEquals(i == 10, textColumn.isNull(row));
+      if (i != 10) {
+        Assert.assertEquals("v" + i, textColumn.getBinary(row).getStringValue());
+      }
+      Assert.assertFalse(doubleColumn.isNull(row));
+      Assert.assertEquals(i * 0.5, doubleColumn.getDouble(row), 0);
+    }
+    Assert.assertFalse(dataSet.hasCachedResults());
+
+    // no more pages on the server
+    dataSet.emptyResultSet = true;
+    Assert.assertNull(dataSet.nextBlock());
+    Assert.assertTrue(dataSet.isClosed);
+  }
+
+  @Test
+  public void testNextBlockOfEmptyDataSet() throws Exception {
+    IoTDBRpcDataSet dataSet =
+        new IoTDBRpcDataSet(
+            "select * from root.sg.d",
+            Collections.singletonList("root.sg.d.s1"),
+            Collections.singletonList("INT32"),
+            null,
+            false,
+            1L,
+            1L,
+            null,
+            1L,
+            null,
+            1024,
+            0);
+    Assert.assertNull(dataSet.nextBlock());
+    Assert.assertTrue(dataSet.isClosed);
+  }
+}
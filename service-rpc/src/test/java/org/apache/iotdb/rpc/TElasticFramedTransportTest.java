@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.rpc;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.transport.TMemoryBuffer;
+import org.apache.thrift.transport.TTransport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class TElasticFramedTransportTest {
+
+  private static final int DEFAULT_BUFFER_SIZE = 64;
+  private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+  private TElasticFramedTransport createTransport(TTransport underlying, boolean snappy) {
+    return snappy
+        ? new TSnappyElasticFramedTransport(underlying, DEFAULT_BUFFER_SIZE, MAX_FRAME_SIZE)
+        : new TElasticFramedTransport(underlying, DEFAULT_BUFFER_SIZE, MAX_FRAME_SIZE);
+  }
+
+  private void testReadBinary(boolean snappy, boolean zeroCopyRead) throws TException {
+    TMemoryBuffer underlying = new TMemoryBuffer(1024);
+    // larger than the default buffer size, so the buffers are expanded
+    byte[] bytes = new byte[DEFAULT_BUFFER_SIZE * 4];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+
+    TElasticFramedTransport writeTransport = createTransport(underlying, snappy);
+    TProtocol writeProtocol = new TBinaryProtocol(writeTransport);
+    writeProtocol.writeI32(1);
+    writeProtocol.writeBinary(ByteBuffer.wrap(bytes));
+    writeProtocol.writeI32(2);
+    writeTransport.flush();
+
+    long readFrames = RpcStat.getReadFrames();
+    TElasticFramedTransport readTransport = createTransport(underlying, snappy);
+    readTransport.setZeroCopyRead(zeroCopyRead);
+    TProtocol readProtocol = new TBinaryProtocol(readTransport);
+    Assert.assertEquals(1, readProtocol.readI32());
+    ByteBuffer binary = readProtocol.readBinary();
+    Assert.assertEquals(ByteBuffer.wrap(bytes), binary);
+    // the binary is wrapped from the frame buffer only if zero-copy read is enabled
+    Assert.assertEquals(zeroCopyRead, binary.array() == readTransport.getBuffer());
+    Assert.assertEquals(2, readProtocol.readI32());
+    Assert.assertEquals(readFrames + 1, RpcStat.getReadFrames());
+  }
+
+  @Test
+  public void testReadBinary() throws TException {
+    testReadBinary(false, false);
+  }
+
+  @Test
+  public void testZeroCopyReadBinary() throws TException {
+    testReadBinary(false, true);
+  }
+
+  @Test
+  public void testReadCompressedBinary() throws TException {
+    testReadBinary(true, false);
+  }
+
+  @Test
+  public void testZeroCopyReadCompressedBinary() throws TException {
+    testReadBinary(true, true);
+  }
+}
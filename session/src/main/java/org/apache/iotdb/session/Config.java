@@ -45,5 +45,10 @@ public class Config {
 
   public static final int DEFAULT_SESSION_POOL_MAX_SIZE = 5;
 
+  /** a batch of AutoBatchingWriter is sent when it has so many rows or lingers so long */
+  public static final int DEFAULT_AUTO_BATCH_MAX_ROW_NUM = 1024;
+
+  public static final long DEFAULT_AUTO_BATCH_LINGER_TIME_MS = 10;
+
   public static final Version DEFAULT_VERSION = Version.V_0_13;
 }
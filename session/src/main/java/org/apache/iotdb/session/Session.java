@@ -83,6 +83,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -129,13 +130,21 @@ public class Session {
   protected boolean enableCacheLeader;
   protected SessionConnection metaSessionConnection;
   protected volatile Map<String, TEndPoint> deviceIdToEndpoint;
+  // if not null, the leader cache is shared with other sessions, e.g. those of a SessionPool
+  protected Map<String, TEndPoint> sharedDeviceIdToEndpoint;
   protected volatile Map<TEndPoint, SessionConnection> endPointToSessionConnection;
+  // (endPoint -> the time before which no connection is tried) of the unreachable shared leaders
+  private final Map<TEndPoint, Long> endPointToRetryTime = new ConcurrentHashMap<>();
 
   protected boolean enableQueryRedirection = false;
 
   // The version number of the client which used for compatibility in the server
   protected Version version;
 
+  // (preparedStatementId -> sql) of the statements prepared by this session
+  private final Map<Long, String> preparedStatements = new ConcurrentHashMap<>();
+  private final AtomicLong preparedStatementIdGenerator = new AtomicLong();
+
   public static void main(String args[])
       throws IoTDBConnectionException, StatementExecutionException {
     Session session = new Session("127.0.0.1", 6667);
@@ -405,7 +414,8 @@ public class Session {
     metaSessionConnection = defaultSessionConnection;
     isClosed = false;
     if (enableCacheLeader || enableQueryRedirection) {
-      deviceIdToEndpoint = new ConcurrentHashMap<>();
+      deviceIdToEndpoint =
+          sharedDeviceIdToEndpoint != null ? sharedDeviceIdToEndpoint : new ConcurrentHashMap<>();
       endPointToSessionConnection = new ConcurrentHashMap<>();
       endPointToSessionConnection.put(defaultEndPoint, defaultSessionConnection);
     }
@@ -716,6 +726,61 @@ public class Session {
     }
   }
 
+  /**
+   * prepare a query whose parameters are marked by '?' in the server, so that executing it again
+   * only sends the parameters instead of the whole statement
+   *
+   * @param sql query with '?' as parameters, e.g., select s1 from root.sg.d1 where time > ?
+   * @return the id of the prepared statement
+   */
+  public long prepareStatement(String sql)
+      throws IoTDBConnectionException, StatementExecutionException {
+    long preparedStatementId = preparedStatementIdGenerator.incrementAndGet();
+    defaultSessionConnection.prepareStatement(preparedStatementId, sql);
+    preparedStatements.put(preparedStatementId, sql);
+    return preparedStatementId;
+  }
+
+  /**
+   * execute a prepared query
+   *
+   * @param preparedStatementId the id returned by {@link #prepareStatement(String)}
+   * @param parameters the texts of the literals or paths bound to the '?' in order, e.g., 1000,
+   *     'text' or root.sg.d1
+   * @return result set
+   */
+  public SessionDataSet executePreparedQueryStatement(
+      long preparedStatementId, List<String> parameters)
+      throws IoTDBConnectionException, StatementExecutionException {
+    String sql = preparedStatements.get(preparedStatementId);
+    if (sql == null) {
+      throw new StatementExecutionException(
+          "Prepared statement " + preparedStatementId + " does not exist.");
+    }
+    return defaultSessionConnection.executePreparedQueryStatement(
+        preparedStatementId, sql, parameters, queryTimeoutInMs);
+  }
+
+  /**
+   * release a prepared query in the server
+   *
+   * @param preparedStatementId the id returned by {@link #prepareStatement(String)}
+   */
+  public void closePreparedStatement(long preparedStatementId)
+      throws IoTDBConnectionException, StatementExecutionException {
+    if (preparedStatements.remove(preparedStatementId) == null) {
+      return;
+    }
+    if (endPointToSessionConnection == null) {
+      defaultSessionConnection.closePreparedStatement(preparedStatementId);
+      return;
+    }
+    // the statement may be prepared on the connections that the queries were redirected to
+    for (SessionConnection connection : endPointToSessionConnection.values()) {
+      connection.closePreparedStatement(preparedStatementId);
+    }
+  }
+
   /**
    * execute non query statement
    *
@@ -726,6 +791,35 @@ public class Session {
     defaultSessionConnection.executeNonQueryStatement(sql);
   }
 
+  /**
+   * load a closed TsFile, or all TsFiles in a directory, into the server without going through the
+   * memtables. The file is split by time partition and data region if needed and moved into the
+   * data directories of the server, so the path must be reachable from the server.
+   *
+   * @param filePath path of a TsFile or a directory of TsFiles on the server
+   */
+  public void loadTsFile(String filePath)
+      throws IoTDBConnectionException, StatementExecutionException {
+    executeNonQueryStatement(String.format("load \"%s\"", filePath));
+  }
+
+  /**
+   * load TsFiles into the server, see {@link #loadTsFile(String)}
+   *
+   * @param filePath path of a TsFile or a directory of TsFiles on the server
+   * @param autoCreateSchema whether to create the missing timeseries of the files
+   * @param sgLevel the level of the storage groups created for the missing timeseries
+   * @param verifyMetadata whether to check the timeseries of the files against the existing ones
+   */
+  public void loadTsFile(
+      String filePath, boolean autoCreateSchema, int sgLevel, boolean verifyMetadata)
+      throws IoTDBConnectionException, StatementExecutionException {
+    executeNonQueryStatement(
+        String.format(
+            "load \"%s\" autoregister=%s,sglevel=%d,verify=%s",
+            filePath, autoCreateSchema, sgLevel, verifyMetadata));
+  }
+
   /**
    * query eg. select * from paths where time >= startTime and time < endTime time interval include
    * startTime and exclude endTime
@@ -838,10 +932,52 @@ public class Session {
     if (enableCacheLeader
         && !deviceIdToEndpoint.isEmpty()
         && (endPoint = deviceIdToEndpoint.get(deviceId)) != null) {
-      return endPointToSessionConnection.get(endPoint);
-    } else {
-      return defaultSessionConnection;
+      SessionConnection connection = endPointToSessionConnection.get(endPoint);
+      if (connection != null) {
+        return connection;
+      }
+      // the leader may be learned by another session sharing the cache, connect to it lazily
+      connection = connectToLeader(deviceId, endPoint);
+      if (connection != null) {
+        return connection;
+      }
+      deviceIdToEndpoint.remove(deviceId, endPoint);
     }
+    return defaultSessionConnection;
+  }
+
+  /**
+   * Connect to the leader outside the map of connections, so that a slow or unreachable leader
+   * does not block the other writers of this session. After a failure, the leader is not tried
+   * again within Config.RETRY_INTERVAL_MS.
+   *
+   * @return the connection to the leader, or null if it cannot be connected
+   */
+  private SessionConnection connectToLeader(String deviceId, TEndPoint endPoint) {
+    Long retryTime = endPointToRetryTime.get(endPoint);
+    if (retryTime != null && System.currentTimeMillis() < retryTime) {
+      return null;
+    }
+    SessionConnection connection;
+    try {
+      connection = constructSessionConnection(this, endPoint, zoneId);
+    } catch (IoTDBConnectionException e) {
+      logger.warn("Cannot connect to the leader {} of device {}", endPoint, deviceId);
+      endPointToRetryTime.put(endPoint, System.currentTimeMillis() + Config.RETRY_INTERVAL_MS);
+      return null;
+    }
+    endPointToRetryTime.remove(endPoint);
+    SessionConnection existing = endPointToSessionConnection.putIfAbsent(endPoint, connection);
+    if (existing != null) {
+      // another writer connected to the leader first
+      try {
+        connection.close();
+      } catch (IoTDBConnectionException e) {
+        logger.warn("Cannot close the redundant connection to {}", endPoint, e);
+      }
+      return existing;
+    }
+    return connection;
   }
 
   public String getTimestampPrecision() throws TException {
@@ -2538,6 +2674,7 @@ public class Session {
     private int thriftMaxFrameSize = Config.DEFAULT_MAX_FRAME_SIZE;
     private boolean enableCacheLeader = Config.DEFAULT_CACHE_LEADER_MODE;
     private Version version = Config.DEFAULT_VERSION;
+    private Map<String, TEndPoint> deviceIdToEndpoint = null;
 
     private List<String> nodeUrls = null;
 
@@ -2596,6 +2733,15 @@ public class Session {
       return this;
     }
 
+    /**
+     * Share the leader cache with other sessions, so that a leader learned from a redirection by
+     * one session is used by all of them. The map should be thread-safe.
+     */
+    public Builder deviceIdToEndpoint(Map<String, TEndPoint> deviceIdToEndpoint) {
+      this.deviceIdToEndpoint = deviceIdToEndpoint;
+      return this;
+    }
+
     public Session build() {
       if (nodeUrls != null
           && (!Config.DEFAULT_HOST.equals(host) || rpcPort != Config.DEFAULT_PORT)) {
@@ -2616,20 +2762,24 @@ public class Session {
                 enableCacheLeader,
                 version);
         newSession.setEnableQueryRedirection(true);
+        newSession.sharedDeviceIdToEndpoint = deviceIdToEndpoint;
         return newSession;
       }
 
-      return new Session(
-          host,
-          rpcPort,
-          username,
-          password,
-          fetchSize,
-          zoneId,
-          thriftDefaultBufferSize,
-          thriftMaxFrameSize,
-          enableCacheLeader,
-          version);
+      Session newSession =
+          new Session(
+              host,
+              rpcPort,
+              username,
+              password,
+              fetchSize,
+              zoneId,
+              thriftDefaultBufferSize,
+              thriftMaxFrameSize,
+              enableCacheLeader,
+              version);
+      newSession.sharedDeviceIdToEndpoint = deviceIdToEndpoint;
+      return newSession;
     }
   }
 }
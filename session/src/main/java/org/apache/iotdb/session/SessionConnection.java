@@ -27,6 +27,7 @@ import org.apache.iotdb.rpc.RpcTransportFactory;
 import org.apache.iotdb.rpc.RpcUtils;
 import org.apache.iotdb.rpc.StatementExecutionException;
 import org.apache.iotdb.service.rpc.thrift.TSAppendSchemaTemplateReq;
+import org.apache.iotdb.service.rpc.thrift.TSClosePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSCloseSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateAlignedTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateMultiTimeseriesReq;
@@ -34,6 +35,7 @@ import org.apache.iotdb.service.rpc.thrift.TSCreateSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSCreateTimeseriesReq;
 import org.apache.iotdb.service.rpc.thrift.TSDeleteDataReq;
 import org.apache.iotdb.service.rpc.thrift.TSDropSchemaTemplateReq;
+import org.apache.iotdb.service.rpc.thrift.TSExecutePreparedStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSExecuteStatementResp;
 import org.apache.iotdb.service.rpc.thrift.TSIService;
@@ -48,6 +50,7 @@ import org.apache.iotdb.service.rpc.thrift.TSInsertTabletsReq;
 import org.apache.iotdb.service.rpc.thrift.TSLastDataQueryReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionReq;
 import org.apache.iotdb.service.rpc.thrift.TSOpenSessionResp;
+import org.apache.iotdb.service.rpc.thrift.TSPrepareStatementReq;
 import org.apache.iotdb.service.rpc.thrift.TSPruneSchemaTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSQueryTemplateReq;
 import org.apache.iotdb.service.rpc.thrift.TSQueryTemplateResp;
@@ -68,7 +71,9 @@ import org.slf4j.LoggerFactory;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SessionConnection {
 
@@ -84,6 +89,8 @@ public class SessionConnection {
   private TEndPoint endPoint;
   private List<TEndPoint> endPointList = new ArrayList<>();
   private boolean enableRedirect = false;
+  // (preparedStatementId -> sql) of the statements prepared in the current session of the server
+  private final Map<Long, String> preparedStatements = new ConcurrentHashMap<>();
 
   // TestOnly
   public SessionConnection() {}
@@ -153,6 +160,15 @@ public class SessionConnection {
       sessionId = openResp.getSessionId();
       statementId = client.requestStatementId(sessionId);
 
+      // the prepared statements are lost with the old session when reconnecting
+      for (Map.Entry<Long, String> entry : preparedStatements.entrySet()) {
+        RpcUtils.verifySuccess(
+            client
+                .prepareStatement(
+                    new TSPrepareStatementReq(sessionId, entry.getKey(), entry.getValue()))
+                .getStatus());
+      }
+
     } catch (Exception e) {
       transport.close();
       throw new IoTDBConnectionException(e);
@@ -368,6 +384,86 @@ public class SessionConnection {
         timeout);
   }
 
+  protected void prepareStatement(long preparedStatementId, String sql)
+      throws IoTDBConnectionException, StatementExecutionException {
+    TSPrepareStatementReq req = new TSPrepareStatementReq(sessionId, preparedStatementId, sql);
+    try {
+      RpcUtils.verifySuccess(client.prepareStatement(req).getStatus());
+    } catch (TException e) {
+      if (reconnect()) {
+        try {
+          req.setSessionId(sessionId);
+          RpcUtils.verifySuccess(client.prepareStatement(req).getStatus());
+        } catch (TException tException) {
+          throw new IoTDBConnectionException(tException);
+        }
+      } else {
+        throw new IoTDBConnectionException(MSG_RECONNECTION_FAIL);
+      }
+    }
+    preparedStatements.put(preparedStatementId, sql);
+  }
+
+  protected SessionDataSet executePreparedQueryStatement(
+      long preparedStatementId, String sql, List<String> parameters, long timeout)
+      throws StatementExecutionException, IoTDBConnectionException {
+    if (!preparedStatements.containsKey(preparedStatementId)) {
+      // the statement was prepared on another connection before the queries were redirected here
+      prepareStatement(preparedStatementId, sql);
+    }
+    TSExecutePreparedStatementReq execReq =
+        new TSExecutePreparedStatementReq(sessionId, preparedStatementId, parameters, statementId);
+    execReq.setFetchSize(session.fetchSize);
+    execReq.setTimeout(timeout);
+    TSExecuteStatementResp execResp;
+    try {
+      execResp = client.executePreparedStatement(execReq);
+    } catch (TException e) {
+      if (reconnect()) {
+        try {
+          execReq.setSessionId(sessionId);
+          execReq.setStatementId(statementId);
+          execResp = client.executePreparedStatement(execReq);
+        } catch (TException tException) {
+          throw new IoTDBConnectionException(tException);
+        }
+      } else {
+        throw new IoTDBConnectionException(MSG_RECONNECTION_FAIL);
+      }
+    }
+
+    RpcUtils.verifySuccess(execResp.getStatus());
+    return new SessionDataSet(
+        sql,
+        execResp.getColumns(),
+        execResp.getDataTypeList(),
+        execResp.columnNameIndexMap,
+        execResp.getQueryId(),
+        statementId,
+        client,
+        sessionId,
+        execResp.queryDataSet,
+        execResp.isIgnoreTimeStamp(),
+        timeout);
+  }
+
+  protected void closePreparedStatement(long preparedStatementId)
+      throws IoTDBConnectionException, StatementExecutionException {
+    if (preparedStatements.remove(preparedStatementId) == null) {
+      return;
+    }
+    try {
+      RpcUtils.verifySuccess(
+          client.closePreparedStatement(
+              new TSClosePreparedStatementReq(sessionId, preparedStatementId)));
+    } catch (TException e) {
+      // the statement is not prepared again in the new session, so it is closed anyway
+      if (!reconnect()) {
+        throw new IoTDBConnectionException(MSG_RECONNECTION_FAIL);
+      }
+    }
+  }
+
   protected void executeNonQueryStatement(String sql)
       throws IoTDBConnectionException, StatementExecutionException {
     TSExecuteStatementReq execReq = new TSExecuteStatementReq(sessionId, sql, statementId);
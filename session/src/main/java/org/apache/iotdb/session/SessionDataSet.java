@@ -27,6 +27,7 @@ import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.read.common.Field;
 import org.apache.iotdb.tsfile.read.common.RowRecord;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 import org.apache.iotdb.tsfile.utils.Binary;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 
@@ -114,6 +115,32 @@ public class SessionDataSet implements AutoCloseable {
     return new ArrayList<>(ioTDBRpcDataSet.columnTypeList);
   }
 
+  /**
+   * Fetch the next page in the background while the current one is consumed, which hides the
+   * network round trip when the pages are large.
+   */
+  public void setPrefetch(boolean prefetch) {
+    ioTDBRpcDataSet.setPrefetch(prefetch);
+  }
+
+  /**
+   * Get the remaining rows of the current page as a block of columns, which avoids building a
+   * RowRecord per row. A row read by {@link #hasNext()} but not by {@link #next()} is skipped.
+   *
+   * @return null if there are no more rows
+   */
+  public TsBlock nextBlock() throws StatementExecutionException, IoTDBConnectionException {
+    return ioTDBRpcDataSet.nextBlock();
+  }
+
+  /**
+   * @return the index of the column in the value columns of {@link #nextBlock()}, or -1 for the
+   *     time column
+   */
+  public int getBlockColumnIndex(String columnName) {
+    return ioTDBRpcDataSet.columnOrdinalMap.get(columnName) - START_INDEX;
+  }
+
   public boolean hasNext() throws StatementExecutionException, IoTDBConnectionException {
     return ioTDBRpcDataSet.next();
   }
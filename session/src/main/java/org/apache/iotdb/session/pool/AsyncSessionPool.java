@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import org.apache.iotdb.rpc.IoTDBConnectionException;
+import org.apache.iotdb.rpc.StatementExecutionException;
+import org.apache.iotdb.session.Config;
+import org.apache.iotdb.session.util.ThreadUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsyncSessionPool is an asynchronous wrapper of a {@link SessionPool}. Each method returns a
+ * future at once, and the request is executed by one of the parallelism threads on a session of
+ * the pool, so that up to parallelism requests are in flight at the same time without holding the
+ * threads of the user.
+ *
+ * <p>A session only sends one request at a time, so the parallelism should not be larger than the
+ * max size of the pool. When the task queue is full, the request is executed by the calling thread
+ * as a back pressure.
+ *
+ * <p>A future fails with the {@link IoTDBConnectionException} or {@link
+ * StatementExecutionException} of its request.
+ */
+public class AsyncSessionPool {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncSessionPool.class);
+
+  private final SessionPool sessionPool;
+  private final ThreadPoolExecutor executor;
+
+  public AsyncSessionPool(SessionPool sessionPool) {
+    this(sessionPool, Config.DEFAULT_SESSION_POOL_MAX_SIZE);
+  }
+
+  public AsyncSessionPool(SessionPool sessionPool, int parallelism) {
+    this.sessionPool = sessionPool;
+    this.executor =
+        new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(Config.DEFAULT_SESSION_EXECUTOR_TASK_NUM),
+            ThreadUtils.createThreadFactory("AsyncSessionPool", true),
+            (task, pool) -> {
+              if (pool.isShutdown()) {
+                throw new RejectedExecutionException("AsyncSessionPool is closed");
+              }
+              task.run();
+            });
+  }
+
+  /** @see SessionPool#insertRecord(String, long, List, List, List) */
+  public CompletableFuture<Void> insertRecord(
+      String deviceId,
+      long time,
+      List<String> measurements,
+      List<TSDataType> types,
+      List<Object> values) {
+    return submit(pool -> pool.insertRecord(deviceId, time, measurements, types, values));
+  }
+
+  /** @see SessionPool#insertAlignedRecord(String, long, List, List, List) */
+  public CompletableFuture<Void> insertAlignedRecord(
+      String deviceId,
+      long time,
+      List<String> measurements,
+      List<TSDataType> types,
+      List<Object> values) {
+    return submit(pool -> pool.insertAlignedRecord(deviceId, time, measurements, types, values));
+  }
+
+  /** @see SessionPool#insertRecords(List, List, List, List, List) */
+  public CompletableFuture<Void> insertRecords(
+      List<String> deviceIds,
+      List<Long> times,
+      List<List<String>> measurementsList,
+      List<List<TSDataType>> typesList,
+      List<List<Object>> valuesList) {
+    return submit(
+        pool -> pool.insertRecords(deviceIds, times, measurementsList, typesList, valuesList));
+  }
+
+  /** @see SessionPool#insertTablet(Tablet) */
+  public CompletableFuture<Void> insertTablet(Tablet tablet) {
+    return submit(pool -> pool.insertTablet(tablet));
+  }
+
+  /** @see SessionPool#insertAlignedTablet(Tablet) */
+  public CompletableFuture<Void> insertAlignedTablet(Tablet tablet) {
+    return submit(pool -> pool.insertAlignedTablet(tablet));
+  }
+
+  /** @see SessionPool#insertTablets(Map) */
+  public CompletableFuture<Void> insertTablets(Map<String, Tablet> tablets) {
+    return submit(pool -> pool.insertTablets(tablets));
+  }
+
+  /** @see SessionPool#insertAlignedTablets(Map) */
+  public CompletableFuture<Void> insertAlignedTablets(Map<String, Tablet> tablets) {
+    return submit(pool -> pool.insertAlignedTablets(tablets));
+  }
+
+  /** @see SessionPool#executeNonQueryStatement(String) */
+  public CompletableFuture<Void> executeNonQueryStatement(String sql) {
+    return submit(pool -> pool.executeNonQueryStatement(sql));
+  }
+
+  public SessionPool getSessionPool() {
+    return sessionPool;
+  }
+
+  /** wait for the submitted requests, and then close the session pool */
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        logger.warn("Some requests are not finished in 1 minute, closing the pool anyway");
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+    sessionPool.close();
+  }
+
+  private CompletableFuture<Void> submit(PoolOperation operation) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              operation.execute(sessionPool);
+              future.complete(null);
+            } catch (IoTDBConnectionException | StatementExecutionException | RuntimeException e) {
+              future.completeExceptionally(e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  @FunctionalInterface
+  private interface PoolOperation {
+
+    void execute(SessionPool sessionPool)
+        throws IoTDBConnectionException, StatementExecutionException;
+  }
+}
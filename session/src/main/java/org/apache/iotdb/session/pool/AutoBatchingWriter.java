@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import org.apache.iotdb.session.Config;
+import org.apache.iotdb.session.util.ThreadUtils;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * AutoBatchingWriter merges the records written concurrently into Tablets, and sends them through
+ * an {@link AsyncSessionPool}. The records of the same device and the same measurements are put
+ * into one batch, which is sent when it has maxBatchRowNum rows, or when it has lingered for
+ * lingerTimeInMs.
+ *
+ * <p>The future of a record is completed when the Tablet containing it is written, and fails with
+ * the exception of the Tablet. The lists of a record are kept until it is sent, so they should not
+ * be modified after the record is inserted.
+ */
+public class AutoBatchingWriter {
+
+  private final AsyncSessionPool asyncSessionPool;
+  private final int maxBatchRowNum;
+  private final long lingerTimeInMs;
+
+  private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService lingerChecker;
+  // insertions hold the read lock, so that no record is added after close() flushes the batches
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+
+  public AutoBatchingWriter(AsyncSessionPool asyncSessionPool) {
+    this(
+        asyncSessionPool,
+        Config.DEFAULT_AUTO_BATCH_MAX_ROW_NUM,
+        Config.DEFAULT_AUTO_BATCH_LINGER_TIME_MS);
+  }
+
+  public AutoBatchingWriter(
+      AsyncSessionPool asyncSessionPool, int maxBatchRowNum, long lingerTimeInMs) {
+    this.asyncSessionPool = asyncSessionPool;
+    this.maxBatchRowNum = maxBatchRowNum;
+    this.lingerTimeInMs = lingerTimeInMs;
+    this.lingerChecker =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadUtils.createThreadFactory("AutoBatchingWriter", true));
+    long checkInterval = Math.max(1, lingerTimeInMs / 2);
+    lingerChecker.scheduleWithFixedDelay(
+        () -> flush(false), checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /** @see SessionPool#insertRecord(String, long, List, List, List) */
+  public CompletableFuture<Void> insertRecord(
+      String deviceId,
+      long time,
+      List<String> measurements,
+      List<TSDataType> types,
+      List<Object> values) {
+    return insert(new BatchKey(deviceId, false, measurements, types), time, values);
+  }
+
+  /** @see SessionPool#insertAlignedRecord(String, long, List, List, List) */
+  public CompletableFuture<Void> insertAlignedRecord(
+      String deviceId,
+      long time,
+      List<String> measurements,
+      List<TSDataType> types,
+      List<Object> values) {
+    return insert(new BatchKey(deviceId, true, measurements, types), time, values);
+  }
+
+  private CompletableFuture<Void> insert(BatchKey key, long time, List<Object> values) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    Batch[] fullBatch = new Batch[1];
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        future.completeExceptionally(new IllegalStateException("AutoBatchingWriter is closed"));
+        return future;
+      }
+      batches.compute(
+          key,
+          (k, batch) -> {
+            if (batch == null) {
+              batch = new Batch(k);
+            }
+            batch.add(time, values, future);
+            if (batch.size() < maxBatchRowNum) {
+              return batch;
+            }
+            fullBatch[0] = batch;
+            return null;
+          });
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    if (fullBatch[0] != null) {
+      List<Batch> readyBatches = new ArrayList<>(1);
+      readyBatches.add(fullBatch[0]);
+      send(readyBatches);
+    }
+    return future;
+  }
+
+  /**
+   * Send all the batches now.
+   *
+   * @return a future completed when all the sent batches are written
+   */
+  public CompletableFuture<Void> flush() {
+    return flush(true);
+  }
+
+  private CompletableFuture<Void> flush(boolean force) {
+    long lingerDeadline = System.currentTimeMillis() - lingerTimeInMs;
+    List<Batch> readyBatches = new ArrayList<>();
+    for (BatchKey key : batches.keySet()) {
+      batches.computeIfPresent(
+          key,
+          (k, batch) -> {
+            if (force || batch.createTime <= lingerDeadline) {
+              readyBatches.add(batch);
+              return null;
+            }
+            return batch;
+          });
+    }
+    return send(readyBatches);
+  }
+
+  /** Send the batches, the Tablets of the different devices are sent in one request. */
+  private CompletableFuture<Void> send(List<Batch> readyBatches) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    Map<String, Tablet> tablets = new HashMap<>();
+    Map<String, Tablet> alignedTablets = new HashMap<>();
+    List<Batch> sentBatches = new ArrayList<>();
+    List<Batch> sentAlignedBatches = new ArrayList<>();
+    for (Batch batch : readyBatches) {
+      Tablet tablet;
+      try {
+        tablet = batch.toTablet();
+      } catch (RuntimeException e) {
+        // e.g., a value does not match its type
+        batch.complete(e);
+        continue;
+      }
+      Map<String, Tablet> tabletMap = batch.key.aligned ? alignedTablets : tablets;
+      List<Batch> sentBatchList = batch.key.aligned ? sentAlignedBatches : sentBatches;
+      // the batches of a device with different measurements go to different requests
+      if (tabletMap.containsKey(batch.key.deviceId)) {
+        futures.add(sendTablets(tabletMap, sentBatchList, batch.key.aligned));
+        tabletMap = new HashMap<>();
+        sentBatchList = new ArrayList<>();
+        if (batch.key.aligned) {
+          alignedTablets = tabletMap;
+          sentAlignedBatches = sentBatchList;
+        } else {
+          tablets = tabletMap;
+          sentBatches = sentBatchList;
+        }
+      }
+      tabletMap.put(batch.key.deviceId, tablet);
+      sentBatchList.add(batch);
+    }
+    if (!tablets.isEmpty()) {
+      futures.add(sendTablets(tablets, sentBatches, false));
+    }
+    if (!alignedTablets.isEmpty()) {
+      futures.add(sendTablets(alignedTablets, sentAlignedBatches, true));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+  }
+
+  private CompletableFuture<Void> sendTablets(
+      Map<String, Tablet> tablets, List<Batch> sentBatches, boolean aligned) {
+    CompletableFuture<Void> future =
+        aligned
+            ? asyncSessionPool.insertAlignedTablets(tablets)
+            : asyncSessionPool.insertTablets(tablets);
+    return future.whenComplete(
+        (result, throwable) -> {
+          for (Batch batch : sentBatches) {
+            batch.complete(throwable);
+          }
+        });
+  }
+
+  /**
+   * Stop batching, and send the remaining batches.
+   *
+   * @return a future completed when the remaining batches are written
+   */
+  public CompletableFuture<Void> close() {
+    closeLock.writeLock().lock();
+    try {
+      closed = true;
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    lingerChecker.shutdown();
+    return flush(true);
+  }
+
+  private static class BatchKey {
+
+    private final String deviceId;
+    private final boolean aligned;
+    private final List<String> measurements;
+    private final List<TSDataType> types;
+
+    private BatchKey(
+        String deviceId, boolean aligned, List<String> measurements, List<TSDataType> types) {
+      this.deviceId = deviceId;
+      this.aligned = aligned;
+      this.measurements = measurements;
+      this.types = types;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      BatchKey batchKey = (BatchKey) o;
+      return aligned == batchKey.aligned
+          && deviceId.equals(batchKey.deviceId)
+          && measurements.equals(batchKey.measurements)
+          && types.equals(batchKey.types);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(deviceId, aligned, measurements, types);
+    }
+  }
+
+  private static class Batch {
+
+    private final BatchKey key;
+    private final long createTime = System.currentTimeMillis();
+    private final List<Long> times = new ArrayList<>();
+    private final List<List<Object>> valuesList = new ArrayList<>();
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    private Batch(BatchKey key) {
+      this.key = key;
+    }
+
+    private void add(long time, List<Object> values, CompletableFuture<Void> future) {
+      times.add(time);
+      valuesList.add(values);
+      futures.add(future);
+    }
+
+    private int size() {
+      return times.size();
+    }
+
+    private Tablet toTablet() {
+      List<MeasurementSchema> schemas = new ArrayList<>(key.measurements.size());
+      for (int i = 0; i < key.measurements.size(); i++) {
+        schemas.add(new MeasurementSchema(key.measurements.get(i), key.types.get(i)));
+      }
+      Tablet tablet = new Tablet(key.deviceId, schemas, times.size());
+      for (int row = 0; row < times.size(); row++) {
+        tablet.addTimestamp(row, times.get(row));
+        List<Object> values = valuesList.get(row);
+        for (int i = 0; i < key.measurements.size(); i++) {
+          tablet.addValue(key.measurements.get(i), row, values.get(i));
+        }
+      }
+      tablet.rowSize = times.size();
+      return tablet;
+    }
+
+    private void complete(Throwable throwable) {
+      for (CompletableFuture<Void> future : futures) {
+        if (throwable == null) {
+          future.complete(null);
+        } else {
+          future.completeExceptionally(throwable);
+        }
+      }
+    }
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.session.pool;
 
+import org.apache.iotdb.common.rpc.thrift.TEndPoint;
 import org.apache.iotdb.rpc.IoTDBConnectionException;
 import org.apache.iotdb.rpc.StatementExecutionException;
 import org.apache.iotdb.session.Config;
@@ -85,6 +86,9 @@ public class SessionPool {
   private final int fetchSize;
   private final ZoneId zoneId;
   private final boolean enableCacheLeader;
+  // the leader of each device learned from the redirections, shared by all the sessions so that a
+  // session taken from the pool writes to the leader even if it has not been redirected itself
+  private final Map<String, TEndPoint> deviceIdToEndpoint = new ConcurrentHashMap<>();
 
   // parameters for Session#open()
   private final int connectionTimeoutInMs;
@@ -294,6 +298,7 @@ public class SessionPool {
               .fetchSize(fetchSize)
               .zoneId(zoneId)
               .enableCacheLeader(enableCacheLeader)
+              .deviceIdToEndpoint(deviceIdToEndpoint)
               .build();
     } else {
       // Construct redirect-able Session
@@ -305,6 +310,7 @@ public class SessionPool {
               .fetchSize(fetchSize)
               .zoneId(zoneId)
               .enableCacheLeader(enableCacheLeader)
+              .deviceIdToEndpoint(deviceIdToEndpoint)
               .build();
     }
     return session;
@@ -2234,6 +2240,30 @@ public class SessionPool {
     }
   }
 
+  /**
+   * load a closed TsFile, or all TsFiles in a directory, into the server
+   *
+   * @param filePath path of a TsFile or a directory of TsFiles on the server
+   */
+  public void loadTsFile(String filePath)
+      throws StatementExecutionException, IoTDBConnectionException {
+    for (int i = 0; i < RETRY; i++) {
+      Session session = getSession();
+      try {
+        session.loadTsFile(filePath);
+        putBack(session);
+        return;
+      } catch (IoTDBConnectionException e) {
+        // TException means the connection is broken, remove it and get a new one.
+        logger.warn("loadTsFile failed", e);
+        cleanSessionAndMayThrowConnectionException(session, i, e);
+      } catch (StatementExecutionException | RuntimeException e) {
+        putBack(session);
+        throw e;
+      }
+    }
+  }
+
   @SuppressWarnings("squid:S2095") // Suppress wrapper not closed warning
   public SessionDataSetWrapper executeRawDataQuery(List<String> paths, long startTime, long endTime)
       throws IoTDBConnectionException, StatementExecutionException {
@@ -43,6 +43,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -711,6 +712,41 @@ public class SessionCacheLeaderUT {
     session.close();
   }
 
+  @Test
+  public void testSharedLeaderCache() throws IoTDBConnectionException, StatementExecutionException {
+    Map<String, TEndPoint> sharedDeviceIdToEndpoint = new ConcurrentHashMap<>();
+    MockSession session1 = new MockSession("127.0.0.1", 55560, true);
+    session1.sharedDeviceIdToEndpoint = sharedDeviceIdToEndpoint;
+    session1.open();
+    MockSession session2 = new MockSession("127.0.0.1", 55560, true);
+    session2.sharedDeviceIdToEndpoint = sharedDeviceIdToEndpoint;
+    session2.open();
+
+    String deviceId = "root.sg2.d1";
+    List<String> measurements = new ArrayList<>();
+    List<TSDataType> types = new ArrayList<>();
+    List<Object> values = new ArrayList<>();
+    measurements.add("s1");
+    types.add(TSDataType.INT64);
+    values.add(1L);
+
+    // the leader learned by session1 is visible to session2
+    session1.insertRecord(deviceId, 0, measurements, types, values);
+    assertEquals(getDeviceIdBelongedEndpoint(deviceId), sharedDeviceIdToEndpoint.get(deviceId));
+    assertEquals(2, session1.endPointToSessionConnection.size());
+    assertEquals(1, session2.endPointToSessionConnection.size());
+
+    // session2 connects to the leader without being redirected by the default endpoint
+    session2.insertRecord(deviceId, 1, measurements, types, values);
+    assertEquals(2, session2.endPointToSessionConnection.size());
+    Assert.assertNotNull(
+        session2.endPointToSessionConnection.get(getDeviceIdBelongedEndpoint(deviceId)));
+    assertEquals(1, sharedDeviceIdToEndpoint.size());
+
+    session1.close();
+    session2.close();
+  }
+
   @Test
   public void testInsertRecordsWithSessionBroken() throws StatementExecutionException {
     // without leader cache
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.session.pool;
+
+import org.apache.iotdb.rpc.StatementExecutionException;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AutoBatchingWriterTest {
+
+  private static final List<String> MEASUREMENTS = Arrays.asList("s1", "s2");
+  private static final List<TSDataType> TYPES = Arrays.asList(TSDataType.INT64, TSDataType.TEXT);
+
+  private final FakeAsyncSessionPool asyncSessionPool = new FakeAsyncSessionPool();
+
+  @After
+  public void tearDown() {
+    asyncSessionPool.close();
+  }
+
+  @Test
+  public void testSendFullBatch() throws Exception {
+    AutoBatchingWriter writer =
+        new AutoBatchingWriter(asyncSessionPool, 3, TimeUnit.HOURS.toMillis(1));
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (long time = 0; time < 3; time++) {
+      futures.add(writer.insertRecord("root.sg.d1", time, MEASUREMENTS, TYPES, values(time)));
+    }
+    for (CompletableFuture<Void> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    Assert.assertEquals(1, asyncSessionPool.requests.size());
+    Tablet tablet = asyncSessionPool.requests.get(0).get("root.sg.d1");
+    Assert.assertEquals(3, tablet.rowSize);
+    Assert.assertArrayEquals(new long[] {0, 1, 2}, tablet.timestamps);
+    Assert.assertArrayEquals(new long[] {0, 1, 2}, (long[]) tablet.values[0]);
+    // the null value is marked
+    Assert.assertTrue(tablet.bitMaps[1].isMarked(0));
+    Assert.assertFalse(tablet.bitMaps[1].isMarked(1));
+    writer.close().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testFlush() throws Exception {
+    AutoBatchingWriter writer =
+        new AutoBatchingWriter(asyncSessionPool, 100, TimeUnit.HOURS.toMillis(1));
+    writer.insertRecord("root.sg.d1", 1, MEASUREMENTS, TYPES, values(1));
+    writer.insertRecord("root.sg.d2", 1, MEASUREMENTS, TYPES, values(1));
+    // the same device with other measurements goes to another batch
+    writer.insertRecord(
+        "root.sg.d1",
+        2,
+        Collections.singletonList("s1"),
+        Collections.singletonList(TSDataType.INT64),
+        Collections.singletonList(2L));
+    CompletableFuture<Void> alignedFuture =
+        writer.insertAlignedRecord("root.sg.d3", 1, MEASUREMENTS, TYPES, values(1));
+    Assert.assertFalse(alignedFuture.isDone());
+
+    writer.flush().get(10, TimeUnit.SECONDS);
+    Assert.assertTrue(alignedFuture.isDone());
+    Assert.assertEquals(2, asyncSessionPool.requests.size());
+    Assert.assertEquals(1, asyncSessionPool.alignedRequests.size());
+    int tabletNum = 0;
+    for (Map<String, Tablet> tablets : asyncSessionPool.requests) {
+      tabletNum += tablets.size();
+    }
+    Assert.assertEquals(3, tabletNum);
+    writer.close().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testLinger() throws Exception {
+    AutoBatchingWriter writer = new AutoBatchingWriter(asyncSessionPool, 100, 10);
+    writer
+        .insertRecord("root.sg.d1", 1, MEASUREMENTS, TYPES, values(1))
+        .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(1, asyncSessionPool.requests.size());
+    writer.close().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    asyncSessionPool.fail = true;
+    AutoBatchingWriter writer =
+        new AutoBatchingWriter(asyncSessionPool, 100, TimeUnit.HOURS.toMillis(1));
+    CompletableFuture<Void> future =
+        writer.insertRecord("root.sg.d1", 1, MEASUREMENTS, TYPES, values(1));
+    writer.close();
+    try {
+      future.get(10, TimeUnit.SECONDS);
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof StatementExecutionException);
+    }
+
+    // no record is accepted after closed
+    try {
+      writer.insertRecord("root.sg.d1", 2, MEASUREMENTS, TYPES, values(2)).get();
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  /** s2 is null in the even rows */
+  private static List<Object> values(long time) {
+    return Arrays.asList(time, time % 2 == 0 ? null : String.valueOf(time));
+  }
+
+  private static class FakeAsyncSessionPool extends AsyncSessionPool {
+
+    private final List<Map<String, Tablet>> requests =
+        Collections.synchronizedList(new ArrayList<>());
+    private final List<Map<String, Tablet>> alignedRequests =
+        Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean fail = false;
+
+    private FakeAsyncSessionPool() {
+      super(new SessionPool("127.0.0.1", 6667, "root", "root", 1));
+    }
+
+    @Override
+    public CompletableFuture<Void> insertTablets(Map<String, Tablet> tablets) {
+      requests.add(tablets);
+      return result();
+    }
+
+    @Override
+    public CompletableFuture<Void> insertAlignedTablets(Map<String, Tablet> tablets) {
+      alignedRequests.add(tablets);
+      return result();
+    }
+
+    private CompletableFuture<Void> result() {
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      if (fail) {
+        future.completeExceptionally(new StatementExecutionException("fail"));
+      } else {
+        future.complete(null);
+      }
+      return future;
+    }
+  }
+}
@@ -35,11 +35,95 @@ case class IoTDBPartition(where: String, id: Int, start: java.lang.Long, end: ja
 
 object IoTDBRDD {
 
+  // the clauses that must stay after the where clause of a query
+  private val TAIL_CLAUSE = "(?i)\\s+(order\\s+by|align\\s+by|disable\\s+align|without\\s+null)\\b".r
+
+  private val WHERE_CLAUSE = "(?i)\\s+where\\s+".r
+
+  // the queries whose results change if their rows are filtered by time before being computed
+  private val UNFILTERABLE_QUERY = "(?i)\\b(group\\s+by|fill|limit|offset|slimit|soffset|last|into)\\b".r
+
   private def pruneSchema(schema: StructType, columns: Array[String]): StructType = {
     val fieldMap = Map(schema.fields.map(x => x.name -> x): _*)
     new StructType(columns.map(name => fieldMap(name)))
   }
 
+  /**
+    * Add a condition to the where clause of a query, the condition is and-ed with the existing one.
+    */
+  def addCondition(sql: String, condition: String): String = {
+    val tailStart = TAIL_CLAUSE.findFirstMatchIn(sql).map(_.start).getOrElse(sql.length)
+    val (body, tail) = sql.splitAt(tailStart)
+    WHERE_CLAUSE.findFirstMatchIn(body) match {
+      case Some(where) =>
+        s"${body.substring(0, where.start)} ${SQLConstant.WHERE} ($condition) and " +
+          s"(${body.substring(where.end)})$tail"
+      case None => s"$body ${SQLConstant.WHERE} $condition$tail"
+    }
+  }
+
+  /**
+    * Translate the filters on the time column into a condition of the query. The filters on the
+    * other columns are left to Spark, as the columns may be named by functions or aliases. Spark
+    * still applies all the filters to the returned rows, so a filter may be pushed down partially.
+    *
+    * @return None if the query can not be filtered by time before being computed, e.g., the
+    *         aggregation queries, or if no filter is on the time column
+    */
+  def compileTimeFilters(sql: String, filters: Array[Filter]): Option[String] = {
+    val selectClause = sql.split(WHERE_CLAUSE.regex)(0)
+    if (UNFILTERABLE_QUERY.findFirstIn(sql).isDefined || selectClause.contains("(")) {
+      return None
+    }
+    val conditions = filters.flatMap(compileTimeFilter)
+    if (conditions.isEmpty) None else Some(conditions.map(c => s"($c)").mkString(" and "))
+  }
+
+  private def compileTimeFilter(filter: Filter): Option[String] = {
+    val time = SQLConstant.RESERVED_TIME
+    filter match {
+      case EqualTo(attr, value: Long) if isTime(attr) => Some(s"$time = $value")
+      case GreaterThan(attr, value: Long) if isTime(attr) => Some(s"$time > $value")
+      case GreaterThanOrEqual(attr, value: Long) if isTime(attr) => Some(s"$time >= $value")
+      case LessThan(attr, value: Long) if isTime(attr) => Some(s"$time < $value")
+      case LessThanOrEqual(attr, value: Long) if isTime(attr) => Some(s"$time <= $value")
+      case In(attr, values) if isTime(attr) && values.nonEmpty && values.forall(_.isInstanceOf[Long]) =>
+        Some(s"$time in (${values.mkString(", ")})")
+      case And(left, right) =>
+        // a weaker condition is still correct, Spark applies the whole filter later
+        (compileTimeFilter(left), compileTimeFilter(right)) match {
+          case (Some(l), Some(r)) => Some(s"($l) and ($r)")
+          case (l, r) => l.orElse(r)
+        }
+      case Or(left, right) =>
+        for (l <- compileTimeFilter(left); r <- compileTimeFilter(right)) yield s"($l) or ($r)"
+      case _ => None
+    }
+  }
+
+  /**
+    * Get the time range of the rows that satisfy the filters, it is used to partition the query
+    * when the bounds are not specified.
+    */
+  def getTimeBounds(filters: Array[Filter]): (Option[Long], Option[Long]) = {
+    var lowerBound: Option[Long] = None
+    var upperBound: Option[Long] = None
+    filters.foreach {
+      case GreaterThan(attr, value: Long) if isTime(attr) =>
+        lowerBound = Some(lowerBound.fold(value + 1)(math.max(_, value + 1)))
+      case GreaterThanOrEqual(attr, value: Long) if isTime(attr) =>
+        lowerBound = Some(lowerBound.fold(value)(math.max(_, value)))
+      case LessThan(attr, value: Long) if isTime(attr) =>
+        upperBound = Some(upperBound.fold(value - 1)(math.min(_, value - 1)))
+      case LessThanOrEqual(attr, value: Long) if isTime(attr) =>
+        upperBound = Some(upperBound.fold(value)(math.min(_, value)))
+      case _ =>
+    }
+    (lowerBound, upperBound)
+  }
+
+  private def isTime(attr: String): Boolean = SQLConstant.RESERVED_TIME.equalsIgnoreCase(attr)
+
 }
 
 class IoTDBRDD private[iotdb](
@@ -75,13 +159,12 @@ class IoTDBRDD private[iotdb](
     val stmt: Statement = conn.createStatement()
 
     var sql = options.sql
+    // the filters on time are evaluated by IoTDB, so that only the required rows are sent back
+    IoTDBRDD.compileTimeFilters(sql, filters).foreach(condition =>
+      sql = IoTDBRDD.addCondition(sql, condition))
     // for different partition
     if (part.where != null) {
-      val sqlPart = options.sql.split(SQLConstant.WHERE)
-      sql = sqlPart(0) + " " + SQLConstant.WHERE + " (" + part.where + ") "
-      if (sqlPart.length == 2) {
-        sql += "and (" + sqlPart(1) + ")"
-      }
+      sql = IoTDBRDD.addCondition(sql, part.where)
     }
     //
     var rs: ResultSet = stmt.executeQuery(sql)
@@ -90,17 +173,10 @@ class IoTDBRDD private[iotdb](
 
     def getNext: Row = {
       if (rs.next()) {
-        val fields = new scala.collection.mutable.HashMap[String, String]()
-        for (i <- 1 until rs.getMetaData.getColumnCount + 1) {
-          // start from 1
-          val field = rs.getString(i)
-          fields.put(rs.getMetaData.getColumnName(i), field)
-        }
-
-        //index in one required row
+        // only convert the required columns
         var index = 0
         prunedSchema.foreach((field: StructField) => {
-          val r = Converter.toSqlData(field, fields.getOrElse(field.name, null))
+          val r = Converter.toSqlData(field, rs.getString(field.name))
           rowBuffer(index) = r
           index += 1
         })
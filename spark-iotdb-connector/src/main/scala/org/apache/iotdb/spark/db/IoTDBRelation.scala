@@ -99,9 +99,19 @@ class IoTDBRelation protected[iotdb](val options: IoTDBOptions)(@transient val s
   }
 
   override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
-    val start: Long = options.lowerBound.toLong
-    val end: Long = options.upperBound.toLong
+    var start: Long = options.lowerBound.toLong
+    var end: Long = options.upperBound.toLong
     val numPartition = options.numPartition.toInt
+    if (start == end && numPartition > 1
+      && IoTDBRDD.compileTimeFilters(options.sql, filters).isDefined) {
+      // the bounds are not specified, partition the time range of the filters instead
+      IoTDBRDD.getTimeBounds(filters) match {
+        case (Some(lowerBound), Some(upperBound)) if lowerBound < upperBound =>
+          start = lowerBound
+          end = upperBound
+        case _ =>
+      }
+    }
 
     val partitionInfo = IoTDBPartitioningInfo(start, end, numPartition)
 
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.spark.db.unit
+
+import org.apache.iotdb.spark.db.IoTDBRDD
+import org.apache.spark.sql.sources._
+import org.junit.Assert
+import org.scalatest.FunSuite
+
+class IoTDBRDDTest extends FunSuite {
+
+  test("test add condition") {
+    Assert.assertEquals("select ** from root where time > 1",
+      IoTDBRDD.addCondition("select ** from root", "time > 1"))
+    Assert.assertEquals("select s1 from root.sg.d1 where (time > 1) and (s1 > 0) align by device",
+      IoTDBRDD.addCondition("select s1 from root.sg.d1 WHERE s1 > 0 align by device", "time > 1"))
+    Assert.assertEquals("select * from root.sg where time > 1 order by time desc",
+      IoTDBRDD.addCondition("select * from root.sg order by time desc", "time > 1"))
+  }
+
+  test("test compile time filters") {
+    val filters: Array[Filter] = Array(
+      GreaterThanOrEqual("Time", 1L),
+      And(LessThan("Time", 10L), GreaterThan("root.sg.d1.s1", 0)),
+      Or(EqualTo("Time", 20L), In("Time", Array[Any](30L, 40L))),
+      Or(EqualTo("Time", 50L), IsNull("root.sg.d1.s1")))
+    Assert.assertEquals(Some("(time >= 1) and (time < 10) and ((time = 20) or (time in (30, 40)))"),
+      IoTDBRDD.compileTimeFilters("select ** from root", filters))
+
+    // the values filters are left to Spark
+    Assert.assertEquals(None,
+      IoTDBRDD.compileTimeFilters("select ** from root", Array(GreaterThan("root.sg.d1.s1", 0))))
+    // the rows of aggregations can not be filtered before being computed
+    Assert.assertEquals(None,
+      IoTDBRDD.compileTimeFilters("select count(s1) from root.sg.d1", filters))
+    Assert.assertEquals(None,
+      IoTDBRDD.compileTimeFilters("select s1 from root.sg.d1 group by ([0, 100), 10ms)", filters))
+    Assert.assertEquals(None,
+      IoTDBRDD.compileTimeFilters("select s1 from root.sg.d1 limit 10", filters))
+  }
+
+  test("test get time bounds") {
+    Assert.assertEquals((Some(2L), Some(9L)), IoTDBRDD.getTimeBounds(
+      Array(GreaterThan("Time", 1L), GreaterThanOrEqual("Time", 0L), LessThan("Time", 10L))))
+    Assert.assertEquals((None, Some(10L)), IoTDBRDD.getTimeBounds(
+      Array(LessThanOrEqual("time", 10L), Or(GreaterThan("Time", 1L), EqualTo("Time", 0L)))))
+  }
+}
@@ -127,10 +127,22 @@ abstract class Converter {
       case f: Or => isValidFilter(f.left) && isValidFilter(f.right)
       case f: And => isValidFilter(f.left) && isValidFilter(f.right)
       case f: Not => isValidFilter(f.child)
+      case f: In => f.values.nonEmpty
       case _ => false
     }
   }
 
+  /**
+    * Rewrite an IN filter to the OR of the equalities, which the TsFile filters support.
+    *
+    * @param filter IN filter with at least one value
+    * @return OR filter
+    */
+  protected def toOrFilter(filter: In): Filter = {
+    filter.values.map(value => EqualTo(filter.attribute, value): Filter)
+      .reduce((left, right) => Or(left, right))
+  }
+
   class SparkSqlFilterException(message: String, cause: Throwable)
     extends Exception(message, cause) {
     def this(message: String) = this(message, null)
@@ -291,6 +291,9 @@ object NarrowConverter extends Converter {
           node.value.toString)
         operator
 
+      case node: In =>
+        transformFilter(toOrFilter(node))
+
       case _ =>
         throw new Exception("unsupported filter:" + node.toString)
     }
@@ -286,11 +286,24 @@ object WideConverter extends Converter {
         }
         filter
 
+      case node: In =>
+        transformFilter(schema, toOrFilter(node))
+
       case other =>
         throw new Exception(s"Unsupported filter $other")
     }
   }
 
+  /**
+    * NOT filters are not pushed down to the TsFile expressions, Spark evaluates them instead.
+    */
+  override protected def isValidFilter(filter: Filter): Boolean = {
+    filter match {
+      case _: Not => false
+      case f => super.isValidFilter(f)
+    }
+  }
+
   def constructFilter(schema: StructType, nodeName: String, nodeValue: Any,
                       filterType: FilterTypes.Value): IExpression = {
     val fieldNames = schema.fieldNames
@@ -266,4 +266,21 @@ class ConverterTest extends FunSuite with BeforeAndAfterAll {
     Assert.assertEquals("device_1.sensor_2", expression.getSelectedSeries.get(1).toString)
     Assert.assertEquals("[[[device_1.sensor_1:value > 0.0] || [device_1.sensor_2:value < 22]] && [time < 4]]", expression.getExpression.toString)
   }
+
+  test("toQueryExpression with IN and NOT") {
+    val fields: util.ArrayList[StructField] = new util.ArrayList[StructField]()
+    fields.add(StructField(QueryConstant.RESERVED_TIME, LongType, false))
+    fields.add(StructField("device_1.sensor_1", FloatType, true))
+    val schema = StructType(fields)
+
+    // the NOT filter is evaluated by Spark
+    val ft1 = Not(EqualTo("device_1.sensor_1", 1.0f))
+    val ft2 = In("time", Array[Any](1L, 3L))
+    val filters: Seq[Filter] = Seq(ft1, ft2)
+
+    val expression = WideConverter.toQueryExpression(schema, filters)
+
+    Assert.assertEquals(true, expression.hasQueryFilter)
+    Assert.assertEquals("[[time == 1] || [time == 3]]", expression.getExpression.toString)
+  }
 }
@@ -128,6 +128,42 @@ struct TSExecuteStatementReq {
   7: optional bool jdbcQuery;
 }
 
+// PrepareStatement()
+//
+// Saves a query whose parameters are marked by '?' in the session. The id is chosen by the client,
+// so that the same statement can be prepared again with the same id after reconnecting.
+struct TSPrepareStatementReq {
+  1: required i64 sessionId
+  2: required i64 preparedStatementId
+  3: required string sql
+}
+
+struct TSPrepareStatementResp {
+  1: required common.TSStatus status
+  2: optional i32 parameterCount
+}
+
+// ExecutePreparedStatement()
+//
+// Executes a prepared query with the parameters bound to its '?' in order. Each parameter must be
+// the text of exactly one SQL literal or one path without wildcards, e.g., 1000, 'text' or
+// root.sg.d1.
+struct TSExecutePreparedStatementReq {
+  1: required i64 sessionId
+  2: required i64 preparedStatementId
+  3: required list<string> parameters
+  4: required i64 statementId
+  5: optional i32 fetchSize
+  6: optional i64 timeout
+  7: optional bool enableRedirectQuery;
+  8: optional bool jdbcQuery;
+}
+
+struct TSClosePreparedStatementReq {
+  1: required i64 sessionId
+  2: required i64 preparedStatementId
+}
+
 struct TSExecuteBatchStatementReq{
   // The session to execute the statement against
   1: required i64 sessionId
@@ -419,6 +455,12 @@ service TSIService {
 
   TSExecuteStatementResp executeUpdateStatement(1:TSExecuteStatementReq req);
 
+  TSPrepareStatementResp prepareStatement(1:TSPrepareStatementReq req);
+
+  TSExecuteStatementResp executePreparedStatement(1:TSExecutePreparedStatementReq req);
+
+  common.TSStatus closePreparedStatement(1:TSClosePreparedStatementReq req);
+
   TSFetchResultsResp fetchResults(1:TSFetchResultsReq req)
 
   TSFetchMetadataResp fetchMetadata(1:TSFetchMetadataReq req)
@@ -61,6 +61,12 @@ public class TSFileConfig implements Serializable {
   public static final String VERSION_NUMBER_V1 = "000001";
   /** version number is changed to use 1 byte to represent since version 3 */
   public static final byte VERSION_NUMBER = 0x03;
+  /**
+   * version of the files whose bloom filter is in the split block format. A reader of version 3
+   * would take the split block bits for a classic bloom filter and wrongly skip series, so such
+   * files carry a new version that those readers refuse.
+   */
+  public static final byte VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER = 0x04;
 
   /** Bloom filter constrain */
   public static final double MIN_BLOOM_FILTER_ERROR_RATE = 0.01;
@@ -111,8 +117,17 @@ public class TSFileConfig implements Serializable {
   private double freqEncodingSNR = 40;
   /** Default block size for FREQ encoding is 1024. */
   private int freqEncodingBlockSize = 1024;
-  /** Data compression method, TsFile supports UNCOMPRESSED, SNAPPY or LZ4. */
+  /** Data compression method, TsFile supports UNCOMPRESSED, SNAPPY, LZ4, GZIP or ZSTD. */
   private CompressionType compressor = CompressionType.SNAPPY;
+  /** Compression level of LZ4, 0 means the fast compressor and 1~17 the high compressor. */
+  private int lz4CompressionLevel = 0;
+  /** Compression level of ZSTD, default is 3. */
+  private int zstdCompressionLevel = 3;
+  /**
+   * Max size of the ZSTD dictionary trained for each measurement to compress small pages in
+   * compaction. 0 means the dictionary mode is disabled.
+   */
+  private int zstdDictionarySizeInByte = 0;
   /** Line count threshold for checking page memory occupied size. */
   private int pageCheckSizeThreshold = 100;
   /** Default endian value is BIG_ENDIAN. */
@@ -147,6 +162,12 @@ public class TSFileConfig implements Serializable {
   private String kerberosPrincipal = "principal";
   /** The acceptable error rate of bloom filter */
   private double bloomFilterErrorRate = 0.05;
+  /**
+   * whether to write the split block bloom filter, which checks a series in one cache line, instead
+   * of the classic one. Files with either format can be read, the files with the split block one
+   * are written with {@link #VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER}.
+   */
+  private boolean splitBlockBloomFilterEnabled = false;
   /** The amount of data iterate each time */
   private int batchSize = 1000;
 
@@ -336,6 +357,20 @@ public class TSFileConfig implements Serializable {
     this.bloomFilterErrorRate = bloomFilterErrorRate;
   }
 
+  /** @return whether a file of the version can be read by the current reader */
+  public static boolean isCompatibleVersion(byte versionNumber) {
+    return versionNumber == VERSION_NUMBER
+        || versionNumber == VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER;
+  }
+
+  public boolean isSplitBlockBloomFilterEnabled() {
+    return splitBlockBloomFilterEnabled;
+  }
+
+  public void setSplitBlockBloomFilterEnabled(boolean splitBlockBloomFilterEnabled) {
+    this.splitBlockBloomFilterEnabled = splitBlockBloomFilterEnabled;
+  }
+
   public FSType getTSFileStorageFs() {
     return this.TSFileStorageFs;
   }
@@ -424,6 +459,30 @@ public class TSFileConfig implements Serializable {
     this.freqEncodingSNR = freqEncodingSNR;
   }
 
+  public int getLz4CompressionLevel() {
+    return lz4CompressionLevel;
+  }
+
+  public void setLz4CompressionLevel(int lz4CompressionLevel) {
+    this.lz4CompressionLevel = lz4CompressionLevel;
+  }
+
+  public int getZstdCompressionLevel() {
+    return zstdCompressionLevel;
+  }
+
+  public void setZstdCompressionLevel(int zstdCompressionLevel) {
+    this.zstdCompressionLevel = zstdCompressionLevel;
+  }
+
+  public int getZstdDictionarySizeInByte() {
+    return zstdDictionarySizeInByte;
+  }
+
+  public void setZstdDictionarySizeInByte(int zstdDictionarySizeInByte) {
+    this.zstdDictionarySizeInByte = zstdDictionarySizeInByte;
+  }
+
   public int getFreqEncodingBlockSize() {
     return freqEncodingBlockSize;
   }
@@ -19,10 +19,13 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.exception.compress.GZIPCompressOverflowException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 
+import com.github.luben.zstd.Zstd;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import org.xerial.snappy.Snappy;
@@ -38,6 +41,7 @@ import java.util.zip.GZIPOutputStream;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.GZIP;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.LZ4;
 import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.SNAPPY;
+import static org.apache.iotdb.tsfile.file.metadata.enums.CompressionType.ZSTD;
 
 /** compress data according to type in schema. */
 public interface ICompressor extends Serializable {
@@ -65,11 +69,35 @@ public interface ICompressor extends Serializable {
         return new IOTDBLZ4Compressor();
       case GZIP:
         return new GZIPCompressor();
+      case ZSTD:
+        return new ZstdCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
   }
 
+  /**
+   * get Compressor according to CompressionType. If useDictionary is true and the zstd dictionary
+   * mode is enabled, the small ZSTD pages of the measurement are compressed with a dictionary
+   * trained from its former pages. The dictionaries are only persisted when the file is sealed, so
+   * only the writers of files that are not read before being sealed, e.g., the compaction targets,
+   * should use them.
+   *
+   * @param name CompressionType
+   * @param measurementId the measurement whose pages are compressed
+   * @param useDictionary whether the zstd dictionary mode can be used
+   * @return the Compressor of specified CompressionType
+   */
+  static ICompressor getCompressor(
+      CompressionType name, String measurementId, boolean useDictionary) {
+    if (name == ZSTD
+        && useDictionary
+        && TSFileDescriptor.getInstance().getConfig().getZstdDictionarySizeInByte() > 0) {
+      return new ZstdCompressor(measurementId);
+    }
+    return getCompressor(name);
+  }
+
   byte[] compress(byte[] data) throws IOException;
 
   /**
@@ -193,7 +221,9 @@ public interface ICompressor extends Serializable {
     public IOTDBLZ4Compressor() {
       super();
       LZ4Factory factory = LZ4Factory.fastestInstance();
-      compressor = factory.fastCompressor();
+      int level = TSFileDescriptor.getInstance().getConfig().getLz4CompressionLevel();
+      // the output of the high compressor is decoded by the same decompressor
+      compressor = level > 0 ? factory.highCompressor(level) : factory.fastCompressor();
     }
 
     @Override
@@ -311,4 +341,150 @@ public interface ICompressor extends Serializable {
       return GZIP;
     }
   }
+
+  class ZstdCompressor implements ICompressor {
+
+    private final int level;
+    /** the measurement to train and use a dictionary for, null if the dictionary is not used */
+    private final String measurementId;
+
+    public ZstdCompressor() {
+      this(null);
+    }
+
+    public ZstdCompressor(String measurementId) {
+      this.level = TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel();
+      this.measurementId = measurementId;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) throws IOException {
+      if (data == null) {
+        return new byte[0];
+      }
+      return compress(data, 0, data.length);
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+      byte[] maxCompressed = new byte[getMaxBytesForCompression(length)];
+      int compressedSize = compress(data, offset, length, maxCompressed);
+      byte[] compressed = new byte[compressedSize];
+      System.arraycopy(maxCompressed, 0, compressed, 0, compressedSize);
+      return compressed;
+    }
+
+    @Override
+    public int compress(byte[] data, int offset, int length, byte[] compressed) throws IOException {
+      return compress(
+          data,
+          offset,
+          length,
+          compressed,
+          0,
+          compressed.length,
+          getDictionary(ByteBuffer.wrap(data, offset, length)));
+    }
+
+    /**
+     * Compress the remaining bytes of data into compressed directly, both buffers must be either
+     * array-backed or direct. The position of data is moved to its limit, and that of compressed is
+     * moved forward by the compressed size.
+     */
+    @Override
+    public int compress(ByteBuffer data, ByteBuffer compressed) throws IOException {
+      ZstdDictionary dictionary = getDictionary(data);
+      int compressedSize;
+      if (data.hasArray() && compressed.hasArray()) {
+        compressedSize =
+            compress(
+                data.array(),
+                data.arrayOffset() + data.position(),
+                data.remaining(),
+                compressed.array(),
+                compressed.arrayOffset() + compressed.position(),
+                compressed.remaining(),
+                dictionary);
+      } else if (data.isDirect() && compressed.isDirect()) {
+        compressedSize =
+            checkError(
+                dictionary == null
+                    ? Zstd.compressDirectByteBuffer(
+                        compressed,
+                        compressed.position(),
+                        compressed.remaining(),
+                        data,
+                        data.position(),
+                        data.remaining(),
+                        level)
+                    : Zstd.compressDirectByteBufferFastDict(
+                        compressed,
+                        compressed.position(),
+                        compressed.remaining(),
+                        data,
+                        data.position(),
+                        data.remaining(),
+                        dictionary.getCompressDict()));
+      } else {
+        throw new IOException(
+            "tsfile-compression ZstdCompressor: the data and compressed buffers must be both"
+                + " array-backed or both direct");
+      }
+      data.position(data.limit());
+      compressed.position(compressed.position() + compressedSize);
+      return compressedSize;
+    }
+
+    private int compress(
+        byte[] data,
+        int offset,
+        int length,
+        byte[] compressed,
+        int outOffset,
+        int outLength,
+        ZstdDictionary dictionary)
+        throws IOException {
+      return checkError(
+          dictionary == null
+              ? Zstd.compressByteArray(
+                  compressed, outOffset, outLength, data, offset, length, level)
+              : Zstd.compressFastDict(
+                  compressed, outOffset, data, offset, length, dictionary.getCompressDict()));
+    }
+
+    /**
+     * @param page the uncompressed page, which is offered as a training sample if the dictionary of
+     *     the measurement is not trained yet
+     * @return the dictionary to compress the page with, or null if no dictionary is used
+     */
+    private ZstdDictionary getDictionary(ByteBuffer page) {
+      if (measurementId == null
+          || page.remaining() > ZstdDictionaryRegistry.MAX_DICTIONARY_PAGE_SIZE) {
+        return null;
+      }
+      ZstdDictionaryRegistry registry = ZstdDictionaryRegistry.getInstance();
+      ZstdDictionary dictionary = registry.getDictionary(measurementId);
+      if (dictionary == null) {
+        registry.offerSample(measurementId, page);
+      }
+      return dictionary;
+    }
+
+    private static int checkError(long size) throws IOException {
+      if (Zstd.isError(size)) {
+        throw new IOException("tsfile-compression ZstdCompressor: " + Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    @Override
+    public int getMaxBytesForCompression(int uncompressedDataSize) {
+      return (int) Zstd.compressBound(uncompressedDataSize);
+    }
+
+    @Override
+    public CompressionType getType() {
+      return ZSTD;
+    }
+  }
 }
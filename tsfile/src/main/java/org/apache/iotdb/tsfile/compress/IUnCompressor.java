@@ -19,9 +19,11 @@
 
 package org.apache.iotdb.tsfile.compress;
 
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.exception.compress.CompressionTypeNotSupportedException;
 import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
 
+import com.github.luben.zstd.Zstd;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4SafeDecompressor;
@@ -31,6 +33,8 @@ import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
 
 /** uncompress data according to type in metadata. */
 public interface IUnCompressor {
@@ -54,11 +58,27 @@ public interface IUnCompressor {
         return new LZ4UnCompressor();
       case GZIP:
         return new GZIPUnCompressor();
+      case ZSTD:
+        return new ZstdUnCompressor();
       default:
         throw new CompressionTypeNotSupportedException(name.toString());
     }
   }
 
+  /**
+   * get the UnCompressor based on the CompressionType, the pages compressed with zstd dictionaries
+   * are decompressed with the given dictionaries of their file.
+   *
+   * @param zstdDictionaries the zstd dictionaries of the file keyed by their ids
+   */
+  static IUnCompressor getUnCompressor(
+      CompressionType name, Map<Long, ZstdDictionary> zstdDictionaries) {
+    if (name == CompressionType.ZSTD) {
+      return new ZstdUnCompressor(zstdDictionaries);
+    }
+    return getUnCompressor(name);
+  }
+
   int getUncompressedLength(byte[] array, int offset, int length) throws IOException;
 
   /**
@@ -312,4 +332,164 @@ public interface IUnCompressor {
       return CompressionType.GZIP;
     }
   }
+
+  class ZstdUnCompressor implements IUnCompressor {
+
+    /** the max length of a zstd frame header, which contains the dictionary id */
+    private static final int MAX_FRAME_HEADER_SIZE = 18;
+
+    /** the dictionaries of the file that the pages are read from, keyed by their ids */
+    private final Map<Long, ZstdDictionary> dictionaries;
+
+    public ZstdUnCompressor() {
+      this(Collections.emptyMap());
+    }
+
+    public ZstdUnCompressor(Map<Long, ZstdDictionary> dictionaries) {
+      this.dictionaries = dictionaries;
+    }
+
+    @Override
+    public int getUncompressedLength(byte[] array, int offset, int length) {
+      return (int) Zstd.decompressedSize(array, offset, length);
+    }
+
+    @Override
+    public int getUncompressedLength(ByteBuffer buffer) {
+      if (buffer.hasArray()) {
+        return getUncompressedLength(
+            buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      }
+      return (int) Zstd.decompressedSize(buffer);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] byteArray) throws IOException {
+      if (byteArray == null) {
+        return new byte[0];
+      }
+      byte[] output = new byte[getUncompressedLength(byteArray, 0, byteArray.length)];
+      uncompress(byteArray, 0, byteArray.length, output, 0);
+      return output;
+    }
+
+    @Override
+    public int uncompress(byte[] byteArray, int offset, int length, byte[] output, int outOffset)
+        throws IOException {
+      return uncompress(
+          byteArray,
+          offset,
+          length,
+          output,
+          outOffset,
+          output.length - outOffset,
+          getDictionary(ByteBuffer.wrap(byteArray, offset, length)));
+    }
+
+    /**
+     * Decompress the remaining bytes of compressed into uncompressed directly, both buffers must be
+     * either array-backed or direct. The position of compressed is moved to its limit, and that of
+     * uncompressed is moved forward by the uncompressed size.
+     */
+    @Override
+    public int uncompress(ByteBuffer compressed, ByteBuffer uncompressed) throws IOException {
+      if (compressed == null || !compressed.hasRemaining()) {
+        return 0;
+      }
+      ZstdDictionary dictionary = getDictionary(compressed);
+      int uncompressedSize;
+      if (compressed.hasArray() && uncompressed.hasArray()) {
+        uncompressedSize =
+            uncompress(
+                compressed.array(),
+                compressed.arrayOffset() + compressed.position(),
+                compressed.remaining(),
+                uncompressed.array(),
+                uncompressed.arrayOffset() + uncompressed.position(),
+                uncompressed.remaining(),
+                dictionary);
+      } else if (compressed.isDirect() && uncompressed.isDirect()) {
+        uncompressedSize =
+            checkError(
+                dictionary == null
+                    ? Zstd.decompressDirectByteBuffer(
+                        uncompressed,
+                        uncompressed.position(),
+                        uncompressed.remaining(),
+                        compressed,
+                        compressed.position(),
+                        compressed.remaining())
+                    : Zstd.decompressDirectByteBufferFastDict(
+                        uncompressed,
+                        uncompressed.position(),
+                        uncompressed.remaining(),
+                        compressed,
+                        compressed.position(),
+                        compressed.remaining(),
+                        dictionary.getDecompressDict()));
+      } else {
+        throw new IOException(
+            "tsfile-compression ZstdUnCompressor: the compressed and uncompressed buffers must be"
+                + " both array-backed or both direct");
+      }
+      compressed.position(compressed.limit());
+      uncompressed.position(uncompressed.position() + uncompressedSize);
+      return uncompressedSize;
+    }
+
+    private int uncompress(
+        byte[] compressed,
+        int offset,
+        int length,
+        byte[] output,
+        int outOffset,
+        int outLength,
+        ZstdDictionary dictionary)
+        throws IOException {
+      return checkError(
+          dictionary == null
+              ? Zstd.decompressByteArray(output, outOffset, outLength, compressed, offset, length)
+              : Zstd.decompressFastDict(
+                  output, outOffset, compressed, offset, length, dictionary.getDecompressDict()));
+    }
+
+    private static int checkError(long size) throws IOException {
+      if (Zstd.isError(size)) {
+        throw new IOException("tsfile-compression ZstdUnCompressor: " + Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    /**
+     * get the id of the dictionary that the zstd frame is compressed with.
+     *
+     * @param frame the compressed page, whose position is not changed
+     * @return the dictionary id, or 0 if no dictionary is used
+     */
+    public static long getDictionaryId(ByteBuffer frame) {
+      byte[] frameHeader = new byte[Math.min(frame.remaining(), MAX_FRAME_HEADER_SIZE)];
+      frame.duplicate().get(frameHeader);
+      return Zstd.getDictIdFromFrame(frameHeader);
+    }
+
+    private ZstdDictionary getDictionary(ByteBuffer frame) throws IOException {
+      long dictId = getDictionaryId(frame);
+      if (dictId == 0) {
+        return null;
+      }
+      ZstdDictionary dictionary = dictionaries.get(dictId);
+      if (dictionary == null) {
+        throw new IOException(
+            "tsfile-compression ZstdUnCompressor: zstd dictionary "
+                + dictId
+                + " is not found in the file metadata");
+      }
+      return dictionary;
+    }
+
+    @Override
+    public CompressionType getCodecName() {
+      return CompressionType.ZSTD;
+    }
+  }
 }
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.compress;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the zstd dictionaries trained in this process to compress the pages of measurements. A
+ * dictionary is trained from the small pages of a measurement written in dictionary mode, and is
+ * written at the tail of every TsFile whose pages use it. The dictionaries of a TsFile being read
+ * are held by its TsFileMetadata instead of here, so that they are released with the file and the
+ * ids of dictionaries from different files never clash.
+ */
+public class ZstdDictionaryRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(ZstdDictionaryRegistry.class);
+
+  /** larger pages already compress well by themselves, so they are neither sampled nor use dicts */
+  public static final int MAX_DICTIONARY_PAGE_SIZE = 64 * 1024;
+
+  /** the total size of samples to collect before training, in multiples of the dictionary size */
+  private static final int SAMPLE_SIZE_RATIO = 100;
+
+  private static final int MAX_DICTIONARY_NUM = 1024;
+
+  /**
+   * the max number of measurements sampled at the same time, the least recently sampled one is
+   * dropped to sample another one
+   */
+  private static final int MAX_SAMPLED_MEASUREMENT_NUM = 64;
+
+  /**
+   * the max total size of the samples of all measurements, the samples of the least recently
+   * sampled measurements are dropped to collect more
+   */
+  private static final long MAX_TOTAL_SAMPLE_SIZE = 64L * 1024 * 1024;
+
+  private final Map<Long, ZstdDictionary> idToDictionary = new ConcurrentHashMap<>();
+  private final Map<String, ZstdDictionary> measurementToDictionary = new ConcurrentHashMap<>();
+
+  /** in the order of the last sample offered, guarded by itself */
+  private final LinkedHashMap<String, Samples> measurementToSamples =
+      new LinkedHashMap<>(16, 0.75f, true);
+  /** the total size of the samples in measurementToSamples, guarded by measurementToSamples */
+  private long totalSampleSize = 0;
+
+  /** measurements whose training failed, they are not sampled again */
+  private final Set<String> untrainableMeasurements = ConcurrentHashMap.newKeySet();
+
+  private ZstdDictionaryRegistry() {}
+
+  public static ZstdDictionaryRegistry getInstance() {
+    return ZstdDictionaryRegistryHolder.INSTANCE;
+  }
+
+  /** @return the dictionary to compress the pages of the measurement, or null if not trained */
+  public ZstdDictionary getDictionary(String measurementId) {
+    return measurementToDictionary.get(measurementId);
+  }
+
+  /** @return the trained dictionary of the given id, or null if there is no such dictionary */
+  public ZstdDictionary getDictionary(long dictId) {
+    return idToDictionary.get(dictId);
+  }
+
+  /**
+   * Offer an uncompressed page of the measurement as a training sample. The dictionary is trained
+   * once enough samples are collected, and the later pages of the measurement are compressed with
+   * it.
+   */
+  public void offerSample(String measurementId, ByteBuffer page) {
+    int dictionarySize = TSFileDescriptor.getInstance().getConfig().getZstdDictionarySizeInByte();
+    if (dictionarySize <= 0
+        || page.remaining() > MAX_DICTIONARY_PAGE_SIZE
+        || measurementToDictionary.containsKey(measurementId)
+        || untrainableMeasurements.contains(measurementId)
+        || measurementToDictionary.size() >= MAX_DICTIONARY_NUM) {
+      return;
+    }
+    byte[] sample = new byte[page.remaining()];
+    page.duplicate().get(sample);
+    Samples fullSamples;
+    synchronized (measurementToSamples) {
+      Samples samples = measurementToSamples.get(measurementId);
+      if (samples == null) {
+        if (measurementToSamples.size() >= MAX_SAMPLED_MEASUREMENT_NUM) {
+          removeEldestSamples();
+        }
+        samples = new Samples();
+        measurementToSamples.put(measurementId, samples);
+      }
+      // the samples of this measurement are the most recent ones, so they are removed last
+      while (totalSampleSize + sample.length > MAX_TOTAL_SAMPLE_SIZE
+          && measurementToSamples.size() > 1) {
+        removeEldestSamples();
+      }
+      if (totalSampleSize + sample.length > MAX_TOTAL_SAMPLE_SIZE) {
+        return;
+      }
+      samples.add(sample);
+      totalSampleSize += sample.length;
+      if (samples.size < (long) dictionarySize * SAMPLE_SIZE_RATIO) {
+        return;
+      }
+      measurementToSamples.remove(measurementId);
+      totalSampleSize -= samples.size;
+      fullSamples = samples;
+    }
+    train(measurementId, fullSamples, dictionarySize);
+  }
+
+  /** must be called with the lock of measurementToSamples */
+  private void removeEldestSamples() {
+    Iterator<Samples> iterator = measurementToSamples.values().iterator();
+    totalSampleSize -= iterator.next().size;
+    iterator.remove();
+  }
+
+  private void train(String measurementId, Samples samples, int dictionarySize) {
+    byte[] dictionary = new byte[dictionarySize];
+    long size = Zstd.trainFromBuffer(samples.samples.toArray(new byte[0][]), dictionary);
+    if (Zstd.isError(size)) {
+      logger.warn(
+          "Failed to train the zstd dictionary of {}: {}", measurementId, Zstd.getErrorName(size));
+      untrainableMeasurements.add(measurementId);
+    } else {
+      register(measurementId, Arrays.copyOf(dictionary, (int) size));
+    }
+    // drop the samples collected concurrently while training, the measurement is not sampled again
+    synchronized (measurementToSamples) {
+      Samples concurrentSamples = measurementToSamples.remove(measurementId);
+      if (concurrentSamples != null) {
+        totalSampleSize -= concurrentSamples.size;
+      }
+    }
+  }
+
+  /**
+   * Register a trained dictionary of the measurement to compress its pages. The dictionary is
+   * rejected if its id is already used by the dictionary of another measurement, because the
+   * dictionaries written to a file are looked up by their ids.
+   *
+   * @return the registered dictionary, or null if the dictionary is rejected
+   */
+  public ZstdDictionary register(String measurementId, byte[] dictionaryBytes) {
+    ZstdDictionary dictionary = ZstdDictionary.of(measurementId, dictionaryBytes);
+    if (dictionary == null
+        || idToDictionary.putIfAbsent(dictionary.getId(), dictionary) != null) {
+      untrainableMeasurements.add(measurementId);
+      return null;
+    }
+    ZstdDictionary previous = measurementToDictionary.putIfAbsent(measurementId, dictionary);
+    if (previous != null) {
+      idToDictionary.remove(dictionary.getId());
+      return previous;
+    }
+    return dictionary;
+  }
+
+  /** only for tests */
+  public void clear() {
+    idToDictionary.clear();
+    measurementToDictionary.clear();
+    synchronized (measurementToSamples) {
+      measurementToSamples.clear();
+      totalSampleSize = 0;
+    }
+    untrainableMeasurements.clear();
+  }
+
+  /** only for tests */
+  int getSampledMeasurementNum() {
+    synchronized (measurementToSamples) {
+      return measurementToSamples.size();
+    }
+  }
+
+  /** only for tests */
+  long getTotalSampleSize() {
+    synchronized (measurementToSamples) {
+      return totalSampleSize;
+    }
+  }
+
+  /** The samples of a measurement collected to train its dictionary. */
+  private static class Samples {
+
+    private final List<byte[]> samples = new ArrayList<>();
+    private long size = 0;
+
+    private void add(byte[] sample) {
+      samples.add(sample);
+      size += sample.length;
+    }
+  }
+
+  public static class ZstdDictionary {
+
+    private final long id;
+    private final String measurementId;
+    private final byte[] bytes;
+    private volatile ZstdDictCompress compressDict;
+    private volatile ZstdDictDecompress decompressDict;
+
+    private ZstdDictionary(long id, String measurementId, byte[] bytes) {
+      this.id = id;
+      this.measurementId = measurementId;
+      this.bytes = bytes;
+    }
+
+    /** @return the dictionary, or null if the bytes are not a valid zstd dictionary */
+    public static ZstdDictionary of(String measurementId, byte[] bytes) {
+      long id = Zstd.getDictIdFromDict(bytes);
+      return id == 0 ? null : new ZstdDictionary(id, measurementId, bytes);
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public String getMeasurementId() {
+      return measurementId;
+    }
+
+    public byte[] getBytes() {
+      return bytes;
+    }
+
+    ZstdDictCompress getCompressDict() {
+      if (compressDict == null) {
+        synchronized (this) {
+          if (compressDict == null) {
+            compressDict =
+                new ZstdDictCompress(
+                    bytes, TSFileDescriptor.getInstance().getConfig().getZstdCompressionLevel());
+          }
+        }
+      }
+      return compressDict;
+    }
+
+    ZstdDictDecompress getDecompressDict() {
+      if (decompressDict == null) {
+        synchronized (this) {
+          if (decompressDict == null) {
+            decompressDict = new ZstdDictDecompress(bytes);
+          }
+        }
+      }
+      return decompressDict;
+    }
+  }
+
+  private static class ZstdDictionaryRegistryHolder {
+
+    private static final ZstdDictionaryRegistry INSTANCE = new ZstdDictionaryRegistry();
+
+    private ZstdDictionaryRegistryHolder() {}
+  }
+}
@@ -58,28 +58,24 @@ public class MetadataIndexConstructor {
       if (entry.getValue().isEmpty()) {
         continue;
       }
-      Queue<MetadataIndexNode> measurementMetadataIndexQueue = new ArrayDeque<>();
-      TimeseriesMetadata timeseriesMetadata;
-      MetadataIndexNode currentIndexNode =
-          new MetadataIndexNode(MetadataIndexNodeType.LEAF_MEASUREMENT);
-      for (int i = 0; i < entry.getValue().size(); i++) {
-        timeseriesMetadata = entry.getValue().get(i);
-        if (i % config.getMaxDegreeOfIndexNode() == 0) {
-          if (currentIndexNode.isFull()) {
-            addCurrentIndexNodeToQueue(currentIndexNode, measurementMetadataIndexQueue, out);
-            currentIndexNode = new MetadataIndexNode(MetadataIndexNodeType.LEAF_MEASUREMENT);
-          }
-          currentIndexNode.addEntry(
-              new MetadataIndexEntry(timeseriesMetadata.getMeasurementId(), out.getPosition()));
-        }
-        timeseriesMetadata.serializeTo(out.wrapAsStream());
+      MeasurementIndexBuilder measurementIndexBuilder = new MeasurementIndexBuilder(out);
+      for (TimeseriesMetadata timeseriesMetadata : entry.getValue()) {
+        measurementIndexBuilder.add(timeseriesMetadata);
       }
-      addCurrentIndexNodeToQueue(currentIndexNode, measurementMetadataIndexQueue, out);
-      deviceMetadataIndexMap.put(
-          entry.getKey(),
-          generateRootNode(
-              measurementMetadataIndexQueue, out, MetadataIndexNodeType.INTERNAL_MEASUREMENT));
+      deviceMetadataIndexMap.put(entry.getKey(), measurementIndexBuilder.build());
     }
+    return constructDeviceMetadataIndex(deviceMetadataIndexMap, out);
+  }
+
+  /**
+   * Construct the device level of the metadata index tree, whose measurement level has been
+   * serialized already.
+   *
+   * @param deviceMetadataIndexMap device => root node of its measurement index, sorted by device
+   * @param out tsfile output
+   */
+  public static MetadataIndexNode constructDeviceMetadataIndex(
+      Map<String, MetadataIndexNode> deviceMetadataIndexMap, TsFileOutput out) throws IOException {
 
     // if not exceed the max child nodes num, ignore the device index and directly point to the
     // measurement
@@ -156,4 +152,46 @@ public class MetadataIndexConstructor {
     currentIndexNode.setEndOffset(out.getPosition());
     metadataIndexNodeQueue.add(currentIndexNode);
   }
+
+  /**
+   * Serializes the TimeseriesMetadata of one device as they are added and builds the measurement
+   * level of its metadata index, so that the TimeseriesMetadata need not be held in memory. They
+   * must be added in the order of their measurement ids.
+   */
+  public static class MeasurementIndexBuilder {
+
+    private final TsFileOutput out;
+    private final Queue<MetadataIndexNode> measurementMetadataIndexQueue = new ArrayDeque<>();
+    private MetadataIndexNode currentIndexNode =
+        new MetadataIndexNode(MetadataIndexNodeType.LEAF_MEASUREMENT);
+    private int timeseriesMetadataCount = 0;
+
+    public MeasurementIndexBuilder(TsFileOutput out) {
+      this.out = out;
+    }
+
+    public void add(TimeseriesMetadata timeseriesMetadata) throws IOException {
+      if (timeseriesMetadataCount % config.getMaxDegreeOfIndexNode() == 0) {
+        if (currentIndexNode.isFull()) {
+          addCurrentIndexNodeToQueue(currentIndexNode, measurementMetadataIndexQueue, out);
+          currentIndexNode = new MetadataIndexNode(MetadataIndexNodeType.LEAF_MEASUREMENT);
+        }
+        currentIndexNode.addEntry(
+            new MetadataIndexEntry(timeseriesMetadata.getMeasurementId(), out.getPosition()));
+      }
+      timeseriesMetadata.serializeTo(out.wrapAsStream());
+      timeseriesMetadataCount++;
+    }
+
+    /** @return the root node of the measurement index of the device */
+    public MetadataIndexNode build() throws IOException {
+      addCurrentIndexNodeToQueue(currentIndexNode, measurementMetadataIndexQueue, out);
+      return generateRootNode(
+          measurementMetadataIndexQueue, out, MetadataIndexNodeType.INTERNAL_MEASUREMENT);
+    }
+
+    public boolean isEmpty() {
+      return timeseriesMetadataCount == 0;
+    }
+  }
 }
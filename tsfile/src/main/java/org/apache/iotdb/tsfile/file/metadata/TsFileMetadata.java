@@ -19,15 +19,22 @@
 
 package org.apache.iotdb.tsfile.file.metadata;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.read.common.Path;
 import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
+import org.apache.iotdb.tsfile.utils.SplitBlockBloomFilter;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /** TSFileMetaData collects all metadata info and saves in its data structure. */
@@ -42,6 +49,9 @@ public class TsFileMetadata {
   // offset of MetaMarker.SEPARATOR
   private long metaOffset;
 
+  // zstd dictionaries used by the pages of this file, keyed by their ids
+  private Map<Long, ZstdDictionary> zstdDictionaries = Collections.emptyMap();
+
   /**
    * deserialize data from the buffer.
    *
@@ -66,9 +76,27 @@ public class TsFileMetadata {
       fileMetaData.bloomFilter = BloomFilter.buildBloomFilter(bytes, filterSize, hashFunctionSize);
     }
 
+    // read the zstd dictionaries used by the pages
+    if (buffer.hasRemaining()) {
+      int dictionaryNum = ReadWriteForEncodingUtils.readUnsignedVarInt(buffer);
+      fileMetaData.zstdDictionaries = new HashMap<>(dictionaryNum);
+      for (int i = 0; i < dictionaryNum; i++) {
+        String measurementId = ReadWriteIOUtils.readString(buffer);
+        byte[] bytes = ReadWriteIOUtils.readByteBufferWithSelfDescriptionLength(buffer);
+        ZstdDictionary dictionary = ZstdDictionary.of(measurementId, bytes);
+        if (dictionary != null) {
+          fileMetaData.zstdDictionaries.put(dictionary.getId(), dictionary);
+        }
+      }
+    }
+
     return fileMetaData;
   }
 
+  public Map<Long, ZstdDictionary> getZstdDictionaries() {
+    return zstdDictionaries;
+  }
+
   public BloomFilter getBloomFilter() {
     return bloomFilter;
   }
@@ -103,31 +131,75 @@ public class TsFileMetadata {
    * use the given outputStream to serialize bloom filter.
    *
    * @param outputStream -output stream to determine byte length
+   * @param splitBlock whether to build the split block bloom filter
    * @return -byte length
    */
-  public int serializeBloomFilter(OutputStream outputStream, Set<Path> paths) throws IOException {
-    int byteLen = 0;
-    BloomFilter filter = buildBloomFilter(paths);
+  public int serializeBloomFilter(OutputStream outputStream, Set<Path> paths, boolean splitBlock)
+      throws IOException {
+    return serializeBloomFilter(outputStream, buildBloomFilter(paths, splitBlock));
+  }
 
+  /**
+   * use the given outputStream to serialize a bloom filter that has been built by the caller.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @return -byte length
+   */
+  public int serializeBloomFilter(OutputStream outputStream, BloomFilter filter)
+      throws IOException {
+    int byteLen = 0;
     byte[] bytes = filter.serialize();
     byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(bytes.length, outputStream);
     outputStream.write(bytes);
     byteLen += bytes.length;
     byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(filter.getSize(), outputStream);
     byteLen +=
-        ReadWriteForEncodingUtils.writeUnsignedVarInt(filter.getHashFunctionSize(), outputStream);
+        ReadWriteForEncodingUtils.writeUnsignedVarInt(
+            filter.getSerializedHashFunctionSize(), outputStream);
     return byteLen;
   }
 
+  /**
+   * use the given outputStream to serialize the zstd dictionaries used by the pages, which must be
+   * written after the bloom filter.
+   *
+   * @param outputStream -output stream to determine byte length
+   * @return -byte length
+   */
+  public int serializeZstdDictionaries(
+      OutputStream outputStream, Collection<ZstdDictionary> dictionaries) throws IOException {
+    int byteLen = ReadWriteForEncodingUtils.writeUnsignedVarInt(dictionaries.size(), outputStream);
+    for (ZstdDictionary dictionary : dictionaries) {
+      byteLen += ReadWriteIOUtils.write(dictionary.getMeasurementId(), outputStream);
+      byte[] bytes = dictionary.getBytes();
+      byteLen += ReadWriteForEncodingUtils.writeUnsignedVarInt(bytes.length, outputStream);
+      outputStream.write(bytes);
+      byteLen += bytes.length;
+    }
+    return byteLen;
+  }
+
+  /**
+   * get an empty bloom filter
+   *
+   * @param seriesNum the number of series in the file
+   * @param splitBlock whether to get the split block bloom filter instead of the classic one
+   * @return empty bloom filter
+   */
+  public static BloomFilter getEmptyBloomFilter(int seriesNum, boolean splitBlock) {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    return splitBlock
+        ? SplitBlockBloomFilter.getEmptyBloomFilter(config.getBloomFilterErrorRate(), seriesNum)
+        : BloomFilter.getEmptyBloomFilter(config.getBloomFilterErrorRate(), seriesNum);
+  }
+
   /**
    * build bloom filter
    *
    * @return bloom filter
    */
-  private BloomFilter buildBloomFilter(Set<Path> paths) {
-    BloomFilter filter =
-        BloomFilter.getEmptyBloomFilter(
-            TSFileDescriptor.getInstance().getConfig().getBloomFilterErrorRate(), paths.size());
+  private BloomFilter buildBloomFilter(Set<Path> paths, boolean splitBlock) {
+    BloomFilter filter = getEmptyBloomFilter(paths.size(), splitBlock);
     for (Path path : paths) {
       filter.add(path.toString());
     }
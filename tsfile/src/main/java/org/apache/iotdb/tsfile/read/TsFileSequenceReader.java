@@ -22,6 +22,7 @@ import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.compress.IUnCompressor;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
 import org.apache.iotdb.tsfile.exception.TsFileRuntimeException;
 import org.apache.iotdb.tsfile.exception.TsFileStatisticsMistakesException;
@@ -82,6 +83,7 @@ import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -471,6 +473,105 @@ public class TsFileSequenceReader implements AutoCloseable {
     return timeseriesMetadataList;
   }
 
+  /**
+   * Read the TimeseriesMetadata of the given measurements of a device. Only the leaf entries that
+   * contain the given measurements are read, the adjacent ones are fetched with a single read, and
+   * only the chunk metadata of the given measurements are deserialized.
+   *
+   * @return the TimeseriesMetadata in the order of measurement ids, or an empty list if the device
+   *     is not in the file
+   */
+  public List<TimeseriesMetadata> readDeviceTimeseriesMetadata(
+      String device, Set<String> measurements) throws IOException {
+    readFileMetadata();
+    Pair<MetadataIndexEntry, Long> metadataIndexPair =
+        getMetadataAndEndOffset(tsFileMetaData.getMetadataIndex(), device, true, true);
+    if (metadataIndexPair == null) {
+      return Collections.emptyList();
+    }
+    MetadataIndexNode measurementNode;
+    try {
+      measurementNode =
+          MetadataIndexNode.deserializeFrom(
+              readData(metadataIndexPair.left.getOffset(), metadataIndexPair.right));
+    } catch (Exception e) {
+      logger.error(METADATA_INDEX_NODE_DESERIALIZE_ERROR, file);
+      throw e;
+    }
+    List<long[]> leafRanges = new ArrayList<>();
+    collectLeafRanges(measurementNode, new ArrayList<>(new TreeSet<>(measurements)), leafRanges);
+
+    List<TimeseriesMetadata> timeseriesMetadataList = new ArrayList<>();
+    for (long[] leafRange : leafRanges) {
+      ByteBuffer buffer = readData(leafRange[0], leafRange[1]);
+      while (buffer.hasRemaining()) {
+        int position = buffer.position();
+        try {
+          TimeseriesMetadata timeseriesMetadata = TimeseriesMetadata.deserializeFrom(buffer, false);
+          if (measurements.contains(timeseriesMetadata.getMeasurementId())) {
+            int next = buffer.position();
+            buffer.position(position);
+            timeseriesMetadataList.add(TimeseriesMetadata.deserializeFrom(buffer, true));
+            buffer.position(next);
+          }
+        } catch (Exception e) {
+          logger.error(
+              "Something error happened while deserializing TimeseriesMetadata of file {}", file);
+          throw e;
+        }
+      }
+    }
+    return timeseriesMetadataList;
+  }
+
+  /**
+   * Collect the offset ranges of the leaf entries under the measurement node that may contain the
+   * given measurements. The ranges are collected in order and the adjacent ones are merged.
+   *
+   * @param sortedMeasurements the measurements in ascending order
+   */
+  private void collectLeafRanges(
+      MetadataIndexNode node, List<String> sortedMeasurements, List<long[]> leafRanges)
+      throws IOException {
+    String firstName = node.getChildren().get(0).getName();
+    int i = 0;
+    while (i < sortedMeasurements.size()) {
+      if (sortedMeasurements.get(i).compareTo(firstName) < 0) {
+        // smaller than all the measurements under the node
+        i++;
+        continue;
+      }
+      Pair<MetadataIndexEntry, Long> child =
+          node.getChildIndexEntry(sortedMeasurements.get(i), false);
+      // the following measurements that fall into the same child
+      int j = i + 1;
+      while (j < sortedMeasurements.size()
+          && node.getChildIndexEntry(sortedMeasurements.get(j), false).left == child.left) {
+        j++;
+      }
+      long start = child.left.getOffset();
+      long end = child.right;
+      if (node.getNodeType().equals(MetadataIndexNodeType.LEAF_MEASUREMENT)) {
+        long[] last = leafRanges.isEmpty() ? null : leafRanges.get(leafRanges.size() - 1);
+        if (last != null && last[1] == start) {
+          last[1] = end;
+        } else {
+          leafRanges.add(new long[] {start, end});
+        }
+      } else {
+        MetadataIndexNode childNode;
+        try {
+          childNode = MetadataIndexNode.deserializeFrom(readData(start, end));
+        } catch (Exception e) {
+          logger.error(METADATA_INDEX_NODE_DESERIALIZE_ERROR, file);
+          throw e;
+        }
+        collectLeafRanges(childNode, sortedMeasurements.subList(i, j), leafRanges);
+      }
+      i = j;
+    }
+  }
+
   /* Get leaf MetadataIndexPair which contains path */
   private Pair<MetadataIndexEntry, Long> getLeafMetadataIndexPair(Path path) throws IOException {
     readFileMetadata();
@@ -1093,7 +1194,10 @@ public class TsFileSequenceReader implements AutoCloseable {
       ByteBuffer buffer =
           readChunk(
               metaData.getOffsetOfChunkHeader() + header.getSerializedSize(), header.getDataSize());
-      return new Chunk(header, buffer, metaData.getDeleteIntervalList(), metaData.getStatistics());
+      Chunk chunk =
+          new Chunk(header, buffer, metaData.getDeleteIntervalList(), metaData.getStatistics());
+      chunk.setZstdDictionaries(getZstdDictionaries(header.getCompressionType()));
+      return chunk;
     } catch (Throwable t) {
       logger.error("Exception happened while reading chunk of {}", file, t);
       throw t;
@@ -1113,8 +1217,26 @@ public class TsFileSequenceReader implements AutoCloseable {
         readChunk(
             chunkCacheKey.getOffsetOfChunkHeader() + header.getSerializedSize(),
             header.getDataSize());
-    return new Chunk(
-        header, buffer, chunkCacheKey.getDeleteIntervalList(), chunkCacheKey.getStatistics());
+    Chunk chunk =
+        new Chunk(
+            header, buffer, chunkCacheKey.getDeleteIntervalList(), chunkCacheKey.getStatistics());
+    chunk.setZstdDictionaries(getZstdDictionaries(header.getCompressionType()));
+    return chunk;
+  }
+
+  /**
+   * The zstd dictionaries used by the pages are stored with the file metadata, so the file metadata
+   * is read before a ZSTD chunk is decompressed. The dictionaries belong to this file only.
+   *
+   * @return the zstd dictionaries of this file keyed by their ids, empty if the chunks are not
+   *     compressed by ZSTD or the file is not sealed
+   */
+  public Map<Long, ZstdDictionary> getZstdDictionaries(CompressionType compressionType)
+      throws IOException {
+    if (compressionType != CompressionType.ZSTD || fileMetadataSize <= 0) {
+      return Collections.emptyMap();
+    }
+    return readFileMetadata().getZstdDictionaries();
   }
 
   /**
@@ -1152,7 +1274,7 @@ public class TsFileSequenceReader implements AutoCloseable {
     if (header.getUncompressedSize() == 0 || type == CompressionType.UNCOMPRESSED) {
       return buffer;
     } // FIXME if the buffer is not array-implemented.
-    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type);
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(type, getZstdDictionaries(type));
     ByteBuffer uncompressedBuffer = ByteBuffer.allocate(header.getUncompressedSize());
     unCompressor.uncompress(
         buffer.array(), buffer.position(), buffer.remaining(), uncompressedBuffer.array(), 0);
@@ -1290,7 +1412,7 @@ public class TsFileSequenceReader implements AutoCloseable {
       return TsFileCheckStatus.INCOMPATIBLE_FILE;
     }
     if (!TSFileConfig.MAGIC_STRING.equals(readHeadMagic())
-        || (TSFileConfig.VERSION_NUMBER != readVersionNumber())) {
+        || !TSFileConfig.isCompatibleVersion(readVersionNumber())) {
       return TsFileCheckStatus.INCOMPATIBLE_FILE;
     }
 
@@ -1562,7 +1684,7 @@ public class TsFileSequenceReader implements AutoCloseable {
     }
     try {
       if (!TSFileConfig.MAGIC_STRING.equals(readHeadMagic())
-          || (TSFileConfig.VERSION_NUMBER != readVersionNumber())) {
+          || !TSFileConfig.isCompatibleVersion(readVersionNumber())) {
         return TsFileCheckStatus.INCOMPATIBLE_FILE;
       }
       tsFileInput.position(headerLength);
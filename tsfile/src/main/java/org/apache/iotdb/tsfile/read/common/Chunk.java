@@ -18,6 +18,7 @@
  */
 package org.apache.iotdb.tsfile.read.common;
 
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
@@ -26,7 +27,10 @@ import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** used in query. */
 public class Chunk {
@@ -37,6 +41,8 @@ public class Chunk {
   private boolean isFromOldFile = false;
   /** A list of deleted intervals. */
   private List<TimeRange> deleteIntervalList;
+  /** zstd dictionaries of the files that the pages are read from, keyed by their ids */
+  private Map<Long, ZstdDictionary> zstdDictionaries = Collections.emptyMap();
 
   private long ramSize;
 
@@ -145,12 +151,25 @@ public class Chunk {
       newChunkData.put(b, offset1, b.length - offset1);
     }
     chunkData = newChunkData;
+    if (!chunk.zstdDictionaries.isEmpty()) {
+      Map<Long, ZstdDictionary> mergedDictionaries = new HashMap<>(zstdDictionaries);
+      mergedDictionaries.putAll(chunk.zstdDictionaries);
+      zstdDictionaries = mergedDictionaries;
+    }
   }
 
   public Statistics getChunkStatistic() {
     return chunkStatistic;
   }
 
+  public Map<Long, ZstdDictionary> getZstdDictionaries() {
+    return zstdDictionaries;
+  }
+
+  public void setZstdDictionaries(Map<Long, ZstdDictionary> zstdDictionaries) {
+    this.zstdDictionaries = zstdDictionaries;
+  }
+
   public boolean isFromOldFile() {
     return isFromOldFile;
   }
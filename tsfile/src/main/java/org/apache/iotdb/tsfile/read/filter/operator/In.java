@@ -131,4 +131,8 @@ public class In<T extends Comparable<T>> implements Filter {
   public Set<T> getValues() {
     return values;
   }
+
+  public boolean isNot() {
+    return not;
+  }
 }
@@ -76,7 +76,10 @@ public class AlignedChunkReader implements IChunkReader {
     this.timeChunkDataBuffer = timeChunk.getData();
     this.valueDeleteIntervalList = new ArrayList<>();
     this.timeChunkHeader = timeChunk.getHeader();
-    this.unCompressor = IUnCompressor.getUnCompressor(timeChunkHeader.getCompressionType());
+    // the time chunk and the value chunks are in the same file and share the zstd dictionaries
+    this.unCompressor =
+        IUnCompressor.getUnCompressor(
+            timeChunkHeader.getCompressionType(), timeChunk.getZstdDictionaries());
     this.currentTimestamp = Long.MIN_VALUE;
     List<Statistics> valueChunkStatisticsList = new ArrayList<>();
     valueChunkList.forEach(
@@ -100,7 +103,10 @@ public class AlignedChunkReader implements IChunkReader {
     this.timeChunkDataBuffer = timeChunk.getData();
     this.valueDeleteIntervalList = new ArrayList<>();
     this.timeChunkHeader = timeChunk.getHeader();
-    this.unCompressor = IUnCompressor.getUnCompressor(timeChunkHeader.getCompressionType());
+    // the time chunk and the value chunks are in the same file and share the zstd dictionaries
+    this.unCompressor =
+        IUnCompressor.getUnCompressor(
+            timeChunkHeader.getCompressionType(), timeChunk.getZstdDictionaries());
     this.currentTimestamp = currentTimestamp;
     List<Statistics> valueChunkStatisticsList = new ArrayList<>();
     valueChunkList.forEach(
@@ -205,7 +211,8 @@ public class AlignedChunkReader implements IChunkReader {
           || valuePageHeader.get(i).getUncompressedSize() == 0) { // Empty Page
         valuePageHeaderList.add(null);
         valuePageDataList.add(null);
-        valueDataTypeList.add(null);
+        valueDataTypeList.add(
+            valueChunkHeaderList.get(i) == null ? null : valueChunkHeaderList.get(i).getDataType());
         valueDecoderList.add(null);
       } else if (pageSatisfied(
           valuePageHeader.get(i),
@@ -228,7 +235,8 @@ public class AlignedChunkReader implements IChunkReader {
                     + valuePageHeader.get(i).getCompressedSize());
         valuePageHeaderList.add(null);
         valuePageDataList.add(null);
-        valueDataTypeList.add(null);
+        valueDataTypeList.add(
+            valueChunkHeaderList.get(i) == null ? null : valueChunkHeaderList.get(i).getDataType());
         valueDecoderList.add(null);
       }
     }
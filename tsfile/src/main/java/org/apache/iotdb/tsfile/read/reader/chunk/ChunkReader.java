@@ -73,7 +73,9 @@ public class ChunkReader implements IChunkReader {
     this.deleteIntervalList = chunk.getDeleteIntervalList();
     this.currentTimestamp = Long.MIN_VALUE;
     chunkHeader = chunk.getHeader();
-    this.unCompressor = IUnCompressor.getUnCompressor(chunkHeader.getCompressionType());
+    this.unCompressor =
+        IUnCompressor.getUnCompressor(
+            chunkHeader.getCompressionType(), chunk.getZstdDictionaries());
     if (chunk.isFromOldFile()) {
       initAllPageReadersV2();
     } else {
@@ -91,7 +93,9 @@ public class ChunkReader implements IChunkReader {
     this.deleteIntervalList = chunk.getDeleteIntervalList();
     this.currentTimestamp = currentTimestamp;
     chunkHeader = chunk.getHeader();
-    this.unCompressor = IUnCompressor.getUnCompressor(chunkHeader.getCompressionType());
+    this.unCompressor =
+        IUnCompressor.getUnCompressor(
+            chunkHeader.getCompressionType(), chunk.getZstdDictionaries());
     if (chunk.isFromOldFile()) {
       initAllPageReadersV2();
     } else {
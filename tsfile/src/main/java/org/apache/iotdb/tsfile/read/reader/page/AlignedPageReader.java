@@ -27,6 +27,7 @@ import org.apache.iotdb.tsfile.read.common.BatchDataFactory;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
 import org.apache.iotdb.tsfile.read.common.block.TsBlock;
 import org.apache.iotdb.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.iotdb.tsfile.read.common.block.column.TimeColumnBuilder;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.read.filter.operator.AndFilter;
 import org.apache.iotdb.tsfile.read.reader.IAlignedPageReader;
@@ -37,12 +38,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class AlignedPageReader implements IPageReader, IAlignedPageReader {
 
   private final TimePageReader timePageReader;
   private final List<ValuePageReader> valuePageReaderList;
+  private final List<TSDataType> valueDataTypeList;
   private final int valueCount;
   private Filter filter;
   private boolean isModified;
@@ -73,6 +74,7 @@ public class AlignedPageReader implements IPageReader, IAlignedPageReader {
         valuePageReaderList.add(null);
       }
     }
+    this.valueDataTypeList = valueDataTypeList;
     this.filter = filter;
     this.valueCount = valuePageReaderList.size();
   }
@@ -105,44 +107,57 @@ public class AlignedPageReader implements IPageReader, IAlignedPageReader {
     return pageData.flip();
   }
 
+  /**
+   * The columns are materialized lazily: the time column is decoded first, and the rows to keep
+   * are decided by the bitmaps and the filter. Then each value column only writes the values of
+   * the kept rows, and stops decoding after the last one.
+   */
   @Override
   public TsBlock getAllSatisfiedData() throws IOException {
-    // TODO change from the row-based style to column-based style
-    TsBlockBuilder builder =
-        new TsBlockBuilder(
-            valuePageReaderList.stream()
-                .map(ValuePageReader::getDataType)
-                .collect(Collectors.toList()));
-    int timeIndex = -1;
-    while (timePageReader.hasNextTime()) {
-      long timestamp = timePageReader.nextTime();
-      timeIndex++;
+    TsBlockBuilder builder = new TsBlockBuilder(valueDataTypeList);
+    long[] timeBatch = timePageReader.getNextTimeBatch();
+    boolean[] keepCurrentRow = new boolean[timeBatch.length];
+    // Currently, if it's a value filter, it will only accept AlignedPath with only one sub sensor,
+    // so the only column is decoded together with the filter
+    boolean decodedWithFilter = valueCount == 1 && valuePageReaderList.get(0) != null;
+    if (decodedWithFilter) {
+      valuePageReaderList
+          .get(0)
+          .writeSatisfiedValues(timeBatch, filter, keepCurrentRow, builder.getColumnBuilder(0));
+    } else {
       // if all the sub sensors' value are null in current row, just discard it
-      boolean isNull = true;
-      Object notNullObject = null;
-      TsPrimitiveType[] v = new TsPrimitiveType[valueCount];
-      for (int i = 0; i < v.length; i++) {
-        ValuePageReader pageReader = valuePageReaderList.get(i);
-        v[i] = pageReader == null ? null : pageReader.nextValue(timestamp, timeIndex);
-        if (v[i] != null) {
-          isNull = false;
-          notNullObject = v[i].getValue();
+      for (ValuePageReader pageReader : valuePageReaderList) {
+        if (pageReader != null) {
+          pageReader.markNotNullRows(timeBatch, keepCurrentRow);
         }
       }
-      // Currently, if it's a value filter, it will only accept AlignedPath with only one sub
-      // sensor
-      if (!isNull && (filter == null || filter.satisfy(timestamp, notNullObject))) {
-        builder.getTimeColumnBuilder().writeLong(timestamp);
-        for (int i = 0; i < v.length; i++) {
-          if (v[i] != null) {
-            builder.getColumnBuilder(i).writeTsPrimitiveType(v[i]);
-          } else {
-            builder.getColumnBuilder(i).appendNull();
-          }
+      if (filter != null) {
+        for (int i = 0; i < timeBatch.length; i++) {
+          keepCurrentRow[i] = keepCurrentRow[i] && filter.satisfy(timeBatch[i], null);
+        }
+      }
+    }
+
+    TimeColumnBuilder timeBuilder = builder.getTimeColumnBuilder();
+    int rowCount = 0;
+    for (int i = 0; i < timeBatch.length; i++) {
+      if (keepCurrentRow[i]) {
+        timeBuilder.writeLong(timeBatch[i]);
+        rowCount++;
+      }
+    }
+    if (!decodedWithFilter && rowCount > 0) {
+      for (int i = 0; i < valueCount; i++) {
+        ValuePageReader pageReader = valuePageReaderList.get(i);
+        if (pageReader != null) {
+          pageReader.writeColumnBuilderWithNextBatch(
+              timeBatch, keepCurrentRow, builder.getColumnBuilder(i));
+        } else {
+          builder.getColumnBuilder(i).appendNull(rowCount);
         }
-        builder.declarePosition();
       }
     }
+    builder.declarePositions(rowCount);
     return builder.build();
   }
 
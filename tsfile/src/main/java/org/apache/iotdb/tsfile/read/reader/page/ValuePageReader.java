@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.read.reader.page;
 
 import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
 import org.apache.iotdb.tsfile.exception.write.UnSupportedDataTypeException;
 import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
@@ -26,8 +27,10 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.read.common.BatchData;
 import org.apache.iotdb.tsfile.read.common.BatchDataFactory;
 import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.common.block.column.ColumnBuilder;
 import org.apache.iotdb.tsfile.read.filter.basic.Filter;
 import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.utils.ReadWriteForEncodingUtils;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.apache.iotdb.tsfile.utils.TsPrimitiveType;
 
@@ -239,6 +242,193 @@ public class ValuePageReader {
     return valueBatch;
   }
 
+  /**
+   * Mark the rows that have a value in this page, which is not deleted, by the bitmap only. No
+   * value is decoded.
+   */
+  public void markNotNullRows(long[] timeBatch, boolean[] notNullRows) {
+    if (valueBuffer == null) {
+      return;
+    }
+    deleteCursor = 0;
+    for (int i = 0; i < timeBatch.length; i++) {
+      if (!notNullRows[i] && hasValue(i) && !isDeleted(timeBatch[i])) {
+        notNullRows[i] = true;
+      }
+    }
+  }
+
+  /**
+   * Write the values that are not deleted and satisfy the filter into the builder, and mark their
+   * rows in satisfiedRows. It is used to evaluate a value filter before the other columns are
+   * decoded.
+   */
+  public void writeSatisfiedValues(
+      long[] timeBatch, Filter filter, boolean[] satisfiedRows, ColumnBuilder columnBuilder) {
+    if (valueBuffer == null) {
+      return;
+    }
+    deleteCursor = 0;
+    for (int i = 0; i < timeBatch.length; i++) {
+      if (!hasValue(i)) {
+        continue;
+      }
+      long timestamp = timeBatch[i];
+      switch (dataType) {
+        case BOOLEAN:
+          boolean aBoolean = valueDecoder.readBoolean(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBoolean))) {
+            columnBuilder.writeBoolean(aBoolean);
+            satisfiedRows[i] = true;
+          }
+          break;
+        case INT32:
+          int anInt = valueDecoder.readInt(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, anInt))) {
+            columnBuilder.writeInt(anInt);
+            satisfiedRows[i] = true;
+          }
+          break;
+        case INT64:
+          long aLong = valueDecoder.readLong(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aLong))) {
+            columnBuilder.writeLong(aLong);
+            satisfiedRows[i] = true;
+          }
+          break;
+        case FLOAT:
+          float aFloat = valueDecoder.readFloat(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aFloat))) {
+            columnBuilder.writeFloat(aFloat);
+            satisfiedRows[i] = true;
+          }
+          break;
+        case DOUBLE:
+          double aDouble = valueDecoder.readDouble(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aDouble))) {
+            columnBuilder.writeDouble(aDouble);
+            satisfiedRows[i] = true;
+          }
+          break;
+        case TEXT:
+          Binary aBinary = valueDecoder.readBinary(valueBuffer);
+          if (!isDeleted(timestamp) && (filter == null || filter.satisfy(timestamp, aBinary))) {
+            columnBuilder.writeBinary(aBinary);
+            satisfiedRows[i] = true;
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+    }
+  }
+
+  /**
+   * Write the values of the selected rows into the builder, and a null for each selected row
+   * without a value. The values of the other rows are skipped without being materialized, and the
+   * values after the last selected row are not decoded at all.
+   */
+  public void writeColumnBuilderWithNextBatch(
+      long[] timeBatch, boolean[] selectedRows, ColumnBuilder columnBuilder) {
+    int lastSelectedRow = selectedRows.length - 1;
+    while (lastSelectedRow >= 0 && !selectedRows[lastSelectedRow]) {
+      lastSelectedRow--;
+    }
+    deleteCursor = 0;
+    for (int i = 0; i <= lastSelectedRow; i++) {
+      if (valueBuffer == null || !hasValue(i)) {
+        if (selectedRows[i]) {
+          columnBuilder.appendNull();
+        }
+        continue;
+      }
+      if (!selectedRows[i]) {
+        skipValue();
+        continue;
+      }
+      if (isDeleted(timeBatch[i])) {
+        skipValue();
+        columnBuilder.appendNull();
+        continue;
+      }
+      switch (dataType) {
+        case BOOLEAN:
+          columnBuilder.writeBoolean(valueDecoder.readBoolean(valueBuffer));
+          break;
+        case INT32:
+          columnBuilder.writeInt(valueDecoder.readInt(valueBuffer));
+          break;
+        case INT64:
+          columnBuilder.writeLong(valueDecoder.readLong(valueBuffer));
+          break;
+        case FLOAT:
+          columnBuilder.writeFloat(valueDecoder.readFloat(valueBuffer));
+          break;
+        case DOUBLE:
+          columnBuilder.writeDouble(valueDecoder.readDouble(valueBuffer));
+          break;
+        case TEXT:
+          columnBuilder.writeBinary(valueDecoder.readBinary(valueBuffer));
+          break;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+    }
+  }
+
+  /** skip the next value, plain encoded values are skipped without being decoded */
+  private void skipValue() {
+    if (valueDecoder instanceof PlainDecoder) {
+      switch (dataType) {
+        case BOOLEAN:
+          valueBuffer.position(valueBuffer.position() + 1);
+          return;
+        case INT32:
+          ReadWriteForEncodingUtils.readVarInt(valueBuffer);
+          return;
+        case INT64:
+        case DOUBLE:
+          valueBuffer.position(valueBuffer.position() + 8);
+          return;
+        case FLOAT:
+          valueBuffer.position(valueBuffer.position() + 4);
+          return;
+        case TEXT:
+          int length = ReadWriteForEncodingUtils.readVarInt(valueBuffer);
+          valueBuffer.position(valueBuffer.position() + length);
+          return;
+        default:
+          throw new UnSupportedDataTypeException(String.valueOf(dataType));
+      }
+    }
+    switch (dataType) {
+      case BOOLEAN:
+        valueDecoder.readBoolean(valueBuffer);
+        break;
+      case INT32:
+        valueDecoder.readInt(valueBuffer);
+        break;
+      case INT64:
+        valueDecoder.readLong(valueBuffer);
+        break;
+      case FLOAT:
+        valueDecoder.readFloat(valueBuffer);
+        break;
+      case DOUBLE:
+        valueDecoder.readDouble(valueBuffer);
+        break;
+      case TEXT:
+        valueDecoder.readBinary(valueBuffer);
+        break;
+      default:
+        throw new UnSupportedDataTypeException(String.valueOf(dataType));
+    }
+  }
+
+  private boolean hasValue(int timeIndex) {
+    return bitmap != null && ((bitmap[timeIndex / 8] & 0xFF) & (MASK >>> (timeIndex % 8))) != 0;
+  }
+
   public Statistics getStatistics() {
     return pageHeader.getStatistics();
   }
@@ -22,18 +22,22 @@ import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.List;
 import java.util.Objects;
 
 public class BloomFilter {
 
-  private static final int MINIMAL_SIZE = 256;
-  private static final int MAXIMAL_HASH_FUNCTION_SIZE = 8;
+  protected static final int MINIMAL_SIZE = 256;
+  protected static final int MAXIMAL_HASH_FUNCTION_SIZE = 8;
   private static final int[] SEEDS = new int[] {5, 7, 11, 19, 31, 37, 43, 59};
-  private int size;
-  private int hashFunctionSize;
+  protected int size;
+  protected int hashFunctionSize;
   private BitSet bits;
   private HashFunction[] func;
 
+  /** for the subclasses which organize the bits in their own way */
+  protected BloomFilter() {}
+
   // do not try to initialize the filter by construction method
   private BloomFilter(byte[] bytes, int size, int hashFunctionSize) {
     this.size = size;
@@ -82,6 +86,9 @@ public class BloomFilter {
    * @return bloom filter
    */
   public static BloomFilter buildBloomFilter(byte[] bytes, int size, int hashFunctionSize) {
+    if (hashFunctionSize == SplitBlockBloomFilter.SERIALIZED_HASH_FUNCTION_SIZE) {
+      return SplitBlockBloomFilter.buildBloomFilter(bytes, size);
+    }
     return new BloomFilter(bytes, size, Math.min(MAXIMAL_HASH_FUNCTION_SIZE, hashFunctionSize));
   }
 
@@ -89,6 +96,17 @@ public class BloomFilter {
     return hashFunctionSize;
   }
 
+  /**
+   * The classic bloom filter uses at most MAXIMAL_HASH_FUNCTION_SIZE hash functions, so a larger
+   * hash function size is serialized to mark the other formats.
+   *
+   * @return the hash function size to serialize, which is passed back to {@link
+   *     #buildBloomFilter(byte[], int, int)}
+   */
+  public int getSerializedHashFunctionSize() {
+    return hashFunctionSize;
+  }
+
   public int getSize() {
     return size;
   }
@@ -116,6 +134,19 @@ public class BloomFilter {
     return ret;
   }
 
+  /**
+   * check a batch of values at once.
+   *
+   * @return whether each value may be in the bloom filter
+   */
+  public boolean[] contains(List<String> values) {
+    boolean[] res = new boolean[values.size()];
+    for (int i = 0; i < res.length; i++) {
+      res[i] = contains(values.get(i));
+    }
+    return res;
+  }
+
   public int getBitCount() {
     int res = 0;
     for (int i = 0; i < size; i++) {
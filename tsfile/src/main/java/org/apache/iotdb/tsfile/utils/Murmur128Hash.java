@@ -18,6 +18,8 @@
  */
 package org.apache.iotdb.tsfile.utils;
 
+import java.nio.charset.StandardCharsets;
+
 public class Murmur128Hash {
 
   private Murmur128Hash() {
@@ -35,6 +37,18 @@ public class Murmur128Hash {
     return (int) innerHash(value.getBytes(), 0, value.getBytes().length, seed);
   }
 
+  /**
+   * get the 64-bit hashcode of value by seed
+   *
+   * @param value value
+   * @param seed seed
+   * @return hashcode of value
+   */
+  public static long hash64(String value, int seed) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return innerHash(bytes, 0, bytes.length, seed);
+  }
+
   /**
    * get hashcode of two values by seed
    *
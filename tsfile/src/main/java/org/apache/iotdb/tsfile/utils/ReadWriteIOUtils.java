@@ -978,10 +978,7 @@ public class ReadWriteIOUtils {
 
   public static ByteBuffer clone(ByteBuffer original) {
     ByteBuffer clone = ByteBuffer.allocate(original.remaining());
-    while (original.hasRemaining()) {
-      clone.put(original.get());
-    }
-
+    clone.put(original);
     clone.flip();
     return clone;
   }
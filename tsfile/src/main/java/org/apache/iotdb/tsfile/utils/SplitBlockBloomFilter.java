@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.utils;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bloom filter whose bits are split into blocks of 512 bits, i.e., one cache line. A value is
+ * hashed only once, the high half of the hash selects the block and the low half sets one bit in
+ * each of the 8 words of the block, so a lookup touches only one cache line.
+ */
+public class SplitBlockBloomFilter extends BloomFilter {
+
+  /** marks the split block format in the serialized hash function size */
+  static final int SERIALIZED_HASH_FUNCTION_SIZE = 128;
+
+  private static final int WORDS_PER_BLOCK = 8;
+  private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+  private static final int SEED = 5;
+  // odd constants to derive the bit in each word from the hash
+  private static final int[] SALTS =
+      new int[] {
+        0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947,
+        0x5c6bfb31
+      };
+
+  private final long[] words;
+  private final int blockNum;
+
+  private SplitBlockBloomFilter(long[] words) {
+    this.words = words;
+    this.blockNum = words.length / WORDS_PER_BLOCK;
+    this.size = blockNum * BITS_PER_BLOCK;
+    this.hashFunctionSize = WORDS_PER_BLOCK;
+  }
+
+  /**
+   * get empty split block bloom filter
+   *
+   * @param errorPercent the tolerant percent of error of the bloom filter
+   * @param numOfString the number of string want to store in the bloom filter
+   * @return empty bloom
+   */
+  public static SplitBlockBloomFilter getEmptyBloomFilter(double errorPercent, int numOfString) {
+    errorPercent = Math.max(errorPercent, TSFileConfig.MIN_BLOOM_FILTER_ERROR_RATE);
+    errorPercent = Math.min(errorPercent, TSFileConfig.MAX_BLOOM_FILTER_ERROR_RATE);
+
+    double ln2 = Math.log(2);
+    long size = (long) (-numOfString * Math.log(errorPercent) / ln2 / ln2) + 1;
+    size = Math.max(MINIMAL_SIZE, size);
+    int blockNum = (int) ((size + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+    return new SplitBlockBloomFilter(new long[blockNum * WORDS_PER_BLOCK]);
+  }
+
+  /**
+   * build split block bloom filter by bytes
+   *
+   * @param bytes bytes of words
+   * @param size the number of bits
+   * @return bloom filter
+   */
+  static SplitBlockBloomFilter buildBloomFilter(byte[] bytes, int size) {
+    long[] words = new long[size / Long.SIZE];
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+    return new SplitBlockBloomFilter(words);
+  }
+
+  @Override
+  public int getSerializedHashFunctionSize() {
+    return SERIALIZED_HASH_FUNCTION_SIZE;
+  }
+
+  @Override
+  public void setSize(int size) {
+    throw new UnsupportedOperationException("the size of split block bloom filter is fixed");
+  }
+
+  @Override
+  public void add(String value) {
+    long hash = Murmur128Hash.hash64(value, SEED);
+    int offset = blockOffset(hash);
+    int key = (int) hash;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      words[offset + i] |= 1L << ((key * SALTS[i]) >>> 26);
+    }
+  }
+
+  @Override
+  public boolean contains(String value) {
+    if (value == null) {
+      return false;
+    }
+    return contains(Murmur128Hash.hash64(value, SEED));
+  }
+
+  /** all values are hashed before probing, so the probes of different values can overlap */
+  @Override
+  public boolean[] contains(List<String> values) {
+    long[] hashes = new long[values.size()];
+    for (int i = 0; i < hashes.length; i++) {
+      String value = values.get(i);
+      hashes[i] = value == null ? 0 : Murmur128Hash.hash64(value, SEED);
+    }
+    boolean[] res = new boolean[hashes.length];
+    for (int i = 0; i < hashes.length; i++) {
+      res[i] = values.get(i) != null && contains(hashes[i]);
+    }
+    return res;
+  }
+
+  private boolean contains(long hash) {
+    int offset = blockOffset(hash);
+    int key = (int) hash;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      if ((words[offset + i] & (1L << ((key * SALTS[i]) >>> 26))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** map the high half of the hash to a block without division */
+  private int blockOffset(long hash) {
+    return (int) (((hash >>> 32) * blockNum) >>> 32) * WORDS_PER_BLOCK;
+  }
+
+  @Override
+  public int getBitCount() {
+    int res = 0;
+    for (long word : words) {
+      res += Long.bitCount(word);
+    }
+    return res;
+  }
+
+  @Override
+  public byte[] serialize() {
+    ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES);
+    buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(words);
+    return buffer.array();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return Arrays.equals(words, ((SplitBlockBloomFilter) o).words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+}
@@ -45,8 +45,13 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * TsFileWriter is the entrance for writing processing. It receives a record and send it to
@@ -89,6 +94,12 @@ public class TsFileWriter implements AutoCloseable {
 
   private long chunkGroupSizeThreshold;
 
+  /**
+   * the pool to encode the chunk groups of different devices concurrently, null to encode them in
+   * the calling thread.
+   */
+  private ExecutorService encodePool;
+
   /**
    * init this TsFileWriter.
    *
@@ -521,6 +532,86 @@ public class TsFileWriter implements AutoCloseable {
     return checkMemorySizeAndMayFlushChunks();
   }
 
+  /**
+   * write tablets of several devices. If an encode pool is set, the tablets of different devices
+   * are encoded concurrently, and the tablets of the same device are encoded in the given order.
+   *
+   * @param tablets - tablets of non-aligned devices
+   * @throws IOException exception in IO
+   * @throws WriteProcessException exception in write process
+   */
+  public boolean write(List<Tablet> tablets) throws IOException, WriteProcessException {
+    return writeTablets(tablets, false);
+  }
+
+  public boolean writeAligned(List<Tablet> tablets) throws IOException, WriteProcessException {
+    return writeTablets(tablets, true);
+  }
+
+  private boolean writeTablets(List<Tablet> tablets, boolean isAligned)
+      throws IOException, WriteProcessException {
+    Map<String, List<Tablet>> deviceTabletsMap = new LinkedHashMap<>();
+    for (Tablet tablet : tablets) {
+      // make sure the ChunkGroupWriters exist before encoding, the map is not thread-safe
+      checkIsTimeseriesExist(tablet, isAligned);
+      deviceTabletsMap.computeIfAbsent(tablet.deviceId, k -> new ArrayList<>()).add(tablet);
+    }
+    if (encodePool == null || deviceTabletsMap.size() == 1) {
+      for (Tablet tablet : tablets) {
+        recordCount += groupWriters.get(tablet.deviceId).write(tablet);
+      }
+    } else {
+      List<Callable<Integer>> tasks = new ArrayList<>(deviceTabletsMap.size());
+      for (Map.Entry<String, List<Tablet>> entry : deviceTabletsMap.entrySet()) {
+        IChunkGroupWriter groupWriter = groupWriters.get(entry.getKey());
+        tasks.add(
+            () -> {
+              int count = 0;
+              for (Tablet tablet : entry.getValue()) {
+                count += groupWriter.write(tablet);
+              }
+              return count;
+            });
+      }
+      for (int count : invokeAll(tasks)) {
+        recordCount += count;
+      }
+    }
+    return checkMemorySizeAndMayFlushChunks();
+  }
+
+  /** run the tasks in the encode pool and wait for all of them, even if some of them fail. */
+  private <T> List<T> invokeAll(List<Callable<T>> tasks)
+      throws IOException, WriteProcessException {
+    List<Future<T>> futures;
+    try {
+      futures = encodePool.invokeAll(tasks);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WriteProcessException("Interrupted while encoding chunk groups", e);
+    }
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new WriteProcessException("Interrupted while encoding chunk groups", e);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof WriteProcessException) {
+          throw (WriteProcessException) cause;
+        } else if (cause instanceof IOException) {
+          throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new WriteProcessException(cause);
+      }
+    }
+    return results;
+  }
+
   /**
    * calculate total memory size occupied by all ChunkGroupWriter instances currently.
    *
@@ -567,6 +658,22 @@ public class TsFileWriter implements AutoCloseable {
    */
   public boolean flushAllChunkGroups() throws IOException {
     if (recordCount > 0) {
+      if (encodePool != null && groupWriters.size() > 1) {
+        // compress the last pages concurrently, the chunks are still written in order below
+        List<Callable<Void>> tasks = new ArrayList<>(groupWriters.size());
+        for (IChunkGroupWriter groupWriter : groupWriters.values()) {
+          tasks.add(
+              () -> {
+                groupWriter.sealAllChunks();
+                return null;
+              });
+        }
+        try {
+          invokeAll(tasks);
+        } catch (WriteProcessException e) {
+          throw new IOException(e);
+        }
+      }
       for (Map.Entry<String, IChunkGroupWriter> entry : groupWriters.entrySet()) {
         String deviceId = entry.getKey();
         IChunkGroupWriter groupWriter = entry.getValue();
@@ -628,6 +735,17 @@ public class TsFileWriter implements AutoCloseable {
     fileWriter.endFile();
   }
 
+  /**
+   * Encode the chunk groups of different devices in the given pool when writing a list of tablets
+   * and when flushing. The file is the same as the one written without a pool. The pool is not
+   * shut down by this writer.
+   *
+   * @param encodePool the pool to encode in, null to encode in the calling thread
+   */
+  public void setEncodePool(ExecutorService encodePool) {
+    this.encodePool = encodePool;
+  }
+
   /**
    * this function is only for Test.
    *
@@ -69,6 +69,14 @@ public class AlignedChunkWriterImpl implements IChunkWriter {
   }
 
   public AlignedChunkWriterImpl(List<IMeasurementSchema> schemaList) {
+    this(schemaList, false);
+  }
+
+  /**
+   * @param isMerging whether the chunks are rewritten by compaction, whose pages can be compressed
+   *     with the zstd dictionaries of the measurements
+   */
+  public AlignedChunkWriterImpl(List<IMeasurementSchema> schemaList, boolean isMerging) {
     TSEncoding timeEncoding =
         TSEncoding.valueOf(TSFileDescriptor.getInstance().getConfig().getTimeEncoder());
     TSDataType timeType = TSFileDescriptor.getInstance().getConfig().getTimeSeriesDataType();
@@ -77,7 +85,8 @@ public class AlignedChunkWriterImpl implements IChunkWriter {
             "",
             schemaList.get(0).getCompressor(),
             timeEncoding,
-            TSEncodingBuilder.getEncodingBuilder(timeEncoding).getEncoder(timeType));
+            TSEncodingBuilder.getEncodingBuilder(timeEncoding).getEncoder(timeType),
+            isMerging);
 
     valueChunkWriterList = new ArrayList<>(schemaList.size());
     for (int i = 0; i < schemaList.size(); i++) {
@@ -87,7 +96,8 @@ public class AlignedChunkWriterImpl implements IChunkWriter {
               schemaList.get(i).getCompressor(),
               schemaList.get(i).getType(),
               schemaList.get(i).getEncodingType(),
-              schemaList.get(i).getValueEncoder()));
+              schemaList.get(i).getValueEncoder(),
+              isMerging));
     }
 
     this.valueIndex = 0;
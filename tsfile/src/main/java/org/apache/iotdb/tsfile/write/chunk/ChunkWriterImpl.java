@@ -94,6 +94,19 @@ public class ChunkWriterImpl implements IChunkWriter {
 
   /** @param schema schema of this measurement */
   public ChunkWriterImpl(IMeasurementSchema schema) {
+    this(schema, new PageWriter(schema));
+  }
+
+  /**
+   * @param isMerging whether the chunk is rewritten by compaction, whose pages can be compressed
+   *     with the zstd dictionary of the measurement
+   */
+  public ChunkWriterImpl(IMeasurementSchema schema, boolean isMerging) {
+    this(schema, new PageWriter(schema, isMerging));
+    this.isMerging = isMerging;
+  }
+
+  private ChunkWriterImpl(IMeasurementSchema schema, PageWriter pageWriter) {
     this.measurementSchema = schema;
     this.compressor = ICompressor.getCompressor(schema.getCompressor());
     this.pageBuffer = new PublicBAOS();
@@ -107,7 +120,7 @@ public class ChunkWriterImpl implements IChunkWriter {
     // init statistics for this chunk and page
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
 
-    this.pageWriter = new PageWriter(measurementSchema);
+    this.pageWriter = pageWriter;
 
     this.pageWriter.setTimeEncoder(measurementSchema.getTimeEncoder());
     this.pageWriter.setValueEncoder(measurementSchema.getValueEncoder());
@@ -116,11 +129,6 @@ public class ChunkWriterImpl implements IChunkWriter {
     checkSdtEncoding();
   }
 
-  public ChunkWriterImpl(IMeasurementSchema schema, boolean isMerging) {
-    this(schema);
-    this.isMerging = isMerging;
-  }
-
   private void checkSdtEncoding() {
     if (measurementSchema.getProps() != null && !isMerging) {
       if (measurementSchema.getProps().getOrDefault(LOSS, "").equals(SDT)) {
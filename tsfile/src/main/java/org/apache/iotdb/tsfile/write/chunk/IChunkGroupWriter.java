@@ -62,6 +62,12 @@ public interface IChunkGroupWriter {
    */
   long flushToFileWriter(TsFileIOWriter tsfileWriter) throws IOException;
 
+  /**
+   * seal the un-sealed pages of all the chunks, so that they are encoded and compressed into the
+   * page buffers before flushing.
+   */
+  void sealAllChunks();
+
   /**
    * get the max memory occupied at this time. Note that, this method should be called after running
    * {@code long calcAllocatedSize()}
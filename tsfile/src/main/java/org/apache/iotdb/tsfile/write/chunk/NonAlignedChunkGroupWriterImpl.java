@@ -167,7 +167,8 @@ public class NonAlignedChunkGroupWriterImpl implements IChunkGroupWriter {
   }
 
   /** seal all the chunks which may has un-sealed pages in force. */
-  private void sealAllChunks() {
+  @Override
+  public void sealAllChunks() {
     for (IChunkWriter writer : chunkWriters.values()) {
       writer.sealCurrentPage();
     }
@@ -80,6 +80,16 @@ public class TimeChunkWriter {
       CompressionType compressionType,
       TSEncoding encodingType,
       Encoder timeEncoder) {
+    this(measurementId, compressionType, encodingType, timeEncoder, false);
+  }
+
+  /** @param useDictionary whether the pages can be compressed with the zstd dictionary */
+  public TimeChunkWriter(
+      String measurementId,
+      CompressionType compressionType,
+      TSEncoding encodingType,
+      Encoder timeEncoder,
+      boolean useDictionary) {
     this.measurementId = measurementId;
     this.encodingType = encodingType;
     this.compressionType = compressionType;
@@ -94,7 +104,9 @@ public class TimeChunkWriter {
     // init statistics for this chunk and page
     this.statistics = new TimeStatistics();
 
-    this.pageWriter = new TimePageWriter(timeEncoder, ICompressor.getCompressor(compressionType));
+    this.pageWriter =
+        new TimePageWriter(
+            timeEncoder, ICompressor.getCompressor(compressionType, measurementId, useDictionary));
   }
 
   public void write(long time) {
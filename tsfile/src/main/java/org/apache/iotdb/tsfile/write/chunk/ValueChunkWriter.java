@@ -84,6 +84,17 @@ public class ValueChunkWriter {
       TSDataType dataType,
       TSEncoding encodingType,
       Encoder valueEncoder) {
+    this(measurementId, compressionType, dataType, encodingType, valueEncoder, false);
+  }
+
+  /** @param useDictionary whether the pages can be compressed with the zstd dictionary */
+  public ValueChunkWriter(
+      String measurementId,
+      CompressionType compressionType,
+      TSDataType dataType,
+      TSEncoding encodingType,
+      Encoder valueEncoder,
+      boolean useDictionary) {
     this.measurementId = measurementId;
     this.encodingType = encodingType;
     this.dataType = dataType;
@@ -98,7 +109,10 @@ public class ValueChunkWriter {
     this.statistics = Statistics.getStatsByType(dataType);
 
     this.pageWriter =
-        new ValuePageWriter(valueEncoder, ICompressor.getCompressor(compressionType), dataType);
+        new ValuePageWriter(
+            valueEncoder,
+            ICompressor.getCompressor(compressionType, measurementId, useDictionary),
+            dataType);
   }
 
   public void write(long time, long value, boolean isNull) {
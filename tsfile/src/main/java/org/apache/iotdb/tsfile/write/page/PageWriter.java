@@ -65,9 +65,16 @@ public class PageWriter {
   }
 
   public PageWriter(IMeasurementSchema measurementSchema) {
+    this(measurementSchema, false);
+  }
+
+  /** @param useDictionary whether the zstd dictionary of the measurement can be used */
+  public PageWriter(IMeasurementSchema measurementSchema, boolean useDictionary) {
     this(measurementSchema.getTimeEncoder(), measurementSchema.getValueEncoder());
     this.statistics = Statistics.getStatsByType(measurementSchema.getType());
-    this.compressor = ICompressor.getCompressor(measurementSchema.getCompressor());
+    this.compressor =
+        ICompressor.getCompressor(
+            measurementSchema.getCompressor(), measurementSchema.getMeasurementId(), useDictionary);
   }
 
   private PageWriter(Encoder timeEncoder, Encoder valueEncoder) {
@@ -19,6 +19,7 @@
 
 package org.apache.iotdb.tsfile.write.writer;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.exception.NotCompatibleTsFileException;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
@@ -110,6 +111,9 @@ public class RestorableTsFileIOWriter extends TsFileIOWriter {
         } else {
           crashed = true;
           canWrite = true;
+          // keep the format of the bloom filter the version number in the head declares
+          splitBlockBloomFilter =
+              reader.readVersionNumber() == TSFileConfig.VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER;
           // remove broken data
           if (truncate) {
             out.truncate(truncatedSize);
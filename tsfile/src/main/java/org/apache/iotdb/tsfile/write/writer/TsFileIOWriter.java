@@ -20,13 +20,18 @@ package org.apache.iotdb.tsfile.write.writer;
 
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
 import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor.ZstdUnCompressor;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
 import org.apache.iotdb.tsfile.file.MetaMarker;
 import org.apache.iotdb.tsfile.file.header.ChunkGroupHeader;
 import org.apache.iotdb.tsfile.file.header.ChunkHeader;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
 import org.apache.iotdb.tsfile.file.metadata.ChunkGroupMetadata;
 import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexConstructor;
+import org.apache.iotdb.tsfile.file.metadata.MetadataIndexConstructor.MeasurementIndexBuilder;
 import org.apache.iotdb.tsfile.file.metadata.MetadataIndexNode;
 import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
 import org.apache.iotdb.tsfile.file.metadata.TsFileMetadata;
@@ -37,6 +42,8 @@ import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.iotdb.tsfile.read.common.Chunk;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.BytesUtils;
 import org.apache.iotdb.tsfile.utils.PublicBAOS;
 import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
@@ -44,15 +51,26 @@ import org.apache.iotdb.tsfile.utils.ReadWriteIOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.TreeMap;
 
 /**
@@ -62,6 +80,8 @@ public class TsFileIOWriter implements AutoCloseable {
 
   protected static final byte[] MAGIC_STRING_BYTES;
   public static final byte VERSION_NUMBER_BYTE;
+  public static final String CHUNK_METADATA_TEMP_FILE_SUFFIX = ".cmt";
+  public static final String SERIES_PATH_TEMP_FILE_SUFFIX = ".spt";
   protected static final TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
   private static final Logger logger = LoggerFactory.getLogger(TsFileIOWriter.class);
   private static final Logger resourceLogger = LoggerFactory.getLogger("FileMonitor");
@@ -74,9 +94,13 @@ public class TsFileIOWriter implements AutoCloseable {
   protected TsFileOutput out;
   protected boolean canWrite = true;
   protected File file;
+  // the format of the bloom filter is fixed when the file is started, as the version number in the
+  // head of the file tells the readers whether it is the split block one
+  protected boolean splitBlockBloomFilter = config.isSplitBlockBloomFilterEnabled();
 
   // current flushed Chunk
   private ChunkMetadata currentChunkMetadata;
+  private ChunkHeader currentChunkHeader;
   // current flushed ChunkGroup
   protected List<ChunkMetadata> chunkMetadataList = new ArrayList<>();
   // all flushed ChunkGroups
@@ -88,6 +112,25 @@ public class TsFileIOWriter implements AutoCloseable {
   // for upgrade tool and split tool
   Map<String, List<TimeseriesMetadata>> deviceTimeseriesMetadataMap;
 
+  // device -> time range of its data, for compaction to update the TsFileResource
+  private Map<String, TimeRange> deviceTimeRangeMap;
+
+  // the max estimated memory in bytes of the buffered chunk metadata, beyond which they are sorted
+  // and spilled to a temp file as a run. Spilling is disabled if it is not positive.
+  private long maxMetadataSize = -1;
+  private long currentMetadataSize = 0;
+  private File chunkMetadataTempFile;
+  private OutputStream chunkMetadataTempOutput;
+  private long chunkMetadataTempFileLength = 0;
+  // start offset of each spilled run in the chunk metadata temp file
+  private final List<Long> spilledRunOffsets = new ArrayList<>();
+
+  // zstd dictionaries used by the written pages keyed by their ids, the dictionaries are written at
+  // the tail of the file so that the file can be read elsewhere
+  private final Map<Long, ZstdDictionary> zstdDictionaries = new LinkedHashMap<>();
+  // zstd dictionaries of the files whose compressed pages are copied into this file
+  private final Map<Long, ZstdDictionary> sourceZstdDictionaries = new HashMap<>();
+
   // the two longs marks the index range of operations in current MemTable
   // and are serialized after MetaMarker.OPERATION_INDEX_RANGE to recover file-level range
   private long minPlanIndex;
@@ -111,6 +154,22 @@ public class TsFileIOWriter implements AutoCloseable {
     startFile();
   }
 
+  /**
+   * for writing a new tsfile with bounded memory for metadata. Once the chunk metadata of the
+   * flushed chunk groups exceed maxMetadataSize, they are sorted by series and spilled to a temp
+   * file next to the tsfile, and endFile() builds the metadata index by merging the spilled runs.
+   * As the chunk metadata are no longer kept in memory, getDeviceChunkMetadataMap(), filterChunks()
+   * and getDeviceTimeseriesMetadataMap() are not supported once spilling happens.
+   *
+   * @param file be used to output written data
+   * @param maxMetadataSize max memory in bytes of the buffered chunk metadata
+   * @throws IOException if I/O error occurs
+   */
+  public TsFileIOWriter(File file, long maxMetadataSize) throws IOException {
+    this(file);
+    this.maxMetadataSize = maxMetadataSize;
+  }
+
   /**
    * for writing a new tsfile.
    *
@@ -134,12 +193,17 @@ public class TsFileIOWriter implements AutoCloseable {
    * @throws IOException if an I/O error occurs.
    */
   public void writeBytesToStream(PublicBAOS bytes) throws IOException {
+    collectZstdDictionaries(
+        ByteBuffer.wrap(bytes.getBuf(), 0, bytes.size()), Collections.emptyMap());
     bytes.writeTo(out.wrapAsStream());
   }
 
   protected void startFile() throws IOException {
     out.write(MAGIC_STRING_BYTES);
-    out.write(VERSION_NUMBER_BYTE);
+    out.write(
+        splitBlockBloomFilter
+            ? TSFileConfig.VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER
+            : VERSION_NUMBER_BYTE);
   }
 
   public int startChunkGroup(String deviceId) throws IOException {
@@ -164,6 +228,9 @@ public class TsFileIOWriter implements AutoCloseable {
     currentChunkGroupDeviceId = null;
     chunkMetadataList = null;
     out.flush();
+    if (maxMetadataSize > 0 && currentMetadataSize > maxMetadataSize) {
+      spillChunkMetadata();
+    }
   }
 
   /**
@@ -212,6 +279,7 @@ public class TsFileIOWriter implements AutoCloseable {
             numOfPages,
             mask);
     header.serializeTo(out.wrapAsStream());
+    currentChunkHeader = header;
   }
 
   /** Write a whole chunk in another file into this file. Providing fast merge for IoTDB. */
@@ -223,7 +291,11 @@ public class TsFileIOWriter implements AutoCloseable {
             chunkHeader.getDataType(),
             out.getPosition(),
             chunkMetadata.getStatistics());
+    // keep the time/value chunk flag so that the chunks of aligned series can be copied as well
+    currentChunkMetadata.setMask((byte) (chunkHeader.getChunkType() & 0xC0));
     chunkHeader.serializeTo(out.wrapAsStream());
+    currentChunkHeader = chunkHeader;
+    collectZstdDictionaries(chunk.getData(), chunk.getZstdDictionaries());
     out.write(chunk.getData());
     endCurrentChunk();
     if (logger.isDebugEnabled()) {
@@ -236,8 +308,75 @@ public class TsFileIOWriter implements AutoCloseable {
 
   /** end chunk and write some log. */
   public void endCurrentChunk() {
+    if (maxMetadataSize > 0) {
+      currentMetadataSize +=
+          ChunkMetadata.calculateRamSize(
+              currentChunkMetadata.getMeasurementUid(), currentChunkMetadata.getDataType());
+    }
     chunkMetadataList.add(currentChunkMetadata);
     currentChunkMetadata = null;
+    currentChunkHeader = null;
+  }
+
+  /**
+   * Make the zstd dictionaries of a file known to this writer, so that the compressed pages copied
+   * from that file can be written with their dictionaries.
+   */
+  public void addSourceZstdDictionaries(Map<Long, ZstdDictionary> dictionaries) {
+    sourceZstdDictionaries.putAll(dictionaries);
+  }
+
+  /**
+   * Record the zstd dictionaries used by the pages of the current chunk. The dictionary of a page
+   * is looked up in the dictionaries of the chunk, then in those of the source files, and then in
+   * the dictionaries trained by this process.
+   *
+   * @param pages serialized pages of the current chunk, whose position is not changed
+   * @param chunkDictionaries the dictionaries of the file that the chunk is copied from
+   */
+  private void collectZstdDictionaries(
+      ByteBuffer pages, Map<Long, ZstdDictionary> chunkDictionaries) throws IOException {
+    if (currentChunkHeader == null
+        || currentChunkHeader.getCompressionType() != CompressionType.ZSTD
+        || (config.getZstdDictionarySizeInByte() <= 0
+            && chunkDictionaries.isEmpty()
+            && sourceZstdDictionaries.isEmpty())) {
+      return;
+    }
+    boolean hasStatistics =
+        (currentChunkHeader.getChunkType() & 0x3F) != MetaMarker.ONLY_ONE_PAGE_CHUNK_HEADER;
+    ByteBuffer buffer = pages.duplicate();
+    while (buffer.hasRemaining()) {
+      PageHeader pageHeader =
+          hasStatistics
+              ? PageHeader.deserializeFrom(buffer, currentChunkHeader.getDataType())
+              : PageHeader.deserializeFrom(buffer, currentChunkMetadata.getStatistics());
+      if (pageHeader.getCompressedSize() > 0) {
+        ByteBuffer pageData = buffer.slice();
+        pageData.limit(pageHeader.getCompressedSize());
+        long dictId = ZstdUnCompressor.getDictionaryId(pageData);
+        if (dictId != 0 && !zstdDictionaries.containsKey(dictId)) {
+          zstdDictionaries.put(dictId, findZstdDictionary(dictId, chunkDictionaries));
+        }
+        buffer.position(buffer.position() + pageHeader.getCompressedSize());
+      }
+    }
+  }
+
+  private ZstdDictionary findZstdDictionary(
+      long dictId, Map<Long, ZstdDictionary> chunkDictionaries) throws IOException {
+    ZstdDictionary dictionary = chunkDictionaries.get(dictId);
+    if (dictionary == null) {
+      dictionary = sourceZstdDictionaries.get(dictId);
+    }
+    if (dictionary == null) {
+      dictionary = ZstdDictionaryRegistry.getInstance().getDictionary(dictId);
+    }
+    if (dictionary == null) {
+      throw new IOException(
+          "The zstd dictionary " + dictId + " of a page written to " + file + " is unknown");
+    }
+    return dictionary;
   }
 
   /**
@@ -252,18 +391,15 @@ public class TsFileIOWriter implements AutoCloseable {
     // serialize the SEPARATOR of MetaData
     ReadWriteIOUtils.write(MetaMarker.SEPARATOR, out.wrapAsStream());
 
-    // group ChunkMetadata by series
-    Map<Path, List<IChunkMetadata>> chunkMetadataListMap = new TreeMap<>();
-
-    for (ChunkGroupMetadata chunkGroupMetadata : chunkGroupMetadataList) {
-      List<ChunkMetadata> chunkMetadatas = chunkGroupMetadata.getChunkMetadataList();
-      for (IChunkMetadata chunkMetadata : chunkMetadatas) {
-        Path series = new Path(chunkGroupMetadata.getDevice(), chunkMetadata.getMeasurementUid());
-        chunkMetadataListMap.computeIfAbsent(series, k -> new ArrayList<>()).add(chunkMetadata);
-      }
+    Map<Path, List<IChunkMetadata>> chunkMetadataListMap = null;
+    MetadataIndexNode metadataIndex;
+    if (chunkMetadataTempOutput != null) {
+      metadataIndex = flushSpilledMetadataIndex();
+    } else {
+      // group ChunkMetadata by series
+      chunkMetadataListMap = new TreeMap<>(groupChunkMetadataBySeries());
+      metadataIndex = flushMetadataIndex(chunkMetadataListMap);
     }
-
-    MetadataIndexNode metadataIndex = flushMetadataIndex(chunkMetadataListMap);
     TsFileMetadata tsFileMetaData = new TsFileMetadata();
     tsFileMetaData.setMetadataIndex(metadataIndex);
     tsFileMetaData.setMetaOffset(metaOffset);
@@ -280,11 +416,25 @@ public class TsFileIOWriter implements AutoCloseable {
     }
 
     // write bloom filter
-    size += tsFileMetaData.serializeBloomFilter(out.wrapAsStream(), chunkMetadataListMap.keySet());
+    if (chunkMetadataListMap != null) {
+      size +=
+          tsFileMetaData.serializeBloomFilter(
+              out.wrapAsStream(), chunkMetadataListMap.keySet(), splitBlockBloomFilter);
+    } else {
+      size += tsFileMetaData.serializeBloomFilter(out.wrapAsStream(), buildSpilledBloomFilter());
+      deleteTempFiles();
+    }
     if (logger.isDebugEnabled()) {
       logger.debug("finish flushing the bloom filter file pos:{}", out.getPosition());
     }
 
+    // write zstd dictionaries
+    if (!zstdDictionaries.isEmpty()) {
+      size +=
+          tsFileMetaData.serializeZstdDictionaries(
+              out.wrapAsStream(), zstdDictionaries.values());
+    }
+
     // write TsFileMetaData size
     ReadWriteIOUtils.write(size, out.wrapAsStream()); // write the size of the file metadata.
 
@@ -310,6 +460,7 @@ public class TsFileIOWriter implements AutoCloseable {
 
     // convert ChunkMetadataList to this field
     deviceTimeseriesMetadataMap = new LinkedHashMap<>();
+    deviceTimeRangeMap = new LinkedHashMap<>();
     // create device -> TimeseriesMetaDataList Map
     for (Map.Entry<Path, List<IChunkMetadata>> entry : chunkMetadataListMap.entrySet()) {
       // for ordinary path
@@ -328,6 +479,23 @@ public class TsFileIOWriter implements AutoCloseable {
    */
   private void flushOneChunkMetadata(Path path, List<IChunkMetadata> chunkMetadataList)
       throws IOException {
+    deviceTimeseriesMetadataMap
+        .computeIfAbsent(path.getDevice(), k -> new ArrayList<>())
+        .add(
+            constructOneTimeseriesMetadata(
+                path.getDevice(), path.getMeasurement(), chunkMetadataList));
+  }
+
+  /**
+   * Construct the TimeseriesMetadata of one series and update the time range of its device.
+   *
+   * @param device device of the series
+   * @param measurement measurement of the series
+   * @param chunkMetadataList List of chunkMetadata about the series
+   */
+  private TimeseriesMetadata constructOneTimeseriesMetadata(
+      String device, String measurement, List<IChunkMetadata> chunkMetadataList)
+      throws IOException {
     // create TimeseriesMetaData
     PublicBAOS publicBAOS = new PublicBAOS();
     TSDataType dataType = chunkMetadataList.get(chunkMetadataList.size() - 1).getDataType();
@@ -349,13 +517,178 @@ public class TsFileIOWriter implements AutoCloseable {
             (byte)
                 ((serializeStatistic ? (byte) 1 : (byte) 0) | chunkMetadataList.get(0).getMask()),
             chunkMetadataListLength,
-            path.getMeasurement(),
+            measurement,
             dataType,
             seriesStatistics,
             publicBAOS);
-    deviceTimeseriesMetadataMap
-        .computeIfAbsent(path.getDevice(), k -> new ArrayList<>())
-        .add(timeseriesMetadata);
+    TimeRange deviceTimeRange = deviceTimeRangeMap.get(device);
+    if (deviceTimeRange == null) {
+      deviceTimeRangeMap.put(
+          device,
+          new TimeRange(seriesStatistics.getStartTime(), seriesStatistics.getEndTime()));
+    } else {
+      deviceTimeRange.set(
+          Math.min(deviceTimeRange.getMin(), seriesStatistics.getStartTime()),
+          Math.max(deviceTimeRange.getMax(), seriesStatistics.getEndTime()));
+    }
+    return timeseriesMetadata;
+  }
+
+  /** group the ChunkMetadata of the buffered chunk groups by series */
+  private Map<Path, List<IChunkMetadata>> groupChunkMetadataBySeries() {
+    Map<Path, List<IChunkMetadata>> chunkMetadataListMap = new HashMap<>();
+    for (ChunkGroupMetadata chunkGroupMetadata : chunkGroupMetadataList) {
+      List<ChunkMetadata> chunkMetadatas = chunkGroupMetadata.getChunkMetadataList();
+      for (IChunkMetadata chunkMetadata : chunkMetadatas) {
+        Path series = new Path(chunkGroupMetadata.getDevice(), chunkMetadata.getMeasurementUid());
+        chunkMetadataListMap.computeIfAbsent(series, k -> new ArrayList<>()).add(chunkMetadata);
+      }
+    }
+    return chunkMetadataListMap;
+  }
+
+  /**
+   * Sort the buffered ChunkMetadata by device and measurement, and append them to the chunk
+   * metadata temp file as a new run. The ChunkMetadata of a series keep their flushing order.
+   */
+  private void spillChunkMetadata() throws IOException {
+    if (chunkMetadataTempOutput == null) {
+      chunkMetadataTempFile =
+          FSFactoryProducer.getFSFactory()
+              .getFile(file.getPath() + CHUNK_METADATA_TEMP_FILE_SUFFIX);
+      chunkMetadataTempOutput =
+          new BufferedOutputStream(new FileOutputStream(chunkMetadataTempFile));
+    }
+    Map<Path, List<IChunkMetadata>> chunkMetadataListMap = new TreeMap<>(SERIES_COMPARATOR);
+    chunkMetadataListMap.putAll(groupChunkMetadataBySeries());
+
+    OutputStream tempOutput = chunkMetadataTempOutput;
+    spilledRunOffsets.add(chunkMetadataTempFileLength);
+    long length = ReadWriteIOUtils.write(chunkMetadataListMap.size(), tempOutput);
+    for (Map.Entry<Path, List<IChunkMetadata>> entry : chunkMetadataListMap.entrySet()) {
+      Path path = entry.getKey();
+      length += ReadWriteIOUtils.write(path.getDevice(), tempOutput);
+      length += ReadWriteIOUtils.write(path.getMeasurement(), tempOutput);
+      length += ReadWriteIOUtils.write(path.getFullPath(), tempOutput);
+      length += ReadWriteIOUtils.write(entry.getValue().size(), tempOutput);
+      for (IChunkMetadata chunkMetadata : entry.getValue()) {
+        length += ReadWriteIOUtils.write(chunkMetadata.getDataType().serialize(), tempOutput);
+        length += ReadWriteIOUtils.write(chunkMetadata.getMask(), tempOutput);
+        length += ReadWriteIOUtils.write(chunkMetadata.getOffsetOfChunkHeader(), tempOutput);
+        length += chunkMetadata.getStatistics().serialize(tempOutput);
+      }
+    }
+    chunkMetadataTempFileLength += length;
+
+    chunkGroupMetadataList.clear();
+    currentMetadataSize = 0;
+  }
+
+  /**
+   * Flush the TimeseriesMetadata and the metadata index by merging the spilled runs of chunk
+   * metadata, so that only the chunk metadata of one series are in memory at a time. The full
+   * paths of the series are written to a temp file in order to build the bloom filter afterwards.
+   *
+   * @return MetadataIndexEntry list in TsFileMetadata
+   */
+  private MetadataIndexNode flushSpilledMetadataIndex() throws IOException {
+    if (!chunkGroupMetadataList.isEmpty()) {
+      spillChunkMetadata();
+    }
+    chunkMetadataTempOutput.close();
+
+    deviceTimeRangeMap = new LinkedHashMap<>();
+    Map<String, MetadataIndexNode> deviceMetadataIndexMap = new TreeMap<>();
+    PriorityQueue<SpilledRunReader> runReaders = new PriorityQueue<>();
+    File seriesPathTempFile =
+        FSFactoryProducer.getFSFactory().getFile(file.getPath() + SERIES_PATH_TEMP_FILE_SUFFIX);
+    try (OutputStream seriesPathOutput =
+        new BufferedOutputStream(new FileOutputStream(seriesPathTempFile))) {
+      for (int i = 0; i < spilledRunOffsets.size(); i++) {
+        SpilledRunReader runReader =
+            new SpilledRunReader(chunkMetadataTempFile, spilledRunOffsets.get(i), i);
+        if (runReader.next()) {
+          runReaders.add(runReader);
+        } else {
+          runReader.close();
+        }
+      }
+
+      String currentDevice = null;
+      MeasurementIndexBuilder measurementIndexBuilder = null;
+      int seriesNum = 0;
+      while (!runReaders.isEmpty()) {
+        SpilledRunReader runReader = runReaders.peek();
+        String device = runReader.device;
+        String measurement = runReader.measurement;
+        String fullPath = runReader.fullPath;
+        List<IChunkMetadata> seriesChunkMetadataList = new ArrayList<>();
+        // the runs are polled in the order they are spilled for the same series
+        while (!runReaders.isEmpty() && runReaders.peek().isSeries(device, measurement)) {
+          runReader = runReaders.poll();
+          seriesChunkMetadataList.addAll(runReader.chunkMetadataList);
+          if (runReader.next()) {
+            runReaders.add(runReader);
+          } else {
+            runReader.close();
+          }
+        }
+
+        if (!device.equals(currentDevice)) {
+          if (measurementIndexBuilder != null) {
+            deviceMetadataIndexMap.put(currentDevice, measurementIndexBuilder.build());
+          }
+          currentDevice = device;
+          measurementIndexBuilder = new MeasurementIndexBuilder(out);
+        }
+        measurementIndexBuilder.add(
+            constructOneTimeseriesMetadata(device, measurement, seriesChunkMetadataList));
+        ReadWriteIOUtils.write(fullPath, seriesPathOutput);
+        seriesNum++;
+      }
+      if (measurementIndexBuilder != null) {
+        deviceMetadataIndexMap.put(currentDevice, measurementIndexBuilder.build());
+      }
+      ReadWriteIOUtils.write(seriesNum, seriesPathOutput);
+    } finally {
+      for (SpilledRunReader runReader : runReaders) {
+        runReader.close();
+      }
+    }
+
+    return MetadataIndexConstructor.constructDeviceMetadataIndex(deviceMetadataIndexMap, out);
+  }
+
+  /** build the bloom filter from the series paths written by flushSpilledMetadataIndex() */
+  private BloomFilter buildSpilledBloomFilter() throws IOException {
+    File seriesPathTempFile =
+        FSFactoryProducer.getFSFactory().getFile(file.getPath() + SERIES_PATH_TEMP_FILE_SUFFIX);
+    int seriesNum;
+    try (FileInputStream fileInput = new FileInputStream(seriesPathTempFile)) {
+      fileInput.getChannel().position(seriesPathTempFile.length() - Integer.BYTES);
+      seriesNum = ReadWriteIOUtils.readInt(fileInput);
+    }
+    BloomFilter filter = TsFileMetadata.getEmptyBloomFilter(seriesNum, splitBlockBloomFilter);
+    try (InputStream input = new BufferedInputStream(new FileInputStream(seriesPathTempFile))) {
+      for (int i = 0; i < seriesNum; i++) {
+        filter.add(ReadWriteIOUtils.readString(input));
+      }
+    }
+    return filter;
+  }
+
+  private void deleteTempFiles() throws IOException {
+    if (chunkMetadataTempFile == null) {
+      return;
+    }
+    if (chunkMetadataTempOutput != null) {
+      chunkMetadataTempOutput.close();
+    }
+    Files.deleteIfExists(chunkMetadataTempFile.toPath());
+    Files.deleteIfExists(
+        FSFactoryProducer.getFSFactory()
+            .getFile(file.getPath() + SERIES_PATH_TEMP_FILE_SUFFIX)
+            .toPath());
   }
 
   /**
@@ -399,6 +732,7 @@ public class TsFileIOWriter implements AutoCloseable {
   public void close() throws IOException {
     canWrite = false;
     out.close();
+    deleteTempFiles();
   }
 
   void writeSeparatorMaskForTest() throws IOException {
@@ -480,6 +814,16 @@ public class TsFileIOWriter implements AutoCloseable {
     return deviceTimeseriesMetadataMap;
   }
 
+  /**
+   * this function is for compaction to update the TsFileResource, and is available after endFile()
+   * whether the chunk metadata have been spilled or not.
+   *
+   * @return device -> time range of its data
+   */
+  public Map<String, TimeRange> getDeviceTimeRangeMap() {
+    return deviceTimeRangeMap;
+  }
+
   public long getMinPlanIndex() {
     return minPlanIndex;
   }
@@ -495,4 +839,78 @@ public class TsFileIOWriter implements AutoCloseable {
   public void setMaxPlanIndex(long maxPlanIndex) {
     this.maxPlanIndex = maxPlanIndex;
   }
+
+  private static final Comparator<Path> SERIES_COMPARATOR =
+      Comparator.comparing(Path::getDevice).thenComparing(Path::getMeasurement);
+
+  /** Reads the series of one spilled run in the chunk metadata temp file one by one. */
+  private static class SpilledRunReader implements Comparable<SpilledRunReader> {
+
+    private final InputStream input;
+    private final int runIndex;
+    private int remainingSeriesNum;
+
+    private String device;
+    private String measurement;
+    private String fullPath;
+    private List<IChunkMetadata> chunkMetadataList;
+
+    private SpilledRunReader(File tempFile, long offset, int runIndex) throws IOException {
+      FileInputStream fileInput = new FileInputStream(tempFile);
+      fileInput.getChannel().position(offset);
+      this.input = new BufferedInputStream(fileInput);
+      this.runIndex = runIndex;
+      this.remainingSeriesNum = ReadWriteIOUtils.readInt(input);
+    }
+
+    /** @return false if the run is exhausted */
+    private boolean next() throws IOException {
+      if (remainingSeriesNum == 0) {
+        return false;
+      }
+      remainingSeriesNum--;
+      device = readNullableString();
+      measurement = readNullableString();
+      fullPath = readNullableString();
+      int chunkNum = ReadWriteIOUtils.readInt(input);
+      chunkMetadataList = new ArrayList<>(chunkNum);
+      for (int i = 0; i < chunkNum; i++) {
+        TSDataType dataType = TSDataType.deserialize(ReadWriteIOUtils.readByte(input));
+        byte mask = ReadWriteIOUtils.readByte(input);
+        long offsetOfChunkHeader = ReadWriteIOUtils.readLong(input);
+        ChunkMetadata chunkMetadata =
+            new ChunkMetadata(
+                measurement,
+                dataType,
+                offsetOfChunkHeader,
+                Statistics.deserialize(input, dataType));
+        chunkMetadata.setMask(mask);
+        chunkMetadataList.add(chunkMetadata);
+      }
+      return true;
+    }
+
+    // ReadWriteIOUtils reads an empty string as null, e.g. the time column of an aligned device
+    private String readNullableString() throws IOException {
+      String s = ReadWriteIOUtils.readString(input);
+      return s == null ? "" : s;
+    }
+
+    private void close() throws IOException {
+      input.close();
+    }
+
+    private boolean isSeries(String device, String measurement) {
+      return this.device.equals(device) && this.measurement.equals(measurement);
+    }
+
+    @Override
+    public int compareTo(SpilledRunReader o) {
+      int res = device.compareTo(o.device);
+      if (res == 0) {
+        res = measurement.compareTo(o.measurement);
+      }
+      return res != 0 ? res : Integer.compare(runIndex, o.runIndex);
+    }
+  }
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.iotdb.tsfile.compress;
 
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.compress.ICompressor.IOTDBLZ4Compressor;
 import org.apache.iotdb.tsfile.compress.IUnCompressor.LZ4UnCompressor;
 
@@ -80,4 +82,23 @@ public class LZ4Test {
     byte[] uncompressed = unCompressor.uncompress(compressed);
     Assert.assertArrayEquals(uncom, uncompressed);
   }
+
+  @Test
+  public void testHighCompressionLevel() throws IOException {
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    int prevLevel = config.getLz4CompressionLevel();
+    config.setLz4CompressionLevel(9);
+    try {
+      ICompressor compressor = new IOTDBLZ4Compressor();
+      IUnCompressor unCompressor = new LZ4UnCompressor();
+
+      byte[] uncom = randomString(500000).getBytes(StandardCharsets.UTF_8);
+      byte[] compressed = compressor.compress(uncom);
+      byte[] uncompressed = new byte[uncom.length];
+      unCompressor.uncompress(compressed, 0, compressed.length, uncompressed, 0);
+      Assert.assertArrayEquals(uncom, uncompressed);
+    } finally {
+      config.setLz4CompressionLevel(prevLevel);
+    }
+  }
 }
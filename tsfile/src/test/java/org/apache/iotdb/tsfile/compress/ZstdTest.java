@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.compress;
+
+import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
+import org.apache.iotdb.tsfile.compress.ICompressor.ZstdCompressor;
+import org.apache.iotdb.tsfile.compress.IUnCompressor.ZstdUnCompressor;
+import org.apache.iotdb.tsfile.compress.ZstdDictionaryRegistry.ZstdDictionary;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ZstdTest {
+
+  private final TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+  private int prevDictionarySize;
+
+  private String randomString(int length) {
+    StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append((char) (ThreadLocalRandom.current().nextInt(33, 128)));
+    }
+    return builder.toString();
+  }
+
+  /** pages of a series are similar to each other, which is what the dictionary learns */
+  private byte[] randomPage() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      builder
+          .append("temperature=")
+          .append(ThreadLocalRandom.current().nextInt(20, 30))
+          .append(",status=")
+          .append(ThreadLocalRandom.current().nextBoolean() ? "running" : "stopped")
+          .append(';');
+    }
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Before
+  public void setUp() {
+    prevDictionarySize = config.getZstdDictionarySizeInByte();
+    ZstdDictionaryRegistry.getInstance().clear();
+  }
+
+  @After
+  public void tearDown() {
+    config.setZstdDictionarySizeInByte(prevDictionarySize);
+    ZstdDictionaryRegistry.getInstance().clear();
+  }
+
+  @Test
+  public void testBytes() throws IOException {
+    ICompressor compressor = new ZstdCompressor();
+    IUnCompressor unCompressor = new ZstdUnCompressor();
+
+    byte[] uncom = randomString(500000).getBytes(StandardCharsets.UTF_8);
+    byte[] compressed = compressor.compress(uncom, 0, uncom.length);
+    // length should be same
+    Assert.assertEquals(compressor.compress(uncom).length, compressed.length);
+    Assert.assertEquals(
+        uncom.length, unCompressor.getUncompressedLength(compressed, 0, compressed.length));
+    Assert.assertArrayEquals(uncom, unCompressor.uncompress(compressed));
+
+    byte[] uncompressed = new byte[uncom.length];
+    unCompressor.uncompress(compressed, 0, compressed.length, uncompressed, 0);
+    Assert.assertArrayEquals(uncom, uncompressed);
+  }
+
+  @Test
+  public void testDictionary() throws IOException {
+    config.setZstdDictionarySizeInByte(1024);
+    ICompressor compressor = ICompressor.getCompressor(CompressionType.ZSTD, "s1", true);
+    IUnCompressor unCompressor = new ZstdUnCompressor();
+    ZstdDictionaryRegistry registry = ZstdDictionaryRegistry.getInstance();
+
+    // the pages are compressed without a dictionary until it is trained
+    for (int i = 0; i < 1000 && registry.getDictionary("s1") == null; i++) {
+      byte[] page = randomPage();
+      byte[] compressed = compressor.compress(page, 0, page.length);
+      Assert.assertArrayEquals(page, unCompressor.uncompress(compressed));
+    }
+    ZstdDictionary dictionary = registry.getDictionary("s1");
+    Assert.assertNotNull(dictionary);
+    Assert.assertNull(registry.getDictionary("s2"));
+    // the samples are dropped once the dictionary is trained
+    Assert.assertEquals(0, registry.getSampledMeasurementNum());
+    Assert.assertEquals(0, registry.getTotalSampleSize());
+
+    byte[] page = randomPage();
+    byte[] compressed = compressor.compress(page, 0, page.length);
+    Assert.assertEquals(
+        dictionary.getId(), ZstdUnCompressor.getDictionaryId(ByteBuffer.wrap(compressed)));
+    byte[] uncompressed = new byte[page.length];
+    unCompressor.uncompress(compressed, 0, compressed.length, uncompressed, 0);
+    Assert.assertArrayEquals(page, uncompressed);
+
+    // the dictionary is not found without the dictionaries of the file, e.g., after a restart
+    registry.clear();
+    try {
+      new ZstdUnCompressor().uncompress(compressed, 0, compressed.length, uncompressed, 0);
+      Assert.fail();
+    } catch (IOException e) {
+      // expected
+    }
+    ZstdDictionary fileDictionary = ZstdDictionary.of("s1", dictionary.getBytes());
+    IUnCompressor fileUnCompressor =
+        IUnCompressor.getUnCompressor(
+            CompressionType.ZSTD,
+            Collections.singletonMap(fileDictionary.getId(), fileDictionary));
+    Assert.assertArrayEquals(page, fileUnCompressor.uncompress(compressed));
+    // dictionaries of files are not registered globally
+    Assert.assertNull(registry.getDictionary(fileDictionary.getId()));
+  }
+
+  @Test
+  public void testBoundedSamples() {
+    config.setZstdDictionarySizeInByte(1024);
+    ZstdDictionaryRegistry registry = ZstdDictionaryRegistry.getInstance();
+    byte[] page = randomPage();
+    for (int i = 0; i < 1000; i++) {
+      registry.offerSample("s" + i, ByteBuffer.wrap(page));
+    }
+    // only the samples of the most recently sampled measurements are kept
+    Assert.assertEquals(64, registry.getSampledMeasurementNum());
+    Assert.assertEquals(64L * page.length, registry.getTotalSampleSize());
+    Assert.assertNull(registry.getDictionary("s0"));
+  }
+
+  @Test
+  public void testHeapByteBuffer() throws IOException {
+    ICompressor compressor = new ZstdCompressor();
+    IUnCompressor unCompressor = new ZstdUnCompressor();
+    byte[] uncom = randomString(50000).getBytes(StandardCharsets.UTF_8);
+
+    // slices with non-zero array offsets
+    ByteBuffer data = ByteBuffer.allocate(uncom.length + 10);
+    data.position(10);
+    data = data.slice();
+    data.put(uncom).flip();
+    ByteBuffer compressed =
+        ByteBuffer.allocate(compressor.getMaxBytesForCompression(uncom.length) + 5);
+    compressed.position(5);
+    int compressedSize = compressor.compress(data, compressed);
+    Assert.assertFalse(data.hasRemaining());
+    Assert.assertEquals(5 + compressedSize, compressed.position());
+
+    compressed.flip();
+    compressed.position(5);
+    Assert.assertEquals(uncom.length, unCompressor.getUncompressedLength(compressed));
+    ByteBuffer uncompressed = ByteBuffer.allocate(uncom.length);
+    Assert.assertEquals(uncom.length, unCompressor.uncompress(compressed, uncompressed));
+    Assert.assertFalse(compressed.hasRemaining());
+    Assert.assertArrayEquals(uncom, uncompressed.array());
+  }
+
+  @Test
+  public void testDirectByteBuffer() throws IOException {
+    ICompressor compressor = new ZstdCompressor();
+    IUnCompressor unCompressor = new ZstdUnCompressor();
+    byte[] uncom = randomString(50000).getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer data = ByteBuffer.allocateDirect(uncom.length);
+    data.put(uncom).flip();
+    ByteBuffer compressed =
+        ByteBuffer.allocateDirect(compressor.getMaxBytesForCompression(uncom.length));
+    int compressedSize = compressor.compress(data, compressed);
+    Assert.assertEquals(compressedSize, compressed.position());
+
+    compressed.flip();
+    ByteBuffer uncompressed = ByteBuffer.allocateDirect(uncom.length);
+    Assert.assertEquals(uncom.length, unCompressor.uncompress(compressed, uncompressed));
+    uncompressed.flip();
+    byte[] result = new byte[uncom.length];
+    uncompressed.get(result);
+    Assert.assertArrayEquals(uncom, result);
+  }
+
+  @Test
+  public void testDictionaryDisabled() throws IOException {
+    config.setZstdDictionarySizeInByte(0);
+    ICompressor compressor = ICompressor.getCompressor(CompressionType.ZSTD, "s1", true);
+    for (int i = 0; i < 1000; i++) {
+      byte[] page = randomPage();
+      compressor.compress(page, 0, page.length);
+    }
+    Assert.assertNull(ZstdDictionaryRegistry.getInstance().getDictionary("s1"));
+  }
+}
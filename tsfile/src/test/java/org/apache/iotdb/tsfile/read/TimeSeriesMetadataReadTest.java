@@ -32,9 +32,13 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TimeSeriesMetadataReadTest {
 
@@ -91,4 +95,57 @@ public class TimeSeriesMetadataReadTest {
       Assert.assertEquals("s" + i, timeseriesMetadataList.get(i - 5).getMeasurementId());
     }
   }
+
+  @Test
+  public void testReadDeviceTimeseriesMetadata() throws IOException {
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH)) {
+      Set<String> set = new HashSet<>();
+      // the sensors span all the leaf entries of d1, and s8 is not in the file
+      set.add("s1");
+      set.add("s4");
+      set.add("s7");
+      set.add("s8");
+      List<TimeseriesMetadata> timeseriesMetadataList =
+          reader.readDeviceTimeseriesMetadata("d1", set);
+      Assert.assertEquals(3, timeseriesMetadataList.size());
+      for (int i = 0; i < timeseriesMetadataList.size(); i++) {
+        TimeseriesMetadata timeseriesMetadata = timeseriesMetadataList.get(i);
+        Assert.assertEquals("s" + (i * 3 + 1), timeseriesMetadata.getMeasurementId());
+        Assert.assertFalse(timeseriesMetadata.getChunkMetadataList().isEmpty());
+      }
+
+      Assert.assertTrue(reader.readDeviceTimeseriesMetadata("dx", set).isEmpty());
+    }
+  }
+
+  @Test
+  public void testReadOnlyNeededLeafEntries() throws IOException {
+    AtomicLong readBytes = new AtomicLong();
+    try (TsFileSequenceReader reader =
+        new TsFileSequenceReader(FILE_PATH) {
+          @Override
+          protected ByteBuffer readData(long start, long end) throws IOException {
+            readBytes.addAndGet(end - start);
+            return super.readData(start, end);
+          }
+        }) {
+      // the leaf entries of d1 start at s1, s4 and s7, and s1 and s7 are not adjacent
+      List<TimeseriesMetadata> timeseriesMetadataList =
+          reader.readDeviceTimeseriesMetadata("d1", new HashSet<>(Arrays.asList("s1", "s7")));
+      Assert.assertEquals(2, timeseriesMetadataList.size());
+      Assert.assertEquals("s1", timeseriesMetadataList.get(0).getMeasurementId());
+      Assert.assertEquals("s7", timeseriesMetadataList.get(1).getMeasurementId());
+
+      readBytes.set(0);
+      reader.readDeviceTimeseriesMetadata("d1", Collections.singleton("s1"));
+      long oneEntryBytes = readBytes.get();
+      readBytes.set(0);
+      reader.readDeviceTimeseriesMetadata("d1", new HashSet<>(Arrays.asList("s1", "s4", "s7")));
+      Assert.assertTrue(oneEntryBytes < readBytes.get());
+
+      // smaller than all the measurements of d1
+      Assert.assertTrue(
+          reader.readDeviceTimeseriesMetadata("d1", Collections.singleton("a")).isEmpty());
+    }
+  }
 }
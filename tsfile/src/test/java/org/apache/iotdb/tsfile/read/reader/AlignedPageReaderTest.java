@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.read.reader;
+
+import org.apache.iotdb.tsfile.compress.ICompressor;
+import org.apache.iotdb.tsfile.encoding.decoder.DeltaBinaryDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.Decoder;
+import org.apache.iotdb.tsfile.encoding.decoder.IntRleDecoder;
+import org.apache.iotdb.tsfile.encoding.decoder.PlainDecoder;
+import org.apache.iotdb.tsfile.encoding.encoder.DeltaBinaryEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.IntRleEncoder;
+import org.apache.iotdb.tsfile.encoding.encoder.PlainEncoder;
+import org.apache.iotdb.tsfile.file.header.PageHeader;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.read.common.block.TsBlock;
+import org.apache.iotdb.tsfile.read.filter.TimeFilter;
+import org.apache.iotdb.tsfile.read.filter.ValueFilter;
+import org.apache.iotdb.tsfile.read.filter.basic.Filter;
+import org.apache.iotdb.tsfile.read.filter.factory.FilterFactory;
+import org.apache.iotdb.tsfile.read.reader.page.AlignedPageReader;
+import org.apache.iotdb.tsfile.utils.Binary;
+import org.apache.iotdb.tsfile.write.page.TimePageWriter;
+import org.apache.iotdb.tsfile.write.page.ValuePageWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class AlignedPageReaderTest {
+
+  private static final int ROW_COUNT = 100;
+  private static final ICompressor COMPRESSOR =
+      ICompressor.getCompressor(CompressionType.UNCOMPRESSED);
+
+  /**
+   * s1 is an RLE encoded INT32 without a value when t % 3 == 0, s2 is a plain DOUBLE without a
+   * value when t % 5 == 0 and s3 is a plain TEXT without a value when t % 2 == 0
+   */
+  private AlignedPageReader createPageReader(int valueCount, Filter filter) throws IOException {
+    TimePageWriter timePageWriter =
+        new TimePageWriter(new DeltaBinaryEncoder.LongDeltaEncoder(), COMPRESSOR);
+    ValuePageWriter intPageWriter =
+        new ValuePageWriter(new IntRleEncoder(), COMPRESSOR, TSDataType.INT32);
+    ValuePageWriter doublePageWriter =
+        new ValuePageWriter(new PlainEncoder(TSDataType.DOUBLE, 0), COMPRESSOR, TSDataType.DOUBLE);
+    ValuePageWriter textPageWriter =
+        new ValuePageWriter(new PlainEncoder(TSDataType.TEXT, 0), COMPRESSOR, TSDataType.TEXT);
+    for (int time = 0; time < ROW_COUNT; time++) {
+      timePageWriter.write(time);
+      intPageWriter.write(time, time, time % 3 == 0);
+      doublePageWriter.write(time, (double) time, time % 5 == 0);
+      textPageWriter.write(time, new Binary(String.valueOf(time)), time % 2 == 0);
+    }
+    ByteBuffer timePageData = timePageWriter.getUncompressedBytes();
+    PageHeader timePageHeader =
+        new PageHeader(
+            timePageData.remaining(), timePageData.remaining(), timePageWriter.getStatistics());
+
+    ValuePageWriter[] valuePageWriters = {intPageWriter, doublePageWriter, textPageWriter};
+    Decoder[] valueDecoders = {new IntRleDecoder(), new PlainDecoder(), new PlainDecoder()};
+    List<PageHeader> valuePageHeaderList = new ArrayList<>();
+    List<ByteBuffer> valuePageDataList = new ArrayList<>();
+    List<TSDataType> valueDataTypeList = new ArrayList<>();
+    List<Decoder> valueDecoderList = new ArrayList<>();
+    for (int i = 0; i < valueCount; i++) {
+      ByteBuffer valuePageData = valuePageWriters[i].getUncompressedBytes();
+      valuePageHeaderList.add(
+          new PageHeader(
+              valuePageData.remaining(),
+              valuePageData.remaining(),
+              valuePageWriters[i].getStatistics()));
+      valuePageDataList.add(valuePageData);
+      valueDataTypeList.add(valuePageWriters[i].getStatistics().getType());
+      valueDecoderList.add(valueDecoders[i]);
+    }
+    return new AlignedPageReader(
+        timePageHeader,
+        timePageData,
+        new DeltaBinaryDecoder.LongDeltaDecoder(),
+        valuePageHeaderList,
+        valuePageDataList,
+        valueDataTypeList,
+        valueDecoderList,
+        filter);
+  }
+
+  @Test
+  public void testGetAllSatisfiedDataWithTimeFilter() throws IOException {
+    AlignedPageReader pageReader =
+        createPageReader(3, FilterFactory.and(TimeFilter.gtEq(20L), TimeFilter.lt(60L)));
+    pageReader.setDeleteIntervalList(
+        Arrays.asList(null, null, Collections.singletonList(new TimeRange(40, 49))));
+    TsBlock tsBlock = pageReader.getAllSatisfiedData();
+
+    int row = 0;
+    for (int time = 20; time < 60; time++) {
+      boolean hasInt = time % 3 != 0;
+      boolean hasDouble = time % 5 != 0;
+      boolean hasText = time % 2 != 0 && (time < 40 || time > 49);
+      if (!hasInt && !hasDouble && !hasText) {
+        // the rows without any value are discarded
+        continue;
+      }
+      Assert.assertEquals(time, tsBlock.getTimeByIndex(row));
+      Assert.assertEquals(!hasInt, tsBlock.getColumn(0).isNull(row));
+      Assert.assertEquals(!hasDouble, tsBlock.getColumn(1).isNull(row));
+      Assert.assertEquals(!hasText, tsBlock.getColumn(2).isNull(row));
+      if (hasInt) {
+        Assert.assertEquals(time, tsBlock.getColumn(0).getInt(row));
+      }
+      if (hasDouble) {
+        Assert.assertEquals(time, tsBlock.getColumn(1).getDouble(row), 0);
+      }
+      if (hasText) {
+        Assert.assertEquals(String.valueOf(time), tsBlock.getColumn(2).getBinary(row).toString());
+      }
+      row++;
+    }
+    Assert.assertEquals(row, tsBlock.getPositionCount());
+  }
+
+  @Test
+  public void testGetAllSatisfiedDataWithoutSatisfiedRow() throws IOException {
+    AlignedPageReader pageReader = createPageReader(3, TimeFilter.gt(1000L));
+    Assert.assertEquals(0, pageReader.getAllSatisfiedData().getPositionCount());
+  }
+
+  @Test
+  public void testGetAllSatisfiedDataWithValueFilter() throws IOException {
+    AlignedPageReader pageReader = createPageReader(1, ValueFilter.gt(50));
+    TsBlock tsBlock = pageReader.getAllSatisfiedData();
+
+    int row = 0;
+    for (int time = 51; time < ROW_COUNT; time++) {
+      if (time % 3 == 0) {
+        continue;
+      }
+      Assert.assertEquals(time, tsBlock.getTimeByIndex(row));
+      Assert.assertEquals(time, tsBlock.getColumn(0).getInt(row));
+      row++;
+    }
+    Assert.assertEquals(row, tsBlock.getPositionCount());
+  }
+}
@@ -20,6 +20,11 @@ package org.apache.iotdb.tsfile.utils;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class BloomFilterTest {
@@ -63,4 +68,49 @@ public class BloomFilterTest {
     assertTrue(filter1.contains(value2));
     assertTrue(filter1.contains(value3));
   }
+
+  @Test
+  public void testSplitBlock() {
+    int num = 10000;
+    BloomFilter filter = SplitBlockBloomFilter.getEmptyBloomFilter(0.05, num);
+    List<String> values = new ArrayList<>(num);
+    for (int i = 0; i < num; i++) {
+      values.add("root.sg.d" + i + ".s" + i);
+      filter.add(values.get(i));
+    }
+    for (String value : values) {
+      assertTrue(filter.contains(value));
+    }
+
+    int falsePositive = 0;
+    List<String> others = new ArrayList<>(num);
+    for (int i = 0; i < num; i++) {
+      others.add("root.sg.d" + i + ".t" + i);
+      falsePositive += filter.contains(others.get(i)) ? 1 : 0;
+    }
+    assertTrue(falsePositive < num * 0.1);
+
+    boolean[] res = filter.contains(others);
+    for (int i = 0; i < num; i++) {
+      assertEquals(filter.contains(others.get(i)), res[i]);
+    }
+  }
+
+  @Test
+  public void testSplitBlockSerialize() {
+    BloomFilter filter = SplitBlockBloomFilter.getEmptyBloomFilter(0.05, 3);
+    filter.add("device1.s1");
+    filter.add("device1.s2");
+    filter.add("device1.s3");
+
+    BloomFilter filter1 =
+        BloomFilter.buildBloomFilter(
+            filter.serialize(), filter.getSize(), filter.getSerializedHashFunctionSize());
+    assertTrue(filter1 instanceof SplitBlockBloomFilter);
+    assertEquals(filter, filter1);
+    assertArrayEquals(filter.serialize(), filter1.serialize());
+    assertTrue(filter1.contains("device1.s1"));
+    assertTrue(filter1.contains("device1.s2"));
+    assertTrue(filter1.contains("device1.s3"));
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.iotdb.tsfile.write;
 
 import org.apache.iotdb.tsfile.common.conf.TSFileConfig;
+import org.apache.iotdb.tsfile.common.conf.TSFileDescriptor;
 import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
 import org.apache.iotdb.tsfile.constant.TestConstant;
 import org.apache.iotdb.tsfile.file.MetaMarker;
@@ -30,9 +31,12 @@ import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
 import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
 import org.apache.iotdb.tsfile.file.metadata.utils.TestHelper;
+import org.apache.iotdb.tsfile.read.TsFileCheckStatus;
 import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
 import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
 import org.apache.iotdb.tsfile.utils.MeasurementGroup;
+import org.apache.iotdb.tsfile.utils.SplitBlockBloomFilter;
 import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
 import org.apache.iotdb.tsfile.write.schema.Schema;
 import org.apache.iotdb.tsfile.write.schema.VectorMeasurementSchema;
@@ -46,6 +50,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -163,6 +168,41 @@ public class TsFileIOWriterTest {
     Assert.assertEquals(2, metaData.getMetadataIndex().getChildren().size());
   }
 
+  @Test
+  public void splitBlockBloomFilterVersionTest() throws IOException {
+    String filePath = TestConstant.BASE_OUTPUT_PATH.concat("TsFileIOWriterSplitBlockTest.tsfile");
+    TSFileConfig config = TSFileDescriptor.getInstance().getConfig();
+    boolean splitBlockBloomFilterEnabled = config.isSplitBlockBloomFilterEnabled();
+    config.setSplitBlockBloomFilterEnabled(true);
+    try {
+      TsFileIOWriter writer = new TsFileIOWriter(new File(filePath));
+      writeChunkGroup(writer, TestHelper.createSimpleMeasurementSchema(SENSOR_1));
+      writer.endFile();
+      config.setSplitBlockBloomFilterEnabled(false);
+
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(filePath)) {
+        // the readers of version 3 refuse the file instead of misreading its bloom filter
+        Assert.assertEquals(
+            TSFileConfig.VERSION_NUMBER_SPLIT_BLOCK_BLOOM_FILTER, reader.readVersionNumber());
+        Assert.assertNotEquals(TSFileConfig.VERSION_NUMBER, reader.readVersionNumber());
+        Assert.assertEquals(
+            TsFileCheckStatus.COMPLETE_FILE,
+            reader.selfCheck(new HashMap<>(), new ArrayList<>(), true));
+        BloomFilter bloomFilter = reader.readBloomFilter();
+        Assert.assertTrue(bloomFilter instanceof SplitBlockBloomFilter);
+        Assert.assertTrue(bloomFilter.contains(DEVICE_1 + "." + SENSOR_1));
+      }
+      // the file written with the config disabled keeps version 3 and the classic bloom filter
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH)) {
+        Assert.assertEquals(TSFileConfig.VERSION_NUMBER, reader.readVersionNumber());
+        Assert.assertFalse(reader.readBloomFilter() instanceof SplitBlockBloomFilter);
+      }
+    } finally {
+      config.setSplitBlockBloomFilterEnabled(splitBlockBloomFilterEnabled);
+      new File(filePath).delete();
+    }
+  }
+
   private void writeChunkGroup(TsFileIOWriter writer, MeasurementSchema measurementSchema)
       throws IOException {
     for (int i = 0; i < CHUNK_GROUP_NUM; i++) {
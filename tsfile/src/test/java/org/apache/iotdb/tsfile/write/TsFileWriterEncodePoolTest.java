@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write;
+
+import org.apache.iotdb.tsfile.exception.write.WriteProcessException;
+import org.apache.iotdb.tsfile.file.metadata.ChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.Path;
+import org.apache.iotdb.tsfile.utils.TsFileGeneratorForTest;
+import org.apache.iotdb.tsfile.write.record.Tablet;
+import org.apache.iotdb.tsfile.write.schema.MeasurementSchema;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TsFileWriterEncodePoolTest {
+
+  private static final int DEVICE_NUM = 8;
+  private static final int ROW_NUM = 10000;
+  private static final int TABLET_SIZE = 1000;
+
+  private final String sequentialFile =
+      TsFileGeneratorForTest.getTestTsFilePath("root.sg1", 0, 0, 1);
+  private final String pooledFile = TsFileGeneratorForTest.getTestTsFilePath("root.sg1", 0, 0, 2);
+  private final List<MeasurementSchema> schemas =
+      Arrays.asList(
+          new MeasurementSchema(
+              "s1", TSDataType.INT64, TSEncoding.TS_2DIFF, CompressionType.SNAPPY),
+          new MeasurementSchema("s2", TSDataType.DOUBLE, TSEncoding.GORILLA, CompressionType.LZ4),
+          new MeasurementSchema("s3", TSDataType.INT32, TSEncoding.RLE, CompressionType.GZIP));
+
+  private ExecutorService encodePool;
+
+  @Before
+  public void setUp() {
+    File f = new File(sequentialFile);
+    if (!f.getParentFile().exists()) {
+      Assert.assertTrue(f.getParentFile().mkdirs());
+    }
+    encodePool = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    encodePool.shutdownNow();
+    Files.deleteIfExists(new File(sequentialFile).toPath());
+    Files.deleteIfExists(new File(pooledFile).toPath());
+  }
+
+  @Test
+  public void testSameFileAsSequentialWriting() throws IOException, WriteProcessException {
+    writeFile(sequentialFile, null);
+    writeFile(pooledFile, encodePool);
+
+    Assert.assertArrayEquals(
+        Files.readAllBytes(new File(sequentialFile).toPath()),
+        Files.readAllBytes(new File(pooledFile).toPath()));
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(pooledFile)) {
+      Assert.assertEquals(2 * DEVICE_NUM, reader.getAllDevices().size());
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        for (MeasurementSchema schema : schemas) {
+          long count = 0;
+          for (ChunkMetadata chunkMetadata :
+              reader.getChunkMetadataList(new Path("d" + i, schema.getMeasurementId()))) {
+            count += chunkMetadata.getStatistics().getCount();
+          }
+          Assert.assertEquals(ROW_NUM, count);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOutOfOrderData() throws IOException, WriteProcessException {
+    try (TsFileWriter writer = new TsFileWriter(new File(pooledFile))) {
+      writer.setEncodePool(encodePool);
+      List<Tablet> tablets = new ArrayList<>();
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        writer.registerTimeseries(new Path("d" + i), schemas);
+        tablets.add(createTablet("d" + i, 0));
+      }
+      writer.write(tablets);
+      try {
+        writer.write(tablets);
+        Assert.fail();
+      } catch (WriteProcessException e) {
+        Assert.assertTrue(e.getMessage().contains("Not allowed to write out-of-order data"));
+      }
+    }
+  }
+
+  private void writeFile(String filePath, ExecutorService pool)
+      throws IOException, WriteProcessException {
+    try (TsFileWriter writer = new TsFileWriter(new File(filePath))) {
+      writer.setEncodePool(pool);
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        writer.registerTimeseries(new Path("d" + i), schemas);
+        writer.registerAlignedTimeseries(new Path("aligned_d" + i), schemas);
+      }
+      for (int startTime = 0; startTime < ROW_NUM; startTime += TABLET_SIZE) {
+        List<Tablet> tablets = new ArrayList<>();
+        List<Tablet> alignedTablets = new ArrayList<>();
+        for (int i = 0; i < DEVICE_NUM; i++) {
+          tablets.add(createTablet("d" + i, startTime));
+          alignedTablets.add(createTablet("aligned_d" + i, startTime));
+        }
+        writer.write(tablets);
+        writer.writeAligned(alignedTablets);
+        if (startTime % (3 * TABLET_SIZE) == 0) {
+          writer.flushAllChunkGroups();
+        }
+      }
+    }
+  }
+
+  private Tablet createTablet(String deviceId, long startTime) {
+    Tablet tablet = new Tablet(deviceId, schemas, TABLET_SIZE);
+    for (int row = 0; row < TABLET_SIZE; row++) {
+      long time = startTime + row;
+      tablet.addTimestamp(row, time);
+      tablet.addValue("s1", row, time * deviceId.hashCode());
+      tablet.addValue("s2", row, Math.sin(time));
+      tablet.addValue("s3", row, (int) (time % 100));
+    }
+    tablet.rowSize = TABLET_SIZE;
+    return tablet;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.tsfile.write.writer;
+
+import org.apache.iotdb.tsfile.common.constant.TsFileConstant;
+import org.apache.iotdb.tsfile.constant.TestConstant;
+import org.apache.iotdb.tsfile.file.metadata.IChunkMetadata;
+import org.apache.iotdb.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.iotdb.tsfile.file.metadata.enums.CompressionType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSDataType;
+import org.apache.iotdb.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.iotdb.tsfile.file.metadata.statistics.Statistics;
+import org.apache.iotdb.tsfile.read.TsFileSequenceReader;
+import org.apache.iotdb.tsfile.read.common.TimeRange;
+import org.apache.iotdb.tsfile.utils.BloomFilter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class TsFileIOWriterSpillTest {
+
+  private static final String FILE_PATH =
+      TestConstant.BASE_OUTPUT_PATH.concat("TsFileIOWriterSpillTest.tsfile");
+  private static final String SPILLED_FILE_PATH =
+      TestConstant.BASE_OUTPUT_PATH.concat("TsFileIOWriterSpillTest-spilled.tsfile");
+
+  private static final int DEVICE_NUM = 5;
+  private static final int MEASUREMENT_NUM = 300;
+  private static final int CHUNK_GROUP_ROUND = 3;
+
+  @After
+  public void after() {
+    new File(FILE_PATH).delete();
+    new File(SPILLED_FILE_PATH).delete();
+  }
+
+  @Test
+  public void testSpilledMetadataEqualsInMemoryMetadata() throws IOException {
+    TsFileIOWriter writer = new TsFileIOWriter(new File(FILE_PATH));
+    writeChunkGroups(writer);
+    writer.endFile();
+
+    // spill after every chunk group
+    TsFileIOWriter spilledWriter = new TsFileIOWriter(new File(SPILLED_FILE_PATH), 1);
+    writeChunkGroups(spilledWriter);
+    spilledWriter.endFile();
+    Assert.assertFalse(
+        new File(SPILLED_FILE_PATH + TsFileIOWriter.CHUNK_METADATA_TEMP_FILE_SUFFIX).exists());
+    Assert.assertFalse(
+        new File(SPILLED_FILE_PATH + TsFileIOWriter.SERIES_PATH_TEMP_FILE_SUFFIX).exists());
+    Assert.assertEquals(writer.getDeviceTimeRangeMap(), spilledWriter.getDeviceTimeRangeMap());
+
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(FILE_PATH);
+        TsFileSequenceReader spilledReader = new TsFileSequenceReader(SPILLED_FILE_PATH)) {
+      Map<String, List<TimeseriesMetadata>> expected = reader.getAllTimeseriesMetadata(true);
+      Map<String, List<TimeseriesMetadata>> actual = spilledReader.getAllTimeseriesMetadata(true);
+      Assert.assertEquals(expected.keySet(), actual.keySet());
+      for (Map.Entry<String, List<TimeseriesMetadata>> entry : expected.entrySet()) {
+        List<TimeseriesMetadata> expectedList = entry.getValue();
+        List<TimeseriesMetadata> actualList = actual.get(entry.getKey());
+        Assert.assertEquals(expectedList.size(), actualList.size());
+        for (int i = 0; i < expectedList.size(); i++) {
+          assertTimeseriesMetadataEquals(expectedList.get(i), actualList.get(i));
+        }
+      }
+      Assert.assertEquals(reader.getAllDevices(), spilledReader.getAllDevices());
+
+      BloomFilter bloomFilter = spilledReader.readFileMetadata().getBloomFilter();
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        String path = getDevice(i) + TsFileConstant.PATH_SEPARATOR + "s0";
+        Assert.assertTrue(bloomFilter.contains(path));
+      }
+    }
+  }
+
+  @Test
+  public void testNoSpillBelowThreshold() throws IOException {
+    TsFileIOWriter writer = new TsFileIOWriter(new File(FILE_PATH), Long.MAX_VALUE);
+    writeChunkGroups(writer);
+    writer.endFile();
+    Assert.assertFalse(
+        new File(FILE_PATH + TsFileIOWriter.CHUNK_METADATA_TEMP_FILE_SUFFIX).exists());
+    // the in-memory path still provides the TimeseriesMetadata for the tools
+    Assert.assertEquals(DEVICE_NUM + 1, writer.getDeviceTimeseriesMetadataMap().size());
+    Assert.assertEquals(
+        new TimeRange(0, CHUNK_GROUP_ROUND * 100L - 1),
+        writer.getDeviceTimeRangeMap().get(getDevice(0)));
+  }
+
+  private void assertTimeseriesMetadataEquals(
+      TimeseriesMetadata expected, TimeseriesMetadata actual) {
+    Assert.assertEquals(expected.getMeasurementId(), actual.getMeasurementId());
+    Assert.assertEquals(expected.getTSDataType(), actual.getTSDataType());
+    Assert.assertEquals(expected.getTimeSeriesMetadataType(), actual.getTimeSeriesMetadataType());
+    Assert.assertEquals(expected.getStatistics().toString(), actual.getStatistics().toString());
+    List<IChunkMetadata> expectedChunks = expected.getChunkMetadataList();
+    List<IChunkMetadata> actualChunks = actual.getChunkMetadataList();
+    Assert.assertEquals(expectedChunks.size(), actualChunks.size());
+    for (int i = 0; i < expectedChunks.size(); i++) {
+      Assert.assertEquals(
+          expectedChunks.get(i).getOffsetOfChunkHeader(),
+          actualChunks.get(i).getOffsetOfChunkHeader());
+      Assert.assertEquals(
+          expectedChunks.get(i).getStatistics().toString(),
+          actualChunks.get(i).getStatistics().toString());
+    }
+  }
+
+  private String getDevice(int deviceIndex) {
+    return "root.sg.d" + deviceIndex;
+  }
+
+  /** write several rounds of chunk groups for each device, including an aligned device */
+  private void writeChunkGroups(TsFileIOWriter writer) throws IOException {
+    for (int round = 0; round < CHUNK_GROUP_ROUND; round++) {
+      long startTime = round * 100L;
+      for (int i = 0; i < DEVICE_NUM; i++) {
+        writer.startChunkGroup(getDevice(i));
+        for (int j = 0; j < MEASUREMENT_NUM; j++) {
+          writeChunk(writer, "s" + j, startTime, 0);
+        }
+        writer.endChunkGroup();
+      }
+      writer.startChunkGroup("root.sg.d_aligned");
+      writeChunk(writer, "", startTime, TsFileConstant.TIME_COLUMN_MASK);
+      for (int j = 0; j < 2; j++) {
+        writeChunk(writer, "s" + j, startTime, TsFileConstant.VALUE_COLUMN_MASK);
+      }
+      writer.endChunkGroup();
+    }
+  }
+
+  private void writeChunk(TsFileIOWriter writer, String measurement, long startTime, int mask)
+      throws IOException {
+    Statistics statistics = Statistics.getStatsByType(TSDataType.INT64);
+    for (long time = startTime; time < startTime + 100; time++) {
+      statistics.update(time, time);
+    }
+    writer.startFlushChunk(
+        measurement,
+        CompressionType.UNCOMPRESSED,
+        TSDataType.INT64,
+        TSEncoding.PLAIN,
+        statistics,
+        0,
+        0,
+        mask);
+    writer.endCurrentChunk();
+  }
+}